@@ -2,11 +2,13 @@ package com.inventory.inventory_management;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for Inventory Management.
  */
 @SpringBootApplication
+@EnableScheduling
 public class InventoryManagementApplication {
 
 	/**
@@ -1,5 +1,9 @@
 package com.inventory.inventory_management.config;
 
+import com.inventory.inventory_management.service.TokenRevocationList;
+import com.inventory.inventory_management.service.UserStatusCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +16,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
@@ -24,6 +29,9 @@ import java.util.Map;
 
 /**
  * JwtFilter is a custom filter that intercepts HTTP requests to validate JWT tokens.
+ * The user is authenticated from the signed claims of the token alone, without a
+ * database lookup; tokens issued before roles were carried as claims fall back to
+ * loading the user. Refresh tokens and revoked tokens are refused.
  */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
@@ -37,6 +45,12 @@ public class JwtFilter extends OncePerRequestFilter {
     @Lazy
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired(required = false)
+    private UserStatusCache userStatusCache;
+
     /**
      * Filters incoming requests to validate JWT tokens and set the authentication context.
      *
@@ -57,23 +71,40 @@ public class JwtFilter extends OncePerRequestFilter {
             String token = authHeader.substring(7);
             logger.debug("JWT Token: {}", token);
 
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.getUsernameFromToken(token);
-                logger.debug("Username from Token: {}", username);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                // Set the authentication context
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.info("User authenticated: {}", username);
-            } else {
-                logger.warn("Invalid JWT Token");
+            Claims claims;
+            try {
+                claims = jwtUtil.parseClaims(token);
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.warn("Invalid JWT Token: {}", e.getMessage());
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "INVALID OR EXPIRED TOKEN");
                 return;  // stop here if invalid token
             }
+            if (JwtUtil.REFRESH_TOKEN.equals(claims.get(JwtUtil.TYPE_CLAIM, String.class))
+                    || tokenRevocationList.isRevoked(claims.getId())) {
+                logger.warn("Refresh or revoked token used for authentication: {}", claims.getId());
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "INVALID OR EXPIRED TOKEN");
+                return;
+            }
+            String username = claims.getSubject();
+            String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+            logger.debug("Username from Token: {}, role: {}", username, role);
+
+            if (role != null && userStatusCache != null && !userStatusCache.isCurrent(username, role)) {
+                logger.warn("Token of user {} is no longer current", username);
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "INVALID OR EXPIRED TOKEN");
+                return;
+            }
+
+            UserDetails userDetails = role != null
+                    ? User.withUsername(username).password("").roles(role).build()
+                    : userDetailsService.loadUserByUsername(username);
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            // Set the authentication context
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            logger.debug("User authenticated: {}", username);
         } else {
             logger.warn("Authorization header is missing or does not start with Bearer");
         }
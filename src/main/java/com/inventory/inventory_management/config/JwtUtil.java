@@ -1,18 +1,37 @@
 package com.inventory.inventory_management.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility class for handling JWT operations.
+ * The signing key and parser are built once at startup; the parser is not modified after
+ * that and is shared by all requests. Verified claims are cached by the SHA-256 digest of
+ * the token until the token expires, so a client sending the same token again is not
+ * verified and decoded again.
  */
 @Component
 public class JwtUtil {
@@ -25,24 +44,124 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.refresh-expiration:604800000}")
+    private long refreshExpiration = 604800000;
+
+    @Value("${jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled = true;
+
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize = 10000;
+
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    private Cache<String, Claims> verifiedTokens;
+
+    /**
+     * Name of the claim carrying the user's role, such as "USER" or "ADMIN".
+     */
+    public static final String ROLE_CLAIM = "role";
+
     /**
-     * Generates a JWT token for the given username.
+     * Name of the claim telling an access token from a refresh token.
+     */
+    public static final String TYPE_CLAIM = "token_type";
+
+    /**
+     * Type of a short-lived token that authenticates requests.
+     */
+    public static final String ACCESS_TOKEN = "access";
+
+    /**
+     * Type of a long-lived token that is only accepted to obtain new tokens.
+     */
+    public static final String REFRESH_TOKEN = "refresh";
+
+    /**
+     * Builds the signing key, the parser and the verified-token cache.
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS256.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+        if (verifiedCacheEnabled) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheMaximumSize)
+                    .expireAfter(new UntilTokenExpires())
+                    .build();
+        }
+        logger.info("JWT verification ready: verifiedCacheEnabled={}, maximumSize={}",
+                verifiedCacheEnabled, verifiedCacheMaximumSize);
+    }
+
+    /**
+     * Generates a JWT access token for the given user. The role is carried as a signed claim, so
+     * requests can be authenticated from the token alone. Each token has its own ID, by
+     * which it can be revoked.
      *
      * @param username the username
+     * @param role     the role of the user
      * @return the generated JWT token
      */
-    public String generateToken(String username) {
+    public String generateToken(String username, String role) {
         logger.debug("Generating token for username: {}", username);
         String token = Jwts.builder()
                 .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .claim(ROLE_CLAIM, role)
+                .claim(TYPE_CLAIM, ACCESS_TOKEN)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS256, secret)
+                .signWith(SignatureAlgorithm.HS256, signingKey)
                 .compact();
         logger.debug("Generated token: {}", token);
         return token;
     }
 
+    /**
+     * Generates a JWT refresh token for the given user, which lives for
+     * {@code jwt.refresh-expiration} and is only accepted to obtain new tokens.
+     *
+     * @param username the username
+     * @return the generated refresh token
+     */
+    public String generateRefreshToken(String username) {
+        logger.debug("Generating refresh token for username: {}", username);
+        return Jwts.builder()
+                .setSubject(username)
+                .setId(UUID.randomUUID().toString())
+                .claim(TYPE_CLAIM, REFRESH_TOKEN)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + refreshExpiration))
+                .signWith(SignatureAlgorithm.HS256, signingKey)
+                .compact();
+    }
+
+    /**
+     * Verifies the given JWT token and reads its claims, with a single parse. A token that
+     * was verified before and has not expired is answered from the cache. The returned
+     * claims may be shared between requests and must not be modified.
+     *
+     * @param token the JWT token
+     * @return the claims of the token
+     * @throws JwtException             if the token is invalid or expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public Claims parseClaims(String token) {
+        if (verifiedTokens == null || token == null || token.isEmpty()) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+        String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
     /**
      * Extracts the username from the given JWT token.
      *
@@ -51,7 +170,7 @@ public class JwtUtil {
      */
     public String getUsernameFromToken(String token) {
         logger.debug("Extracting username from token: {}", token);
-        String username = Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody().getSubject();
+        String username = parseClaims(token).getSubject();
         logger.debug("Extracted Username: {}", username);
         return username;
     }
@@ -65,7 +184,7 @@ public class JwtUtil {
     public boolean validateToken(String token) {
         try {
             logger.debug("Validating token: {}", token);
-            Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
+            parseClaims(token);
             logger.debug("Token is valid");
             return true;
         } catch (JwtException | IllegalArgumentException e) {
@@ -73,4 +192,38 @@ public class JwtUtil {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Keeps a verified token in the cache until its own expiration time.
+     */
+    private static class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+            Date expiresAt = claims.getExpiration();
+            if (expiresAt == null) {
+                return Long.MAX_VALUE;
+            }
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiresAt.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.inventory.inventory_management.service.CustomUserDetailsService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,15 +34,19 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     /**
-     * Bean for password encoding.
+     * Bean for password encoding. Passwords stored with another cost are re-encoded
+     * with this one on login.
      *
      * @return the password encoder
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        logger.debug("Creating BCryptPasswordEncoder bean");
-        return new BCryptPasswordEncoder();
+        logger.debug("Creating BCryptPasswordEncoder bean with strength {}", bcryptStrength);
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     /**
@@ -1,14 +1,18 @@
 package com.inventory.inventory_management.controller;
 
 import com.inventory.inventory_management.config.JwtUtil;
+import com.inventory.inventory_management.model.TokenRefreshRequest;
 import com.inventory.inventory_management.model.User;
 import com.inventory.inventory_management.repository.UserRepository;
 
 import com.inventory.inventory_management.service.CustomUserDetailsService;
+import com.inventory.inventory_management.service.PasswordHasher;
+import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +20,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -66,26 +72,74 @@ public class AuthController {
     }
 
     /**
-     * Logs in a user.
+     * Logs in a user. The response is completed once the password has been checked, without
+     * holding the request thread; when too many logins are in progress it is refused with 503.
      *
      * @param user the user to log in
-     * @return a response entity with a success message and token or an error message
+     * @return a future response entity with a success message and token or an error message
      */
 
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody User user) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> login(@RequestBody User user) {
         try {
-            Map<String, String> response = customUserDetailsService.login(user);
-            return ResponseEntity.ok(response);
+            return customUserDetailsService.login(user)
+                    .thenApply(response -> ResponseEntity.ok(response))
+                    .exceptionally(this::loginFailed);
         } catch (RuntimeException ex) {
+            return CompletableFuture.completedFuture(loginFailed(ex));
+        }
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token. The refresh token
+     * can be used only once.
+     *
+     * @param request the refresh token
+     * @return a response entity with the new tokens, or 401 if the refresh token is not valid
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refresh(@Valid @RequestBody TokenRefreshRequest request) {
+        try {
+            return ResponseEntity.ok(customUserDetailsService.refresh(request.getRefreshToken()));
+        } catch (CustomUserDetailsService.InvalidRefreshTokenException ex) {
+            logger.warn("Token refresh refused: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("error", "Unauthorized", "message", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Logs out by revoking the access token of the request and the given refresh token.
+     *
+     * @param authorization the Authorization header carrying the access token
+     * @param request       the refresh token to revoke as well, if any
+     * @return a response entity confirming the logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) TokenRefreshRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        customUserDetailsService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
+    }
+
+    private ResponseEntity<Map<String, String>> loginFailed(Throwable failure) {
+        Throwable ex = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (ex instanceof PasswordHasher.HasherBusyException) {
+            logger.warn("Login refused: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Service Unavailable", "message", ex.getMessage()));
+        }
+        if (ex instanceof RuntimeException) {
             logger.error("An error occurred during login: {}", ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", "Unauthorized", "message", ex.getMessage()));
-        } catch (Exception ex) {
-            logger.error("An unexpected error occurred during login", ex);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("error", "Internal Server Error", "message", "An error occurred during login"));
         }
+        logger.error("An unexpected error occurred during login", ex);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Internal Server Error", "message", "An error occurred during login"));
     }
     
 }
\ No newline at end of file
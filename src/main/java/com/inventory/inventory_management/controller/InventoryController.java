@@ -1,6 +1,8 @@
 package com.inventory.inventory_management.controller;
 
 
+import com.inventory.inventory_management.exception.UserMismatchException;
+import com.inventory.inventory_management.exception.VersionConflictException;
 import com.inventory.inventory_management.model.Product;
 import com.inventory.inventory_management.model.Response;
 import com.inventory.inventory_management.service.OrderService;
@@ -11,6 +13,7 @@ import jakarta.validation.constraints.NotNull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -52,6 +55,28 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Lists the inventory items whose stock is below their reorder threshold, largest shortfall first.
+     *
+     * @param limit the maximum number of items to return.
+     * @return ResponseEntity containing the low-stock items or an error message.
+     */
+    @GetMapping("/low-stock")
+    public ResponseEntity<Response> getLowStock(@RequestParam(defaultValue = "100") int limit) {
+        logger.info("Fetching up to {} low-stock inventory items", limit);
+        try {
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "success", productService.getLowStock(limit)));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid low-stock request: {}", ex.getMessage());
+            return ResponseEntity.badRequest().body(new Response(Constants.BAD, Constants.INVALID_INPUT, ex.getMessage()));
+        } catch (Exception ex) {
+            // Log and return error response
+            logger.error("Error occurred while fetching low-stock items: {}", ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while fetching low-stock items: " + ex.getMessage()));
+        }
+    }
+
     /**
      * Retrieves a specific inventory item by ID.
      *
@@ -63,7 +88,10 @@ public class InventoryController {
         logger.info("Fetching inventory item with ID: {}", id);
         try {
             // Fetch specific inventory item from the service
-            return ResponseEntity.ok(new Response(Constants.SUCCESS, "success", productService.getParticularInventory(id)));
+            com.inventory.inventory_management.entities.Product product = productService.getParticularInventory(id);
+            return ResponseEntity.ok()
+                    .eTag(Long.toString(product.getVersion()))
+                    .body(new Response(Constants.SUCCESS, "success", product));
         } catch (Exception ex) {
             // Log and return error response
             logger.error("Error occurred while fetching inventory item with ID {}: {}", id, ex.getMessage(), ex);
@@ -84,6 +112,10 @@ public class InventoryController {
         try {
             // Add new inventory item using the service
             return ResponseEntity.ok(new Response(Constants.SUCCESS, "Inventory item created successfully", productService.addInventory(product)));
+        } catch (UserMismatchException ex) {
+            logger.warn("Inventory item creation refused: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
         } catch (Exception ex) {
             // Log and return error response
             logger.error("Error occurred while adding inventory item: {}", ex.getMessage(), ex);
@@ -127,14 +159,18 @@ public class InventoryController {
      * @param price    the new price of the inventory item (optional).
      * @param quantity the new quantity of the inventory item (optional).
      * @param user     the user performing the update (mandatory).
-     * @return ResponseEntity containing the updated inventory item or an error message.
+     * @param ifMatch  the ETag of the version the client read; when present the update only
+     *                 applies to that version (optional).
+     * @return ResponseEntity containing the updated inventory item or an error message,
+     *         or 412 if the item no longer matches the If-Match header.
      */
     @PutMapping("/{id}")
     public ResponseEntity<Response> updateInventory(
             @PathVariable Long id,
             @RequestParam(required = false) Double price,  // Optional price
             @RequestParam(required = false) Integer quantity,  // Optional quantity
-            @RequestParam(required = true) String user) {  // Mandatory user
+            @RequestParam(required = true) String user,  // Mandatory user
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {  // Optional expected version
         logger.info("Updating inventory item with ID: {}", id);
         try {
             // Validate user input
@@ -149,11 +185,22 @@ public class InventoryController {
                 return ResponseEntity.badRequest().body(new Response("Error", "Invalid Input", "At least one of price or quantity must be provided"));
             }
 
+            Long expectedVersion;
+            try {
+                expectedVersion = parseVersion(ifMatch);
+            } catch (NumberFormatException ex) {
+                logger.warn("Malformed If-Match header for inventory item {}: {}", id, ifMatch);
+                return ResponseEntity.badRequest().body(new Response(Constants.BAD, Constants.INVALID_INPUT, "Malformed If-Match header"));
+            }
+
             // Call service to update the inventory with params
-            Response response = productService.updateInventory(id, price, quantity, user);
+            Response response = productService.updateInventory(id, price, quantity, user, expectedVersion);
 
             if (response != null) {
                 logger.info("Successfully updated inventory item with ID: {}", id);
+                if (response.getData() instanceof com.inventory.inventory_management.entities.Product updated) {
+                    return ResponseEntity.ok().eTag(Long.toString(updated.getVersion())).body(response);
+                }
                 return ResponseEntity.ok(response); // Successful response
             }
 
@@ -161,6 +208,18 @@ public class InventoryController {
             logger.warn("Inventory update failed for ID: {}", id);
             return ResponseEntity.badRequest().body(new Response("Error", "Inventory update failed", "Invalid product ID"));
 
+        } catch (VersionConflictException ex) {
+            // The client's copy is stale; it has to read the item again before retrying
+            logger.warn("Precondition failed for inventory item {}: {}", id, ex.getMessage());
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+            if (ex.getCurrentVersion() != null) {
+                builder.eTag(Long.toString(ex.getCurrentVersion()));
+            }
+            return builder.body(new Response(Constants.ERROR, "Precondition Failed", ex.getMessage()));
+        } catch (UserMismatchException ex) {
+            logger.warn("Inventory update refused for item {}: {}", id, ex.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
         } catch (Exception ex) {
             // Log and return error response
             logger.error("Error occurred while updating inventory item with ID {}: {}", id, ex.getMessage(), ex);
@@ -168,4 +227,54 @@ public class InventoryController {
                     .body(new Response("Error", "Internal Server Error", "An error occurred while updating inventory item: " + ex.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the stock level below which an inventory item should be reordered.
+     *
+     * @param id        the ID of the inventory item.
+     * @param threshold the new reorder threshold, or 0 to turn reorder alerts off.
+     * @param user      the user performing the update (mandatory).
+     * @return ResponseEntity containing the updated inventory item or an error message.
+     */
+    @PutMapping("/{id}/reorder-threshold")
+    public ResponseEntity<Response> setReorderThreshold(@PathVariable Long id,
+                                                        @RequestParam int threshold,
+                                                        @RequestParam String user) {
+        logger.info("Setting reorder threshold of inventory item {} to {}", id, threshold);
+        try {
+            com.inventory.inventory_management.entities.Product updated = productService.setReorderThreshold(id, threshold, user);
+            return ResponseEntity.ok()
+                    .eTag(Long.toString(updated.getVersion()))
+                    .body(new Response(Constants.SUCCESS, "Reorder threshold updated successfully", updated));
+        } catch (UserMismatchException ex) {
+            logger.warn("Reorder threshold update refused for inventory item {}: {}", id, ex.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid reorder threshold for inventory item {}: {}", id, ex.getMessage());
+            return ResponseEntity.badRequest().body(new Response(Constants.BAD, Constants.INVALID_INPUT, ex.getMessage()));
+        } catch (Exception ex) {
+            // Log and return error response
+            logger.error("Error occurred while setting reorder threshold of inventory item {}: {}", id, ex.getMessage(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while setting reorder threshold: " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Extracts the product version from an If-Match header value.
+     *
+     * @param ifMatch the header value, such as "3" or W/"3"
+     * @return the version, or null when the header is absent or "*"
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        return Long.parseLong(tag.replace("\"", ""));
+    }
+}
@@ -1,6 +1,15 @@
 package com.inventory.inventory_management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.exception.UserMismatchException;
+import com.inventory.inventory_management.model.OrderCancelResult;
+import com.inventory.inventory_management.model.OrderIntakeStatus;
+import com.inventory.inventory_management.model.OrderPage;
+import com.inventory.inventory_management.model.OrderStatusBatchRequest;
+import com.inventory.inventory_management.service.BulkOrderService;
+import com.inventory.inventory_management.service.IdempotencyService;
+import com.inventory.inventory_management.service.OrderIntakeService;
 import com.inventory.inventory_management.service.OrderService;
 import com.inventory.inventory_management.model.Response;
 import com.inventory.inventory_management.util.Constants;
@@ -8,11 +17,23 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller for managing orders.
@@ -25,29 +46,114 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    // Present only when inventory.order-intake.async-enabled=true; orders are then placed in the background
+    @Autowired(required = false)
+    private OrderIntakeService orderIntakeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private static final Logger logger = LogManager.getLogger(OrderController.class);
 
     /**
-     * Creates a new order.
+     * Creates a new order. With asynchronous intake enabled the order is queued instead and
+     * the response is 202 with a token to poll, or 429 when the queue is full.
      *
-     * @param order the order to create
-     * @return a response entity with the created order or an error message
+     * @param order          the order to create
+     * @param idempotencyKey the client's Idempotency-Key; a retry with the same key replays the first response
+     * @return a response entity with the created order, the intake token or an error message
      */
     @PostMapping("/add")
-    public ResponseEntity<Response> createOrder(@Valid @RequestBody com.inventory.inventory_management.model.Order order) {
+    public ResponseEntity<Response> createOrder(@Valid @RequestBody com.inventory.inventory_management.model.Order order,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.info("Creating new order: {}", order);
-        try {
-            Order createdOrder = orderService.createOrder(order);
-            if (createdOrder != null) {
-                logger.info("Order created successfully: {}", createdOrder);
-                return ResponseEntity.ok(new Response(Constants.SUCCESS, "Order created successfully", createdOrder));
+        return idempotencyService.execute(idempotencyKey, List.of("createOrder", order), () -> {
+            if (orderIntakeService != null) {
+                return enqueueOrder(order);
             }
-            logger.warn("Order creation failed for order: {}", order);
-            return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Order creation failed", "Invalid Order"));
-        } catch (Exception ex) {
-            logger.error("An error occurred while creating the order: {}", ex.getMessage(), ex);
-            return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Order creation failed", ex.getMessage()));
+            try {
+                Order createdOrder = orderService.createOrder(order);
+                if (createdOrder != null) {
+                    logger.info("Order created successfully: {}", createdOrder);
+                    return ResponseEntity.ok(new Response(Constants.SUCCESS, "Order created successfully", createdOrder));
+                }
+                logger.warn("Order creation failed for order: {}", order);
+                return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Order creation failed", "Invalid Order"));
+            } catch (UserMismatchException ex) {
+                logger.warn("Order creation refused: {}", ex.getMessage());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
+            } catch (Exception ex) {
+                logger.error("An error occurred while creating the order: {}", ex.getMessage(), ex);
+                return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Order creation failed", ex.getMessage()));
+            }
+        });
+    }
+
+    private ResponseEntity<Response> enqueueOrder(com.inventory.inventory_management.model.Order order) {
+        Optional<String> token = orderIntakeService.submit(order);
+        if (token.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new Response(Constants.ERROR, "Too many orders", "The order queue is full, retry later"));
         }
+        logger.info("Order accepted for placement with token {}", token.get());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new Response(Constants.SUCCESS, "Order accepted",
+                new OrderIntakeStatus(token.get(), OrderIntakeStatus.QUEUED, null, null)));
+    }
+
+    /**
+     * Retrieves the status of an order accepted for asynchronous placement.
+     *
+     * @param token the token returned when the order was accepted
+     * @return a response entity with the status of the order or an error message
+     */
+    @GetMapping("/intake/{token}")
+    public ResponseEntity<Response> getIntakeStatus(@PathVariable String token) {
+        if (orderIntakeService == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new Response(Constants.ERROR, "Not found", "Asynchronous order intake is not enabled"));
+        }
+        return orderIntakeService.getStatus(token)
+                .map(status -> ResponseEntity.ok(new Response(Constants.SUCCESS, "Order status fetched successfully", status)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new Response(Constants.ERROR, "Not found", "Unknown or expired order token")));
+    }
+
+    /**
+     * Places a bulk upload of orders, one JSON order per line (NDJSON).
+     * The upload is read and placed chunk by chunk while the per-line results are streamed
+     * back as NDJSON, so neither the upload nor the results are held in memory as a whole.
+     *
+     * @param body the NDJSON upload
+     * @return a stream with one result per order line, in upload order
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> bulkCreateOrders(InputStream body) {
+        logger.info("Receiving bulk order upload");
+        StreamingResponseBody results = out -> {
+            try {
+                bulkOrderService.importOrders(new InputStreamReader(body, StandardCharsets.UTF_8), result -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(result));
+                        out.write('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (Exception ex) {
+                // The status is already sent, so the client sees the results stop early
+                logger.error("An error occurred while processing the bulk order upload: {}", ex.getMessage(), ex);
+                throw ex;
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(results);
     }
 
     /**
@@ -76,22 +182,39 @@ public class OrderController {
     }
 
     /**
-     * Retrieves all orders.
+     * Retrieves one page of orders, newest first, optionally filtered.
+     * Pages are read with a keyset cursor, so deep pages cost the same as the first one.
      *
-     * @return a response entity with the list of orders or an error message
+     * @param status    the status to match, or none for any
+     * @param createdBy the user who placed the orders, or none for any
+     * @param from      the inclusive start of the creation time range, or none for no bound
+     * @param to        the exclusive end of the creation time range, or none for no bound
+     * @param cursor    the cursor returned with the previous page, or none for the first page
+     * @param limit     the maximum number of orders to return
+     * @return a response entity with the page of orders or an error message
      */
     @GetMapping
-    public ResponseEntity<Response> getAllOrders() {
-        logger.info("Fetching all orders");
+    public ResponseEntity<Response> getAllOrders(@RequestParam(required = false) String status,
+                                                 @RequestParam(required = false) String createdBy,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Fetching orders: status={}, createdBy={}, from={}, to={}, limit={}", status, createdBy, from, to, limit);
         try {
-            List<Order> orders = orderService.getAllOrders();
-            if (orders.isEmpty()) {
-                logger.warn("No data found in the orders table");
+            OrderPage page = orderService.getOrders(status, createdBy, from == null ? null : Timestamp.valueOf(from),
+                    to == null ? null : Timestamp.valueOf(to), cursor, limit);
+            if (page.getOrders().isEmpty() && (cursor == null || cursor.isBlank())) {
+                logger.warn("No orders found for the given filters");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(new Response(Constants.ERROR, "No data in database", "The orders table is empty"));
+                        .body(new Response(Constants.ERROR, "No data in database", "No orders match the given filters"));
             }
-            logger.info("Orders fetched successfully: {}", orders);
-            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Orders fetched successfully", orders));
+            logger.info("Orders fetched successfully: {} orders", page.getOrders().size());
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Orders fetched successfully", page));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid order query: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new Response(Constants.ERROR, "Invalid request", ex.getMessage()));
         } catch (Exception ex) {
             logger.error("An error occurred while fetching all orders", ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -118,6 +241,10 @@ public class OrderController {
             }
             logger.warn("Order update failed for order ID: {}", id);
             return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Order update failed", "Invalid Order"));
+        } catch (UserMismatchException ex) {
+            logger.warn("Order update refused for order ID {}: {}", id, ex.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
         } catch (Exception ex) {
             logger.error("An error occurred while updating the order with ID: {}", id, ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -125,6 +252,68 @@ public class OrderController {
         }
     }
 
+    /**
+     * Moves many orders to one status at once.
+     *
+     * @param request the IDs of the orders, the new status and the user making the change
+     * @return a response entity with the outcome for each order or an error message
+     */
+    @PutMapping("/status")
+    public ResponseEntity<Response> updateOrderStatuses(@Valid @RequestBody OrderStatusBatchRequest request) {
+        logger.info("Updating status of {} orders to {} by user: {}", request.getOrderIds().size(), request.getStatus(), request.getUser());
+        try {
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Order statuses updated", orderService.updateOrderStatuses(request)));
+        } catch (UserMismatchException ex) {
+            logger.warn("Order status update refused: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid order status update: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new Response(Constants.ERROR, "Invalid request", ex.getMessage()));
+        } catch (IllegalStateException ex) {
+            logger.warn("Order status update conflicted: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new Response(Constants.ERROR, "Order status update failed", ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("An error occurred while updating order statuses", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while updating order statuses: " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Cancels many orders, either by ID or by filter, such as all processing orders of one user.
+     * The orders are deleted and the units they still hold are put back.
+     *
+     * @param ids       the IDs of the orders, or none to cancel by filter
+     * @param status    the status to match when canceling by filter, or none for any
+     * @param createdBy the user who placed the orders when canceling by filter, or none for any
+     * @return a response entity with the counts of canceled orders and restocked units or an error message
+     */
+    @DeleteMapping
+    public ResponseEntity<Response> cancelOrders(@RequestParam(required = false) List<Long> ids,
+                                                 @RequestParam(required = false) String status,
+                                                 @RequestParam(required = false) String createdBy) {
+        logger.info("Canceling orders: ids={}, status={}, createdBy={}", ids == null ? 0 : ids.size(), status, createdBy);
+        try {
+            if (ids != null && (status != null || createdBy != null)) {
+                return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Invalid request",
+                        "Cancel orders either by ID or by filter, not both"));
+            }
+            OrderCancelResult result = ids != null ? orderService.cancelOrders(ids) : orderService.cancelOrdersMatching(status, createdBy);
+            logger.info("Orders canceled: {}", result);
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Orders canceled", result));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid order cancellation: {}", ex.getMessage());
+            return ResponseEntity.badRequest().body(new Response(Constants.ERROR, "Invalid request", ex.getMessage()));
+        } catch (Exception ex) {
+            logger.error("An error occurred while canceling orders", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while canceling orders: " + ex.getMessage()));
+        }
+    }
+
     /**
      * Cancels an order.
      *
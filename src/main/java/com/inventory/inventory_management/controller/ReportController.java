@@ -1,7 +1,7 @@
 package com.inventory.inventory_management.controller;
 
-import com.inventory.inventory_management.entities.Order;
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.OrderView;
 import com.inventory.inventory_management.model.Response;
 import com.inventory.inventory_management.service.ReportService;
 import com.inventory.inventory_management.util.Constants;
@@ -11,13 +11,17 @@ import lombok.RequiredArgsConstructor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -60,13 +64,17 @@ public class ReportController {
      * This method fetches a list of orders from the ReportService and returns them as part of a response entity.
      * In case of an error, a detailed error message is logged and returned.
      *
+     * @param from the inclusive start of the creation time range, or none for no bound
+     * @param to   the exclusive end of the creation time range, or none for no bound
      * @return a response entity containing the order report or an error message.
      */
     @GetMapping("/orders")
-    public ResponseEntity<Response> getOrderReport() {
+    public ResponseEntity<Response> getOrderReport(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         try {
-            logger.info("Fetching order report"); // Log the info message before fetching the order report
-            List<Order> orders = reportService.getOrderReport(); // Call the service method to get the order report
+            logger.info("Fetching order report: from={}, to={}", from, to); // Log the info message before fetching the order report
+            List<OrderView> orders = reportService.getOrderReport(from == null ? null : Timestamp.valueOf(from),
+                    to == null ? null : Timestamp.valueOf(to)); // Call the service method to get the order report
             logger.info("Order report fetched successfully"); // Log successful fetching of the report
             return ResponseEntity.ok(new Response(Constants.SUCCESS, "Order report fetched successfully", orders));
         } catch (Exception ex) {
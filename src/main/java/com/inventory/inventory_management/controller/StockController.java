@@ -1,14 +1,28 @@
 package com.inventory.inventory_management.controller;
 
+import com.inventory.inventory_management.exception.StockBatchRejectedException;
 import com.inventory.inventory_management.model.Response;
+import com.inventory.inventory_management.model.StockBatchRequest;
+import com.inventory.inventory_management.service.IdempotencyService;
 import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.StockJournal;
+import com.inventory.inventory_management.service.StockReservationService;
+import com.inventory.inventory_management.service.StockStreamService;
 import com.inventory.inventory_management.util.Constants;
+import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Controller for managing stock operations.
@@ -21,6 +35,18 @@ public class StockController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private StockJournal stockJournal;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private StockStreamService stockStreamService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     // Logger to log info, error, and debug messages for the application
     private static final Logger logger = LogManager.getLogger(StockController.class);
 
@@ -29,27 +55,31 @@ public class StockController {
      *
      * @param productId the ID of the product to which stock will be added
      * @param quantity  the quantity of stock to add
+     * @param idempotencyKey the client's Idempotency-Key; a retry with the same key replays the first response
      * @return a response entity containing the result of the operation or an error message
      */
     @PostMapping("/add")
-    public ResponseEntity<Response> addStock(@RequestParam Long productId, @RequestParam int quantity) {
+    public ResponseEntity<Response> addStock(@RequestParam Long productId, @RequestParam int quantity,
+                                             @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.info("Adding stock: productId={}, quantity={}", productId, quantity);
-        try {
-            // Validate quantity
-            if (quantity < 1) {
-                logger.warn("Invalid quantity: {}", quantity);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(new Response(Constants.ERROR, "Invalid quantity", "Quantity must be greater than or equal to 1"));
-            }
+        return idempotencyService.execute(idempotencyKey, List.of("addStock", productId, quantity), () -> {
+            try {
+                // Validate quantity
+                if (quantity < 1) {
+                    logger.warn("Invalid quantity: {}", quantity);
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(new Response(Constants.ERROR, "Invalid quantity", "Quantity must be greater than or equal to 1"));
+                }
 
-            // Call the service to add stock
-            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock added successfully", productService.addStock(productId, quantity)));
-        } catch (Exception ex) {
-            // Log and return error response
-            logger.error("An error occurred while adding stock: productId={}, quantity={}", productId, quantity, ex);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while adding stock: " + ex.getMessage()));
-        }
+                // Call the service to add stock
+                return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock added successfully", productService.addStock(productId, quantity)));
+            } catch (Exception ex) {
+                // Log and return error response
+                logger.error("An error occurred while adding stock: productId={}, quantity={}", productId, quantity, ex);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while adding stock: " + ex.getMessage()));
+            }
+        });
     }
 
     /**
@@ -57,28 +87,98 @@ public class StockController {
      *
      * @param productId the ID of the product from which stock will be removed
      * @param quantity  the quantity of stock to remove
+     * @param idempotencyKey the client's Idempotency-Key; a retry with the same key replays the first response
      * @return a response entity containing the result of the operation or an error message
      */
     @PostMapping("/remove")
-    public ResponseEntity<Response> removeStock(@RequestParam Long productId, @RequestParam int quantity) {
+    public ResponseEntity<Response> removeStock(@RequestParam Long productId, @RequestParam int quantity,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         logger.info("Removing stock: productId={}, quantity={}", productId, quantity);
-        try {
-            // Validate quantity
-            if (quantity < 1) {
-                logger.warn("Invalid quantity: {}", quantity);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .body(new Response(Constants.ERROR, "Invalid quantity", "Quantity must be greater than or equal to 1"));
+        return idempotencyService.execute(idempotencyKey, List.of("removeStock", productId, quantity), () -> {
+            try {
+                // Validate quantity
+                if (quantity < 1) {
+                    logger.warn("Invalid quantity: {}", quantity);
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(new Response(Constants.ERROR, "Invalid quantity", "Quantity must be greater than or equal to 1"));
+                }
+
+                // Call the service to remove stock
+                return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock removed successfully", productService.removeStock(productId, quantity)));
+            } catch (Exception ex) {
+                // Log and return error response
+                logger.error("An error occurred while removing stock: productId={}, quantity={}", productId, quantity, ex);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while removing stock: " + ex.getMessage()));
             }
+        });
+    }
 
-            // Call the service to remove stock
-            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock removed successfully", productService.removeStock(productId, quantity)));
+    /**
+     * Applies a batch of signed stock movements in one transaction.
+     *
+     * @param request        the movements to apply and whether bad lines are skipped or fail the batch
+     * @param idempotencyKey the client's Idempotency-Key; a retry with the same key replays the first response
+     * @return a response entity containing the per-line results or an error message
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Response> applyStockBatch(@Valid @RequestBody StockBatchRequest request,
+                                                    @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        logger.info("Applying stock batch: lines={}, skipInvalid={}", request.getMovements().size(), request.isSkipInvalid());
+        return idempotencyService.execute(idempotencyKey, List.of("applyStockBatch", request), () -> {
+            try {
+                return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock batch processed", productService.applyStockBatch(request)));
+            } catch (StockBatchRejectedException ex) {
+                logger.warn("Stock batch rejected: lines={}", request.getMovements().size());
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new Response(Constants.ERROR, ex.getMessage(), ex.getResults()));
+            } catch (Exception ex) {
+                // Log and return error response
+                logger.error("An error occurred while applying stock batch", ex);
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while applying stock batch: " + ex.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Splits a product's stock across several shard rows to spread row-lock contention
+     * on hot products, or collapses it back into the products row when count is 0.
+     *
+     * @param id    the ID of the product to shard
+     * @param count the number of shards, or 0 to stop sharding
+     * @return a response entity containing the stock level or an error message
+     */
+    @PostMapping("/{id}/shards")
+    public ResponseEntity<Response> setStockShards(@PathVariable Long id, @RequestParam int count) {
+        logger.info("Sharding stock: productId={}, shards={}", id, count);
+        try {
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock sharding updated successfully", productService.setStockShards(id, count)));
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            logger.warn("Invalid stock sharding request for productId={}: {}", id, ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new Response(Constants.ERROR, "Invalid request", ex.getMessage()));
         } catch (Exception ex) {
             // Log and return error response
-            logger.error("An error occurred while removing stock: productId={}, quantity={}", productId, quantity, ex);
+            logger.error("An error occurred while sharding stock for productId={}", id, ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while removing stock: " + ex.getMessage()));
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while sharding stock: " + ex.getMessage()));
         }
     }
+
+    /**
+     * Streams committed stock changes as Server-Sent Events, so clients can stop polling stock levels.
+     * Changes to a product are folded into at most one "stock" event per publish interval.
+     *
+     * @param productIds the products to follow, comma separated, or none for every product
+     * @return the event stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockChanges(@RequestParam(required = false) List<Long> productIds) {
+        logger.info("Opening stock stream for productIds={}", productIds);
+        return stockStreamService.subscribe(productIds);
+    }
+
     /**
      * Retrieves the stock level of a product.
      *
@@ -98,4 +198,97 @@ public class StockController {
                     .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while retrieving stock level: " + ex.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the stock levels of several products in one call, such as for a cart.
+     *
+     * @param ids the IDs of the products, comma separated
+     * @return a response entity containing a map of product ID to quantity or an error message
+     */
+    @GetMapping
+    public ResponseEntity<Response> getStockLevels(@RequestParam List<Long> ids) {
+        logger.info("Retrieving stock levels for {} products", ids.size());
+        return stockLevels(ids);
+    }
+
+    /**
+     * Retrieves the stock levels of a list of products too long for a query string.
+     *
+     * @param ids the IDs of the products
+     * @return a response entity containing a map of product ID to quantity or an error message
+     */
+    @PostMapping("/levels")
+    public ResponseEntity<Response> postStockLevels(@RequestBody List<Long> ids) {
+        logger.info("Retrieving stock levels for {} products", ids.size());
+        return stockLevels(ids);
+    }
+
+    private ResponseEntity<Response> stockLevels(List<Long> ids) {
+        try {
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock levels retrieved successfully", productService.getStockLevels(ids)));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid stock level request: {}", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new Response(Constants.ERROR, "Invalid request", ex.getMessage()));
+        } catch (Exception ex) {
+            // Log and return error response
+            logger.error("An error occurred while retrieving stock levels", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while retrieving stock levels: " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Retrieves how much of a product can be sold and how much is held for unshipped orders.
+     *
+     * @param id the ID of the product
+     * @return a response entity containing the availability or an error message
+     */
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<Response> getStockAvailability(@PathVariable Long id) {
+        logger.info("Retrieving stock availability for productId={}", id);
+        try {
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock availability retrieved successfully",
+                    stockReservationService.getAvailability(id)));
+        } catch (Exception ex) {
+            // Log and return error response
+            logger.error("An error occurred while retrieving stock availability for productId={}", id, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while retrieving stock availability: " + ex.getMessage()));
+        }
+    }
+
+    /**
+     * Retrieves the stock movements of a product within a time range, in the order they were recorded.
+     * Pages are read with a keyset cursor, so deep pages cost the same as the first one.
+     *
+     * @param id     the ID of the product whose movements will be retrieved
+     * @param from   the inclusive start of the range, or none for the beginning of the journal
+     * @param to     the exclusive end of the range, or none for now
+     * @param cursor the cursor returned with the previous page, or none for the first page
+     * @param limit  the maximum number of movements to return
+     * @return a response entity containing the page of movements or an error message
+     */
+    @GetMapping("/{id}/movements")
+    public ResponseEntity<Response> getStockMovements(@PathVariable Long id,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Retrieving stock movements for productId={}, from={}, to={}", id, from, to);
+        try {
+            return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock movements retrieved successfully",
+                    stockJournal.getMovements(id, from == null ? null : Timestamp.valueOf(from),
+                            to == null ? null : Timestamp.valueOf(to), cursor, limit)));
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Invalid stock movement query for productId={}: {}", id, ex.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new Response(Constants.ERROR, "Invalid request", ex.getMessage()));
+        } catch (Exception ex) {
+            // Log and return error response
+            logger.error("An error occurred while retrieving stock movements for productId={}", id, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response(Constants.ERROR, "Internal Server Error", "An error occurred while retrieving stock movements: " + ex.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Entity class representing a shipped or canceled order moved out of the orders table
+ * by the archiver. The columns are those of the order, keyed by the order's own ID; the
+ * product is kept as a plain ID so archived orders do not depend on the product still existing.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_created", columnList = "created_at, id")
+})
+public class ArchivedOrder {
+
+    /**
+     * The ID the order had in the orders table.
+     */
+    @Id
+    private Long id;
+
+    /**
+     * The ID of the product ordered.
+     */
+    @Column(name = "product_id")
+    private Long productId;
+
+    /**
+     * The quantity of the product ordered.
+     */
+    private int quantity;
+
+    /**
+     * The total price of the order.
+     */
+    private double totalPrice;
+
+    /**
+     * The final status of the order, SHIPPED or CANCELED.
+     */
+    @Column(name = "status")
+    private String status;
+
+    /**
+     * The timestamp when the order was created.
+     */
+    @Column(name = "created_at")
+    private Timestamp createdAt;
+
+    /**
+     * The timestamp when the order was last updated.
+     */
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    /**
+     * The user who created the order.
+     */
+    @Column(name = "created_by")
+    private String createdBy;
+
+    /**
+     * The user who last updated the order.
+     */
+    @Column(name = "updated_by")
+    private String updatedBy;
+
+    /**
+     * The timestamp when the order was archived.
+     */
+    @Column(name = "archived_at")
+    private Timestamp archivedAt;
+}
@@ -0,0 +1,62 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Entity class representing the stored response of a request made with an Idempotency-Key.
+ * A retry carrying the same key is answered from this record instead of being applied again.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+
+    /**
+     * The key sent by the client, prefixed with the user who sent it.
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 320)
+    private String key;
+
+    /**
+     * Hash of the request the key was first used for.
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /**
+     * The HTTP status of the stored response.
+     */
+    @Column(name = "status_code", nullable = false)
+    private int statusCode;
+
+    /**
+     * The stored response body, as JSON.
+     */
+    @Lob
+    @Column(name = "response_body", nullable = false)
+    private String responseBody;
+
+    /**
+     * Timestamp when the response was stored.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Timestamp createdAt;
+
+    /**
+     * Timestamp after which the key may be reused.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Timestamp expiresAt;
+}
@@ -16,20 +16,32 @@ import java.sql.Timestamp;
 @NoArgsConstructor
 @Data
 @Builder
-@Table(name="orders")
+@Table(name="orders", indexes = {
+        @Index(name = "idx_orders_created", columnList = "created_at, id"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_status_updated", columnList = "status, updated_at, id"),
+        @Index(name = "idx_orders_created_by_created", columnList = "created_by, created_at, id")
+})
 public class Order {
 
     /**
      * Unique identifier for the order.
+     * Taken from the id_generators table in blocks of 50 rather than from an identity column,
+     * so Hibernate can send order inserts as JDBC batches. The block counter is raised past
+     * the existing orders at startup, see {@code db/seed-id-generators.sql}.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_ids")
+    @TableGenerator(name = "orders_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", initialValue = 1, allocationSize = 50)
     private Long id;
 
     /**
      * The product associated with the order.
+     * Loaded on first access; listings and reports read the product's ID and name
+     * through {@link com.inventory.inventory_management.model.OrderView} instead.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Product productId;
 
     /**
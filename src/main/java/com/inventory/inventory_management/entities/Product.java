@@ -1,5 +1,6 @@
 package com.inventory.inventory_management.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -18,6 +19,8 @@ import java.sql.Timestamp;
 @NoArgsConstructor
 @Builder
 @Entity
+// An order's product may be a lazy proxy; its Hibernate internals are not part of the JSON
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Table(name = "products", uniqueConstraints = {
         @UniqueConstraint(columnNames = "name")
 })
@@ -48,6 +51,29 @@ public class Product {
     @Column(name="quantity_in_stock")
     private int quantity;
 
+    /**
+     * Number of stock shards holding the product's stock, or 0 when the stock is held
+     * in quantity_in_stock alone. For a sharded product, quantity_in_stock is a copy
+     * of the shard total refreshed by the background rebalancer.
+     */
+    @Column(name = "shard_count", nullable = false)
+    private int shardCount;
+
+    /**
+     * Stock level below which the product should be reordered, or 0 for no reorder alerts.
+     */
+    @Min(0)
+    @Column(name = "reorder_threshold", nullable = false)
+    private int reorderThreshold;
+
+    /**
+     * Version of the row, incremented by every update including the atomic stock updates.
+     * A save carrying an older version fails, and clients use it as the product's ETag.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     /**
      * Price of the product.
      */
@@ -0,0 +1,49 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Entity class representing a JWT revoked before its expiry, by logout or by refresh
+ * token rotation. A row is only needed until the token would have expired anyway.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expires", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    /**
+     * The ID (jti claim) of the revoked token.
+     */
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    /**
+     * The username the token was issued to.
+     */
+    @Column(name = "username")
+    private String username;
+
+    /**
+     * The time the token expires.
+     */
+    @Column(name = "expires_at")
+    private Timestamp expiresAt;
+
+    /**
+     * The time the token was revoked.
+     */
+    @Column(name = "revoked_at")
+    private Timestamp revokedAt;
+}
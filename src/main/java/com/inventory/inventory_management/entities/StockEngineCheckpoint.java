@@ -0,0 +1,30 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class recording how far the stock engine's write-ahead log
+ * has been flushed to the products table.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "stock_engine_checkpoint")
+public class StockEngineCheckpoint {
+
+    /**
+     * Identifier of the checkpoint row. There is only ever one row.
+     */
+    @Id
+    private Integer id;
+
+    /**
+     * Sequence number of the last write-ahead log record applied to the products table.
+     */
+    @Column(name = "last_sequence")
+    private long lastSequence;
+}
@@ -0,0 +1,70 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Entity class representing one entry of the append-only stock movement journal.
+ * Rows are only ever inserted, never updated.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "stock_movements", indexes = {
+        @Index(name = "idx_stock_movements_product_id", columnList = "product_id, id")
+})
+public class StockMovementRecord {
+
+    public static final String ADD = "ADD";
+    public static final String REMOVE = "REMOVE";
+    public static final String BATCH = "BATCH";
+    public static final String ADJUST = "ADJUST";
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+    public static final String ORDER_CANCELED = "ORDER_CANCELED";
+    public static final String RESERVATION_EXPIRED = "RESERVATION_EXPIRED";
+    public static final String RESERVATION_RECLAIMED = "RESERVATION_RECLAIMED";
+
+    /**
+     * Unique identifier for the movement.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The ID of the product whose stock moved.
+     */
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * The signed stock change.
+     */
+    @Column(nullable = false)
+    private int delta;
+
+    /**
+     * Why the stock moved, such as ADD, REMOVE or ORDER_PLACED.
+     */
+    @Column(nullable = false, length = 32)
+    private String reason;
+
+    /**
+     * The user who caused the movement.
+     */
+    @Column(name = "created_by")
+    private String createdBy;
+
+    /**
+     * The timestamp when the movement happened.
+     */
+    @Column(name = "created_at", nullable = false)
+    private Timestamp createdAt;
+}
@@ -0,0 +1,78 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Entity class representing the units held for an order until it ships.
+ * The units leave the available stock when the order is placed. Shipping the order
+ * consumes the reservation; cancelling the order or letting it expire releases the
+ * units back to the available stock.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "stock_reservations", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_reservations_order", columnNames = "order_id")
+}, indexes = {
+        @Index(name = "idx_stock_reservations_status", columnList = "status")
+})
+public class StockReservation {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String CONSUMED = "CONSUMED";
+    public static final String RELEASED = "RELEASED";
+
+    /**
+     * Unique identifier for the reservation.
+     * Taken from the id_generators table in blocks of 50 so reservations can be inserted in JDBC batches.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "stock_reservations_ids")
+    @TableGenerator(name = "stock_reservations_ids", table = "id_generators", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "stock_reservations", initialValue = 1, allocationSize = 50)
+    private Long id;
+
+    /**
+     * The ID of the order the units are held for.
+     */
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    /**
+     * The ID of the reserved product.
+     */
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * The number of units held.
+     */
+    @Column(nullable = false)
+    private int quantity;
+
+    /**
+     * ACTIVE while the units are held, then CONSUMED or RELEASED.
+     */
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    /**
+     * When an active reservation expires and its units are released, if expiry is enabled.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Timestamp expiresAt;
+
+    /**
+     * Timestamp when the reservation was created.
+     */
+    @Column(name = "created_at")
+    private Timestamp createdAt;
+}
@@ -0,0 +1,47 @@
+package com.inventory.inventory_management.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class representing one sub-counter of a product whose stock is sharded.
+ * The stock of such a product is the sum of its shards.
+ */
+@Entity
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "stock_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_shards_product_shard", columnNames = {"product_id", "shard_index"})
+})
+public class StockShard {
+
+    /**
+     * Unique identifier for the shard.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The ID of the product the shard belongs to.
+     */
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * Position of the shard, from 0 to the product's shard count minus one.
+     */
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    /**
+     * Units held by this shard.
+     */
+    @Column(nullable = false)
+    private int quantity;
+}
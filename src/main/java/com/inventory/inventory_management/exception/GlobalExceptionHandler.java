@@ -35,6 +35,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new Response(Constants.ERROR, Constants.INVALID_INPUT, errorMessage));
     }
 
+    /**
+     * Handles requests that name a user other than the authenticated one.
+     *
+     * @param ex the UserMismatchException
+     * @return a forbidden response with the error message
+     */
+    @ExceptionHandler(UserMismatchException.class)
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    public ResponseEntity<Response> handleUserMismatch(UserMismatchException ex) {
+        logger.warn("Request refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new Response(Constants.ERROR, "Forbidden", ex.getMessage()));
+    }
+
     /**
      * Handles all other exceptions.
      *
@@ -0,0 +1,23 @@
+package com.inventory.inventory_management.exception;
+
+import com.inventory.inventory_management.model.StockBatchResult;
+
+import java.util.List;
+
+/**
+ * Thrown when an all-or-nothing stock batch contains a line that cannot be applied.
+ * Carries the per-line results so the caller can see which lines failed.
+ */
+public class StockBatchRejectedException extends RuntimeException {
+
+    private final List<StockBatchResult> results;
+
+    public StockBatchRejectedException(String message, List<StockBatchResult> results) {
+        super(message);
+        this.results = results;
+    }
+
+    public List<StockBatchResult> getResults() {
+        return results;
+    }
+}
@@ -0,0 +1,11 @@
+package com.inventory.inventory_management.exception;
+
+/**
+ * Thrown when a request names a user other than the authenticated one.
+ */
+public class UserMismatchException extends IllegalArgumentException {
+
+    public UserMismatchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.inventory.inventory_management.exception;
+
+/**
+ * Thrown when a conditional update names a version of a product that is no longer current.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public VersionConflictException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    /**
+     * @return the version the product has now, or null if it is not known
+     */
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -0,0 +1,48 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing the outcome of one line of a bulk order upload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String INVALID = "INVALID";
+
+    /**
+     * The line number in the upload, starting at 1.
+     */
+    private long line;
+
+    /**
+     * The ID of the created order, when the line was created.
+     */
+    private Long orderId;
+
+    /**
+     * The ID of the product ordered.
+     */
+    private Long productId;
+
+    /**
+     * The quantity ordered.
+     */
+    private int quantity;
+
+    /**
+     * The outcome: CREATED, REJECTED or INVALID.
+     */
+    private String status;
+
+    /**
+     * Details when the line was not created.
+     */
+    private String message;
+}
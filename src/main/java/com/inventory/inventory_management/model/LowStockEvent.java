@@ -0,0 +1,43 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.sql.Timestamp;
+
+/**
+ * Application event published when the stock of a product crosses its reorder threshold.
+ * It fires once per crossing: when the stock drops below the threshold, and again
+ * when it is restocked to the threshold or above.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LowStockEvent {
+
+    /**
+     * The ID of the product.
+     */
+    private final Long productId;
+
+    /**
+     * The quantity in stock after the change.
+     */
+    private final int quantity;
+
+    /**
+     * The reorder threshold of the product.
+     */
+    private final int reorderThreshold;
+
+    /**
+     * True when the stock fell below the threshold, false when it recovered.
+     */
+    private final boolean low;
+
+    /**
+     * The timestamp when the crossing was detected.
+     */
+    private final Timestamp occurredAt;
+}
@@ -0,0 +1,34 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing a product whose stock is below its reorder threshold.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockItem {
+
+    /**
+     * The ID of the product.
+     */
+    private Long productId;
+
+    /**
+     * The quantity in stock.
+     */
+    private int quantity;
+
+    /**
+     * The stock level below which the product should be reordered.
+     */
+    private int reorderThreshold;
+
+    /**
+     * How many units are missing to reach the threshold.
+     */
+    private int shortfall;
+}
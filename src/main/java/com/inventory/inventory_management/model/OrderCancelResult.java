@@ -0,0 +1,39 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing the outcome of a bulk order cancellation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderCancelResult {
+
+    /**
+     * The number of orders requested by ID, or matched by the filter.
+     */
+    private int requested;
+
+    /**
+     * The number of orders deleted.
+     */
+    private int canceled;
+
+    /**
+     * The number of requested orders that did not exist.
+     */
+    private int notFound;
+
+    /**
+     * The number of active stock reservations released.
+     */
+    private int reservationsReleased;
+
+    /**
+     * The number of units put back into the available stock.
+     */
+    private long unitsRestocked;
+}
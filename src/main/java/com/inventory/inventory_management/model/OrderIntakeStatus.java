@@ -0,0 +1,38 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing the progress of an order accepted for asynchronous placement.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIntakeStatus {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+
+    /**
+     * The token returned when the order was accepted.
+     */
+    private String token;
+
+    /**
+     * The state: QUEUED, CREATED or REJECTED.
+     */
+    private String status;
+
+    /**
+     * The ID of the created order, once created.
+     */
+    private Long orderId;
+
+    /**
+     * Details when the order was rejected.
+     */
+    private String message;
+}
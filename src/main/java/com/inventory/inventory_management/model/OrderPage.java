@@ -0,0 +1,26 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Model class representing one page of orders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+
+    /**
+     * The orders on this page, newest first.
+     */
+    private List<OrderView> orders;
+
+    /**
+     * Opaque cursor to pass back to fetch the next page, or null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,62 @@
+package com.inventory.inventory_management.model;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The states of an order and the moves allowed between them.
+ * A processing order can ship or be canceled, a shipped order can still be canceled
+ * (its units come back as a return), and a canceled order is final.
+ */
+public enum OrderStatus {
+
+    PROCESSING,
+    SHIPPED,
+    CANCELED;
+
+    // Built once when the enum loads; a transition check is an array lookup and a bit test
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(Map.of(
+            PROCESSING, EnumSet.of(SHIPPED, CANCELED),
+            SHIPPED, EnumSet.of(CANCELED),
+            CANCELED, EnumSet.noneOf(OrderStatus.class)));
+
+    private static final Map<String, OrderStatus> BY_NAME = Stream.of(values())
+            .collect(Collectors.toUnmodifiableMap(Enum::name, status -> status));
+
+    /**
+     * Checks whether an order in this state may move to the given state.
+     *
+     * @param next the new state
+     * @return true if the move is allowed
+     */
+    public boolean canMoveTo(OrderStatus next) {
+        return TRANSITIONS.get(this).contains(next);
+    }
+
+    /**
+     * Checks whether a new order may be placed with the given status. Placing an order takes
+     * its units from stock and a canceled order can never give them back, so a new order is
+     * either processing or shipped; no status means processing.
+     *
+     * @param name the requested status, or null or blank for the default
+     * @return true if an order may be placed with that status
+     */
+    public static boolean canPlaceAs(String name) {
+        return name == null || name.isBlank() || of(name).filter(status -> status != CANCELED).isPresent();
+    }
+
+    /**
+     * Looks up a status by its name, such as "SHIPPED".
+     *
+     * @param name the name of the status
+     * @return the status, or empty if the name is not a status
+     */
+    public static Optional<OrderStatus> of(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(BY_NAME.get(name));
+    }
+}
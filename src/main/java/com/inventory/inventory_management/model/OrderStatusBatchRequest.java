@@ -0,0 +1,36 @@
+package com.inventory.inventory_management.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Model class representing a status change for many orders at once.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusBatchRequest {
+
+    /**
+     * The IDs of the orders to move.
+     */
+    @NotEmpty(message = "Order IDs cannot be empty")
+    private List<Long> orderIds;
+
+    /**
+     * The new status: PROCESSING, SHIPPED or CANCELED.
+     */
+    @NotBlank(message = "Status cannot be blank")
+    private String status;
+
+    /**
+     * The user updating the orders.
+     */
+    @NotBlank(message = "User cannot be blank")
+    private String user;
+}
@@ -0,0 +1,39 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing the outcome of one order of a bulk status change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResult {
+
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String REJECTED = "REJECTED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    /**
+     * The ID of the order.
+     */
+    private Long orderId;
+
+    /**
+     * The status the order had before the change, or null if it was not found.
+     */
+    private String previousStatus;
+
+    /**
+     * The outcome: UPDATED, UNCHANGED, REJECTED or NOT_FOUND.
+     */
+    private String outcome;
+
+    /**
+     * Details when the order was not updated.
+     */
+    private String message;
+}
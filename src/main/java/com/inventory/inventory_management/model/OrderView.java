@@ -0,0 +1,67 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Model class representing an order in listings and reports. The product is reduced to its
+ * ID and name, so a listing is read with one joined query and no product is loaded as an entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderView {
+
+    /**
+     * The ID of the order.
+     */
+    private Long id;
+
+    /**
+     * The ID of the product ordered.
+     */
+    private Long productId;
+
+    /**
+     * The name of the product ordered.
+     */
+    private String productName;
+
+    /**
+     * The quantity of the product ordered.
+     */
+    private int quantity;
+
+    /**
+     * The total price of the order.
+     */
+    private double totalPrice;
+
+    /**
+     * The status of the order.
+     */
+    private String status;
+
+    /**
+     * The timestamp when the order was created.
+     */
+    private Timestamp createdAt;
+
+    /**
+     * The timestamp when the order was last updated.
+     */
+    private Timestamp updatedAt;
+
+    /**
+     * The user who created the order.
+     */
+    private String createdBy;
+
+    /**
+     * The user who last updated the order.
+     */
+    private String updatedBy;
+}
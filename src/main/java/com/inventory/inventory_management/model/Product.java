@@ -59,6 +59,13 @@ public class Product {
     @Min(value = 0, message = "Quantity must be zero or greater")
     private Integer quantity;
 
+    /**
+     * The stock level below which the product should be reordered.
+     * Optional; when absent the product raises no reorder alerts.
+     */
+    @Min(value = 0, message = "Reorder threshold must be zero or greater")
+    private Integer reorderThreshold;
+
     /**
      * The user who created or updated the product.
      * Cannot be null or blank.
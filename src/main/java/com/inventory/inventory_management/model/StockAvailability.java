@@ -0,0 +1,29 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing how much of a product can be sold and how much is held for orders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailability {
+
+    /**
+     * The ID of the product.
+     */
+    private Long productId;
+
+    /**
+     * Units that can still be sold.
+     */
+    private int available;
+
+    /**
+     * Units held by active reservations of orders that have not shipped.
+     */
+    private int reserved;
+}
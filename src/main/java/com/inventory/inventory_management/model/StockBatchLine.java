@@ -0,0 +1,25 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing one line of a stock batch.
+ * A positive quantity adds stock, a negative quantity removes it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchLine {
+
+    /**
+     * The ID of the product to move.
+     */
+    private Long productId;
+
+    /**
+     * The signed quantity to move. Must not be zero.
+     */
+    private int quantity;
+}
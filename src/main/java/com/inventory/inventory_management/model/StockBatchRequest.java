@@ -0,0 +1,29 @@
+package com.inventory.inventory_management.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Model class representing a batch of stock movements.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchRequest {
+
+    /**
+     * The movements to apply.
+     */
+    @NotEmpty(message = "Movements cannot be empty")
+    private List<StockBatchLine> movements;
+
+    /**
+     * When true, invalid or unapplicable lines are skipped and the rest is applied.
+     * When false, any bad line fails the whole batch.
+     */
+    private boolean skipInvalid;
+}
@@ -0,0 +1,44 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing the outcome of one line of a stock batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockBatchResult {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String REJECTED = "REJECTED";
+    public static final String INVALID = "INVALID";
+    public static final String NOT_APPLIED = "NOT_APPLIED";
+
+    /**
+     * The position of the line in the request, starting at 0.
+     */
+    private int line;
+
+    /**
+     * The ID of the product.
+     */
+    private Long productId;
+
+    /**
+     * The signed quantity requested.
+     */
+    private int quantity;
+
+    /**
+     * The outcome: APPLIED, REJECTED, INVALID or NOT_APPLIED.
+     */
+    private String status;
+
+    /**
+     * Details when the line was not applied.
+     */
+    private String message;
+}
@@ -0,0 +1,42 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.sql.Timestamp;
+
+/**
+ * Application event published whenever the stock of a product changes.
+ * Listeners receive it once the surrounding transaction has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockChangedEvent {
+
+    /**
+     * The ID of the product.
+     */
+    private final Long productId;
+
+    /**
+     * The signed stock change.
+     */
+    private final int delta;
+
+    /**
+     * Why the stock changed, one of the reasons defined on StockMovementRecord.
+     */
+    private final String reason;
+
+    /**
+     * The user who caused the change.
+     */
+    private final String user;
+
+    /**
+     * The timestamp when the change happened.
+     */
+    private final Timestamp occurredAt;
+}
@@ -0,0 +1,36 @@
+package com.inventory.inventory_management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * Model class representing the committed stock changes of one product within a stream interval.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelUpdate {
+
+    /**
+     * The ID of the product.
+     */
+    private Long productId;
+
+    /**
+     * The net stock change over the interval.
+     */
+    private int delta;
+
+    /**
+     * How many stock changes were folded into this update.
+     */
+    private int changes;
+
+    /**
+     * The timestamp of the latest change in the interval.
+     */
+    private Timestamp changedAt;
+}
@@ -0,0 +1,27 @@
+package com.inventory.inventory_management.model;
+
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Model class representing one page of a product's stock movement journal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovementPage {
+
+    /**
+     * The movements on this page, in the order they were written to the journal.
+     */
+    private List<StockMovementRecord> movements;
+
+    /**
+     * Cursor to pass back to fetch the next page, or null on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.inventory.inventory_management.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class representing a request carrying a refresh token, to refresh or log out.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRefreshRequest {
+
+    /**
+     * The refresh token issued at login or at the last refresh.
+     */
+    @NotBlank(message = "Refresh token cannot be blank")
+    private String refreshToken;
+}
@@ -0,0 +1,20 @@
+package com.inventory.inventory_management.repository;
+
+import java.sql.Timestamp;
+
+/**
+ * Projection exposing only the keyset columns of an order due for archiving.
+ * Used to page through archivable orders without loading or locking them.
+ */
+public interface ArchivableOrderView {
+
+    /**
+     * @return the ID of the order
+     */
+    Long getId();
+
+    /**
+     * @return the time the order last changed
+     */
+    Timestamp getChangedAt();
+}
@@ -0,0 +1,48 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.ArchivedOrder;
+import com.inventory.inventory_management.model.OrderView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing ArchivedOrder entities.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /**
+     * Copies orders into the archive with a single INSERT ... SELECT.
+     *
+     * @param ids        the IDs of the orders
+     * @param archivedAt the time of archiving
+     * @return the number of orders copied
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("INSERT INTO ArchivedOrder (id, productId, quantity, totalPrice, status, createdAt, updatedAt, createdBy, updatedBy, archivedAt) " +
+            "SELECT o.id, o.productId.id, o.quantity, o.totalPrice, o.status, o.createdAt, o.updatedAt, o.createdBy, o.updatedBy, :archivedAt " +
+            "FROM Order o WHERE o.id IN :ids")
+    int copyFromOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") Timestamp archivedAt);
+
+    /**
+     * Reads the archived orders created in a time range, with the name of their product
+     * if it still exists.
+     *
+     * @param from the inclusive lower bound of the creation time
+     * @param to   the exclusive upper bound of the creation time
+     * @return the orders ordered by ID
+     */
+    @Query("SELECT new com.inventory.inventory_management.model.OrderView(a.id, a.productId, p.name, a.quantity, " +
+            "a.totalPrice, a.status, a.createdAt, a.updatedAt, a.createdBy, a.updatedBy) " +
+            "FROM ArchivedOrder a LEFT JOIN Product p ON p.id = a.productId " +
+            "WHERE a.createdAt >= :from AND a.createdAt < :to ORDER BY a.id")
+    List<OrderView> findViews(@Param("from") Timestamp from, @Param("to") Timestamp to);
+}
@@ -0,0 +1,30 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+
+/**
+ * Repository interface for the stored responses of idempotent requests.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Deletes the stored responses whose keys have expired.
+     *
+     * @param now the current time
+     * @return the number of deleted records
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Timestamp now);
+}
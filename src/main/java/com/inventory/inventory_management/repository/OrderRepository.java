@@ -1,11 +1,22 @@
 package com.inventory.inventory_management.repository;
 
 import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.model.OrderView;
+import jakarta.persistence.LockModeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Repository interface for managing Order entities.
  * Extends JpaRepository to provide CRUD operations.
@@ -21,5 +32,170 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     default void logRepositoryEntry() {
         logger.info("Entered OrderRepository");}
 
+    // Constructor expression of the lean order view, for queries joining the product as p
+    String VIEW = "new com.inventory.inventory_management.model.OrderView(o.id, p.id, p.name, o.quantity, " +
+            "o.totalPrice, o.status, o.createdAt, o.updatedAt, o.createdBy, o.updatedBy)";
 
+    /**
+     * Cancels an order, but only while it is still being processed.
+     *
+     * @param id        the ID of the order
+     * @param updatedAt the time of the cancellation
+     * @param updatedBy the user or process cancelling the order
+     * @return 1 if the order was canceled, 0 if it does not exist or has moved on
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'CANCELED', o.updatedAt = :updatedAt, o.updatedBy = :updatedBy " +
+            "WHERE o.id = :id AND o.status = 'PROCESSING'")
+    int cancelIfProcessing(@Param("id") Long id, @Param("updatedAt") Timestamp updatedAt, @Param("updatedBy") String updatedBy);
+
+    /**
+     * Reads the orders that come before a keyset position, newest first, with optional filters.
+     * Seeks through the (created_at, id) index, or the (status, created_at, id) or
+     * (created_by, created_at, id) index when filtering, instead of skipping rows with OFFSET,
+     * so every page costs the same no matter how deep it is. The product's ID and name are
+     * read in the same query.
+     *
+     * @param status     the status to match, or null for any
+     * @param createdBy  the user who placed the orders, or null for any
+     * @param from       the inclusive lower bound of the creation time
+     * @param beforeTime the creation time of the last order already read, or the exclusive upper bound
+     * @param beforeId   the ID of the last order already read, or Long.MIN_VALUE to exclude beforeTime itself
+     * @param pageable   the maximum number of orders to read
+     * @return the orders ordered by creation time and ID, newest first
+     */
+    @Query("SELECT " + VIEW + " FROM Order o JOIN o.productId p WHERE o.createdAt >= :from " +
+            "AND (o.createdAt < :beforeTime OR (o.createdAt = :beforeTime AND o.id < :beforeId)) " +
+            "AND (:status IS NULL OR o.status = :status) AND (:createdBy IS NULL OR o.createdBy = :createdBy) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderView> findPageBefore(@Param("status") String status,
+                                   @Param("createdBy") String createdBy,
+                                   @Param("from") Timestamp from,
+                                   @Param("beforeTime") Timestamp beforeTime,
+                                   @Param("beforeId") Long beforeId,
+                                   Pageable pageable);
+
+    /**
+     * Reads the orders created in a time range with their product's ID and name in one query, for reports.
+     *
+     * @param from the inclusive lower bound of the creation time
+     * @param to   the exclusive upper bound of the creation time
+     * @return the orders ordered by ID
+     */
+    @Query("SELECT " + VIEW + " FROM Order o JOIN o.productId p " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to ORDER BY o.id")
+    List<OrderView> findAllViews(@Param("from") Timestamp from, @Param("to") Timestamp to);
+
+    /**
+     * Reads, without locking, the orders in a state that last changed before a cutoff and come
+     * after a keyset position, for archiving. Seeks through the (status, updated_at, id) index.
+     *
+     * @param status    the final state of the orders to archive
+     * @param cutoff    the exclusive upper bound of the last change time
+     * @param afterTime the change time of the last order already read
+     * @param afterId   the ID of the last order already read
+     * @param pageable  the maximum number of orders to read
+     * @return the IDs and change times of the orders, oldest change first
+     */
+    @Query("SELECT o.id AS id, o.updatedAt AS changedAt FROM Order o WHERE o.status = :status AND o.updatedAt < :cutoff " +
+            "AND (o.updatedAt > :afterTime OR (o.updatedAt = :afterTime AND o.id > :afterId)) " +
+            "ORDER BY o.updatedAt, o.id")
+    List<ArchivableOrderView> findArchivableAfter(@Param("status") String status,
+                                                  @Param("cutoff") Timestamp cutoff,
+                                                  @Param("afterTime") Timestamp afterTime,
+                                                  @Param("afterId") Long afterId,
+                                                  Pageable pageable);
+
+    /**
+     * Reads, without locking, the orders in a state that never changed after being placed, were
+     * placed before a cutoff and come after a keyset position, for archiving. Seeks through the
+     * (status, created_at, id) index.
+     *
+     * @param status    the final state of the orders to archive
+     * @param cutoff    the exclusive upper bound of the creation time
+     * @param afterTime the creation time of the last order already read
+     * @param afterId   the ID of the last order already read
+     * @param pageable  the maximum number of orders to read
+     * @return the IDs and creation times of the orders, oldest first
+     */
+    @Query("SELECT o.id AS id, o.createdAt AS changedAt FROM Order o WHERE o.status = :status AND o.updatedAt IS NULL " +
+            "AND o.createdAt < :cutoff AND (o.createdAt > :afterTime OR (o.createdAt = :afterTime AND o.id > :afterId)) " +
+            "ORDER BY o.createdAt, o.id")
+    List<ArchivableOrderView> findUnchangedArchivableAfter(@Param("status") String status,
+                                                           @Param("cutoff") Timestamp cutoff,
+                                                           @Param("afterTime") Timestamp afterTime,
+                                                           @Param("afterId") Long afterId,
+                                                           Pageable pageable);
+
+    /**
+     * Locks the given orders by primary key, keeping only those still in one of the given states.
+     * Only the rows found are locked, not the index ranges they were found through.
+     *
+     * @param ids      the IDs of the orders
+     * @param statuses the final states of orders to archive
+     * @return the locked orders
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids AND o.status IN :statuses")
+    List<Order> lockAllByIdIn(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<String> statuses);
+
+    /**
+     * Reads the IDs of the orders matching a filter that come after a given ID, in ID order.
+     *
+     * @param status    the status to match, or null for any
+     * @param createdBy the user who placed the orders, or null for any
+     * @param afterId   the last ID already read, or 0 for the first page
+     * @param pageable  the maximum number of IDs to read
+     * @return the IDs in ascending order
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId " +
+            "AND (:status IS NULL OR o.status = :status) AND (:createdBy IS NULL OR o.createdBy = :createdBy) " +
+            "ORDER BY o.id")
+    List<Long> findIdsAfter(@Param("status") String status, @Param("createdBy") String createdBy,
+                            @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Deletes several orders with a single statement.
+     *
+     * @param ids the IDs of the orders
+     * @return the number of orders deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks several orders by primary key. The products are not read or locked.
+     *
+     * @param ids the IDs of the orders
+     * @return the orders that exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds several orders together with their products in one query.
+     *
+     * @param ids the IDs of the orders
+     * @return the orders that exist
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.productId WHERE o.id IN :ids")
+    List<Order> findAllWithProductByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves several orders from one status to another with a single statement.
+     *
+     * @param ids       the IDs of the orders
+     * @param from      the status the orders must have
+     * @param to        the new status
+     * @param updatedAt the time of the change
+     * @param updatedBy the user changing the status
+     * @return the number of orders that moved
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :updatedAt, o.updatedBy = :updatedBy " +
+            "WHERE o.id IN :ids AND o.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("from") String from, @Param("to") String to,
+                      @Param("updatedAt") Timestamp updatedAt, @Param("updatedBy") String updatedBy);
 }
\ No newline at end of file
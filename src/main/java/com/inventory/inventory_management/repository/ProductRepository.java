@@ -1,11 +1,18 @@
 package com.inventory.inventory_management.repository;
 
 import com.inventory.inventory_management.entities.Product;
+import jakarta.persistence.LockModeType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -26,4 +33,113 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return an Optional containing the product if found, or empty otherwise
      */
     Optional<Product> findByNameAndDescription(String name, String description);
-}
\ No newline at end of file
+
+    /**
+     * Atomically removes stock from a product, but only if enough stock is available.
+     * The check and the decrement happen in a single UPDATE statement, so concurrent
+     * callers can never drive the quantity below zero. Sharded products are never
+     * matched, since their stock lives in the shards. The version is bumped so that
+     * a concurrent optimistic save of the same product cannot overwrite the new quantity.
+     *
+     * @param id       the ID of the product
+     * @param quantity the quantity to remove
+     * @return 1 if the stock was removed, 0 if the product does not exist, is sharded or has insufficient stock
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.quantity >= :quantity AND p.shardCount = 0")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Atomically adds stock to a product. Sharded products are never matched.
+     *
+     * @param id       the ID of the product
+     * @param quantity the quantity to add
+     * @return 1 if the stock was added, 0 if the product does not exist or is sharded
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.shardCount = 0")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * Reads only the stock quantity of a product, without loading the entity.
+     *
+     * @param id the ID of the product
+     * @return an Optional containing the quantity if the product exists, or empty otherwise
+     */
+    @Query("SELECT p.quantity FROM Product p WHERE p.id = :id")
+    Optional<Integer> findQuantityById(@Param("id") Long id);
+
+    /**
+     * Reads the stock level of every product, without loading the entities.
+     *
+     * @return the ID and quantity of every product
+     */
+    @Query("SELECT p.id AS id, p.quantity AS quantity FROM Product p")
+    List<StockLevelView> findAllStockLevels();
+
+    /**
+     * Reads the stock level, reorder threshold and shard count of every product, without loading the entities.
+     *
+     * @return the reorder levels of every product
+     */
+    @Query("SELECT p.id AS id, p.quantity AS quantity, p.reorderThreshold AS reorderThreshold, p.shardCount AS shardCount FROM Product p")
+    List<ReorderLevelView> findAllReorderLevels();
+
+    /**
+     * Reads the stock level of the given products, without loading the entities.
+     * Callers keep the ID list short enough for one IN list.
+     *
+     * @param ids the IDs of the products
+     * @return the ID and quantity of each product that exists
+     */
+    @Query("SELECT p.id AS id, p.quantity AS quantity FROM Product p WHERE p.id IN :ids")
+    List<StockLevelView> findStockLevelsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds which of the given product IDs exist.
+     *
+     * @param ids the IDs to check
+     * @return the IDs that belong to an existing product
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads only the shard count of a product, without loading the entity.
+     *
+     * @param id the ID of the product
+     * @return an Optional containing the shard count if the product exists, or empty otherwise
+     */
+    @Query("SELECT p.shardCount FROM Product p WHERE p.id = :id")
+    Optional<Integer> findShardCountById(@Param("id") Long id);
+
+    /**
+     * Finds the products whose stock is sharded.
+     *
+     * @param shardCount the shard count to exceed, normally 0
+     * @return the sharded products
+     */
+    List<Product> findByShardCountGreaterThan(int shardCount);
+
+    /**
+     * Loads a product and locks its row until the transaction ends.
+     *
+     * @param id the ID of the product
+     * @return an Optional containing the product if found, or empty otherwise
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Overwrites the stock quantity of a product. The row, and so its version, is only
+     * written when the quantity differs.
+     *
+     * @param id       the ID of the product
+     * @param quantity the new quantity
+     * @return 1 if the product was updated, 0 if it does not exist or already has that quantity
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.quantity = :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.quantity <> :quantity")
+    int setQuantity(@Param("id") Long id, @Param("quantity") int quantity);
+}
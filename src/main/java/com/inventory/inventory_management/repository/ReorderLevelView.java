@@ -0,0 +1,18 @@
+package com.inventory.inventory_management.repository;
+
+/**
+ * Projection exposing the stock and reorder columns of a product.
+ * Used to build the low-stock index without loading the Product entities.
+ */
+public interface ReorderLevelView extends StockLevelView {
+
+    /**
+     * @return the stock level below which the product should be reordered
+     */
+    int getReorderThreshold();
+
+    /**
+     * @return the number of stock shards, or 0 when the stock is held in the products row
+     */
+    int getShardCount();
+}
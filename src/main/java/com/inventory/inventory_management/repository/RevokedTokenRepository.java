@@ -0,0 +1,39 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Repository interface for managing RevokedToken entities.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Finds the revoked tokens that have not expired yet.
+     *
+     * @param now the current time
+     * @return the revoked tokens still unexpired
+     */
+    List<RevokedToken> findByExpiresAtAfter(Timestamp now);
+
+    /**
+     * Deletes the revoked tokens that have expired, as they are rejected anyway.
+     *
+     * @param now the current time
+     * @return the number of rows deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") Timestamp now);
+}
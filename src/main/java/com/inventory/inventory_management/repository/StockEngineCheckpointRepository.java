@@ -0,0 +1,13 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.StockEngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for the stock engine checkpoint.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface StockEngineCheckpointRepository extends JpaRepository<StockEngineCheckpoint, Integer> {
+}
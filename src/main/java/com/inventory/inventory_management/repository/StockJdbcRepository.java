@@ -0,0 +1,78 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.model.StockBatchLine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Repository for stock statements that need plain JDBC, such as batched updates.
+ * Runs inside the surrounding JPA transaction.
+ */
+@Repository
+public class StockJdbcRepository {
+
+    // Logger instance for logging repository operations
+    private static final Logger logger = LoggerFactory.getLogger(StockJdbcRepository.class);
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE products SET quantity_in_stock = quantity_in_stock + ?, version = version + 1 WHERE id = ? AND quantity_in_stock + ? >= 0 AND shard_count = 0";
+
+    private static final String INSERT_MOVEMENT_SQL =
+            "INSERT INTO stock_movements (product_id, delta, reason, created_by, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies signed stock deltas as one JDBC batch. A line is only applied if it does
+     * not drive the quantity below zero; lines for sharded products are never applied here.
+     *
+     * @param lines the lines to apply, in execution order
+     * @return the update count of each line: 1 if applied, 0 or {@link Statement#EXECUTE_FAILED} otherwise
+     * @throws IllegalStateException if the driver does not report whether each line was applied
+     */
+    public int[] applyDeltas(List<StockBatchLine> lines) {
+        if (lines.isEmpty()) {
+            return new int[0];
+        }
+        logger.debug("Applying {} stock deltas in one batch", lines.size());
+        int[] counts = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getQuantity());
+            ps.setLong(2, line.getProductId());
+            ps.setInt(3, line.getQuantity());
+        })[0];
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                // Each update is guarded by the stock check, so a line without a count may not have applied
+                throw new IllegalStateException("JDBC driver did not report stock batch update counts; "
+                        + "disable rewriteBatchedStatements for this datasource");
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Appends movements to the stock movement journal as one JDBC batch.
+     *
+     * @param movements the movements to insert
+     */
+    public void insertMovements(List<StockMovementRecord> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, movements, movements.size(), (ps, movement) -> {
+            ps.setLong(1, movement.getProductId());
+            ps.setInt(2, movement.getDelta());
+            ps.setString(3, movement.getReason());
+            ps.setString(4, movement.getCreatedBy());
+            ps.setTimestamp(5, movement.getCreatedAt());
+        });
+    }
+}
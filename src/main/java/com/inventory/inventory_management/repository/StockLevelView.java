@@ -0,0 +1,18 @@
+package com.inventory.inventory_management.repository;
+
+/**
+ * Projection exposing only the stock columns of a product.
+ * Used by queries that do not need the full Product entity.
+ */
+public interface StockLevelView {
+
+    /**
+     * @return the ID of the product
+     */
+    Long getId();
+
+    /**
+     * @return the quantity of the product in stock
+     */
+    int getQuantity();
+}
@@ -0,0 +1,42 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Repository interface for the stock movement journal.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface StockMovementRecordRepository extends JpaRepository<StockMovementRecord, Long> {
+
+    /**
+     * Reads the movements of a product written after a keyset position, in the order they
+     * were written. Seeks through the (product_id, id) index instead of skipping rows with
+     * OFFSET, so every page costs the same no matter how deep into the journal it is. The
+     * position is the ID alone: rows are written by a buffered flush, and a batch retried
+     * after a failed flush can carry older movement times than rows already written, which
+     * a position on the movement time would skip.
+     *
+     * @param productId the ID of the product
+     * @param afterId   the ID of the last movement already read, or 0 for the first page
+     * @param from      the inclusive lower bound of the movement time
+     * @param to        the exclusive upper bound of the movement time
+     * @param pageable  the maximum number of movements to read
+     * @return the movements ordered by ID
+     */
+    @Query("SELECT m FROM StockMovementRecord m WHERE m.productId = :productId AND m.id > :afterId " +
+            "AND m.createdAt >= :from AND m.createdAt < :to ORDER BY m.id")
+    List<StockMovementRecord> findPageAfter(@Param("productId") Long productId,
+                                            @Param("afterId") Long afterId,
+                                            @Param("from") Timestamp from,
+                                            @Param("to") Timestamp to,
+                                            Pageable pageable);
+}
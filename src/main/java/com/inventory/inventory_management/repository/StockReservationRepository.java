@@ -0,0 +1,73 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for the stock reservations held by orders.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Finds the reservation of an order.
+     *
+     * @param orderId the ID of the order
+     * @return an Optional containing the reservation if the order has one, or empty otherwise
+     */
+    Optional<StockReservation> findByOrderId(Long orderId);
+
+    /**
+     * Finds the reservations in the given state.
+     *
+     * @param status the state, such as ACTIVE
+     * @return the matching reservations
+     */
+    List<StockReservation> findByStatus(String status);
+
+    /**
+     * Atomically moves a reservation from one state to another. Only one of several
+     * concurrent callers, such as a shipment racing the expiry, can win the transition.
+     *
+     * @param id   the ID of the reservation
+     * @param from the state the reservation must be in
+     * @param to   the new state
+     * @return 1 if the reservation moved, 0 if it was not in the expected state
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") String from, @Param("to") String to);
+
+    /**
+     * Finds and locks the reservations of several orders.
+     *
+     * @param orderIds the IDs of the orders
+     * @return the reservations of the orders that have one
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.orderId IN :orderIds")
+    List<StockReservation> findByOrderIdInForUpdate(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Moves several reservations from one state to another with a single statement.
+     *
+     * @param ids  the IDs of the reservations
+     * @param from the state the reservations must be in
+     * @param to   the new state
+     * @return the number of reservations that moved
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id IN :ids AND r.status = :from")
+    int transitionAll(@Param("ids") Collection<Long> ids, @Param("from") String from, @Param("to") String to);
+}
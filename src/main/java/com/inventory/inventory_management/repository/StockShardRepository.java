@@ -0,0 +1,140 @@
+package com.inventory.inventory_management.repository;
+
+import com.inventory.inventory_management.entities.StockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for the stock shards of sharded products.
+ * Extends JpaRepository to provide CRUD operations.
+ */
+@Repository
+public interface StockShardRepository extends JpaRepository<StockShard, Long> {
+
+    /**
+     * Atomically removes units from one shard, but only if the shard holds enough.
+     *
+     * @param productId  the ID of the product
+     * @param shardIndex the index of the shard
+     * @param quantity   the quantity to remove
+     * @return 1 if the units were removed, 0 otherwise
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockShard s SET s.quantity = s.quantity - :quantity " +
+            "WHERE s.productId = :productId AND s.shardIndex = :shardIndex AND s.quantity >= :quantity")
+    int decrementShard(@Param("productId") Long productId, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    /**
+     * Atomically adds units to one shard.
+     *
+     * @param productId  the ID of the product
+     * @param shardIndex the index of the shard
+     * @param quantity   the quantity to add
+     * @return 1 if the units were added, 0 if the shard does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StockShard s SET s.quantity = s.quantity + :quantity WHERE s.productId = :productId AND s.shardIndex = :shardIndex")
+    int incrementShard(@Param("productId") Long productId, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    /**
+     * Sums the shards of a product.
+     *
+     * @param productId the ID of the product
+     * @return the total quantity held by the shards, or 0 if there are none
+     */
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM StockShard s WHERE s.productId = :productId")
+    long sumQuantity(@Param("productId") Long productId);
+
+    /**
+     * Sums the shards of several products in one query.
+     *
+     * @param productIds the IDs of the products
+     * @return the ID and shard total of each product that has shards
+     */
+    @Query("SELECT s.productId AS id, CAST(SUM(s.quantity) AS Integer) AS quantity FROM StockShard s " +
+            "WHERE s.productId IN :productIds GROUP BY s.productId")
+    List<StockLevelView> sumQuantities(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Reads the shards of a product without locking them.
+     *
+     * @param productId the ID of the product
+     * @return the shards ordered by index
+     */
+    List<StockShard> findByProductIdOrderByShardIndex(Long productId);
+
+    /**
+     * Locks a shard from the start index on that holds at least the given quantity.
+     * Shards locked by other transactions are skipped instead of waited for, so concurrent
+     * callers land on different shards and never queue behind each other. The search is a
+     * range scan of the (product_id, shard_index) unique index that stops at the first match,
+     * so only the shards it passes over are touched. The query has no ORDER BY: the scan
+     * already walks the index in shard order, and H2 locks every matching row of a sorted
+     * locking query before applying the limit.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity the shard must hold
+     * @param start     the shard index to search from
+     * @return the locked shard, or empty if every suitable shard from the start index on is taken
+     */
+    @Query(value = "SELECT * FROM stock_shards WHERE product_id = :productId AND shard_index >= :start " +
+            "AND quantity >= :quantity LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<StockShard> lockAvailableShardFrom(@Param("productId") Long productId,
+                                                @Param("quantity") int quantity,
+                                                @Param("start") int start);
+
+    /**
+     * Locks a shard below the end index that holds at least the given quantity, the
+     * wrap-around half of {@link #lockAvailableShardFrom}.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity the shard must hold
+     * @param end       the shard index to search up to, exclusive
+     * @return the locked shard, or empty if every suitable shard below the end index is taken
+     */
+    @Query(value = "SELECT * FROM stock_shards WHERE product_id = :productId AND shard_index < :end " +
+            "AND quantity >= :quantity LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<StockShard> lockAvailableShardBefore(@Param("productId") Long productId,
+                                                  @Param("quantity") int quantity,
+                                                  @Param("end") int end);
+
+    /**
+     * Locks every shard of a product, always in shard order so that callers cannot deadlock.
+     *
+     * @param productId the ID of the product
+     * @return the shards ordered by index
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockShard s WHERE s.productId = :productId ORDER BY s.shardIndex")
+    List<StockShard> lockShards(@Param("productId") Long productId);
+
+    /**
+     * Locks the shards of a product that still hold stock, in shard order. Drained shards
+     * are neither locked nor waited for, so a caller holding one does not block the others.
+     *
+     * @param productId the ID of the product
+     * @return the shards holding stock, ordered by index
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockShard s WHERE s.productId = :productId AND s.quantity > 0 ORDER BY s.shardIndex")
+    List<StockShard> lockStockedShards(@Param("productId") Long productId);
+
+    /**
+     * Deletes every shard of a product.
+     *
+     * @param productId the ID of the product
+     * @return the number of shards deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM StockShard s WHERE s.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+}
@@ -4,8 +4,12 @@ import com.inventory.inventory_management.model.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -25,4 +29,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return an Optional containing the user if found, or empty if not found
      */
     Optional<User> findByUsername(String username);
+
+    /**
+     * Finds which of the given usernames belong to existing users.
+     *
+     * @param usernames the usernames to check
+     * @return the usernames that exist
+     */
+    @Query("SELECT u.username FROM UserModel u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Reads the role of a user without loading the user.
+     *
+     * @param username the username of the user
+     * @return the role, or empty if there is no such user
+     */
+    @Query("SELECT u.role FROM UserModel u WHERE u.username = :username")
+    Optional<String> findRoleByUsername(@Param("username") String username);
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.exception.UserMismatchException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * The user a request acts as. The JWT filter authenticates each request once and keeps the
+ * principal in the security context, which is held per request thread; services read the
+ * acting user from there instead of looking up a name taken from the request body or
+ * parameters. A name given in the request must then be the authenticated user's own.
+ * Without an authenticated user, as for internal and scheduled calls, the given name is
+ * used as it is and the caller checks that it exists.
+ */
+public final class ActingUser {
+
+    private ActingUser() {
+    }
+
+    /**
+     * The name of the authenticated user of the current request.
+     *
+     * @return the username, or null if the request is anonymous
+     */
+    public static String name() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Resolves the user a write acts as.
+     *
+     * @param claimed the username given in the request, or null if none was given
+     * @return the authenticated user, or the given name when there is none
+     * @throws UserMismatchException if the given name is not the authenticated user's
+     */
+    public static String resolve(String claimed) {
+        String authenticated = name();
+        if (authenticated == null) {
+            return claimed;
+        }
+        if (claimed != null && !claimed.isBlank() && !claimed.equals(authenticated)) {
+            throw new UserMismatchException("User does not match the authenticated user");
+        }
+        return authenticated;
+    }
+
+    /**
+     * Checks whether a username is the authenticated user's, and so known to exist.
+     *
+     * @param username the username
+     * @return true if it is the authenticated user
+     */
+    public static boolean isAuthenticated(String username) {
+        return username != null && username.equals(name());
+    }
+}
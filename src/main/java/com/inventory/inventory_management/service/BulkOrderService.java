@@ -0,0 +1,316 @@
+package com.inventory.inventory_management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.model.BulkOrderResult;
+import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.OrderStatus;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.UserRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for bulk order uploads. The upload is read one NDJSON line at a time and
+ * placed in chunks, each in its own transaction: the users and products of a chunk are read
+ * with one query each, stock is taken with one conditional update per product, and the orders
+ * and their reservations are inserted as JDBC batches. Only the current chunk is held in
+ * memory, so the size of an upload is not bounded by the heap.
+ */
+@Service
+public class BulkOrderService {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(BulkOrderService.class);
+
+    static final String BULK_USER = "bulk-orders";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.orders.bulk.chunk-size:500}")
+    private int chunkSize = 500;
+
+    /**
+     * An order to place, with the authenticated user who submitted it, or null if anonymous.
+     */
+    public record Placement(Order order, String caller) {
+    }
+
+    // One line of the upload; the result is set once the line is settled
+    private static final class Line {
+        private final long number;
+        private final Order order;
+        private final String caller;
+        private BulkOrderResult result;
+
+        private Line(long number, Order order, String caller) {
+            this.number = number;
+            this.order = order;
+            this.caller = caller;
+        }
+    }
+
+    /**
+     * Places the orders of an NDJSON upload, one order per line. Each line gets a result,
+     * reported in upload order as soon as its chunk is settled. A chunk that fails as a whole
+     * is rolled back and its lines are reported as rejected; later chunks still run.
+     *
+     * @param body    the upload
+     * @param results receives the result of every non-blank line
+     * @return the number of orders created
+     * @throws IOException if the upload cannot be read
+     */
+    public long importOrders(Reader body, Consumer<BulkOrderResult> results) throws IOException {
+        String caller = ActingUser.name();
+        BufferedReader reader = new BufferedReader(body);
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        long number = 0;
+        long created = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            number++;
+            if (text.isBlank()) {
+                continue;
+            }
+            chunk.add(parse(number, text, caller));
+            if (chunk.size() >= chunkSize) {
+                created += processChunk(chunk, caller, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += processChunk(chunk, caller, results);
+        }
+        logger.info("Bulk order upload completed: {} lines read, {} orders created", number, created);
+        return created;
+    }
+
+    /**
+     * Places several orders in one transaction, with the same grouped stock check as an upload.
+     * The orders may come from different callers.
+     *
+     * @param placements the orders to place
+     * @return the result of each order, in the given order; line numbers start at 1
+     */
+    public List<BulkOrderResult> placeOrders(List<Placement> placements) {
+        List<Line> lines = new ArrayList<>(placements.size());
+        for (Placement placement : placements) {
+            lines.add(check(new Line(lines.size() + 1, placement.order(), placement.caller())));
+        }
+        // Movements are recorded under the caller when there is exactly one
+        Set<String> callers = placements.stream().map(Placement::caller).collect(Collectors.toSet());
+        String actor = callers.size() == 1 ? callers.iterator().next() : null;
+        List<BulkOrderResult> results = new ArrayList<>(lines.size());
+        processChunk(lines, actor, results::add);
+        return results;
+    }
+
+    private Line parse(long number, String text, String caller) {
+        Order order;
+        try {
+            order = objectMapper.readValue(text, Order.class);
+        } catch (JsonProcessingException ex) {
+            Line line = new Line(number, null, caller);
+            line.result = result(line, null, BulkOrderResult.INVALID, "Malformed order: " + ex.getOriginalMessage());
+            return line;
+        }
+        return check(new Line(number, order, caller));
+    }
+
+    private static Line check(Line line) {
+        Order order = line.order;
+        if (line.caller != null && (order.getUser() == null || order.getUser().isBlank())) {
+            // An order that names no user is placed under the caller
+            order.setUser(line.caller);
+        }
+        String problem = validate(order, line.caller);
+        if (problem != null) {
+            line.result = result(line, null, BulkOrderResult.INVALID, problem);
+        } else if (order.getStatus() == null || order.getStatus().isBlank()) {
+            // Sets the status to "PROCESSING" if not provided, as for single orders
+            order.setStatus("PROCESSING");
+        }
+        return line;
+    }
+
+    private static String validate(Order order, String caller) {
+        if (order.getProductId() == null) {
+            return "Product ID is required";
+        }
+        if (order.getQuantity() < 1) {
+            return "Quantity must be at least 1";
+        }
+        if (order.getUser() == null || order.getUser().isBlank()) {
+            return "User cannot be blank";
+        }
+        if (caller != null && !caller.equals(order.getUser())) {
+            return "User does not match the authenticated user";
+        }
+        if (order.getStatus() != null && !order.getStatus().isBlank() && OrderStatus.of(order.getStatus()).isEmpty()) {
+            return "Status must be one of the following: PROCESSING, SHIPPED, CANCELED";
+        }
+        if (!OrderStatus.canPlaceAs(order.getStatus())) {
+            return "Status of a new order must be PROCESSING or SHIPPED";
+        }
+        return null;
+    }
+
+    private long processChunk(List<Line> chunk, String actor, Consumer<BulkOrderResult> results) {
+        List<Line> pending = chunk.stream().filter(line -> line.result == null).toList();
+        if (!pending.isEmpty()) {
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> placeChunk(pending, actor));
+            } catch (Exception ex) {
+                logger.error("Bulk order chunk of lines {}-{} rolled back: {}",
+                        pending.get(0).number, pending.get(pending.size() - 1).number, ex.getMessage(), ex);
+                pending.forEach(line -> line.result = result(line, null, BulkOrderResult.REJECTED,
+                        "Chunk rolled back: " + ex.getMessage()));
+            }
+        }
+        long created = 0;
+        for (Line line : chunk) {
+            if (BulkOrderResult.CREATED.equals(line.result.getStatus())) {
+                created++;
+            }
+            results.accept(line.result);
+        }
+        return created;
+    }
+
+    private void placeChunk(List<Line> pending, String actor) {
+        Set<String> knownUsers = findUsers(pending);
+        Map<Long, Product> products = productRepository.findAllById(
+                        pending.stream().map(line -> line.order.getProductId()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Grouped by product in ID order, so concurrent uploads lock product rows in the same order
+        Map<Long, List<Line>> byProduct = new TreeMap<>();
+        for (Line line : pending) {
+            if (!knownUsers.contains(line.order.getUser())) {
+                line.result = result(line, null, BulkOrderResult.REJECTED, "User not found");
+            } else if (!products.containsKey(line.order.getProductId())) {
+                line.result = result(line, null, BulkOrderResult.REJECTED, "Product not found");
+            } else {
+                byProduct.computeIfAbsent(line.order.getProductId(), id -> new ArrayList<>()).add(line);
+            }
+        }
+
+        String movementUser = actor != null ? actor : BULK_USER;
+        List<Line> placed = new ArrayList<>();
+        List<com.inventory.inventory_management.entities.Order> orders = new ArrayList<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (Map.Entry<Long, List<Line>> group : byProduct.entrySet()) {
+            Product product = products.get(group.getKey());
+            for (Line line : takeStock(group.getKey(), group.getValue(), movementUser)) {
+                placed.add(line);
+                orders.add(com.inventory.inventory_management.entities.Order.builder()
+                        .productId(product)
+                        .quantity(line.order.getQuantity())
+                        .status(line.order.getStatus())
+                        .createdAt(now)
+                        .createdBy(line.order.getUser())
+                        .totalPrice(product.getPrice() * line.order.getQuantity())
+                        .build());
+            }
+        }
+
+        List<com.inventory.inventory_management.entities.Order> saved = orderRepository.saveAll(orders);
+        stockReservationService.holdAll(saved.stream().filter(order -> "PROCESSING".equals(order.getStatus())).toList());
+        for (int i = 0; i < placed.size(); i++) {
+            placed.get(i).result = result(placed.get(i), saved.get(i).getId(), BulkOrderResult.CREATED, null);
+        }
+    }
+
+    /**
+     * Finds which users of the chunk exist. A line placed under its own caller's name is
+     * known already; the other names are checked with one query.
+     */
+    private Set<String> findUsers(List<Line> pending) {
+        Set<String> known = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (Line line : pending) {
+            if (line.order.getUser().equals(line.caller)) {
+                known.add(line.caller);
+            } else {
+                names.add(line.order.getUser());
+            }
+        }
+        names.removeAll(known);
+        if (!names.isEmpty()) {
+            known.addAll(userRepository.findExistingUsernames(names));
+        }
+        return known;
+    }
+
+    /**
+     * Takes the stock of all orders for one product with a single conditional update.
+     * When there is not enough for all of them, the orders are taken one by one in upload
+     * order while the stock lasts and the rest are rejected.
+     *
+     * @return the lines whose stock was taken
+     */
+    private List<Line> takeStock(Long productId, List<Line> lines, String actor) {
+        long total = lines.stream().mapToLong(line -> line.order.getQuantity()).sum();
+        if (total <= Integer.MAX_VALUE
+                && productService.tryDecrementStock(productId, (int) total, StockMovementRecord.ORDER_PLACED, actor)) {
+            return lines;
+        }
+        List<Line> taken = new ArrayList<>();
+        for (Line line : lines) {
+            if (productService.tryDecrementStock(productId, line.order.getQuantity(), StockMovementRecord.ORDER_PLACED, actor)) {
+                taken.add(line);
+            } else {
+                line.result = result(line, null, BulkOrderResult.REJECTED, "Insufficient stock for the product");
+            }
+        }
+        return taken;
+    }
+
+    private static BulkOrderResult result(Line line, Long orderId, String status, String message) {
+        return new BulkOrderResult(line.number, orderId,
+                line.order == null ? null : line.order.getProductId(),
+                line.order == null ? 0 : line.order.getQuantity(), status, message);
+    }
+}
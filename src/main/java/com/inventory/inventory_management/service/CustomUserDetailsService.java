@@ -4,18 +4,22 @@ import com.inventory.inventory_management.config.JwtUtil;
 import com.inventory.inventory_management.controller.OrderController;
 import com.inventory.inventory_management.repository.UserRepository;
 import com.inventory.inventory_management.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -24,12 +28,14 @@ public class CustomUserDetailsService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Autowired
-    @Lazy
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     private static final Logger logger = LogManager.getLogger(OrderController.class);
 
     /**
@@ -78,6 +84,15 @@ public class CustomUserDetailsService implements UserDetailsService {
         }
     }
 
+    /**
+     * Exception thrown when a refresh token cannot be exchanged for new tokens.
+     */
+    public static class InvalidRefreshTokenException extends RuntimeException {
+        public InvalidRefreshTokenException(String message) {
+            super(message);
+        }
+    }
+
     /**
      * Saves a new user to the repository.
      *
@@ -95,34 +110,126 @@ public class CustomUserDetailsService implements UserDetailsService {
 
 
 
-    public Map<String, String> login(User user) {
+    /**
+     * Logs a user in. The password is checked on the password hashing pool, so the request
+     * thread is not held while BCrypt runs. A stored password that is not hashed yet, or was
+     * hashed with another cost than the configured one, is hashed again in the background
+     * after a successful login.
+     *
+     * @param user the username and password to log in with
+     * @return a future completed with the login message, access token and refresh token
+     * @throws PasswordHasher.HasherBusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<Map<String, String>> login(User user) {
         Optional<User> optionalUser = userRepository.findByUsername(user.getUsername());
 
         logger.info("Attempting to log in user: {}", user.getUsername());
 
-        if (optionalUser.isPresent()) {
-            User storedUser = optionalUser.get();
-
-            logger.info("User found: {}, verifying password.", storedUser.getUsername());
+        if (optionalUser.isEmpty()) {
+            logger.warn("User not found: {}", user.getUsername());
+            throw new RuntimeException("Invalid username or password");
+        }
+        User storedUser = optionalUser.get();
 
-            if (!storedUser.getPassword().startsWith("$2a$")) {
-                String encodedPassword = passwordEncoder.encode(user.getPassword());
-                storedUser.setPassword(encodedPassword);
-                userRepository.save(storedUser);
-                logger.info("Password was not encoded. Re-encoded and saved for user: {}", user.getUsername());
-            }
+        logger.info("User found: {}, verifying password.", storedUser.getUsername());
 
-            if (passwordEncoder.matches(user.getPassword(), storedUser.getPassword())) {
-                String token = jwtUtil.generateToken(user.getUsername());
-                return Map.of("message", "Login successful", "token", token);
-            } else {
+        CompletableFuture<Boolean> verified = passwordHasher.isHashed(storedUser.getPassword())
+                ? passwordHasher.matches(user.getPassword(), storedUser.getPassword())
+                : CompletableFuture.completedFuture(plainTextMatches(user.getPassword(), storedUser.getPassword()));
+        return verified.thenApply(matched -> {
+            if (!matched) {
                 logger.warn("Password mismatch for user: {}", user.getUsername());
                 throw new RuntimeException("Invalid username or password");
             }
-        } else {
-            logger.warn("User not found: {}", user.getUsername());
-            throw new RuntimeException("Invalid username or password");
+            if (passwordHasher.needsRehash(storedUser.getPassword())) {
+                rehash(storedUser, user.getPassword());
+            }
+            String token = jwtUtil.generateToken(storedUser.getUsername(), storedUser.getRole());
+            return Map.of("message", "Login successful", "token", token,
+                    "refreshToken", jwtUtil.generateRefreshToken(storedUser.getUsername()));
+        });
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token. The refresh
+     * token is revoked as it is used, before the new tokens are issued, so of two requests
+     * replaying the same token only the one that revokes it gets new tokens. The role is read
+     * again, so a changed role takes effect on the next refresh.
+     *
+     * @param refreshToken the refresh token
+     * @return the message, the new access token and the new refresh token
+     * @throws InvalidRefreshTokenException if the refresh token is invalid, expired, revoked or its user no longer exists
+     */
+    public Map<String, String> refresh(String refreshToken) {
+        Claims claims = refreshClaims(refreshToken)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid or expired refresh token"));
+        String username = claims.getSubject();
+        String role = userRepository.findRoleByUsername(username)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid or expired refresh token"));
+        if (!tokenRevocationList.revoke(claims.getId(), username, new Timestamp(claims.getExpiration().getTime()))) {
+            logger.warn("Refresh token {} of user {} was used concurrently", claims.getId(), username);
+            throw new InvalidRefreshTokenException("Invalid or expired refresh token");
+        }
+        logger.info("Tokens refreshed for user: {}", username);
+        return Map.of("message", "Token refreshed", "token", jwtUtil.generateToken(username, role),
+                "refreshToken", jwtUtil.generateRefreshToken(username));
+    }
+
+    /**
+     * Logs a user out by revoking their access token and, if given, their refresh token.
+     * Tokens that are already invalid are ignored.
+     *
+     * @param accessToken  the access token, or null
+     * @param refreshToken the refresh token, or null
+     */
+    public void logout(String accessToken, String refreshToken) {
+        Optional.ofNullable(accessToken).flatMap(this::verifiedClaims).ifPresent(this::revoke);
+        refreshClaims(refreshToken).ifPresent(this::revoke);
+    }
+
+    private Optional<Claims> refreshClaims(String refreshToken) {
+        return Optional.ofNullable(refreshToken)
+                .flatMap(this::verifiedClaims)
+                .filter(claims -> JwtUtil.REFRESH_TOKEN.equals(claims.get(JwtUtil.TYPE_CLAIM, String.class)))
+                .filter(claims -> !tokenRevocationList.isRevoked(claims.getId()));
+    }
+
+    private Optional<Claims> verifiedClaims(String token) {
+        try {
+            return Optional.of(jwtUtil.parseClaims(token));
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.warn("Invalid token: {}", ex.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void revoke(Claims claims) {
+        if (claims.getExpiration() != null) {
+            tokenRevocationList.revoke(claims.getId(), claims.getSubject(), new Timestamp(claims.getExpiration().getTime()));
         }
     }
 
-}
\ No newline at end of file
+    private void rehash(User storedUser, String rawPassword) {
+        try {
+            passwordHasher.encode(rawPassword)
+                    .thenAccept(encodedPassword -> {
+                        storedUser.setPassword(encodedPassword);
+                        userRepository.save(storedUser);
+                        logger.info("Password re-encoded with the current cost and saved for user: {}", storedUser.getUsername());
+                    })
+                    .exceptionally(ex -> {
+                        logger.error("An error occurred while re-encoding the password of user: {}", storedUser.getUsername(), ex);
+                        return null;
+                    });
+        } catch (PasswordHasher.HasherBusyException ex) {
+            // The password is re-encoded on a later login instead
+            logger.warn("Password hasher busy, re-encoding skipped for user: {}", storedUser.getUsername());
+        }
+    }
+
+    private static boolean plainTextMatches(String rawPassword, String storedPassword) {
+        return rawPassword != null && storedPassword != null
+                && MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
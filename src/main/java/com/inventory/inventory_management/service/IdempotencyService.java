@@ -0,0 +1,224 @@
+package com.inventory.inventory_management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.inventory_management.entities.IdempotencyRecord;
+import com.inventory.inventory_management.model.Response;
+import com.inventory.inventory_management.repository.IdempotencyRecordRepository;
+import com.inventory.inventory_management.util.Constants;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Makes mutating requests safe to retry. A request sent with an Idempotency-Key header
+ * is applied once; its response is stored under the key and replayed to every retry with
+ * the same key, without calling the services again. Responses are kept in a bounded
+ * in-memory store for the configured TTL, and optionally in the idempotency_keys table
+ * so replays survive a restart and are shared between instances.
+ */
+@Service
+public class IdempotencyService {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.idempotency.maximum-size:100000}")
+    private long maximumSize = 100000;
+
+    @Value("${inventory.idempotency.ttl-ms:86400000}")
+    private long ttlMillis = 86400000;
+
+    @Value("${inventory.idempotency.persistent:false}")
+    private boolean persistent;
+
+    private Cache<String, Entry> entries;
+
+    // A null response marks a request that is still being processed
+    private record Entry(String fingerprint, ResponseEntity<Response> response) {
+    }
+
+    /**
+     * Builds the in-memory store.
+     */
+    @PostConstruct
+    public void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+        logger.info("Idempotency store holds up to {} keys for {} ms, persistent={}", maximumSize, ttlMillis, persistent);
+    }
+
+    /**
+     * Runs a mutating request at most once per idempotency key.
+     * Without a key the request simply runs. With a key seen before, the stored response is
+     * returned if the request matches the first one, 422 if it differs and 409 if the first
+     * one is still running. Server errors and 429 responses are not stored, so the client can retry them.
+     *
+     * @param key     the Idempotency-Key header, or null
+     * @param request what identifies the request, such as the endpoint and its arguments
+     * @param action  applies the request and builds its response
+     * @return the response of the request, original or replayed
+     */
+    public ResponseEntity<Response> execute(String key, Object request, Supplier<ResponseEntity<Response>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(new Response(Constants.BAD, Constants.INVALID_INPUT,
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        String scopedKey = scope(key);
+        String fingerprint = fingerprint(request);
+        Entry pending = new Entry(fingerprint, null);
+
+        Entry existing = entries.asMap().putIfAbsent(scopedKey, pending);
+        if (existing == null && persistent) {
+            Optional<Entry> stored = load(scopedKey);
+            if (stored.isPresent()) {
+                existing = stored.get();
+                entries.put(scopedKey, existing);
+            }
+        }
+        if (existing != null) {
+            return replay(key, fingerprint, existing);
+        }
+
+        ResponseEntity<Response> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException ex) {
+            entries.asMap().remove(scopedKey, pending);
+            throw ex;
+        }
+        if (response.getStatusCode().is5xxServerError() || response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+            entries.asMap().remove(scopedKey, pending);
+            return response;
+        }
+        entries.asMap().replace(scopedKey, pending, new Entry(fingerprint, response));
+        if (persistent) {
+            store(scopedKey, fingerprint, response);
+        }
+        return response;
+    }
+
+    /**
+     * Deletes the expired keys from the idempotency_keys table.
+     */
+    @Scheduled(fixedDelayString = "${inventory.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        try {
+            int purged = idempotencyRecordRepository.deleteExpired(new Timestamp(System.currentTimeMillis()));
+            logger.debug("Purged {} expired idempotency keys", purged);
+        } catch (Exception ex) {
+            logger.error("An error occurred while purging idempotency keys: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private ResponseEntity<Response> replay(String key, String fingerprint, Entry existing) {
+        if (!existing.fingerprint().equals(fingerprint)) {
+            logger.warn("Idempotency key {} reused for a different request", key);
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(new Response(Constants.ERROR,
+                    "Idempotency key reused", HEADER + " was already used for a different request"));
+        }
+        if (existing.response() == null) {
+            logger.warn("Idempotency key {} is still being processed", key);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new Response(Constants.ERROR,
+                    "Request in progress", "A request with this " + HEADER + " is still being processed"));
+        }
+        logger.info("Replaying stored response for idempotency key {}", key);
+        return ResponseEntity.status(existing.response().getStatusCode())
+                .headers(existing.response().getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(existing.response().getBody());
+    }
+
+    private Optional<Entry> load(String scopedKey) {
+        try {
+            return idempotencyRecordRepository.findById(scopedKey)
+                    .filter(record -> record.getExpiresAt().getTime() > System.currentTimeMillis())
+                    .map(record -> new Entry(record.getFingerprint(), ResponseEntity.status(record.getStatusCode())
+                            .body(readBody(record.getResponseBody()))));
+        } catch (Exception ex) {
+            // Fall back to the in-memory store; the request is then treated as new
+            logger.error("An error occurred while reading idempotency key {}: {}", scopedKey, ex.getMessage(), ex);
+            return Optional.empty();
+        }
+    }
+
+    private void store(String scopedKey, String fingerprint, ResponseEntity<Response> response) {
+        try {
+            long now = System.currentTimeMillis();
+            idempotencyRecordRepository.save(IdempotencyRecord.builder()
+                    .key(scopedKey)
+                    .fingerprint(fingerprint)
+                    .statusCode(response.getStatusCode().value())
+                    .responseBody(objectMapper.writeValueAsString(response.getBody()))
+                    .createdAt(new Timestamp(now))
+                    .expiresAt(new Timestamp(now + ttlMillis))
+                    .build());
+        } catch (Exception ex) {
+            // The request was applied; the in-memory store still covers retries to this instance
+            logger.error("An error occurred while storing idempotency key {}: {}", scopedKey, ex.getMessage(), ex);
+        }
+    }
+
+    private Response readBody(String json) {
+        try {
+            return objectMapper.readValue(json, Response.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored idempotent response is not valid JSON", ex);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Request cannot be fingerprinted", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Keys are scoped to the authenticated user, so two clients cannot collide on a key.
+     */
+    private static String scope(String key) {
+        return Optional.ofNullable(ActingUser.name()).orElse("") + ":" + key;
+    }
+}
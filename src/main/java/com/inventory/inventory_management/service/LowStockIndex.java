@@ -0,0 +1,216 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.model.LowStockEvent;
+import com.inventory.inventory_management.model.LowStockItem;
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.ReorderLevelView;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory index of products ordered by how far their stock is above or below
+ * their reorder threshold. It is built once on startup and then kept current from
+ * the committed stock changes, so listing the products below their threshold reads
+ * only those products instead of scanning the catalogue. A {@link LowStockEvent} is
+ * published each time a product crosses its threshold, not on every change.
+ */
+@Service
+public class LowStockIndex {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(LowStockIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ShardedStockService shardedStockService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Present only when inventory.stock-engine.enabled=true; stock then lives in memory
+    @Autowired(required = false)
+    private StockEngine stockEngine;
+
+    private record Level(int quantity, int threshold) {
+        private int margin() {
+            return quantity - threshold;
+        }
+
+        private boolean low() {
+            return margin() < 0;
+        }
+    }
+
+    private record Key(int margin, long productId) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byMargin = Integer.compare(margin, other.margin);
+            return byMargin != 0 ? byMargin : Long.compare(productId, other.productId);
+        }
+    }
+
+    // Stock and threshold of every product
+    private final Map<Long, Level> levels = new ConcurrentHashMap<>();
+
+    // Products with a threshold, lowest margin first; only changed while holding the product's entry in levels
+    private final ConcurrentSkipListSet<Key> ordered = new ConcurrentSkipListSet<>();
+
+    /**
+     * Loads the stock and threshold of every product.
+     */
+    @PostConstruct
+    public void load() {
+        levels.clear();
+        ordered.clear();
+        List<Long> sharded = new ArrayList<>();
+        for (ReorderLevelView level : productRepository.findAllReorderLevels()) {
+            int quantity = stockEngine != null
+                    ? stockEngine.findQuantity(level.getId()).orElse(level.getQuantity())
+                    : level.getQuantity();
+            put(level.getId(), new Level(quantity, level.getReorderThreshold()));
+            if (level.getShardCount() > 0) {
+                sharded.add(level.getId());
+            }
+        }
+        if (!sharded.isEmpty() && stockEngine == null) {
+            // The products row of a sharded product only holds a periodic copy of the shard total
+            shardedStockService.getQuantities(sharded).forEach((productId, quantity) ->
+                    update(productId, level -> new Level(quantity, level.threshold()), false));
+        }
+        logger.info("Low-stock index loaded {} products, {} below their reorder threshold",
+                levels.size(), ordered.headSet(new Key(0, Long.MIN_VALUE)).size());
+    }
+
+    /**
+     * Starts tracking a new product.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity in stock
+     * @param threshold the reorder threshold
+     */
+    public void track(Long productId, int quantity, int threshold) {
+        Level level = new Level(quantity, threshold);
+        put(productId, level);
+        if (level.low()) {
+            announce(productId, level);
+        }
+    }
+
+    /**
+     * Stops tracking a deleted product.
+     *
+     * @param productId the ID of the product
+     */
+    public void remove(Long productId) {
+        levels.computeIfPresent(productId, (id, current) -> {
+            ordered.remove(new Key(current.margin(), id));
+            return null;
+        });
+    }
+
+    /**
+     * Changes the reorder threshold of a product.
+     *
+     * @param productId the ID of the product
+     * @param threshold the new reorder threshold
+     */
+    public void setThreshold(Long productId, int threshold) {
+        update(productId, level -> new Level(level.quantity(), threshold), true);
+    }
+
+    /**
+     * Applies a committed stock change. Changes from rolled-back transactions never arrive here.
+     *
+     * @param event the stock change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        update(event.getProductId(), level -> new Level(level.quantity() + event.getDelta(), level.threshold()), true);
+    }
+
+    /**
+     * Lists the products below their reorder threshold, largest shortfall first.
+     * Only the returned products are visited.
+     *
+     * @param limit the maximum number of products to return
+     * @return the products below their threshold
+     */
+    public List<LowStockItem> getLowStock(int limit) {
+        List<LowStockItem> items = new ArrayList<>();
+        for (Key key : ordered) {
+            if (key.margin() >= 0 || items.size() >= limit) {
+                break;
+            }
+            Level level = levels.get(key.productId());
+            // Skip a key whose product changed after the iterator passed its new position
+            if (level != null && level.margin() == key.margin()) {
+                items.add(new LowStockItem(key.productId(), level.quantity(), level.threshold(), -level.margin()));
+            }
+        }
+        return items;
+    }
+
+    private void put(Long productId, Level level) {
+        levels.compute(productId, (id, current) -> {
+            if (current != null) {
+                ordered.remove(new Key(current.margin(), id));
+            }
+            index(id, level);
+            return level;
+        });
+    }
+
+    private void update(Long productId, UnaryOperator<Level> change, boolean announce) {
+        Level[] previous = new Level[1];
+        Level updated = levels.computeIfPresent(productId, (id, current) -> {
+            previous[0] = current;
+            Level next = change.apply(current);
+            ordered.remove(new Key(current.margin(), id));
+            index(id, next);
+            return next;
+        });
+        if (updated == null) {
+            // Created by another instance; it is picked up on the next restart
+            logger.debug("Stock change for product {} not in the low-stock index", productId);
+            return;
+        }
+        if (announce && previous[0].low() != updated.low()) {
+            announce(productId, updated);
+        }
+    }
+
+    private void index(Long productId, Level level) {
+        // Products without a threshold can never be low, so they stay out of the ordered set
+        if (level.threshold() > 0) {
+            ordered.add(new Key(level.margin(), productId));
+        }
+    }
+
+    private void announce(Long productId, Level level) {
+        if (level.low()) {
+            logger.warn("Product {} fell below its reorder threshold: {} in stock, threshold {}",
+                    productId, level.quantity(), level.threshold());
+        } else {
+            logger.info("Product {} is back at or above its reorder threshold: {} in stock, threshold {}",
+                    productId, level.quantity(), level.threshold());
+        }
+        eventPublisher.publishEvent(new LowStockEvent(productId, level.quantity(), level.threshold(), level.low(),
+                new Timestamp(System.currentTimeMillis())));
+    }
+}
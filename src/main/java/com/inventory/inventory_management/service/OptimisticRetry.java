@@ -0,0 +1,96 @@
+package com.inventory.inventory_management.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-modify-write operations on versioned entities, each attempt in its own transaction.
+ * When another writer got there first the attempt fails with an optimistic lock failure and is
+ * retried after a jittered exponential backoff, up to a configurable number of attempts.
+ * Retries and exhausted operations are counted in the metrics registry.
+ */
+@Component
+public class OptimisticRetry {
+
+    // Logger instance for logging retry operations
+    private static final Logger logger = LogManager.getLogger(OptimisticRetry.class);
+
+    static final String RETRIES_METRIC = "inventory.optimistic.retries";
+    static final String EXHAUSTED_METRIC = "inventory.optimistic.exhausted";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.optimistic-retry.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${inventory.optimistic-retry.base-backoff-ms:10}")
+    private long baseBackoffMillis = 10;
+
+    @Value("${inventory.optimistic-retry.max-backoff-ms:200}")
+    private long maxBackoffMillis = 200;
+
+    /**
+     * Runs an operation, retrying it on optimistic lock failures up to the configured cap.
+     *
+     * @param operation the name of the operation, used as the metric tag
+     * @param action    the work of one attempt; it must re-read whatever it modifies
+     * @param <T>       the result type
+     * @return the result of the first successful attempt
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        return execute(operation, maxAttempts, action);
+    }
+
+    /**
+     * Runs an operation, retrying it on optimistic lock failures.
+     *
+     * @param operation the name of the operation, used as the metric tag
+     * @param attempts  the maximum number of attempts; 1 disables retries
+     * @param action    the work of one attempt; it must re-read whatever it modifies
+     * @param <T>       the result type
+     * @return the result of the first successful attempt
+     * @throws OptimisticLockingFailureException if the last attempt still conflicts
+     */
+    public <T> T execute(String operation, int attempts, Supplier<T> action) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= attempts) {
+                    meterRegistry.counter(EXHAUSTED_METRIC, "operation", operation).increment();
+                    logger.warn("Giving up on {} after {} conflicting attempts", operation, attempt);
+                    throw ex;
+                }
+                meterRegistry.counter(RETRIES_METRIC, "operation", operation).increment();
+                logger.debug("Retrying {} after optimistic lock failure, attempt {}", operation, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        // Full jitter: a random pause up to the exponential bound keeps competing writers from retrying in lockstep
+        long bound = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", ex);
+        }
+    }
+}
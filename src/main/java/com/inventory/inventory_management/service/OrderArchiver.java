@@ -0,0 +1,140 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.repository.ArchivableOrderView;
+import com.inventory.inventory_management.repository.ArchivedOrderRepository;
+import com.inventory.inventory_management.repository.OrderRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class that moves shipped and canceled orders that have not changed for a while
+ * from the orders table to orders_archive, so the hot table and the queries over it stop
+ * growing with history. The due orders of each state are found by a keyset-paged read that
+ * takes no locks; each page is then moved in its own short transaction that locks its rows
+ * by primary key. An order is archived only once its last change is before the horizon, so
+ * orders created after the horizon are never archived and reads for a range that starts
+ * after it need not look at the archive. An archived order can no longer change status.
+ */
+@Service
+public class OrderArchiver {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(OrderArchiver.class);
+
+    private static final List<String> FINAL_STATUSES = List.of("SHIPPED", "CANCELED");
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.orders.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.orders.archive.after-days:90}")
+    private int afterDays = 90;
+
+    @Value("${inventory.orders.archive.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    /**
+     * The time before which orders may have been created or changed if they are in the archive.
+     *
+     * @return the archive horizon
+     */
+    public Timestamp horizon() {
+        return new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(afterDays));
+    }
+
+    /**
+     * Archives the orders that are due, on a schedule.
+     */
+    @Scheduled(fixedDelayString = "${inventory.orders.archive.interval-ms:3600000}")
+    public void archiveDue() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (Exception ex) {
+            logger.error("An error occurred while archiving orders: {}", ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Moves every shipped or canceled order last changed before the horizon to the archive,
+     * one chunk per transaction. Orders that never changed after being placed count as
+     * changed when they were placed. A chunk that fails is rolled back and left for the next run.
+     *
+     * @return the number of orders archived
+     */
+    public int archive() {
+        Timestamp cutoff = horizon();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int archived = 0;
+        for (String status : FINAL_STATUSES) {
+            archived += archive(status, false, cutoff, transactionTemplate);
+            archived += archive(status, true, cutoff, transactionTemplate);
+        }
+        if (archived > 0) {
+            logger.info("Archived {} orders last changed before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archive(String status, boolean unchanged, Timestamp cutoff, TransactionTemplate transactionTemplate) {
+        Timestamp afterTime = new Timestamp(0);
+        Long afterId = 0L;
+        int archived = 0;
+        List<ArchivableOrderView> page;
+        do {
+            PageRequest pageRequest = PageRequest.of(0, chunkSize);
+            page = unchanged
+                    ? orderRepository.findUnchangedArchivableAfter(status, cutoff, afterTime, afterId, pageRequest)
+                    : orderRepository.findArchivableAfter(status, cutoff, afterTime, afterId, pageRequest);
+            if (page.isEmpty()) {
+                break;
+            }
+            List<Long> ids = page.stream().map(ArchivableOrderView::getId).toList();
+            archived += transactionTemplate.execute(transaction -> archiveChunk(ids));
+            ArchivableOrderView last = page.get(page.size() - 1);
+            afterTime = last.getChangedAt();
+            afterId = last.getId();
+        } while (page.size() == chunkSize);
+        return archived;
+    }
+
+    private int archiveChunk(List<Long> candidates) {
+        // Orders that changed state since they were read are left where they are
+        List<Long> ids = orderRepository.lockAllByIdIn(candidates, FINAL_STATUSES)
+                .stream()
+                .map(Order::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = archivedOrderRepository.copyFromOrders(ids, new Timestamp(System.currentTimeMillis()));
+        int deleted = orderRepository.deleteAllByIdIn(ids);
+        if (copied != ids.size() || deleted != ids.size()) {
+            // Rolls the chunk back rather than losing or duplicating an order
+            throw new IllegalStateException("Archived " + copied + " and deleted " + deleted + " of " + ids.size() + " orders");
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,180 @@
+package com.inventory.inventory_management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.inventory_management.model.BulkOrderResult;
+import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.OrderIntakeStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous order intake. Accepted orders go into a bounded in-memory queue and the
+ * caller gets a token straight away. A few consumer threads drain the queue in micro-batches
+ * and place each batch in one transaction, with one stock update per product, so at peak
+ * many orders share one commit instead of paying for one each. A full queue refuses new
+ * orders instead of growing. Queued orders are lost if the process dies before they are
+ * placed; on a normal shutdown the queue is drained first.
+ * Enabled with {@code inventory.order-intake.async-enabled=true}.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.order-intake.async-enabled", havingValue = "true")
+public class OrderIntakeService {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(OrderIntakeService.class);
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.order-intake.capacity:10000}")
+    private int capacity = 10000;
+
+    @Value("${inventory.order-intake.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${inventory.order-intake.consumers:2}")
+    private int consumerCount = 2;
+
+    @Value("${inventory.order-intake.status-ttl-ms:3600000}")
+    private long statusTtlMillis = 3600000;
+
+    @Value("${inventory.order-intake.status-maximum-size:100000}")
+    private long statusMaximumSize = 100000;
+
+    private record Submission(String token, BulkOrderService.Placement placement) {
+    }
+
+    private BlockingQueue<Submission> queue;
+    private Cache<String, OrderIntakeStatus> statuses;
+    private ExecutorService consumers;
+    private volatile boolean running;
+
+    /**
+     * Creates the queue and starts the consumers.
+     */
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(statusTtlMillis))
+                .build();
+        Gauge.builder("inventory.order_intake.queued", queue, BlockingQueue::size)
+                .description("Orders accepted and waiting to be placed")
+                .register(meterRegistry);
+        running = true;
+        consumers = Executors.newFixedThreadPool(consumerCount, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.execute(this::consume);
+        }
+        logger.info("Order intake started: capacity={}, batchSize={}, consumers={}", capacity, batchSize, consumerCount);
+    }
+
+    /**
+     * Places what is still queued, then stops the consumers.
+     *
+     * @throws InterruptedException if interrupted while waiting for the consumers
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumers.shutdown();
+        if (!consumers.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Order intake stopped with {} orders still queued", queue.size());
+            consumers.shutdownNow();
+        }
+    }
+
+    /**
+     * Accepts an order for placement by the consumers. The authenticated user of the current
+     * request is captured with it, since the consumers run outside the request.
+     *
+     * @param order the order to place
+     * @return the token to poll the order's status with, or empty if the queue is full
+     */
+    public Optional<String> submit(Order order) {
+        String token = UUID.randomUUID().toString();
+        // Recorded first, so a consumer that places the order at once has a status to update
+        statuses.put(token, new OrderIntakeStatus(token, OrderIntakeStatus.QUEUED, null, null));
+        if (!queue.offer(new Submission(token, new BulkOrderService.Placement(order, ActingUser.name())))) {
+            statuses.invalidate(token);
+            logger.warn("Order intake queue is full, order for product {} refused", order.getProductId());
+            return Optional.empty();
+        }
+        return Optional.of(token);
+    }
+
+    /**
+     * Retrieves the status of an accepted order.
+     *
+     * @param token the token returned when the order was accepted
+     * @return the status, or empty if the token is unknown or its status has expired
+     */
+    public Optional<OrderIntakeStatus> getStatus(String token) {
+        return Optional.ofNullable(statuses.getIfPresent(token));
+    }
+
+    private void consume() {
+        List<Submission> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                // Wait for one order, then take whatever else is already queued, up to a batch
+                Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                place(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                logger.error("An error occurred while placing {} queued orders: {}", batch.size(), ex.getMessage(), ex);
+                batch.forEach(submission -> statuses.put(submission.token(), new OrderIntakeStatus(submission.token(),
+                        OrderIntakeStatus.REJECTED, null, "Order could not be placed: " + ex.getMessage())));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void place(List<Submission> batch) {
+        List<BulkOrderResult> results = bulkOrderService.placeOrders(batch.stream().map(Submission::placement).toList());
+        for (int i = 0; i < batch.size(); i++) {
+            String token = batch.get(i).token();
+            BulkOrderResult result = results.get(i);
+            statuses.put(token, BulkOrderResult.CREATED.equals(result.getStatus())
+                    ? new OrderIntakeStatus(token, OrderIntakeStatus.CREATED, result.getOrderId(), null)
+                    : new OrderIntakeStatus(token, OrderIntakeStatus.REJECTED, null, result.getMessage()));
+        }
+        logger.debug("Placed a batch of {} queued orders", batch.size());
+    }
+}
@@ -1,25 +1,43 @@
 package com.inventory.inventory_management.service;
 
+import com.inventory.inventory_management.entities.ArchivedOrder;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.entities.StockReservation;
+import com.inventory.inventory_management.exception.UserMismatchException;
 import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.OrderCancelResult;
+import com.inventory.inventory_management.model.OrderPage;
+import com.inventory.inventory_management.model.OrderView;
+import com.inventory.inventory_management.model.OrderStatus;
+import com.inventory.inventory_management.model.OrderStatusBatchRequest;
+import com.inventory.inventory_management.model.OrderStatusResult;
 import com.inventory.inventory_management.entities.Product;
 import com.inventory.inventory_management.model.Response;
-import com.inventory.inventory_management.model.User;
+import com.inventory.inventory_management.repository.ArchivedOrderRepository;
 import com.inventory.inventory_management.repository.OrderRepository;
 import com.inventory.inventory_management.repository.ProductRepository;
 import com.inventory.inventory_management.repository.UserRepository;
+import com.inventory.inventory_management.util.PageCursor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Service class for managing orders.
@@ -29,34 +47,63 @@ public class OrderService {
 
     // Logger instance for logging service operations
     private static final Logger logger = LogManager.getLogger(OrderService.class);
+
+    public static final int MAX_PAGE_SIZE = 500;
+
+    public static final int MAX_STATUS_BATCH = 10000;
+
+    private static final int STATUS_CHUNK_SIZE = 1000;
+
+    // Recorded on restock movements when orders are canceled without an authenticated user
+    private static final String CANCEL_USER = "order-cancel";
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     /**
-     * Creates a new order.
+     * Creates a new order. An order placed under the caller's own name costs one product
+     * read, one conditional stock update and the inserts of the order and its reservation,
+     * all in one transaction.
      *
      * @param order the order to be created
      * @return the created order
+     * @throws IllegalArgumentException if the order is placed as canceled
      */
     @Transactional
     public com.inventory.inventory_management.entities.Order createOrder(Order order) throws RuntimeException {
         try {
-            // Check if the user exists
-            userRepository.findByUsername(order.getUser())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            if (!OrderStatus.canPlaceAs(order.getStatus())) {
+                logger.warn("Order refused with status {}", order.getStatus());
+                throw new IllegalArgumentException("Status of a new order must be PROCESSING or SHIPPED");
+            }
+            // Check the user and place the order under the acting user
+            order.setUser(requireUser(order.getUser()));
 
             // Fetch the product from the database
             Optional<Product> productOpt = productRepository.findById(order.getProductId());
             if (productOpt.isPresent()) {
                 Product product = productOpt.get();
-                // Check if there is enough stock
-                if (product.getQuantity() >= order.getQuantity()) {
+                // Take the units atomically so concurrent orders cannot oversell
+                if (productService.tryDecrementStock(product.getId(), order.getQuantity(),
+                        StockMovementRecord.ORDER_PLACED, order.getUser())) {
                     // Sets the status to "PROCESSING" if not provided
                     if (order.getStatus() == null || order.getStatus().isBlank()) {
                         order.setStatus("PROCESSING");
@@ -72,7 +119,12 @@ public class OrderService {
                             .build();
 
                     // Save the order to the database
-                    return orderRepository.save(newOrder);
+                    com.inventory.inventory_management.entities.Order savedOrder = orderRepository.save(newOrder);
+                    // Hold the units for the order until it ships, is canceled or the hold expires
+                    if ("PROCESSING".equals(savedOrder.getStatus())) {
+                        stockReservationService.hold(savedOrder);
+                    }
+                    return savedOrder;
                 } else {
                     logger.error("Insufficient stock for product {}", order.getProductId());
                     throw new RuntimeException("Insufficient stock for the product");
@@ -86,71 +138,142 @@ public class OrderService {
             logger.info("Order creation process completed, see log for status");
         }
     }
+
     /**
-     * Retrieves all orders.
+     * Resolves the user an order change acts as. The authenticated user of the request
+     * needs no lookup, and a request cannot name anyone else; without an authenticated
+     * user, as for internal calls, the given name is looked up.
      *
-     * @return a list of all orders
+     * @throws com.inventory.inventory_management.exception.UserMismatchException if the given name is not the authenticated user's
      */
-    public List<com.inventory.inventory_management.entities.Order> getAllOrders() {
+    private String requireUser(String username) {
+        String user = ActingUser.resolve(username);
+        if (!ActingUser.isAuthenticated(user)) {
+            userRepository.findByUsername(user)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        }
+        return user;
+    }
+
+    /**
+     * Retrieves one page of orders, newest first, optionally filtered by status, by the user
+     * who placed them and by creation time.
+     *
+     * @param status    the status to match, or null for any
+     * @param createdBy the user who placed the orders, or null for any
+     * @param from      the inclusive lower bound of the creation time, or null for no bound
+     * @param to        the exclusive upper bound of the creation time, or null for no bound
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param limit     the maximum number of orders to return
+     * @return the page of orders and the cursor of the next page
+     * @throws IllegalArgumentException if the limit or the cursor is invalid
+     */
+    public OrderPage getOrders(String status, String createdBy, Timestamp from, Timestamp to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Timestamp beforeTime = to != null ? to : new Timestamp(System.currentTimeMillis() + 1);
+        long beforeId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            long[] position = PageCursor.decode(cursor, 2);
+            beforeTime = new Timestamp(position[0]);
+            beforeId = position[1];
+        }
         try {
-            return orderRepository.findAll();
+            // Read one extra row to learn whether another page exists
+            List<OrderView> orders = new ArrayList<>(orderRepository.findPageBefore(
+                    blankToNull(status), blankToNull(createdBy), from != null ? from : new Timestamp(0),
+                    beforeTime, beforeId, PageRequest.of(0, limit + 1)));
+            String nextCursor = null;
+            if (orders.size() > limit) {
+                orders.remove(limit);
+                OrderView last = orders.get(limit - 1);
+                nextCursor = PageCursor.encode(last.getCreatedAt().getTime(), last.getId());
+            }
+            return new OrderPage(orders, nextCursor);
         } catch (Exception ex) {
-            logger.error("An error occurred while fetching all orders: {}", ex.getMessage(), ex);
-            throw new RuntimeException("Error occurred while fetching all orders", ex);
+            logger.error("An error occurred while fetching orders: {}", ex.getMessage(), ex);
+            throw new RuntimeException("Error occurred while fetching orders", ex);
         }
     }
 
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
     /**
-     * Retrieves an order by its ID.
+     * Retrieves an order by its ID, looking in the archive only if it is not in the orders table.
      *
      * @param id the ID of the order
      * @return the order with the specified ID
      */
     public com.inventory.inventory_management.entities.Order getOrderById(Long id) {
         try {
-            return orderRepository.findById(id).orElseThrow(() -> new RuntimeException("Order not found"));
+            return orderRepository.findById(id)
+                    .or(() -> archivedOrderRepository.findById(id).map(this::fromArchive))
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
         } catch (Exception ex) {
             logger.error("An error occurred while fetching the order by ID: {}", ex.getMessage(), ex);
             throw new RuntimeException(ex.getMessage());
         }
     }
 
+    private com.inventory.inventory_management.entities.Order fromArchive(ArchivedOrder archived) {
+        return com.inventory.inventory_management.entities.Order.builder()
+                .id(archived.getId())
+                .productId(productRepository.findById(archived.getProductId()).orElse(null))
+                .quantity(archived.getQuantity())
+                .totalPrice(archived.getTotalPrice())
+                .status(archived.getStatus())
+                .createdAt(archived.getCreatedAt())
+                .updatedAt(archived.getUpdatedAt())
+                .createdBy(archived.getCreatedBy())
+                .updatedBy(archived.getUpdatedBy())
+                .build();
+    }
+
     /**
-     * Updates the status of an order.
+     * Updates the status of an order. Only the moves allowed by {@link OrderStatus} are made;
+     * setting the status an order already has changes nothing.
      *
      * @param id the ID of the order
      * @param status the new status of the order
-     * @param user the user updating the order
+     * @param claimedUser the user updating the order, which must be the authenticated user if there is one
      * @return the updated order
      */
-    public com.inventory.inventory_management.entities.Order updateOrderStatus(Long id, String status, String user) {
+    @Transactional
+    public com.inventory.inventory_management.entities.Order updateOrderStatus(Long id, String status, String claimedUser) {
         try {
-            List<String> statusValue = new ArrayList<>();
-            statusValue.add("PROCESSING");
-            statusValue.add("SHIPPED");
-            statusValue.add("CANCELED");
             com.inventory.inventory_management.entities.Order order = orderRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Order not found"));
-             String oldStatus = order.getStatus();
-            User updatingUser = userRepository.findByUsername(user)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            Product product = productRepository.findById(order.getProductId().getId())
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            if(statusValue.contains(status)) {
-                if(status.equals("CANCELLED")&& oldStatus.equals("SHIPPED")){
-                    order.setTotalPrice(order.getTotalPrice()-(order.getQuantity()*product.getPrice()));
-                    product.setQuantity(product.getQuantity() + order.getQuantity());
-                } else if (status.equals("SHIPPED")) {
-                    product.setQuantity(product.getQuantity() - order.getQuantity());
-                }
-                productRepository.save(product);
-                    order.setStatus(status);
-                    order.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
-                    order.setUpdatedBy(user);
-                return orderRepository.save(order);
-                } else{
-                    throw new RuntimeException("Invalid Status");
-                }
+            String user = requireUser(claimedUser);
+            OrderStatus next = OrderStatus.of(status).orElseThrow(() -> new RuntimeException("Invalid Status"));
+            // Orders saved before statuses were checked are treated as still processing
+            OrderStatus current = OrderStatus.of(order.getStatus()).orElse(OrderStatus.PROCESSING);
+            if (current == next) {
+                return order;
+            }
+            if (!current.canMoveTo(next)) {
+                throw new RuntimeException("An order cannot move from " + current + " to " + next);
+            }
+            // Stock is taken when the order is placed and held until it ships
+            if (next == OrderStatus.SHIPPED) {
+                stockReservationService.consume(order.getId(), user);
+            }
+            // A cancellation puts the units back, through the reservation when the order has one
+            if (next == OrderStatus.CANCELED
+                    && !stockReservationService.release(order.getId(), StockMovementRecord.ORDER_CANCELED, user)) {
+                productService.incrementStock(order.getProductId().getId(), order.getQuantity(),
+                        StockMovementRecord.ORDER_CANCELED, user);
+            }
+            order.setStatus(next.name());
+            order.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+            order.setUpdatedBy(user);
+            return orderRepository.save(order);
+        }
+        catch (UserMismatchException ex) {
+            logger.warn("Order status update refused: {}", ex.getMessage());
+            throw ex;
         }
         catch (Exception ex) {
             logger.error("An error occurred while updating the order status: {}", ex.getMessage(), ex);
@@ -159,19 +282,118 @@ public class OrderService {
     }
 
     /**
-     * Cancels an order by its ID.
+     * Moves many orders to one status in a single transaction. Orders are read, their
+     * reservations settled and their statuses changed with one statement each per chunk of
+     * {@link #STATUS_CHUNK_SIZE} IDs, and the units of canceled orders are put back with one
+     * update per product, so shipping a wave of thousands of orders takes a handful of statements.
+     *
+     * @param request the IDs of the orders, the new status and the user making the change
+     * @return the outcome for each order, in request order
+     * @throws IllegalArgumentException if the status, the user or the number of orders is invalid
+     * @throws IllegalStateException    if some orders changed concurrently; nothing is applied
+     */
+    @Transactional
+    public List<OrderStatusResult> updateOrderStatuses(OrderStatusBatchRequest request) {
+        OrderStatus next = OrderStatus.of(request.getStatus())
+                .orElseThrow(() -> new IllegalArgumentException("Invalid Status"));
+        List<Long> ids = request.getOrderIds().stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > MAX_STATUS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_BATCH + " orders can be updated at once");
+        }
+        String user = ActingUser.resolve(request.getUser());
+        if (!ActingUser.isAuthenticated(user) && userRepository.findByUsername(user).isEmpty()) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        Map<Long, OrderStatusResult> results = new LinkedHashMap<>();
+        Map<Long, Integer> restock = new TreeMap<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < ids.size(); from += STATUS_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + STATUS_CHUNK_SIZE, ids.size()));
+            chunk.forEach(id -> results.put(id, new OrderStatusResult(id, null, OrderStatusResult.NOT_FOUND, "Order not found")));
+            moveChunk(chunk, next, user, now, results, restock);
+        }
+        // One update per product for all the canceled orders
+        restock.forEach((productId, quantity) ->
+                productService.incrementStock(productId, quantity, StockMovementRecord.ORDER_CANCELED, user));
+        logger.info("Moved orders to {}: {} requested, {} updated", next, ids.size(),
+                results.values().stream().filter(result -> OrderStatusResult.UPDATED.equals(result.getOutcome())).count());
+        return new ArrayList<>(results.values());
+    }
+
+    private void moveChunk(List<Long> chunk, OrderStatus next, String user, Timestamp now,
+                           Map<Long, OrderStatusResult> results, Map<Long, Integer> restock) {
+        Map<OrderStatus, List<com.inventory.inventory_management.entities.Order>> movable = new EnumMap<>(OrderStatus.class);
+        for (com.inventory.inventory_management.entities.Order order : orderRepository.findAllWithProductByIdIn(chunk)) {
+            Optional<OrderStatus> current = OrderStatus.of(order.getStatus());
+            if (current.isEmpty()) {
+                results.put(order.getId(), result(order, OrderStatusResult.REJECTED, "The order has no valid status; update it on its own"));
+            } else if (current.get() == next) {
+                results.put(order.getId(), result(order, OrderStatusResult.UNCHANGED, null));
+            } else if (!current.get().canMoveTo(next)) {
+                results.put(order.getId(), result(order, OrderStatusResult.REJECTED,
+                        "An order cannot move from " + current.get() + " to " + next));
+            } else {
+                movable.computeIfAbsent(current.get(), status -> new ArrayList<>()).add(order);
+            }
+        }
+        if (movable.isEmpty()) {
+            return;
+        }
+
+        // Settle the reservations before touching the orders, the same lock order as the expiry
+        Map<Long, String> reservations = stockReservationService.settleAll(
+                movable.values().stream().flatMap(List::stream).map(com.inventory.inventory_management.entities.Order::getId).toList(),
+                next == OrderStatus.SHIPPED ? StockReservation.CONSUMED : StockReservation.RELEASED);
+        for (List<com.inventory.inventory_management.entities.Order> orders : movable.values()) {
+            orders.removeIf(order -> {
+                String reservation = reservations.get(order.getId());
+                if (next == OrderStatus.SHIPPED && StockReservation.RELEASED.equals(reservation)
+                        && !stockReservationService.reclaim(order.getId(), user)) {
+                    results.put(order.getId(), result(order, OrderStatusResult.REJECTED, "The stock reservation of the order has expired"));
+                    return true;
+                }
+                // Units released by an earlier expiry are back already; all others come back now
+                if (next == OrderStatus.CANCELED && !StockReservation.RELEASED.equals(reservation)) {
+                    restock.merge(order.getProductId().getId(), order.getQuantity(), Integer::sum);
+                }
+                return false;
+            });
+        }
+
+        // One conditional update per previous status; a miss means an order changed under us
+        for (Map.Entry<OrderStatus, List<com.inventory.inventory_management.entities.Order>> group : movable.entrySet()) {
+            List<com.inventory.inventory_management.entities.Order> orders = group.getValue();
+            if (orders.isEmpty()) {
+                continue;
+            }
+            int moved = orderRepository.transitionAll(
+                    orders.stream().map(com.inventory.inventory_management.entities.Order::getId).toList(),
+                    group.getKey().name(), next.name(), now, user);
+            if (moved != orders.size()) {
+                throw new IllegalStateException("Some orders changed while their status was being updated; retry the request");
+            }
+            orders.forEach(order -> results.put(order.getId(), result(order, OrderStatusResult.UPDATED, null)));
+        }
+    }
+
+    private static OrderStatusResult result(com.inventory.inventory_management.entities.Order order, String outcome, String message) {
+        return new OrderStatusResult(order.getId(), order.getStatus(), outcome, message);
+    }
+
+    /**
+     * Cancels an order by its ID. The order is deleted and the units it still holds are put back.
      *
      * @param id the ID of the order to be canceled
      */
 
     public ResponseEntity<Response> cancelOrder(Long id) {
         try {
-            if (!orderRepository.existsById(id)) {
+            if (cancelOrders(List.of(id)).getCanceled() == 0) {
                 logger.warn("Order not found with ID: {}", id);
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(new Response("Error", "Order not found", "The specified order does not exist"));
             }
-            orderRepository.deleteById(id);
             logger.info("Order successfully deleted with ID: {}", id);
             return ResponseEntity.ok(new Response("Success", "Order successfully deleted", null));
         } catch (Exception ex) {
@@ -180,4 +402,89 @@ public class OrderService {
                     .body(new Response("Error", "Internal Server Error", "An error occurred while canceling the order: " + ex.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Cancels many orders by ID, deleting them. Each chunk of {@link #STATUS_CHUNK_SIZE}
+     * orders runs in its own transaction: the active reservations are released with one
+     * locking read and one update, the orders are locked with one read and deleted with one
+     * statement, and the units they still hold go back with one update per product. Those are
+     * the units of active reservations and of processing orders placed before reservations
+     * existed. The reservations are locked before the orders, the same order the expiry uses.
+     * A chunk that fails is rolled back; the chunks before it stay canceled.
+     *
+     * @param ids the IDs of the orders
+     * @return the counts of canceled and missing orders, released reservations and restocked units
+     * @throws IllegalArgumentException if there are too many orders
+     */
+    public OrderCancelResult cancelOrders(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.size() > MAX_STATUS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_STATUS_BATCH + " orders can be canceled at once");
+        }
+        OrderCancelResult result = new OrderCancelResult();
+        for (int from = 0; from < distinct.size(); from += STATUS_CHUNK_SIZE) {
+            cancelChunk(distinct.subList(from, Math.min(from + STATUS_CHUNK_SIZE, distinct.size())), result);
+        }
+        logger.info("Canceled {} of {} orders by ID", result.getCanceled(), result.getRequested());
+        return result;
+    }
+
+    /**
+     * Cancels every order matching a filter, such as all processing orders of one user.
+     * The matching IDs are read in chunks and each chunk is canceled as by {@link #cancelOrders(List)}.
+     *
+     * @param status    the status to match, or null for any
+     * @param createdBy the user who placed the orders, or null for any
+     * @return the counts of canceled orders, released reservations and restocked units
+     * @throws IllegalArgumentException if neither filter is given
+     */
+    public OrderCancelResult cancelOrdersMatching(String status, String createdBy) {
+        String statusFilter = blankToNull(status);
+        String userFilter = blankToNull(createdBy);
+        if (statusFilter == null && userFilter == null) {
+            throw new IllegalArgumentException("A status or a user is required to cancel orders by filter");
+        }
+        OrderCancelResult result = new OrderCancelResult();
+        long afterId = 0;
+        List<Long> chunk;
+        do {
+            chunk = orderRepository.findIdsAfter(statusFilter, userFilter, afterId, PageRequest.of(0, STATUS_CHUNK_SIZE));
+            if (!chunk.isEmpty()) {
+                cancelChunk(chunk, result);
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        } while (chunk.size() == STATUS_CHUNK_SIZE);
+        logger.info("Canceled {} orders matching status={}, createdBy={}", result.getCanceled(), statusFilter, userFilter);
+        return result;
+    }
+
+    private void cancelChunk(List<Long> ids, OrderCancelResult total) {
+        String user = Optional.ofNullable(ActingUser.name()).orElse(CANCEL_USER);
+        OrderCancelResult chunk = new TransactionTemplate(transactionManager).execute(status -> {
+            Map<Long, String> reservations = stockReservationService.settleAll(ids, StockReservation.RELEASED);
+            // One update per product, in product ID order
+            Map<Long, Integer> restock = new TreeMap<>();
+            for (com.inventory.inventory_management.entities.Order order : orderRepository.findAllByIdInForUpdate(ids)) {
+                String reservation = reservations.get(order.getId());
+                // Without a reservation, the order holds its units until it ships, as in updateOrderStatus
+                boolean held = reservation == null
+                        ? OrderStatus.of(order.getStatus()).orElse(OrderStatus.PROCESSING) == OrderStatus.PROCESSING
+                        : StockReservation.ACTIVE.equals(reservation);
+                if (held) {
+                    restock.merge(order.getProductId().getId(), order.getQuantity(), Integer::sum);
+                }
+            }
+            int deleted = orderRepository.deleteAllByIdIn(ids);
+            restock.forEach((productId, quantity) ->
+                    productService.incrementStock(productId, quantity, StockMovementRecord.ORDER_CANCELED, user));
+            long released = reservations.values().stream().filter(StockReservation.ACTIVE::equals).count();
+            return new OrderCancelResult(ids.size(), deleted, ids.size() - deleted, (int) released,
+                    restock.values().stream().mapToLong(Integer::longValue).sum());
+        });
+        total.setRequested(total.getRequested() + chunk.getRequested());
+        total.setCanceled(total.getCanceled() + chunk.getCanceled());
+        total.setNotFound(total.getNotFound() + chunk.getNotFound());
+        total.setReservationsReleased(total.getReservationsReleased() + chunk.getReservationsReleased());
+        total.setUnitsRestocked(total.getUnitsRestocked() + chunk.getUnitsRestocked());
+    }
+}
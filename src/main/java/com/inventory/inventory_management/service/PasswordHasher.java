@@ -0,0 +1,147 @@
+package com.inventory.inventory_management.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, bounded pool instead of the request
+ * threads, so a burst of logins costs at most that pool's threads and cannot starve the
+ * other endpoints. When the pool and its queue are full, work is refused straight away
+ * with {@link HasherBusyException} rather than queued behind the burst.
+ */
+@Service
+public class PasswordHasher {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(PasswordHasher.class);
+
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+
+    @Autowired
+    @Lazy
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${security.bcrypt.strength:10}")
+    private int strength = 10;
+
+    @Value("${security.password-hasher.threads:0}")
+    private int threads = 0;
+
+    @Value("${security.password-hasher.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Exception thrown when the hashing pool is saturated.
+     */
+    public static class HasherBusyException extends RuntimeException {
+        public HasherBusyException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Starts the hashing pool, one thread per processor unless configured otherwise.
+     */
+    @PostConstruct
+    public void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("security.password_hasher.queued", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a thread")
+                .register(meterRegistry);
+        logger.info("Password hasher started: threads={}, queueCapacity={}, strength={}", poolSize, queueCapacity, strength);
+    }
+
+    /**
+     * Stops the hashing pool.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks a raw password against a stored BCrypt hash on the hashing pool.
+     *
+     * @param rawPassword     the password to check
+     * @param encodedPassword the stored hash
+     * @return a future completed with true if the password matches
+     * @throws HasherBusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a raw password with the configured cost on the hashing pool.
+     *
+     * @param rawPassword the password to hash
+     * @return a future completed with the hash
+     * @throws HasherBusyException if the hashing pool is saturated
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks whether a stored password is a BCrypt hash.
+     *
+     * @param encodedPassword the stored password
+     * @return true if it is a BCrypt hash
+     */
+    public boolean isHashed(String encodedPassword) {
+        return encodedPassword != null && BCRYPT.matcher(encodedPassword).matches();
+    }
+
+    /**
+     * Checks whether a stored password should be hashed again, because it is not a BCrypt
+     * hash or was hashed with a cost other than the configured one.
+     *
+     * @param encodedPassword the stored password
+     * @return true if the password should be hashed again
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return true;
+        }
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        return !matcher.matches() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException ex) {
+            logger.warn("Password hasher is saturated, request refused");
+            throw new HasherBusyException("Too many logins in progress, retry later");
+        }
+    }
+}
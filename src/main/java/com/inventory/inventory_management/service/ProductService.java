@@ -1,18 +1,44 @@
 package com.inventory.inventory_management.service;
 
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.exception.StockBatchRejectedException;
+import com.inventory.inventory_management.exception.UserMismatchException;
+import com.inventory.inventory_management.exception.VersionConflictException;
+import com.inventory.inventory_management.model.LowStockItem;
 import com.inventory.inventory_management.model.Response;
+import com.inventory.inventory_management.model.StockBatchLine;
+import com.inventory.inventory_management.model.StockBatchRequest;
+import com.inventory.inventory_management.model.StockBatchResult;
+import com.inventory.inventory_management.model.StockChangedEvent;
 import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockLevelView;
 import com.inventory.inventory_management.repository.UserRepository;
 import com.inventory.inventory_management.util.StockMovement;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Service class for managing products.
@@ -23,11 +49,41 @@ public class ProductService {
     // Logger instance for logging service operations
     private static final Logger logger = LogManager.getLogger(ProductService.class);
 
+    // Largest IN list sent in one stock level query
+    static final int STOCK_LEVEL_CHUNK_SIZE = 1000;
+
+    public static final int MAX_STOCK_LEVEL_IDS = 10000;
+
+    public static final int MAX_LOW_STOCK_RESULTS = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ShardedStockService shardedStockService;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private StockLevelCache stockLevelCache;
+
+    @Autowired
+    private LowStockIndex lowStockIndex;
+
+    // Present only when inventory.stock-engine.enabled=true; stock then lives in memory
+    @Autowired(required = false)
+    private StockEngine stockEngine;
+
     /**
      * Retrieves the entire inventory of products.
      *
@@ -72,9 +128,12 @@ public class ProductService {
 
     public Product addInventory(com.inventory.inventory_management.model.Product product) {
         try {
-            // Check if the user exists
-            userRepository.findByUsername(product.getUser())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            // Check that the user is the authenticated one, or exists when there is none
+            String user = ActingUser.resolve(product.getUser());
+            if (!ActingUser.isAuthenticated(user)) {
+                userRepository.findByUsername(user)
+                        .orElseThrow(() -> new RuntimeException("User not found"));
+            }
 
             // Check if a product with the same name and description already exists
             if (productRepository.findByNameAndDescription(product.getName(), product.getDescription()).isPresent()) {
@@ -82,14 +141,17 @@ public class ProductService {
             }
 
             // Save the new product if no duplicate is found
-            return productRepository.save(Product.builder()
+            Product saved = productRepository.save(Product.builder()
                     .name(product.getName())
                     .description(product.getDescription())
                     .price(product.getPrice())
                     .quantity(product.getQuantity())
+                    .reorderThreshold(product.getReorderThreshold() != null ? product.getReorderThreshold() : 0)
                     .createdAt(new Timestamp(System.currentTimeMillis()))
-                    .createdBy(product.getUser())
+                    .createdBy(user)
                     .build());
+            lowStockIndex.track(saved.getId(), saved.getQuantity(), saved.getReorderThreshold());
+            return saved;
         } catch (Exception ex) {
             logger.error("An error occurred while adding inventory: {}", ex.getMessage(), ex);
             throw ex;
@@ -104,55 +166,122 @@ public class ProductService {
      * @return a response indicating the result of the update operation
      */
     public Response updateInventory(Long id, Double price, Integer quantity, String user) {
+        return updateInventory(id, price, quantity, user, null);
+    }
+
+    /**
+     * Updates an existing product in the inventory. The product is read and saved under its
+     * version; when a concurrent writer changes it in between, an unconditional update is
+     * retried on a fresh copy, while a conditional update fails with a version conflict.
+     *
+     * @param id the ID of the product to be updated
+     * @param price the new price, or null to keep the current one
+     * @param quantity the new quantity, or null to keep the current one
+     * @param claimedUser the user performing the update, which must be the authenticated user if there is one
+     * @param expectedVersion the version the client last saw, or null to update unconditionally
+     * @return a response indicating the result of the update operation
+     * @throws VersionConflictException if the product is no longer at the expected version
+     */
+    public Response updateInventory(Long id, Double price, Integer quantity, String claimedUser, Long expectedVersion) {
         try {
+            String user = ActingUser.resolve(claimedUser);
             // Validate that user is not null or empty
             if (user == null || user.trim().isEmpty()) {
                 return new Response("Error", "User is required", "User cannot be null or empty");
             }
 
-            // Check if the user exists in the user table
-            if (!userRepository.findByUsername(user).isPresent()) {
+            // The authenticated user exists; any other user is checked in the user table
+            if (!ActingUser.isAuthenticated(user) && !userRepository.findByUsername(user).isPresent()) {
                 return new Response("Error", "User not found", "The user does not exist");
             }
 
-            // Retrieve the existing product from the database
-            Product existingProduct = productRepository.findById(id).orElse(null);
-
-            if (existingProduct != null) {
-                // Update only the price if provided
-                if (price != null) {
-                    if (price <= 0) {
-                        return new Response("Error", "Invalid price value", "Price must be greater than 0");
-                    }
-                    existingProduct.setPrice(price);
-                }
+            if (expectedVersion != null) {
+                // The client decided on the changes from the expected version, so they must not be replayed on a newer one
+                return optimisticRetry.execute("updateInventory", 1,
+                        () -> applyInventoryUpdate(id, price, quantity, user, expectedVersion));
+            }
+            return optimisticRetry.execute("updateInventory",
+                    () -> applyInventoryUpdate(id, price, quantity, user, null));
+        } catch (VersionConflictException ex) {
+            logger.warn("Version conflict while updating product {}: {}", id, ex.getMessage());
+            throw ex;
+        } catch (UserMismatchException ex) {
+            logger.warn("Inventory update of product {} refused: {}", id, ex.getMessage());
+            throw ex;
+        } catch (OptimisticLockingFailureException ex) {
+            if (expectedVersion != null) {
+                logger.warn("Product {} changed while applying a conditional update", id);
+                throw new VersionConflictException("Product was modified concurrently",
+                        productRepository.findById(id).map(Product::getVersion).orElse(null));
+            }
+            logger.error("An error occurred while updating inventory: {}", ex.getMessage(), ex);
+            throw new RuntimeException("Error updating product with ID: " + id, ex);
+        } catch (Exception ex) {
+            logger.error("An error occurred while updating inventory: {}", ex.getMessage(), ex);
+            throw new RuntimeException("Error updating product with ID: " + id, ex);
+        }
+    }
 
-                // Update only the quantity if provided
-                if (quantity != null) {
-                    if (quantity < 0) {
-                        return new Response("Error", "Invalid quantity value", "Quantity cannot be negative");
-                    }
-                    existingProduct.setQuantity(quantity);
-                }
+    private Response applyInventoryUpdate(Long id, Double price, Integer quantity, String user, Long expectedVersion) {
+        // Retrieve the existing product from the database
+        Product existingProduct = productRepository.findById(id).orElse(null);
 
-                // Update the common fields
-                existingProduct.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
-                existingProduct.setUpdatedBy(user);
+        if (existingProduct == null) {
+            // Return error response if product not found
+            logger.warn("Product not found for update, ID: {}", id);
+            throw new RuntimeException("Product not found ");
+        }
+        if (expectedVersion != null && existingProduct.getVersion() != expectedVersion) {
+            throw new VersionConflictException("Product version " + expectedVersion + " is not current",
+                    existingProduct.getVersion());
+        }
+        if (price != null && price <= 0) {
+            return new Response("Error", "Invalid price value", "Price must be greater than 0");
+        }
+        if (quantity != null && quantity < 0) {
+            return new Response("Error", "Invalid quantity value", "Quantity cannot be negative");
+        }
 
-                // Save the updated product back to the database
-                Product updatedProduct = productRepository.save(existingProduct);
+        // Update only the price if provided
+        if (price != null) {
+            existingProduct.setPrice(price);
+        }
 
-                // Return success response
-                return new Response("success", "Inventory updated successfully", updatedProduct);
+        // Update only the quantity if provided. The stock engine is set only once the row is
+        // saved, since it is not part of this attempt's transaction
+        int previous = 0;
+        if (quantity != null && stockEngine == null) {
+            if (shardedStockService.isSharded(id)) {
+                previous = shardedStockService.getQuantity(id);
+                shardedStockService.set(id, quantity);
             } else {
-                // Return error response if product not found
-                logger.warn("Product not found for update, ID: {}", id);
-                throw new RuntimeException("Product not found ");
+                previous = existingProduct.getQuantity();
             }
-        } catch (Exception ex) {
-            logger.error("An error occurred while updating inventory: {}", ex.getMessage(), ex);
-            throw new RuntimeException("Error updating product with ID: " + id, ex);
+            existingProduct.setQuantity(quantity);
         }
+
+        // Update the common fields
+        existingProduct.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        existingProduct.setUpdatedBy(user);
+
+        // Save and flush, so a version conflict surfaces inside this attempt before any stock changes
+        Product updatedProduct = productRepository.saveAndFlush(existingProduct);
+
+        if (quantity != null) {
+            if (stockEngine != null) {
+                // The row keeps its own quantity: the engine's delta reaches it through write-behind
+                previous = stockEngine.set(id, quantity);
+                undoEngineChangeOnRollback(id, quantity - previous);
+                updatedProduct.setQuantity(quantity);
+            }
+            if (quantity != previous) {
+                // Published inside the attempt's transaction, so only the attempt that commits is journaled
+                publishMovement(id, quantity - previous, StockMovementRecord.ADJUST, user);
+            }
+        }
+
+        // Return success response
+        return new Response("success", "Inventory updated successfully", updatedProduct);
     }
 
     /**
@@ -162,13 +291,69 @@ public class ProductService {
      */
     public void deleteInventory(Long id) {
         try {
+            if (shardedStockService.isSharded(id)) {
+                shardedStockService.evict(id);
+            }
             productRepository.deleteById(id);
+            stockLevelCache.evict(id);
+            lowStockIndex.remove(id);
+            if (stockEngine != null) {
+                stockEngine.evict(id);
+            }
         } catch (Exception ex) {
             logger.error("An error occurred while deleting inventory: {}", ex.getMessage(), ex);
             throw ex;
         }
     }
 
+    /**
+     * Sets the stock level below which a product should be reordered.
+     *
+     * @param id          the ID of the product
+     * @param threshold   the new reorder threshold, or 0 to turn reorder alerts off
+     * @param claimedUser the user performing the update, which must be the authenticated user if there is one
+     * @return the updated product
+     * @throws IllegalArgumentException if the threshold is negative or the user does not exist
+     */
+    public Product setReorderThreshold(Long id, int threshold, String claimedUser) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Reorder threshold cannot be negative");
+        }
+        String user = ActingUser.resolve(claimedUser);
+        // The authenticated user exists; any other user is checked in the user table
+        if (user == null || (!ActingUser.isAuthenticated(user) && userRepository.findByUsername(user).isEmpty())) {
+            throw new IllegalArgumentException("User not found");
+        }
+        try {
+            Product updated = optimisticRetry.execute("setReorderThreshold", () -> {
+                Product product = productRepository.findById(id)
+                        .orElseThrow(() -> new RuntimeException("Product not found"));
+                product.setReorderThreshold(threshold);
+                product.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+                product.setUpdatedBy(user);
+                return productRepository.saveAndFlush(product);
+            });
+            lowStockIndex.setThreshold(id, threshold);
+            return updated;
+        } catch (Exception ex) {
+            logger.error("An error occurred while setting the reorder threshold of product {}: {}", id, ex.getMessage(), ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Lists the products whose stock is below their reorder threshold, largest shortfall first.
+     *
+     * @param limit the maximum number of products to return
+     * @return the products below their threshold
+     */
+    public List<LowStockItem> getLowStock(int limit) {
+        if (limit < 1 || limit > MAX_LOW_STOCK_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LOW_STOCK_RESULTS);
+        }
+        return lowStockIndex.getLowStock(limit);
+    }
+
     /**
      * Adds stock to an existing product in the inventory.
      *
@@ -176,13 +361,12 @@ public class ProductService {
      * @param quantity the quantity to be added
      * @return the updated stock response
      */
+    @Transactional
     public StockMovement addStock(Long productId, int quantity) {
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            product.setQuantity(product.getQuantity() + quantity);
-            productRepository.save(product);
-            return new StockMovement(productId.toString(), String.valueOf(product.getQuantity()));
+            putStock(productId, quantity);
+            publishMovement(productId, quantity, StockMovementRecord.ADD, ActingUser.name());
+            return new StockMovement(productId.toString(), String.valueOf(currentQuantity(productId)));
         } catch (Exception ex) {
             logger.error("An error occurred while adding stock: {}", ex.getMessage(), ex);
             throw ex;
@@ -191,27 +375,287 @@ public class ProductService {
 
     /**
      * Removes stock from an existing product in the inventory.
+     * The availability check and the decrement are a single conditional UPDATE,
+     * so concurrent removals can never oversell the product.
      *
      * @param productId the ID of the product
      * @param quantity the quantity to be removed
      * @return the updated stock response
      */
+    @Transactional
     public StockMovement removeStock(Long productId, int quantity) {
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            if (product.getQuantity() < quantity) {
+            if (!takeStock(productId, quantity)) {
                 throw new RuntimeException("Insufficient stock");
             }
-            product.setQuantity(product.getQuantity() - quantity);
-            productRepository.save(product);
-            return new StockMovement(productId.toString(), String.valueOf(product.getQuantity()));
+            publishMovement(productId, -quantity, StockMovementRecord.REMOVE, ActingUser.name());
+            return new StockMovement(productId.toString(), String.valueOf(currentQuantity(productId)));
         } catch (Exception ex) {
             logger.error("An error occurred while removing stock: {}", ex.getMessage(), ex);
             throw ex;
         }
     }
 
+    /**
+     * Applies a batch of signed stock movements in one transaction.
+     * Lines run as one JDBC batch in product ID order, so concurrent batches lock rows
+     * in the same order and cannot deadlock. With skipInvalid set, bad lines are skipped;
+     * otherwise any bad line rolls back the whole batch.
+     *
+     * @param request the movements to apply
+     * @return the result of each line, in request order
+     */
+    @Transactional
+    public List<StockBatchResult> applyStockBatch(StockBatchRequest request) {
+        List<StockBatchLine> movements = request.getMovements();
+        StockBatchResult[] results = new StockBatchResult[movements.size()];
+        List<Integer> executable = new ArrayList<>();
+        for (int i = 0; i < movements.size(); i++) {
+            StockBatchLine line = movements.get(i);
+            if (line == null || line.getProductId() == null || line.getQuantity() == 0) {
+                results[i] = batchResult(i, line, StockBatchResult.INVALID, "Product ID is required and quantity cannot be zero");
+            } else {
+                executable.add(i);
+            }
+        }
+        if (!request.isSkipInvalid() && executable.size() < movements.size()) {
+            throw rejectBatch(results, movements);
+        }
+
+        // List.sort is stable, so lines for the same product keep their request order
+        executable.sort(Comparator.comparing(i -> movements.get(i).getProductId()));
+        List<StockBatchLine> ordered = executable.stream().map(movements::get).toList();
+        int[] counts = applyBatchLines(ordered);
+
+        Set<Long> unappliedProducts = new HashSet<>();
+        for (int k = 0; k < counts.length; k++) {
+            // Anything but a positive count, including Statement.EXECUTE_FAILED, means the line did not apply
+            if (counts[k] <= 0) {
+                unappliedProducts.add(ordered.get(k).getProductId());
+            }
+        }
+        Set<Long> existingProducts = unappliedProducts.isEmpty()
+                ? Set.of() : new HashSet<>(productRepository.findExistingIds(unappliedProducts));
+
+        boolean rejected = false;
+        for (int k = 0; k < counts.length; k++) {
+            int i = executable.get(k);
+            StockBatchLine line = ordered.get(k);
+            if (counts[k] > 0) {
+                results[i] = batchResult(i, line, StockBatchResult.APPLIED, null);
+            } else {
+                rejected = true;
+                results[i] = batchResult(i, line, StockBatchResult.REJECTED,
+                        existingProducts.contains(line.getProductId()) ? "Insufficient stock" : "Product not found");
+            }
+        }
+        if (rejected && !request.isSkipInvalid()) {
+            // Rolls back the transaction, which also undoes the lines the stock engine applied
+            throw rejectBatch(results, movements);
+        }
+        String user = ActingUser.name();
+        for (int k = 0; k < counts.length; k++) {
+            if (counts[k] > 0) {
+                publishMovement(ordered.get(k).getProductId(), ordered.get(k).getQuantity(), StockMovementRecord.BATCH, user);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private int[] applyBatchLines(List<StockBatchLine> lines) {
+        int[] counts = new int[lines.size()];
+        List<StockBatchLine> jdbcLines = new ArrayList<>();
+        List<Integer> jdbcPositions = new ArrayList<>();
+        for (int k = 0; k < lines.size(); k++) {
+            StockBatchLine line = lines.get(k);
+            if (stockEngine == null && !shardedStockService.isSharded(line.getProductId())) {
+                jdbcLines.add(line);
+                jdbcPositions.add(k);
+                continue;
+            }
+            // Engine and sharded lines cannot join the JDBC batch, so they are applied one by one
+            try {
+                if (line.getQuantity() > 0) {
+                    putStock(line.getProductId(), line.getQuantity());
+                    counts[k] = 1;
+                } else {
+                    counts[k] = takeStock(line.getProductId(), -line.getQuantity()) ? 1 : 0;
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Stock batch line for product {} not applied: {}", line.getProductId(), ex.getMessage());
+                counts[k] = 0;
+            }
+        }
+        int[] jdbcCounts = stockJdbcRepository.applyDeltas(jdbcLines);
+        for (int j = 0; j < jdbcCounts.length; j++) {
+            counts[jdbcPositions.get(j)] = jdbcCounts[j];
+        }
+        return counts;
+    }
+
+    private StockBatchRejectedException rejectBatch(StockBatchResult[] results, List<StockBatchLine> movements) {
+        // Nothing in a rejected batch is kept, so every line that was not itself the problem is reported as not applied
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null || StockBatchResult.APPLIED.equals(results[i].getStatus())) {
+                results[i] = batchResult(i, movements.get(i), StockBatchResult.NOT_APPLIED, "Batch rejected");
+            }
+        }
+        return new StockBatchRejectedException("Stock batch rejected", Arrays.asList(results));
+    }
+
+    private StockBatchResult batchResult(int index, StockBatchLine line, String status, String message) {
+        return new StockBatchResult(index, line == null ? null : line.getProductId(),
+                line == null ? 0 : line.getQuantity(), status, message);
+    }
+
+    /**
+     * Takes stock for another operation, such as placing an order.
+     *
+     * @param productId the ID of the product
+     * @param quantity the quantity to take
+     * @param reason the reason recorded in the movement journal
+     * @param user the user taking the stock
+     * @return true if the stock was taken, false if there is not enough stock
+     */
+    @Transactional
+    public boolean tryDecrementStock(Long productId, int quantity, String reason, String user) {
+        boolean taken = takeStock(productId, quantity);
+        if (taken) {
+            publishMovement(productId, -quantity, reason, user);
+        }
+        return taken;
+    }
+
+    /**
+     * Puts stock back after another operation, such as cancelling an order.
+     *
+     * @param productId the ID of the product
+     * @param quantity the quantity to put back
+     * @param reason the reason recorded in the movement journal
+     * @param user the user putting the stock back
+     */
+    @Transactional
+    public void incrementStock(Long productId, int quantity, String reason, String user) {
+        putStock(productId, quantity);
+        publishMovement(productId, quantity, reason, user);
+    }
+
+    /**
+     * Splits a product's stock across the given number of shard rows, or collapses it
+     * back into the products row when the count is 0.
+     *
+     * @param productId the ID of the product
+     * @param shards the number of shards
+     * @return the stock response containing the product ID and stock level
+     */
+    public StockMovement setStockShards(Long productId, int shards) {
+        try {
+            if (stockEngine != null) {
+                throw new IllegalStateException("Stock sharding is not used while the stock engine is enabled");
+            }
+            return new StockMovement(productId.toString(), String.valueOf(shardedStockService.reshard(productId, shards)));
+        } catch (Exception ex) {
+            logger.error("An error occurred while sharding stock: {}", ex.getMessage(), ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Removes stock from wherever the product's stock lives: the stock engine,
+     * the shard rows, or the products row.
+     *
+     * @return true if the stock was removed, false if there is not enough stock
+     */
+    private boolean takeStock(Long productId, int quantity) {
+        if (stockEngine != null) {
+            if (stockEngine.tryRemove(productId, quantity) < 0) {
+                return false;
+            }
+            undoEngineChangeOnRollback(productId, -quantity);
+            return true;
+        }
+        if (shardedStockService.isSharded(productId)) {
+            return shardedStockService.tryRemove(productId, quantity);
+        }
+        if (productRepository.decrementStock(productId, quantity) == 1) {
+            return true;
+        }
+        // Not applied: the product is missing, short of stock, or was sharded after the check above
+        int shards = productRepository.findShardCountById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return shards > 0 && shardedStockService.tryRemove(productId, quantity);
+    }
+
+    /**
+     * Adds stock to wherever the product's stock lives.
+     */
+    private void putStock(Long productId, int quantity) {
+        if (stockEngine != null) {
+            stockEngine.add(productId, quantity);
+            undoEngineChangeOnRollback(productId, quantity);
+        } else if (shardedStockService.isSharded(productId)) {
+            shardedStockService.add(productId, quantity);
+        } else if (productRepository.incrementStock(productId, quantity) == 0) {
+            int shards = productRepository.findShardCountById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            if (shards == 0) {
+                throw new RuntimeException("Product not found");
+            }
+            shardedStockService.add(productId, quantity);
+        }
+    }
+
+    /**
+     * Takes a stock engine change back if the surrounding transaction rolls back. The engine
+     * applies changes at once and outside the transaction, so without this an order whose
+     * insert failed would keep its units out of stock, and write-behind would flush that
+     * quantity to the products table. The undo is a delta, so concurrent changes are kept.
+     */
+    private void undoEngineChangeOnRollback(Long productId, int delta) {
+        if (delta == 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    stockEngine.add(productId, -delta);
+                } catch (Exception ex) {
+                    logger.error("Unable to undo stock engine change of {} for product {}: {}", delta, productId, ex.getMessage(), ex);
+                }
+            }
+        });
+    }
+
+    /**
+     * Announces a stock change. Listeners such as the movement journal
+     * receive it only once the surrounding transaction has committed.
+     */
+    private void publishMovement(Long productId, int delta, String reason, String user) {
+        eventPublisher.publishEvent(new StockChangedEvent(productId, delta, reason, user,
+                new Timestamp(System.currentTimeMillis())));
+    }
+
+    /**
+     * Reads the current stock quantity of a product, which is the quantity available to sell.
+     *
+     * @param productId the ID of the product
+     * @return the quantity in stock
+     */
+    public int currentQuantity(Long productId) {
+        if (stockEngine != null) {
+            return stockEngine.getQuantity(productId);
+        }
+        if (shardedStockService.isSharded(productId)) {
+            return shardedStockService.getQuantity(productId);
+        }
+        return productRepository.findQuantityById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+    }
+
     /**
      * Retrieves the stock level of a specific product by its ID.
      *
@@ -220,14 +664,73 @@ public class ProductService {
      */
     public StockMovement getStockLevel(Long productId) {
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found"));
-            return new StockMovement(productId.toString(), String.valueOf(product.getQuantity()));
+            if (stockEngine != null) {
+                return new StockMovement(productId.toString(), String.valueOf(stockEngine.getQuantity(productId)));
+            }
+            // Polled constantly by dashboards, so served from the near cache
+            int quantity = stockLevelCache.get(productId, id -> shardedStockService.isSharded(id)
+                    ? shardedStockService.getQuantity(id)
+                    : productRepository.findQuantityById(id).orElseThrow(() -> new RuntimeException("Product not found")));
+            return new StockMovement(productId.toString(), String.valueOf(quantity));
         } catch (Exception ex) {
             logger.error("An error occurred while fetching stock level: {}", ex.getMessage(), ex);
             throw ex;
         }
     }
+    /**
+     * Retrieves the stock levels of several products at once. Cached levels are served
+     * from the near cache and the rest are read with IN-list queries of at most
+     * {@link #STOCK_LEVEL_CHUNK_SIZE} IDs that load only the ID and quantity columns.
+     *
+     * @param productIds the IDs of the products
+     * @return the quantity of each product that exists, in request order
+     */
+    public Map<Long, Integer> getStockLevels(Collection<Long> productIds) {
+        try {
+            if (productIds.size() > MAX_STOCK_LEVEL_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_STOCK_LEVEL_IDS + " product IDs can be requested at once");
+            }
+            List<Long> ids = productIds.stream().filter(Objects::nonNull).distinct().toList();
+            Map<Long, Integer> levels;
+            if (stockEngine != null) {
+                levels = new HashMap<>();
+                for (Long id : ids) {
+                    stockEngine.findQuantity(id).ifPresent(quantity -> levels.put(id, quantity));
+                }
+            } else {
+                levels = stockLevelCache.getAll(ids, this::loadStockLevels);
+            }
+            Map<Long, Integer> result = new LinkedHashMap<>();
+            for (Long id : ids) {
+                Integer quantity = levels.get(id);
+                if (quantity != null) {
+                    result.put(id, quantity);
+                }
+            }
+            return result;
+        } catch (Exception ex) {
+            logger.error("An error occurred while fetching stock levels: {}", ex.getMessage(), ex);
+            throw ex;
+        }
+    }
+
+    private Map<Long, Integer> loadStockLevels(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        Map<Long, Integer> levels = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += STOCK_LEVEL_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + STOCK_LEVEL_CHUNK_SIZE, ids.size()));
+            for (StockLevelView level : productRepository.findStockLevelsByIdIn(chunk)) {
+                levels.put(level.getId(), level.getQuantity());
+            }
+        }
+        // The products row of a sharded product only holds a copy, so its shards are summed instead
+        List<Long> sharded = levels.keySet().stream().filter(shardedStockService::isSharded).toList();
+        if (!sharded.isEmpty()) {
+            levels.putAll(shardedStockService.getQuantities(sharded));
+        }
+        return levels;
+    }
+
     /**
      * Retrieves the stock level of a specific product by its name.
      *
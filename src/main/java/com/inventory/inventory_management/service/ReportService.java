@@ -1,7 +1,8 @@
 package com.inventory.inventory_management.service;
 
-import com.inventory.inventory_management.entities.Order;
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.OrderView;
+import com.inventory.inventory_management.repository.ArchivedOrderRepository;
 import com.inventory.inventory_management.repository.OrderRepository;
 import com.inventory.inventory_management.repository.ProductRepository;
 import org.apache.logging.log4j.LogManager;
@@ -14,6 +15,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,6 +34,12 @@ public class ReportService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
     /**
      * Retrieves the inventory report.
      *
@@ -46,13 +55,24 @@ public class ReportService {
     }
 
     /**
-     * Retrieves the order report.
+     * Retrieves the order report, with each order's product reduced to its ID and name.
+     * Archived orders are included only when the range starts before the archive horizon.
      *
-     * @return a list of all orders
+     * @param from the inclusive start of the creation time range, or null for no bound
+     * @param to   the exclusive end of the creation time range, or null for no bound
+     * @return the orders created in the range, archived ones first
      */
-    public List<Order> getOrderReport() {
+    public List<OrderView> getOrderReport(Timestamp from, Timestamp to) {
+        Timestamp lower = from != null ? from : new Timestamp(0);
+        Timestamp upper = to != null ? to : new Timestamp(System.currentTimeMillis() + 1);
         try {
-            return orderRepository.findAll();
+            List<OrderView> orders = orderRepository.findAllViews(lower, upper);
+            if (from != null && !from.before(orderArchiver.horizon())) {
+                return orders;
+            }
+            List<OrderView> all = new ArrayList<>(archivedOrderRepository.findViews(lower, upper));
+            all.addAll(orders);
+            return all;
         } catch (Exception ex) {
             logger.error("An error occurred while fetching order report: {}", ex.getMessage(), ex);
             throw ex;
@@ -116,14 +136,14 @@ public class ReportService {
     }
 
     /**
-     * Exports the order report to an Excel file.
+     * Exports the order report to an Excel file, archived orders included.
      *
      * @return the file path of the generated Excel report
      * @throws IOException if an I/O error occurs
      */
     public String exportOrderReportToExcel() throws IOException {
         try {
-            List<Order> orders = orderRepository.findAll();
+            List<OrderView> orders = getOrderReport(null, null);
             String directoryPath = "reports";
             File directory = new File(directoryPath);
 
@@ -147,7 +167,7 @@ public class ReportService {
             // Populate data rows
             int rowNum = 1;
             if (!orders.isEmpty()) {
-                for (Order order : orders) {
+                for (OrderView order : orders) {
                     Row row = sheet.createRow(rowNum++);
                     row.createCell(0).setCellValue(order.getId());
                     row.createCell(1).setCellValue(order.getQuantity());
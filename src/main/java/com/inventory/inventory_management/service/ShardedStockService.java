@@ -0,0 +1,302 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockShard;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockLevelView;
+import com.inventory.inventory_management.repository.StockShardRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service class for products whose stock is split across several shard rows.
+ * A hot product's stock normally lives in one products row, whose row lock serializes
+ * every concurrent sale. Sharding spreads the units over N stock_shards rows: a decrement
+ * takes units from a randomly chosen shard, so concurrent sales mostly lock different rows.
+ * Reads sum the shards, and a background job keeps the shards even.
+ */
+@Service
+public class ShardedStockService {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(ShardedStockService.class);
+
+    public static final int MAX_SHARDS = 256;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Shard count of every sharded product, so unsharded products never pay for a lookup
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the shard counts of the sharded products.
+     */
+    @PostConstruct
+    public void loadShardCounts() {
+        for (Product product : productRepository.findByShardCountGreaterThan(0)) {
+            shardCounts.put(product.getId(), product.getShardCount());
+        }
+        logger.info("Loaded {} sharded products", shardCounts.size());
+    }
+
+    /**
+     * Checks whether a product's stock is sharded.
+     *
+     * @param productId the ID of the product
+     * @return true if the product's stock lives in shards
+     */
+    public boolean isSharded(Long productId) {
+        return shardCounts.containsKey(productId);
+    }
+
+    /**
+     * Splits a product's stock across the given number of shards, or collapses it back
+     * into the products row when the count is 0. The current stock is kept.
+     *
+     * @param productId the ID of the product
+     * @param shards    the number of shards, from 0 to {@link #MAX_SHARDS}
+     * @return the product's stock
+     */
+    @Transactional
+    public int reshard(Long productId, int shards) {
+        if (shards < 0 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 0 and " + MAX_SHARDS);
+        }
+        // Locking the products row stops unsharded updates while the stock moves
+        Product product = productRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        int total = product.getQuantity();
+        if (product.getShardCount() > 0) {
+            total = stockShardRepository.lockShards(productId).stream().mapToInt(StockShard::getQuantity).sum();
+            stockShardRepository.deleteByProductId(productId);
+        }
+        if (shards > 0) {
+            stockShardRepository.saveAll(distribute(productId, total, shards));
+        }
+        product.setShardCount(shards);
+        product.setQuantity(total);
+        productRepository.save(product);
+
+        afterCommit(() -> {
+            if (shards > 0) {
+                shardCounts.put(productId, shards);
+            } else {
+                shardCounts.remove(productId);
+            }
+        });
+        logger.info("Product {} now uses {} stock shards for {} units", productId, shards, total);
+        return total;
+    }
+
+    /**
+     * Removes stock from a sharded product. One shard holding enough units is locked,
+     * searching from a random index and skipping shards that other transactions hold,
+     * so concurrent callers spread over the shards without waiting on each other.
+     * When no such shard is free, the shards still holding stock are locked in shard order
+     * and the units are gathered from several shards. A lookup may keep the lock on a shard
+     * it read as holding enough but found drained once locked; drained shards are left out
+     * of that step, so single removals of one unit cannot deadlock each other. A larger
+     * removal can pass over a shard that still holds a few units, and a transaction that
+     * removes stock more than once may already hold a shard another caller is waiting for;
+     * such deadlocks are detected by the database, which rolls one of the transactions back.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity to remove
+     * @return true if the stock was removed, false if there is not enough stock
+     */
+    @Transactional
+    public boolean tryRemove(Long productId, int quantity) {
+        int shards = shardCount(productId);
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        Optional<StockShard> available = stockShardRepository.lockAvailableShardFrom(productId, quantity, start);
+        if (available.isEmpty() && start > 0) {
+            available = stockShardRepository.lockAvailableShardBefore(productId, quantity, start);
+        }
+        if (available.isPresent()) {
+            // The shard is locked and holds enough, so the conditional update always applies
+            return stockShardRepository.decrementShard(productId, available.get().getShardIndex(), quantity) == 1;
+        }
+
+        // Every shard with enough units is busy, or the units are spread over several shards
+        List<StockShard> locked = stockShardRepository.lockStockedShards(productId);
+        if (locked.stream().mapToInt(StockShard::getQuantity).sum() < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (StockShard shard : locked) {
+            int taken = Math.min(shard.getQuantity(), remaining);
+            if (taken > 0) {
+                shard.setQuantity(shard.getQuantity() - taken);
+                remaining -= taken;
+            }
+        }
+        stockShardRepository.saveAll(locked);
+        return true;
+    }
+
+    /**
+     * Adds stock to a random shard of a sharded product.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity to add
+     */
+    @Transactional
+    public void add(Long productId, int quantity) {
+        int shards = shardCount(productId);
+        if (stockShardRepository.incrementShard(productId, ThreadLocalRandom.current().nextInt(shards), quantity) == 0) {
+            throw new RuntimeException("Product not found");
+        }
+    }
+
+    /**
+     * Sets the stock of a sharded product, spreading it evenly over its shards.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the new quantity
+     */
+    @Transactional
+    public void set(Long productId, int quantity) {
+        List<StockShard> locked = stockShardRepository.lockShards(productId);
+        if (locked.isEmpty()) {
+            throw new RuntimeException("Product not found");
+        }
+        List<StockShard> target = distribute(productId, quantity, locked.size());
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setQuantity(target.get(i).getQuantity());
+        }
+        stockShardRepository.saveAll(locked);
+    }
+
+    /**
+     * Reads the stock of a sharded product.
+     *
+     * @param productId the ID of the product
+     * @return the sum of the product's shards
+     */
+    public int getQuantity(Long productId) {
+        return (int) stockShardRepository.sumQuantity(productId);
+    }
+
+    /**
+     * Reads the stock of several sharded products in one query.
+     *
+     * @param productIds the IDs of the products
+     * @return the sum of the shards of each product that has shards
+     */
+    public Map<Long, Integer> getQuantities(Collection<Long> productIds) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (StockLevelView level : stockShardRepository.sumQuantities(productIds)) {
+            quantities.put(level.getId(), level.getQuantity());
+        }
+        return quantities;
+    }
+
+    /**
+     * Removes the shards of a deleted product.
+     *
+     * @param productId the ID of the product
+     */
+    @Transactional
+    public void evict(Long productId) {
+        stockShardRepository.deleteByProductId(productId);
+        afterCommit(() -> shardCounts.remove(productId));
+    }
+
+    /**
+     * Evens out the shards of every sharded product and copies each total into the
+     * products row, so reports reading quantity_in_stock stay close to the truth.
+     * Each product is rebalanced in its own short transaction, and a product whose shards
+     * and total have not moved is not written, so its version is left alone.
+     */
+    @Scheduled(fixedDelayString = "${inventory.sharded-stock.rebalance-interval-ms:5000}")
+    public void rebalance() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Long productId : new ArrayList<>(shardCounts.keySet())) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebalance(productId));
+            } catch (Exception ex) {
+                logger.error("An error occurred while rebalancing stock shards of product {}: {}", productId, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private void rebalance(Long productId) {
+        List<StockShard> locked = stockShardRepository.lockShards(productId);
+        if (locked.isEmpty()) {
+            return;
+        }
+        int total = locked.stream().mapToInt(StockShard::getQuantity).sum();
+        int min = locked.stream().mapToInt(StockShard::getQuantity).min().orElse(0);
+        int max = locked.stream().mapToInt(StockShard::getQuantity).max().orElse(0);
+        // A shard that drains early sends decrements to the next shard, so only skewed products are rewritten
+        if (max - min > 1) {
+            List<StockShard> target = distribute(productId, total, locked.size());
+            for (int i = 0; i < locked.size(); i++) {
+                locked.get(i).setQuantity(target.get(i).getQuantity());
+            }
+            stockShardRepository.saveAll(locked);
+        }
+        productRepository.setQuantity(productId, total);
+    }
+
+    private int shardCount(Long productId) {
+        Integer shards = shardCounts.get(productId);
+        if (shards == null) {
+            // Sharded by another transaction that committed after this one read the registry
+            shards = productRepository.findShardCountById(productId)
+                    .filter(count -> count > 0)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+        }
+        return shards;
+    }
+
+    private static List<StockShard> distribute(Long productId, int total, int shards) {
+        List<StockShard> result = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            result.add(StockShard.builder()
+                    .productId(productId)
+                    .shardIndex(i)
+                    .quantity(total / shards + (i < total % shards ? 1 : 0))
+                    .build());
+        }
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
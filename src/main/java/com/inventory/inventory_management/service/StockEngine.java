@@ -0,0 +1,291 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.entities.StockEngineCheckpoint;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockEngineCheckpointRepository;
+import com.inventory.inventory_management.repository.StockLevelView;
+import com.inventory.inventory_management.util.StockWriteAheadLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory authoritative stock engine.
+ * Quantities live in atomic counters keyed by product ID. Every mutation is appended to a
+ * local write-ahead log and made durable by a group fsync before it is acknowledged.
+ * Aggregated deltas are flushed to the products table in the background, and on startup
+ * the engine rebuilds itself from the table plus the log records not yet flushed.
+ * Enabled with {@code inventory.stock-engine.enabled=true}.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.stock-engine.enabled", havingValue = "true")
+public class StockEngine {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(StockEngine.class);
+
+    private static final int CHECKPOINT_ID = 1;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockEngineCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.stock-engine.wal-dir:data/stock-wal}")
+    private String walDirectory;
+
+    private final Map<Long, AtomicInteger> quantities = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+
+    // Mutations share the read side; the flusher takes the write side only to swap out the pending deltas
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    private StockWriteAheadLog writeAheadLog;
+
+    /**
+     * Loads quantities from the products table and replays the log records
+     * that were not yet flushed when the application last stopped.
+     *
+     * @throws IOException if the write-ahead log cannot be read or opened
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        long checkpoint = checkpointRepository.findById(CHECKPOINT_ID)
+                .map(StockEngineCheckpoint::getLastSequence)
+                .orElse(0L);
+        for (StockLevelView level : productRepository.findAllStockLevels()) {
+            quantities.put(level.getId(), new AtomicInteger(level.getQuantity()));
+        }
+
+        Path directory = Paths.get(walDirectory);
+        long lastSequence = StockWriteAheadLog.replay(directory, (sequence, productId, delta) -> {
+            if (sequence > checkpoint) {
+                quantities.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+                pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+            }
+        });
+        writeAheadLog = new StockWriteAheadLog(directory, Math.max(checkpoint, lastSequence) + 1);
+        logger.info("Stock engine recovered {} products, {} with unflushed deltas", quantities.size(), pendingDeltas.size());
+    }
+
+    /**
+     * Retrieves the quantity of a product.
+     *
+     * @param productId the ID of the product
+     * @return the quantity in stock
+     */
+    public int getQuantity(Long productId) {
+        return counter(productId).get();
+    }
+
+    /**
+     * Retrieves the quantity of a product, if it exists.
+     *
+     * @param productId the ID of the product
+     * @return an Optional containing the quantity in stock, or empty if the product does not exist
+     */
+    public Optional<Integer> findQuantity(Long productId) {
+        AtomicInteger counter = quantities.get(productId);
+        if (counter != null) {
+            return Optional.of(counter.get());
+        }
+        return productRepository.findQuantityById(productId)
+                .map(quantity -> quantities.computeIfAbsent(productId, id -> new AtomicInteger(quantity)).get());
+    }
+
+    /**
+     * Adds stock to a product.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity to add
+     * @return the new quantity in stock
+     */
+    public int add(Long productId, int quantity) {
+        long sequence;
+        int updated;
+        flushLock.readLock().lock();
+        try {
+            updated = counter(productId).addAndGet(quantity);
+            sequence = record(productId, quantity);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        awaitDurable(sequence);
+        return updated;
+    }
+
+    /**
+     * Removes stock from a product if enough is available.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity to remove
+     * @return the new quantity in stock, or -1 if there is not enough stock
+     */
+    public int tryRemove(Long productId, int quantity) {
+        long sequence;
+        int updated;
+        flushLock.readLock().lock();
+        try {
+            AtomicInteger counter = counter(productId);
+            int current;
+            do {
+                current = counter.get();
+                if (current < quantity) {
+                    return -1;
+                }
+                updated = current - quantity;
+            } while (!counter.compareAndSet(current, updated));
+            sequence = record(productId, -quantity);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        awaitDurable(sequence);
+        return updated;
+    }
+
+    /**
+     * Sets the quantity of a product, recording the difference as a delta.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the new quantity
+     * @return the quantity in stock before it was set
+     */
+    public int set(Long productId, int quantity) {
+        long sequence;
+        int previous;
+        flushLock.readLock().lock();
+        try {
+            previous = counter(productId).getAndSet(quantity);
+            sequence = record(productId, quantity - previous);
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        awaitDurable(sequence);
+        return previous;
+    }
+
+    /**
+     * Forgets a deleted product.
+     *
+     * @param productId the ID of the product
+     */
+    public void evict(Long productId) {
+        quantities.remove(productId);
+    }
+
+    /**
+     * Writes the aggregated deltas to the products table and advances the checkpoint
+     * in the same transaction. Log segments covered by the checkpoint are then deleted.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-engine.flush-interval-ms:1000}")
+    public void flush() {
+        Map<Long, Integer> snapshot = new HashMap<>();
+        long lastSequence;
+        flushLock.writeLock().lock();
+        try {
+            if (pendingDeltas.isEmpty()) {
+                return;
+            }
+            pendingDeltas.forEach((productId, delta) -> snapshot.put(productId, delta.get()));
+            pendingDeltas.clear();
+            lastSequence = writeAheadLog.rotate();
+        } catch (IOException ex) {
+            logger.error("Unable to rotate the stock write-ahead log: {}", ex.getMessage(), ex);
+            snapshot.forEach(this::restorePending);
+            return;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                snapshot.forEach((productId, delta) -> {
+                    if (delta != 0) {
+                        productRepository.incrementStock(productId, delta);
+                    }
+                });
+                checkpointRepository.save(new StockEngineCheckpoint(CHECKPOINT_ID, lastSequence));
+            });
+            writeAheadLog.releaseClosedSegments();
+            logger.debug("Flushed stock deltas for {} products up to sequence {}", snapshot.size(), lastSequence);
+        } catch (Exception ex) {
+            // The records stay in the log, so they are retried with the next flush or replayed on restart
+            logger.error("An error occurred while flushing stock deltas: {}", ex.getMessage(), ex);
+            flushLock.readLock().lock();
+            try {
+                snapshot.forEach(this::restorePending);
+            } finally {
+                flushLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes the remaining deltas and closes the write-ahead log on shutdown.
+     *
+     * @throws IOException if the log cannot be closed
+     */
+    @PreDestroy
+    public void shutdown() throws IOException {
+        flush();
+        writeAheadLog.close();
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = quantities.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        // Products created after startup are loaded on first use
+        Integer quantity = productRepository.findQuantityById(productId)
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return quantities.computeIfAbsent(productId, id -> new AtomicInteger(quantity));
+    }
+
+    private long record(Long productId, int delta) {
+        try {
+            long sequence = writeAheadLog.append(productId, delta);
+            pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+            return sequence;
+        } catch (IOException ex) {
+            // Undo the in-memory change so memory never runs ahead of the log
+            quantities.get(productId).addAndGet(-delta);
+            throw new UncheckedIOException("Unable to write stock change to the write-ahead log", ex);
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        try {
+            writeAheadLog.sync(sequence);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to sync the stock write-ahead log", ex);
+        }
+    }
+
+    private void restorePending(Long productId, Integer delta) {
+        pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta);
+    }
+}
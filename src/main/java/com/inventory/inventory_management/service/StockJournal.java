@@ -0,0 +1,165 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.model.StockMovementPage;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockMovementRecordRepository;
+import com.inventory.inventory_management.util.PageCursor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only journal of stock movements.
+ * Committed stock changes are buffered in memory and written to the stock_movements
+ * table in JDBC batches by a background flush, so recording a movement costs the
+ * stock operation a queue insert rather than a database round trip. The buffer is
+ * bounded: while the database is unreachable it fills up, and further movements are
+ * dropped and counted in {@code inventory.stock_journal.dropped}.
+ */
+@Service
+public class StockJournal {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(StockJournal.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Autowired
+    private StockMovementRecordRepository stockMovementRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.stock-journal.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${inventory.stock-journal.capacity:10000}")
+    private int capacity = 10000;
+
+    private final ConcurrentLinkedQueue<StockMovementRecord> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    private Counter dropped;
+
+    /**
+     * Registers the buffer metrics.
+     */
+    @PostConstruct
+    public void init() {
+        dropped = Counter.builder("inventory.stock_journal.dropped")
+                .description("Stock movements dropped because the journal buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("inventory.stock_journal.buffered", buffered, AtomicInteger::get)
+                .description("Stock movements waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers a committed stock change. Changes from rolled-back transactions never arrive here.
+     * The stock operation never waits on the database: when the buffer is full, which only
+     * happens while flushes are failing, the movement is dropped and counted instead.
+     *
+     * @param event the stock change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (buffered.incrementAndGet() > capacity) {
+            buffered.decrementAndGet();
+            dropped.increment();
+            logger.warn("Stock journal buffer full, movement of {} for product {} dropped", event.getDelta(), event.getProductId());
+            return;
+        }
+        buffer.add(StockMovementRecord.builder()
+                .productId(event.getProductId())
+                .delta(event.getDelta())
+                .reason(event.getReason())
+                .createdBy(event.getUser())
+                .createdAt(event.getOccurredAt())
+                .build());
+    }
+
+    /**
+     * Writes the buffered movements to the database in batches. A batch that fails stays
+     * buffered, and counted against the capacity, until a later flush writes it.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-journal.flush-interval-ms:500}")
+    public synchronized void flush() {
+        while (!buffer.isEmpty()) {
+            List<StockMovementRecord> batch = new ArrayList<>(batchSize);
+            StockMovementRecord movement;
+            while (batch.size() < batchSize && (movement = buffer.poll()) != null) {
+                batch.add(movement);
+            }
+            try {
+                stockJdbcRepository.insertMovements(batch);
+                buffered.addAndGet(-batch.size());
+            } catch (Exception ex) {
+                // Keep the movements for the next flush; readers page by ID, so they still see them once written
+                logger.error("An error occurred while writing {} stock movements: {}", batch.size(), ex.getMessage(), ex);
+                buffer.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes any remaining movements on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Retrieves one page of a product's movements, in the order they were written to the
+     * journal. Movements still in the buffer are not visible yet; they appear once flushed,
+     * after the last page read so far, so following the cursor returns every movement in the
+     * range exactly once even when a failed flush writes older movements late.
+     *
+     * @param productId the ID of the product
+     * @param from      the inclusive lower bound of the movement time, or null for no bound
+     * @param to        the exclusive upper bound of the movement time, or null for now
+     * @param cursor    the cursor returned with the previous page, or null for the first page
+     * @param limit     the maximum number of movements to return
+     * @return the page of movements and the cursor of the next page
+     */
+    public StockMovementPage getMovements(Long productId, Timestamp from, Timestamp to, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = cursor != null && !cursor.isBlank() ? PageCursor.decode(cursor, 1)[0] : 0;
+        Timestamp lowerBound = from != null ? from : new Timestamp(0);
+        Timestamp upperBound = to != null ? to : new Timestamp(System.currentTimeMillis() + 1);
+
+        // Read one extra row to learn whether another page exists
+        List<StockMovementRecord> movements = new ArrayList<>(stockMovementRecordRepository.findPageAfter(
+                productId, afterId, lowerBound, upperBound, PageRequest.of(0, limit + 1)));
+        String nextCursor = null;
+        if (movements.size() > limit) {
+            movements.remove(limit);
+            nextCursor = PageCursor.encode(movements.get(limit - 1).getId());
+        }
+        return new StockMovementPage(movements, nextCursor);
+    }
+}
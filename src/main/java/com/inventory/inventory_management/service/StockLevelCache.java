@@ -0,0 +1,194 @@
+package com.inventory.inventory_management.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inventory.inventory_management.model.StockChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded near cache of product ID to stock quantity, for stock level reads.
+ * Entries are evicted by size and by age. Every stock change in this application
+ * publishes a {@link StockChangedEvent}; when its transaction commits, the change is
+ * applied to the cached entry, so a read after a local write is correct without going
+ * back to the database. A value loaded while a write to the same product was in flight
+ * is returned but not cached, since the read may or may not have seen that write.
+ * Writes made by other application instances are only picked up when entries expire.
+ * Hit, miss and eviction counts are exposed as the cache metrics of "stockLevels".
+ */
+@Component
+public class StockLevelCache {
+
+    // Logger instance for logging cache operations
+    private static final Logger logger = LogManager.getLogger(StockLevelCache.class);
+
+    static final String CACHE_NAME = "stockLevels";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.stock-cache.maximum-size:10000}")
+    private long maximumSize = 10000;
+
+    @Value("${inventory.stock-cache.ttl-ms:30000}")
+    private long ttlMillis = 30000;
+
+    private Cache<Long, Integer> cache;
+
+    // Writes seen per product: how many are waiting for their transaction to end, and how many have ended.
+    // An entry idle for the cache TTL is dropped; a load overlapping a write it no longer sees can cache
+    // a stale value, but only for the TTL that already bounds staleness from other instances.
+    private Cache<Long, WriteState> writeStates;
+
+    private static final class WriteState {
+        private int inFlight;
+        private long completed;
+    }
+
+    /**
+     * Builds the cache and registers its metrics.
+     */
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        writeStates = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(ttlMillis))
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("Stock level cache holds up to {} products for {} ms", maximumSize, ttlMillis);
+    }
+
+    /**
+     * Reads the quantity of a product, loading and caching it on a miss.
+     *
+     * @param productId the ID of the product
+     * @param loader    reads the committed quantity from the source of truth
+     * @return the quantity in stock
+     */
+    public int get(Long productId, Function<Long, Integer> loader) {
+        Integer cached = cache.getIfPresent(productId);
+        if (cached != null) {
+            return cached;
+        }
+        long[] before = writeState(productId);
+        int quantity = loader.apply(productId);
+        install(productId, quantity, before);
+        return quantity;
+    }
+
+    /**
+     * Reads the quantities of several products, loading all the misses with one call.
+     *
+     * @param productIds the IDs of the products
+     * @param loader     reads the committed quantities of the given products; missing products are left out
+     * @return the quantity of each product that exists
+     */
+    public Map<Long, Integer> getAll(Collection<Long> productIds, Function<Collection<Long>, Map<Long, Integer>> loader) {
+        Map<Long, Integer> quantities = new HashMap<>(cache.getAllPresent(productIds));
+        List<Long> misses = productIds.stream().filter(id -> !quantities.containsKey(id)).toList();
+        if (misses.isEmpty()) {
+            return quantities;
+        }
+        Map<Long, long[]> before = new HashMap<>();
+        for (Long productId : misses) {
+            before.put(productId, writeState(productId));
+        }
+        Map<Long, Integer> loaded = loader.apply(misses);
+        loaded.forEach((productId, quantity) -> {
+            install(productId, quantity, before.get(productId));
+            quantities.put(productId, quantity);
+        });
+        return quantities;
+    }
+
+    /**
+     * Tracks a stock change until its transaction ends and applies it to the cached entry on commit.
+     * Outside a transaction the change is already visible, so the entry is simply dropped.
+     *
+     * @param event the stock change
+     */
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        Long productId = event.getProductId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(productId);
+            return;
+        }
+        writeStates.asMap().compute(productId, (id, state) -> {
+            WriteState current = state == null ? new WriteState() : state;
+            current.inFlight++;
+            return current;
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                writeStates.asMap().compute(productId, (id, state) -> {
+                    WriteState current = state == null ? new WriteState() : state;
+                    current.inFlight = Math.max(0, current.inFlight - 1);
+                    current.completed++;
+                    if (status == STATUS_COMMITTED) {
+                        cache.asMap().computeIfPresent(id, (key, quantity) -> quantity + event.getDelta());
+                    }
+                    return current;
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops a product from the cache after a change that is already visible, such as a deletion.
+     * A load that overlapped the change is not cached either.
+     *
+     * @param productId the ID of the product
+     */
+    public void evict(Long productId) {
+        writeStates.asMap().compute(productId, (id, state) -> {
+            WriteState current = state == null ? new WriteState() : state;
+            current.completed++;
+            cache.invalidate(id);
+            return current;
+        });
+    }
+
+    private void install(Long productId, int quantity, long[] before) {
+        writeStates.asMap().compute(productId, (id, state) -> {
+            int inFlight = state == null ? 0 : state.inFlight;
+            long completed = state == null ? 0 : state.completed;
+            // Only a load that no write overlapped is known to match the committed quantity
+            if (before != null && before[0] == 0 && inFlight == 0 && completed == before[1]) {
+                cache.put(id, quantity);
+            }
+            return state;
+        });
+    }
+
+    private long[] writeState(Long productId) {
+        long[] snapshot = new long[2];
+        writeStates.asMap().computeIfPresent(productId, (id, state) -> {
+            snapshot[0] = state.inFlight;
+            snapshot[1] = state.completed;
+            return state;
+        });
+        return snapshot;
+    }
+}
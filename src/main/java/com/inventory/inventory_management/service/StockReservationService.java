@@ -0,0 +1,356 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.entities.StockReservation;
+import com.inventory.inventory_management.model.StockAvailability;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.util.HashedTimingWheel;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class for the stock held by orders that have not shipped yet.
+ * Placing an order takes its units out of the available stock and records a reservation.
+ * Shipping consumes the reservation and cancelling the order puts the units back.
+ * Optionally, with {@code inventory.reservations.expiry-enabled=true}, a reservation that
+ * is still active after its TTL expires and its units go back on sale. The order itself is
+ * only canceled as well with {@code inventory.reservations.cancel-on-expiry=true}; otherwise
+ * it stays processing and its units are taken again when it ships. Expiry is driven by an
+ * in-memory hashed timing wheel rather than by polling the table; the active reservations
+ * are reloaded into it on startup.
+ */
+@Service
+public class StockReservationService {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(StockReservationService.class);
+
+    private static final String EXPIRY_USER = "reservation-expiry";
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${inventory.reservations.expiry-enabled:false}")
+    private boolean expiryEnabled = false;
+
+    @Value("${inventory.reservations.cancel-on-expiry:false}")
+    private boolean cancelOnExpiry = false;
+
+    @Value("${inventory.reservations.ttl-ms:900000}")
+    private long ttlMillis = 900000;
+
+    @Value("${inventory.reservations.tick-ms:1000}")
+    private long tickMillis = 1000;
+
+    @Value("${inventory.reservations.wheel-size:512}")
+    private int wheelSize = 512;
+
+    // Units held by active reservations, per product
+    private final Map<Long, AtomicInteger> reservedQuantities = new ConcurrentHashMap<>();
+
+    private HashedTimingWheel<Long> expiryWheel;
+
+    /**
+     * Loads the active reservations into the expiry wheel. Reservations that expired
+     * while the application was down are released on the first tick.
+     */
+    @PostConstruct
+    public void loadReservations() {
+        expiryWheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        reservedQuantities.clear();
+        for (StockReservation reservation : reservationRepository.findByStatus(StockReservation.ACTIVE)) {
+            track(reservation);
+        }
+        logger.info("Loaded {} active stock reservations", expiryWheel.size());
+    }
+
+    /**
+     * Records the reservation of an order whose units were just taken from the available stock.
+     *
+     * @param order the saved order
+     * @return the reservation
+     */
+    @Transactional
+    public StockReservation hold(Order order) {
+        long now = System.currentTimeMillis();
+        StockReservation reservation = reservationRepository.save(StockReservation.builder()
+                .orderId(order.getId())
+                .productId(order.getProductId().getId())
+                .quantity(order.getQuantity())
+                .status(StockReservation.ACTIVE)
+                .expiresAt(new Timestamp(now + ttlMillis))
+                .createdAt(new Timestamp(now))
+                .build());
+        afterCommit(() -> track(reservation));
+        return reservation;
+    }
+
+    /**
+     * Records the reservations of several orders whose units were just taken, as one batch of inserts.
+     *
+     * @param orders the saved orders
+     * @return the reservations
+     */
+    @Transactional
+    public List<StockReservation> holdAll(List<Order> orders) {
+        long now = System.currentTimeMillis();
+        List<StockReservation> reservations = reservationRepository.saveAll(orders.stream()
+                .map(order -> StockReservation.builder()
+                        .orderId(order.getId())
+                        .productId(order.getProductId().getId())
+                        .quantity(order.getQuantity())
+                        .status(StockReservation.ACTIVE)
+                        .expiresAt(new Timestamp(now + ttlMillis))
+                        .createdAt(new Timestamp(now))
+                        .build())
+                .toList());
+        afterCommit(() -> reservations.forEach(this::track));
+        return reservations;
+    }
+
+    /**
+     * Consumes the reservation of a shipped order. The units already left the available
+     * stock, so only the hold ends. Orders placed before reservations existed have none.
+     * If expiry released the reservation, the units are taken again as by {@link #reclaim}.
+     *
+     * @param orderId the ID of the order
+     * @param user    the user shipping the order
+     * @throws RuntimeException if the reservation was released and its units cannot be taken again
+     */
+    @Transactional
+    public void consume(Long orderId, String user) {
+        Optional<StockReservation> found = reservationRepository.findByOrderId(orderId);
+        if (found.isEmpty()) {
+            return;
+        }
+        StockReservation reservation = found.get();
+        if (reservationRepository.transition(reservation.getId(), StockReservation.ACTIVE, StockReservation.CONSUMED) == 1) {
+            afterCommit(() -> untrack(reservation));
+            return;
+        }
+        // Lost the race, or the reservation was settled earlier
+        String status = reservationRepository.findById(reservation.getId())
+                .map(StockReservation::getStatus)
+                .orElse(StockReservation.RELEASED);
+        if (StockReservation.RELEASED.equals(status) && !reclaim(orderId, user)) {
+            throw new RuntimeException("The stock reservation of the order has expired");
+        }
+    }
+
+    /**
+     * Takes the units of an order out of the available stock again after expiry released its
+     * reservation, and marks the reservation consumed, so the order can ship. Only done when
+     * expiry leaves orders processing: with cancel-on-expiry, a released reservation means the
+     * order was canceled, so it must not ship.
+     *
+     * @param orderId the ID of the order
+     * @param user    the user shipping the order
+     * @return true if the units were taken; false if the reservation is not released, orders
+     *         are canceled on expiry, or there is not enough stock
+     */
+    @Transactional
+    public boolean reclaim(Long orderId, String user) {
+        if (cancelOnExpiry) {
+            return false;
+        }
+        Optional<StockReservation> found = reservationRepository.findByOrderId(orderId);
+        if (found.isEmpty()
+                || reservationRepository.transition(found.get().getId(), StockReservation.RELEASED, StockReservation.CONSUMED) == 0) {
+            return false;
+        }
+        StockReservation reservation = found.get();
+        if (productService.tryDecrementStock(reservation.getProductId(), reservation.getQuantity(),
+                StockMovementRecord.RESERVATION_RECLAIMED, user)) {
+            return true;
+        }
+        reservationRepository.transition(reservation.getId(), StockReservation.CONSUMED, StockReservation.RELEASED);
+        return false;
+    }
+
+    /**
+     * Releases the reservation of a canceled order and puts its units back.
+     *
+     * @param orderId the ID of the order
+     * @param reason  the reason recorded in the movement journal
+     * @param user    the user cancelling the order
+     * @return true if the units are back through the reservation, now or earlier; false if the
+     *         order has no reservation or it was consumed, so the caller restocks the units itself
+     */
+    @Transactional
+    public boolean release(Long orderId, String reason, String user) {
+        Optional<StockReservation> found = reservationRepository.findByOrderId(orderId);
+        if (found.isEmpty()) {
+            return false;
+        }
+        StockReservation reservation = found.get();
+        if (StockReservation.ACTIVE.equals(reservation.getStatus()) && releaseActive(reservation, reason, user)) {
+            return true;
+        }
+        String status = reservationRepository.findById(reservation.getId())
+                .map(StockReservation::getStatus)
+                .orElse(StockReservation.CONSUMED);
+        return StockReservation.RELEASED.equals(status);
+    }
+
+    /**
+     * Ends the active reservations of several orders with one locking read and one update.
+     * Only the hold ends: unlike {@link #release}, no stock is put back, so the caller can
+     * restock many orders with one update per product. The reservations are locked before
+     * their orders are touched, the same order the expiry uses.
+     *
+     * @param orderIds the IDs of the orders
+     * @param status   CONSUMED for shipped orders or RELEASED for canceled ones
+     * @return the state each reservation was in before, by order ID; orders without a reservation are absent
+     */
+    @Transactional
+    public Map<Long, String> settleAll(Collection<Long> orderIds, String status) {
+        Map<Long, String> previous = new HashMap<>();
+        settleActive(orderIds, status, previous);
+        return previous;
+    }
+
+    private List<StockReservation> settleActive(Collection<Long> orderIds, String status, Map<Long, String> previous) {
+        List<StockReservation> active = new ArrayList<>();
+        if (orderIds.isEmpty()) {
+            return active;
+        }
+        for (StockReservation reservation : reservationRepository.findByOrderIdInForUpdate(orderIds)) {
+            previous.put(reservation.getOrderId(), reservation.getStatus());
+            if (StockReservation.ACTIVE.equals(reservation.getStatus())) {
+                active.add(reservation);
+            }
+        }
+        if (!active.isEmpty()) {
+            // The rows are locked, so every active reservation moves
+            reservationRepository.transitionAll(active.stream().map(StockReservation::getId).toList(),
+                    StockReservation.ACTIVE, status);
+            afterCommit(() -> active.forEach(this::untrack));
+        }
+        return active;
+    }
+
+    /**
+     * Reads how much of a product can be sold and how much is held for orders.
+     * Both figures are counters, so the cost does not grow with the number of reservations.
+     *
+     * @param productId the ID of the product
+     * @return the availability of the product
+     */
+    public StockAvailability getAvailability(Long productId) {
+        return new StockAvailability(productId, productService.currentQuantity(productId), getReservedQuantity(productId));
+    }
+
+    /**
+     * Reads the units held by the active reservations of a product.
+     *
+     * @param productId the ID of the product
+     * @return the reserved units
+     */
+    public int getReservedQuantity(Long productId) {
+        AtomicInteger reserved = reservedQuantities.get(productId);
+        return reserved == null ? 0 : reserved.get();
+    }
+
+    /**
+     * Advances the expiry wheel and releases every reservation whose time ran out, cancelling
+     * its order too if cancel-on-expiry is set and the order has not shipped. Each reservation
+     * is released in its own transaction; one that fails is retried on the next tick.
+     * Synchronized so a manual call returns only once a tick already in progress has finished.
+     * Nothing is scheduled on the wheel unless expiry is enabled.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservations.tick-ms:1000}")
+    public synchronized void expireDue() {
+        long now = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (Long reservationId : expiryWheel.advance(now)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> expire(reservationId));
+            } catch (Exception ex) {
+                logger.error("An error occurred while expiring stock reservation {}: {}", reservationId, ex.getMessage(), ex);
+                expiryWheel.schedule(reservationId, now + tickMillis);
+            }
+        }
+    }
+
+    private void expire(Long reservationId) {
+        Optional<StockReservation> found = reservationRepository.findById(reservationId);
+        if (found.isEmpty() || !StockReservation.ACTIVE.equals(found.get().getStatus())) {
+            return;
+        }
+        StockReservation reservation = found.get();
+        if (releaseActive(reservation, StockMovementRecord.RESERVATION_EXPIRED, EXPIRY_USER)) {
+            if (cancelOnExpiry) {
+                orderRepository.cancelIfProcessing(reservation.getOrderId(), new Timestamp(System.currentTimeMillis()), EXPIRY_USER);
+            }
+            logger.info("Stock reservation {} of order {} expired, released {} units of product {}",
+                    reservation.getId(), reservation.getOrderId(), reservation.getQuantity(), reservation.getProductId());
+        }
+    }
+
+    private boolean releaseActive(StockReservation reservation, String reason, String user) {
+        if (reservationRepository.transition(reservation.getId(), StockReservation.ACTIVE, StockReservation.RELEASED) == 0) {
+            return false;
+        }
+        productService.incrementStock(reservation.getProductId(), reservation.getQuantity(), reason, user);
+        afterCommit(() -> untrack(reservation));
+        return true;
+    }
+
+    private void track(StockReservation reservation) {
+        reservedQuantities.computeIfAbsent(reservation.getProductId(), id -> new AtomicInteger())
+                .addAndGet(reservation.getQuantity());
+        if (expiryEnabled) {
+            expiryWheel.schedule(reservation.getId(), reservation.getExpiresAt().getTime());
+        }
+    }
+
+    private void untrack(StockReservation reservation) {
+        expiryWheel.cancel(reservation.getId());
+        reservedQuantities.computeIfPresent(reservation.getProductId(), (id, reserved) ->
+                reserved.addAndGet(-reservation.getQuantity()) <= 0 ? null : reserved);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,239 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.model.StockLevelUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed stock changes to Server-Sent Events subscribers.
+ * Changes are folded per product and published once per interval, so a burst of sales
+ * on one product costs each subscriber a single event. Every subscriber owns a bounded
+ * buffer drained by a small pool of sender threads; a subscriber whose buffer fills up
+ * is disconnected, so neither stock writers nor other subscribers wait on a slow client.
+ */
+@Service
+public class StockStreamService {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(StockStreamService.class);
+
+    static final String EVENT_NAME = "stock";
+
+    @Value("${inventory.stock-stream.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${inventory.stock-stream.timeout-ms:1800000}")
+    private long timeoutMillis = 1800000;
+
+    @Value("${inventory.stock-stream.sender-threads:4}")
+    private int senderThreads = 4;
+
+    // Changes committed since the last publish, folded per product
+    private final Map<Long, StockLevelUpdate> pending = new ConcurrentHashMap<>();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    private ExecutorService senders;
+
+    private static final class Subscription {
+        private final SseEmitter emitter;
+        private final Set<Long> productIds;
+        private final BlockingQueue<StockLevelUpdate> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        // Only touched by the sender thread holding the draining flag
+        private volatile boolean completed;
+
+        private Subscription(SseEmitter emitter, Set<Long> productIds, int bufferSize) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private boolean wants(Long productId) {
+            return productIds.isEmpty() || productIds.contains(productId);
+        }
+    }
+
+    /**
+     * Starts the sender threads.
+     */
+    @PostConstruct
+    public void init() {
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Closes every subscription and stops the sender threads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (Subscription subscription : subscriptions) {
+            disconnect(subscription);
+        }
+        senders.shutdown();
+    }
+
+    /**
+     * Opens a stream of stock changes.
+     *
+     * @param productIds the products to follow, or empty for every product
+     * @return the emitter to return from the request handler
+     */
+    public SseEmitter subscribe(Collection<Long> productIds) {
+        return register(new SseEmitter(timeoutMillis), productIds);
+    }
+
+    /**
+     * Registers an emitter as a subscriber.
+     *
+     * @param emitter    the emitter receiving the events
+     * @param productIds the products to follow, or empty for every product
+     * @return the emitter
+     */
+    SseEmitter register(SseEmitter emitter, Collection<Long> productIds) {
+        Subscription subscription = new Subscription(emitter,
+                productIds == null ? Set.of() : Set.copyOf(productIds), bufferSize);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(ex -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        logger.info("Stock stream subscribed for {} products, {} subscribers",
+                subscription.productIds.isEmpty() ? "all" : subscription.productIds.size(), subscriptions.size());
+        return emitter;
+    }
+
+    /**
+     * @return the number of open subscriptions
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Folds a committed stock change into the pending update of its product.
+     * Changes from rolled-back transactions never arrive here.
+     *
+     * @param event the stock change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        pending.merge(event.getProductId(),
+                new StockLevelUpdate(event.getProductId(), event.getDelta(), 1, event.getOccurredAt()),
+                (current, change) -> new StockLevelUpdate(current.getProductId(),
+                        current.getDelta() + change.getDelta(),
+                        current.getChanges() + 1,
+                        change.getChangedAt().after(current.getChangedAt()) ? change.getChangedAt() : current.getChangedAt()));
+    }
+
+    /**
+     * Hands the pending updates to the subscribers following their products.
+     * A subscriber with no room left in its buffer is disconnected.
+     */
+    @Scheduled(fixedDelayString = "${inventory.stock-stream.coalesce-ms:500}")
+    public void publish() {
+        List<StockLevelUpdate> updates = new ArrayList<>();
+        for (Long productId : pending.keySet()) {
+            StockLevelUpdate update = pending.remove(productId);
+            if (update != null) {
+                updates.add(update);
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            boolean queued = false;
+            for (StockLevelUpdate update : updates) {
+                if (!subscription.wants(update.getProductId())) {
+                    continue;
+                }
+                if (!subscription.buffer.offer(update)) {
+                    logger.warn("Disconnecting stock stream subscriber that fell {} updates behind", bufferSize);
+                    disconnect(subscription);
+                    queued = false;
+                    break;
+                }
+                queued = true;
+            }
+            if (queued) {
+                schedule(subscription);
+            }
+        }
+    }
+
+    private void disconnect(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.closed = true;
+        subscription.buffer.clear();
+        // The emitter is completed by a sender thread, since it may still be busy writing to the client
+        schedule(subscription);
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        do {
+            try {
+                StockLevelUpdate update;
+                while (!subscription.closed && (update = subscription.buffer.poll()) != null) {
+                    subscription.emitter.send(SseEmitter.event()
+                            .id(Long.toString(eventIds.incrementAndGet()))
+                            .name(EVENT_NAME)
+                            .data(update));
+                }
+                if (subscription.closed && !subscription.completed) {
+                    subscription.completed = true;
+                    subscription.emitter.complete();
+                }
+            } catch (Exception ex) {
+                // The client went away; the container reports the error and completes the emitter
+                logger.debug("Stock stream subscriber closed: {}", ex.getMessage());
+                subscriptions.remove(subscription);
+                subscription.closed = true;
+                subscription.completed = true;
+                subscription.buffer.clear();
+            }
+            subscription.draining.set(false);
+            // Work that arrived after the last check found draining still set, so pick it up here
+        } while (hasWork(subscription) && subscription.draining.compareAndSet(false, true));
+    }
+
+    private static boolean hasWork(Subscription subscription) {
+        return subscription.closed ? !subscription.completed : !subscription.buffer.isEmpty();
+    }
+}
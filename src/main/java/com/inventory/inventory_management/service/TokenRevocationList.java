@@ -0,0 +1,157 @@
+package com.inventory.inventory_management.service;
+
+import com.inventory.inventory_management.entities.RevokedToken;
+import com.inventory.inventory_management.repository.RevokedTokenRepository;
+import com.inventory.inventory_management.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of the JWTs revoked before their expiry, checked on every authenticated
+ * request. The revoked_tokens table is the source of truth and is reloaded on a schedule,
+ * so revocations made by other instances take effect within one reload interval; those
+ * made by this instance take effect at once. Lookups go through a Bloom filter first, so
+ * the common case of a token that was never revoked is answered without touching the
+ * exact set; a Bloom filter hit is confirmed against the exact set.
+ */
+@Service
+public class TokenRevocationList {
+
+    // Logger instance for logging service operations
+    private static final Logger logger = LogManager.getLogger(TokenRevocationList.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    // The Bloom filter is sized for at least this many tokens, so it absorbs revocations between reloads
+    private static final int MIN_CAPACITY = 1024;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * The revoked token IDs with their expiry, and the Bloom filter over them.
+     */
+    private record Snapshot(BloomFilter filter, Map<String, Long> expiries) {
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(new BloomFilter(MIN_CAPACITY, FALSE_POSITIVE_RATE), new ConcurrentHashMap<>());
+
+    /**
+     * Loads the revoked tokens at startup and registers the size gauge.
+     */
+    @PostConstruct
+    public void init() {
+        Gauge.builder("security.revoked_tokens", this, list -> list.snapshot.expiries().size())
+                .description("Revoked tokens not yet expired")
+                .register(meterRegistry);
+        reload();
+    }
+
+    /**
+     * Checks whether a token has been revoked.
+     *
+     * @param jti the ID of the token, or null for a token issued without one
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        return current.filter().mightContain(jti) && current.expiries().containsKey(jti);
+    }
+
+    /**
+     * Revokes a token until it expires. The row is inserted rather than merged, so when two
+     * requests revoke the same token at once, on this instance or another, only one of them
+     * succeeds; the other finds the token already revoked.
+     *
+     * @param jti       the ID of the token
+     * @param username  the user the token was issued to
+     * @param expiresAt the expiry of the token
+     * @return true if this call revoked the token, false if it was already revoked, expired or has no ID
+     */
+    public boolean revoke(String jti, String username, Timestamp expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return false;
+        }
+        boolean revoked = true;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                entityManager.persist(RevokedToken.builder()
+                        .jti(jti)
+                        .username(username)
+                        .expiresAt(expiresAt)
+                        .revokedAt(new Timestamp(System.currentTimeMillis()))
+                        .build());
+                entityManager.flush();
+            });
+        } catch (ConstraintViolationException ex) {
+            logger.warn("Token {} of user {} was already revoked", jti, username);
+            revoked = false;
+        }
+        // Under the lock, so a reload either carries this token over or is already swapped in
+        synchronized (this) {
+            snapshot.expiries().put(jti, expiresAt.getTime());
+            snapshot.filter().put(jti);
+        }
+        if (revoked) {
+            logger.info("Revoked token {} of user {}", jti, username);
+        }
+        return revoked;
+    }
+
+    /**
+     * Rebuilds the list from the revoked_tokens table, dropping the tokens that have expired
+     * from both. Tokens revoked here while the table was being read are carried over.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval-ms:60000}")
+    public void reload() {
+        try {
+            long now = System.currentTimeMillis();
+            revokedTokenRepository.deleteExpired(new Timestamp(now));
+            List<RevokedToken> revoked = revokedTokenRepository.findByExpiresAtAfter(new Timestamp(now));
+
+            Map<String, Long> expiries = new ConcurrentHashMap<>();
+            revoked.forEach(token -> expiries.put(token.getJti(), token.getExpiresAt().getTime()));
+            synchronized (this) {
+                snapshot.expiries().forEach((jti, expiresAt) -> {
+                    if (expiresAt > now) {
+                        expiries.putIfAbsent(jti, expiresAt);
+                    }
+                });
+                BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, expiries.size() * 2L), FALSE_POSITIVE_RATE);
+                expiries.keySet().forEach(filter::put);
+                snapshot = new Snapshot(filter, expiries);
+            }
+            logger.debug("Token revocation list reloaded with {} tokens", expiries.size());
+        } catch (Exception ex) {
+            logger.error("An error occurred while reloading the token revocation list: {}", ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.inventory.inventory_management.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.inventory.inventory_management.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of each user's current role, for checking that the user behind a
+ * still-valid token has not been deleted or given another role since it was issued.
+ * A user is read from the database at most once per TTL, so a revocation takes effect
+ * within that time. Enabled with {@code jwt.user-status-check.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.user-status-check.enabled", havingValue = "true")
+public class UserStatusCache {
+
+    // Logger instance for logging cache operations
+    private static final Logger logger = LogManager.getLogger(UserStatusCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.user-status-check.ttl-ms:30000}")
+    private long ttlMillis = 30000;
+
+    @Value("${jwt.user-status-check.maximum-size:10000}")
+    private long maximumSize = 10000;
+
+    private LoadingCache<String, Optional<String>> roles;
+
+    /**
+     * Builds the cache.
+     */
+    @PostConstruct
+    public void init() {
+        roles = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build(userRepository::findRoleByUsername);
+        logger.info("User status cache started: ttlMillis={}, maximumSize={}", ttlMillis, maximumSize);
+    }
+
+    /**
+     * Checks that a user still exists and still has the role a token was issued with.
+     *
+     * @param username the username from the token
+     * @param role     the role from the token
+     * @return true if the token's user and role are still current
+     */
+    public boolean isCurrent(String username, String role) {
+        return roles.get(username).map(role::equals).orElse(false);
+    }
+}
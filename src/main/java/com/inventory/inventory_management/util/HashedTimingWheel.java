@@ -0,0 +1,106 @@
+package com.inventory.inventory_management.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel holding keys that expire at a deadline.
+ * Time is cut into ticks and each key sits in the bucket of the tick its deadline falls in,
+ * modulo the wheel size. Scheduling and cancelling are O(1); advancing the wheel only
+ * visits the buckets of the ticks that passed, and skips keys due in a later revolution.
+ *
+ * @param <K> the type of the keys
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final List<Map<K, Long>> buckets;
+    private final Map<K, Integer> bucketOf = new HashMap<>();
+    private long currentTick;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis  the length of one tick in milliseconds
+     * @param wheelSize   the number of buckets
+     * @param startMillis the current time in milliseconds
+     */
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick length and wheel size must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new HashMap<>());
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a key, replacing any earlier deadline of the same key.
+     * A deadline already in the past fires on the next tick.
+     *
+     * @param key            the key
+     * @param deadlineMillis the time at which the key expires, in milliseconds
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // Rounding up means a key is never seen before its deadline has passed
+        long tick = Math.max(Math.ceilDiv(deadlineMillis, tickMillis), currentTick + 1);
+        int index = (int) (tick % buckets.size());
+        buckets.get(index).put(key, deadlineMillis);
+        bucketOf.put(key, index);
+    }
+
+    /**
+     * Removes a key from the wheel.
+     *
+     * @param key the key
+     * @return true if the key was scheduled
+     */
+    public synchronized boolean cancel(K key) {
+        Integer index = bucketOf.remove(key);
+        if (index == null) {
+            return false;
+        }
+        buckets.get(index).remove(key);
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to the given time and removes the keys whose deadline has passed.
+     *
+     * @param nowMillis the current time in milliseconds
+     * @return the expired keys
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        // After a pause longer than one revolution, visiting the last revolution covers every bucket
+        long firstTick = Math.max(currentTick + 1, targetTick - buckets.size() + 1);
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Iterator<Map.Entry<K, Long>> entries = buckets.get((int) (tick % buckets.size())).entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<K, Long> entry = entries.next();
+                if (entry.getValue() <= nowMillis) {
+                    entries.remove();
+                    bucketOf.remove(entry.getKey());
+                    expired.add(entry.getKey());
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return expired;
+    }
+
+    /**
+     * @return the number of scheduled keys
+     */
+    public synchronized int size() {
+        return bucketOf.size();
+    }
+}
@@ -0,0 +1,53 @@
+package com.inventory.inventory_management.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Keyset page cursors. A cursor is opaque to clients: the position of the last row of a
+ * page, such as its creation time and ID, encoded as URL-safe Base64.
+ */
+public final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encodes a keyset position.
+     *
+     * @param position the values of the position
+     * @return the cursor
+     */
+    public static String encode(long... position) {
+        StringBuilder text = new StringBuilder();
+        for (long value : position) {
+            if (!text.isEmpty()) {
+                text.append(':');
+            }
+            text.append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor returned with a previous page.
+     *
+     * @param cursor the cursor
+     * @param length the number of values the position has
+     * @return the values of the position
+     * @throws IllegalArgumentException if the cursor is not a position of that length
+     */
+    public static long[] decode(String cursor, int length) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != length) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Arrays.stream(parts).mapToLong(Long::parseLong).toArray();
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException and Base64 errors are IllegalArgumentExceptions too
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
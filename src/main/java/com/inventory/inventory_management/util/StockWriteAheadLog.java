@@ -0,0 +1,221 @@
+package com.inventory.inventory_management.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of stock deltas, stored as fixed-size records in segment files.
+ * Appends are cheap buffered writes; durability is obtained through {@link #sync(long)},
+ * where one caller forces the file for every record appended so far (group fsync).
+ */
+public class StockWriteAheadLog implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(StockWriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "stock-wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // sequence (8) + product ID (8) + delta (4) + CRC32 (4)
+    private static final int RECORD_SIZE = 24;
+
+    private final Path directory;
+    private final Object syncLock = new Object();
+    private final List<Path> closedSegments = new ArrayList<>();
+
+    private FileChannel channel;
+    private Path currentSegment;
+    private long nextSequence;
+    private long appendedSequence;
+    private volatile long durableSequence;
+
+    /**
+     * Callback receiving the records found while replaying the log.
+     */
+    public interface RecordHandler {
+        void accept(long sequence, long productId, int delta);
+    }
+
+    /**
+     * Opens a new segment in the given directory. Existing segments are left untouched
+     * and are treated as closed, so they are removed by the next {@link #releaseClosedSegments()}.
+     *
+     * @param directory     the directory holding the segments
+     * @param firstSequence the sequence number to assign to the next record
+     * @throws IOException if the directory or segment cannot be created
+     */
+    public StockWriteAheadLog(Path directory, long firstSequence) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        closedSegments.addAll(listSegments(directory));
+        this.nextSequence = firstSequence;
+        this.appendedSequence = firstSequence - 1;
+        this.durableSequence = firstSequence - 1;
+        openSegment();
+    }
+
+    /**
+     * Appends a record to the current segment. The record is not durable until synced.
+     *
+     * @param productId the ID of the product
+     * @param delta     the signed stock change
+     * @return the sequence number assigned to the record
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized long append(long productId, int delta) throws IOException {
+        long sequence = nextSequence++;
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+        buffer.putLong(sequence).putLong(productId).putInt(delta);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        appendedSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk.
+     * Callers arriving while a force is in progress are covered by the next one,
+     * so a burst of writers shares a single fsync.
+     *
+     * @param sequence the sequence number returned by {@link #append(long, int)}
+     * @throws IOException if the segment cannot be forced
+     */
+    public void sync(long sequence) throws IOException {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long target;
+            FileChannel current;
+            synchronized (this) {
+                target = appendedSequence;
+                current = channel;
+            }
+            current.force(false);
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one.
+     *
+     * @return the sequence number of the last record in the closed segment
+     * @throws IOException if the segments cannot be switched
+     */
+    public long rotate() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+                durableSequence = appendedSequence;
+                closedSegments.add(currentSegment);
+                openSegment();
+                return appendedSequence;
+            }
+        }
+    }
+
+    /**
+     * Deletes every closed segment. Only call this once their records are reflected
+     * in the products table.
+     *
+     * @throws IOException if a segment cannot be deleted
+     */
+    public synchronized void releaseClosedSegments() throws IOException {
+        for (Path segment : closedSegments) {
+            Files.deleteIfExists(segment);
+        }
+        closedSegments.clear();
+    }
+
+    /**
+     * @return the sequence number of the last appended record
+     */
+    public synchronized long lastSequence() {
+        return appendedSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays every record stored in the directory, oldest first. Reading a segment stops
+     * at the first torn or corrupt record, which can only be the tail of an interrupted write.
+     *
+     * @param directory the directory holding the segments
+     * @param handler   receives each valid record
+     * @return the highest sequence number found, or 0 if the log is empty
+     * @throws IOException if a segment cannot be read
+     */
+    public static long replay(Path directory, RecordHandler handler) throws IOException {
+        long lastSequence = 0;
+        if (!Files.isDirectory(directory)) {
+            return lastSequence;
+        }
+        for (Path segment : listSegments(directory)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+            while (buffer.remaining() >= RECORD_SIZE) {
+                int start = buffer.position();
+                long sequence = buffer.getLong();
+                long productId = buffer.getLong();
+                int delta = buffer.getInt();
+                int storedCrc = buffer.getInt();
+                CRC32 crc = new CRC32();
+                crc.update(buffer.array(), start, RECORD_SIZE - 4);
+                if ((int) crc.getValue() != storedCrc) {
+                    logger.warn("Stopping replay of {} at corrupt record, offset {}", segment, start);
+                    break;
+                }
+                handler.accept(sequence, productId, delta);
+                lastSequence = Math.max(lastSequence, sequence);
+            }
+        }
+        return lastSequence;
+    }
+
+    private void openSegment() throws IOException {
+        currentSegment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        // An empty segment left by a previous run may carry the same name; keep appending to it
+        closedSegments.remove(currentSegment);
+        channel = FileChannel.open(currentSegment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+}
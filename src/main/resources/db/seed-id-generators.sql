@@ -0,0 +1,18 @@
+-- Order and reservation IDs are handed out in blocks from id_generators (pooled-lo: next_val is
+-- the first ID of the next block). Rows inserted before, or while these tables used identity
+-- columns, must stay below that, so the counters start past the highest existing ID.
+-- Runs on every startup after the schema update; it only ever raises a counter.
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'orders', seed.next_val FROM (SELECT COALESCE(MAX(id), 0) + 1 AS next_val FROM orders) seed
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE sequence_name = 'orders');
+
+UPDATE id_generators SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM orders)
+WHERE sequence_name = 'orders' AND next_val <= (SELECT COALESCE(MAX(id), 0) FROM orders);
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'stock_reservations', seed.next_val FROM (SELECT COALESCE(MAX(id), 0) + 1 AS next_val FROM stock_reservations) seed
+WHERE NOT EXISTS (SELECT 1 FROM id_generators WHERE sequence_name = 'stock_reservations');
+
+UPDATE id_generators SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM stock_reservations)
+WHERE sequence_name = 'stock_reservations' AND next_val <= (SELECT COALESCE(MAX(id), 0) FROM stock_reservations);
@@ -1,15 +1,19 @@
 package com.inventory.inventory_management;
 
 import com.inventory.inventory_management.controller.AuthController;
+import com.inventory.inventory_management.model.TokenRefreshRequest;
 import com.inventory.inventory_management.model.User;
 import com.inventory.inventory_management.repository.UserRepository;
 import com.inventory.inventory_management.config.JwtUtil;
 import com.inventory.inventory_management.service.CustomUserDetailsService;
+import com.inventory.inventory_management.service.PasswordHasher;
 
-import org.junit.Assert;
-import org.junit.Before;
-import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,6 +21,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.lang.reflect.Field;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -32,7 +38,7 @@ public class AuthControllerTest {
     private PasswordEncoder passwordEncoder;
     private CustomUserDetailsService customUserDetailsService;
 
-    @Before
+    @BeforeEach
     public void setUp() throws Exception {
         // Setting up mocks for all dependencies
         logger.info("Setting up mocks and initializing AuthController...");
@@ -79,8 +85,8 @@ public class AuthControllerTest {
 
         // Verifying the interaction and asserting the expected result
         Mockito.verify(customUserDetailsService).registerUser(newUser);
-        Assert.assertEquals(HttpStatus.CREATED, response.getStatusCode());
-        Assert.assertEquals("User registered successfully!", response.getBody());
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertEquals("User registered successfully!", response.getBody());
 
         logger.info("User registration test passed for a new user.");
     }
@@ -101,8 +107,8 @@ public class AuthControllerTest {
         ResponseEntity<String> response = authController.register(existingUser);
 
         // Asserting that the response indicates a conflict due to the existing username
-        Assert.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
-        Assert.assertEquals("Username already exists!", response.getBody());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Assertions.assertEquals("Username already exists!", response.getBody());
 
         logger.info("User registration test passed for an existing username.");
     }
@@ -125,8 +131,8 @@ public class AuthControllerTest {
         ResponseEntity<String> response = authController.register(newUser);
 
         // Asserting that the response indicates an internal server error
-        Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
-        Assert.assertTrue(response.getBody().contains("An error occurred while registering the user"));
+        Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        Assertions.assertTrue(response.getBody().contains("An error occurred while registering the user"));
 
         logger.info("User registration test passed for internal server error scenario.");
     }
@@ -143,14 +149,14 @@ public class AuthControllerTest {
         // Mocking a successful login response with a token
         Map<String, String> mockResponse = Map.of("token", "mockToken");
 
-        Mockito.when(customUserDetailsService.login(validUser)).thenReturn(mockResponse);
+        Mockito.when(customUserDetailsService.login(validUser)).thenReturn(CompletableFuture.completedFuture(mockResponse));
 
         // Calling the login method of AuthController
-        ResponseEntity<Map<String, String>> response = authController.login(validUser);
+        ResponseEntity<Map<String, String>> response = authController.login(validUser).join();
 
         // Verifying the response contains the expected token
-        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
-        Assert.assertEquals("mockToken", response.getBody().get("token"));
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals("mockToken", response.getBody().get("token"));
 
         logger.info("User login test passed for successful login.");
     }
@@ -164,17 +170,17 @@ public class AuthControllerTest {
         invalidUser.setUsername("user");
         invalidUser.setPassword("wrong");
 
-        // Mocking the login to throw an exception for invalid credentials
+        // Mocking the login to fail for invalid credentials
         Mockito.when(customUserDetailsService.login(invalidUser))
-                .thenThrow(new RuntimeException("Invalid username or password"));
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Invalid username or password")));
 
         // Calling the login method of AuthController
-        ResponseEntity<Map<String, String>> response = authController.login(invalidUser);
+        ResponseEntity<Map<String, String>> response = authController.login(invalidUser).join();
 
         // Asserting that the response indicates unauthorized access
-        Assert.assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        Assert.assertEquals("Unauthorized", response.getBody().get("error"));
-        Assert.assertEquals("Invalid username or password", response.getBody().get("message"));
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        Assertions.assertEquals("Unauthorized", response.getBody().get("error"));
+        Assertions.assertEquals("Invalid username or password", response.getBody().get("message"));
 
         logger.info("User login test passed for invalid credentials.");
     }
@@ -193,13 +199,112 @@ public class AuthControllerTest {
                 .thenThrow(new RuntimeException("Unexpected error"));
 
         // Calling the login method of AuthController
-        ResponseEntity<Map<String, String>> response = authController.login(validUser);
+        ResponseEntity<Map<String, String>> response = authController.login(validUser).join();
 
         // Asserting that the response indicates unauthorized access with the error message
-        Assert.assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
-        Assert.assertEquals("Unauthorized", response.getBody().get("error"));
-        Assert.assertEquals("Unexpected error", response.getBody().get("message"));
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        Assertions.assertEquals("Unauthorized", response.getBody().get("error"));
+        Assertions.assertEquals("Unexpected error", response.getBody().get("message"));
 
         logger.info("User login test passed for internal server error scenario.");
     }
+
+    @Test
+    public void login_HasherBusy() {
+        // Test case for a login refused because too many logins are in progress
+        logger.info("Testing user login while the password hasher is saturated...");
+
+        User validUser = new User();
+        validUser.setUsername("validUser");
+        validUser.setPassword("validPassword");
+
+        // Mocking the login to be refused by the password hasher
+        Mockito.when(customUserDetailsService.login(validUser))
+                .thenThrow(new PasswordHasher.HasherBusyException("Too many logins in progress, retry later"));
+
+        // Calling the login method of AuthController
+        ResponseEntity<Map<String, String>> response = authController.login(validUser).join();
+
+        // Asserting that the response asks the client to retry
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        Assertions.assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        Assertions.assertEquals("Service Unavailable", response.getBody().get("error"));
+
+        logger.info("User login test passed for a saturated password hasher.");
+    }
+
+    @Test
+    public void login_HasherBusyWhileCompleting() {
+        // Test case for a login whose future fails because the password hasher is saturated
+        logger.info("Testing user login failing asynchronously with a saturated password hasher...");
+
+        User validUser = new User();
+        validUser.setUsername("validUser");
+        validUser.setPassword("validPassword");
+
+        // Mocking the login future to fail, as CompletableFuture wraps it once a stage runs
+        Mockito.when(customUserDetailsService.login(validUser)).thenReturn(CompletableFuture.failedFuture(
+                new CompletionException(new PasswordHasher.HasherBusyException("Too many logins in progress, retry later"))));
+
+        // Calling the login method of AuthController
+        ResponseEntity<Map<String, String>> response = authController.login(validUser).join();
+
+        // Asserting that the wrapped failure is still answered with 503
+        Assertions.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        Assertions.assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        logger.info("User login test passed for an asynchronous hasher refusal.");
+    }
+
+    @Test
+    public void refresh_ValidAndInvalidTokens() {
+        // Test case for refreshing tokens, and for a refresh token that is refused
+        logger.info("Testing token refresh...");
+
+        Mockito.when(customUserDetailsService.refresh("validRefresh"))
+                .thenReturn(Map.of("token", "newToken", "refreshToken", "newRefresh"));
+        Mockito.when(customUserDetailsService.refresh("usedRefresh"))
+                .thenThrow(new CustomUserDetailsService.InvalidRefreshTokenException("Invalid or expired refresh token"));
+
+        ResponseEntity<Map<String, String>> refreshed = authController.refresh(new TokenRefreshRequest("validRefresh"));
+        ResponseEntity<Map<String, String>> refused = authController.refresh(new TokenRefreshRequest("usedRefresh"));
+
+        // Asserting the new tokens were returned, and the used token was refused
+        Assertions.assertEquals(HttpStatus.OK, refreshed.getStatusCode());
+        Assertions.assertEquals("newToken", refreshed.getBody().get("token"));
+        Assertions.assertEquals(HttpStatus.UNAUTHORIZED, refused.getStatusCode());
+        Assertions.assertEquals("Invalid or expired refresh token", refused.getBody().get("message"));
+
+        logger.info("Token refresh test passed.");
+    }
+
+    @Test
+    public void refresh_StorageFailure_NotReportedAsUnauthorized() {
+        // Test case for a refresh that fails for a reason other than the token
+        logger.info("Testing token refresh with a storage failure...");
+
+        Mockito.when(customUserDetailsService.refresh("validRefresh"))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        // Asserting the failure is not turned into a 401
+        Assertions.assertThrows(DataAccessResourceFailureException.class,
+                () -> authController.refresh(new TokenRefreshRequest("validRefresh")));
+
+        logger.info("Token refresh test passed for a storage failure.");
+    }
+
+    @Test
+    public void logout_RevokesTokens() {
+        // Test case for logging out with the access token and the refresh token
+        logger.info("Testing logout...");
+
+        ResponseEntity<Map<String, String>> response = authController.logout("Bearer accessToken",
+                new TokenRefreshRequest("refreshToken"));
+
+        // Asserting both tokens were handed over for revocation
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Mockito.verify(customUserDetailsService).logout("accessToken", "refreshToken");
+
+        logger.info("Logout test passed.");
+    }
 }
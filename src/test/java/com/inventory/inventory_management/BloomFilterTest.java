@@ -0,0 +1,53 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.util.BloomFilter;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Bloom filter in front of the token revocation list.
+ */
+class BloomFilterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BloomFilterTest.class);
+
+    // Every added key is found, and keys never added are mostly reported absent
+    @Test
+    void mightContain_NoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        String[] added = new String[10_000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            filter.put(added[i]);
+        }
+
+        for (String key : added) {
+            assertTrue(filter.mightContain(key));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        logger.info("Bloom filter at capacity: {} false positives in 100000 lookups", falsePositives);
+        assertTrue(falsePositives < 2_000);
+        logger.info("Test passed: no false negatives, false positive rate near the target.");
+    }
+
+    // An empty filter reports every key absent, and the rate must be a probability
+    @Test
+    void emptyFilterAndInvalidRate() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertFalse(filter.mightContain("jti"));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+        logger.info("Test passed: empty filter and invalid rates handled.");
+    }
+}
@@ -0,0 +1,251 @@
+package com.inventory.inventory_management;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockReservation;
+import com.inventory.inventory_management.model.BulkOrderResult;
+import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.User;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.repository.UserRepository;
+import com.inventory.inventory_management.service.BulkOrderService;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockLevelCache;
+import com.inventory.inventory_management.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk order uploads against an in-memory H2 database: per-line results, grouped stock
+ * checks and batched inserts.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "inventory.orders.bulk.chunk-size=100"
+})
+@Import({BulkOrderService.class, StockReservationService.class, ProductService.class, ShardedStockService.class,
+        StockJdbcRepository.class, OptimisticRetry.class, StockLevelCache.class, LowStockIndex.class,
+        SimpleMeterRegistry.class, ObjectMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkOrderServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderServiceTest.class);
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("buyer");
+        user.setPassword("secret");
+        user.setRole("USER");
+        userRepository.save(user);
+    }
+
+    // Every line gets a result in upload order; stock short for a product rejects only the lines that do not fit
+    @Test
+    void importOrders_ReportsEachLineInOrder() throws Exception {
+        Long first = product(10);
+        Long second = product(3);
+        String upload = String.join("\n",
+                line(first, 4, "buyer"),
+                line(second, 2, "buyer"),
+                line(first, 5, "buyer"),
+                line(second, 2, "buyer"),
+                "",
+                line(first, 1, "nobody"),
+                line(-1L, 1, "buyer"),
+                "{not json",
+                line(first, 0, "buyer"));
+
+        List<BulkOrderResult> results = new ArrayList<>();
+        long created = bulkOrderService.importOrders(new StringReader(upload), results::add);
+
+        assertEquals(3, created);
+        assertEquals(List.of(BulkOrderResult.CREATED, BulkOrderResult.CREATED, BulkOrderResult.CREATED,
+                        BulkOrderResult.REJECTED, BulkOrderResult.REJECTED, BulkOrderResult.REJECTED,
+                        BulkOrderResult.INVALID, BulkOrderResult.INVALID),
+                results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 6L, 7L, 8L, 9L), results.stream().map(BulkOrderResult::getLine).toList());
+        assertEquals("Insufficient stock for the product", results.get(3).getMessage());
+        assertEquals("User not found", results.get(4).getMessage());
+        assertEquals("Product not found", results.get(5).getMessage());
+        assertNotNull(results.get(0).getOrderId());
+        assertEquals(1, productRepository.findQuantityById(first).orElseThrow());
+        assertEquals(1, productRepository.findQuantityById(second).orElseThrow());
+        assertEquals(3, orderRepository.count());
+        assertEquals(3, stockReservationRepository.findByStatus(StockReservation.ACTIVE).size());
+        logger.info("Test passed: bulk upload reported every line in order.");
+    }
+
+    // Orders and reservations of a chunk go out as JDBC batches rather than one insert per row
+    @Test
+    void importOrders_BatchesInserts() throws Exception {
+        Long productId = product(1000);
+        StringBuilder upload = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            upload.append(line(productId, 1, "buyer")).append('\n');
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        long created = bulkOrderService.importOrders(new StringReader(upload.toString()), result -> { });
+
+        logger.info("Bulk upload of 250 orders: {} statements prepared, {} entities inserted",
+                statistics.getPrepareStatementCount(), statistics.getEntityInsertCount());
+        assertEquals(250, created);
+        assertEquals(500, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() < 60);
+        assertEquals(750, productRepository.findQuantityById(productId).orElseThrow());
+        logger.info("Test passed: bulk inserts were batched.");
+    }
+
+    // Orders already in the table, such as those with identity IDs, stay below the next block of IDs
+    @Test
+    void seedScript_RaisesIdCounterPastExistingOrders() {
+        jdbcTemplate.update("INSERT INTO orders (id, quantity, total_price, status, created_at, created_by) "
+                + "VALUES (100000, 1, 2.5, 'SHIPPED', CURRENT_TIMESTAMP, 'buyer')");
+        ResourceDatabasePopulator seed = new ResourceDatabasePopulator(new ClassPathResource("db/seed-id-generators.sql"));
+
+        seed.execute(dataSource);
+        seed.execute(dataSource);
+
+        assertEquals(100001L, jdbcTemplate.queryForObject(
+                "SELECT next_val FROM id_generators WHERE sequence_name = 'orders'", Long.class));
+        logger.info("Test passed: ID counter raised past the existing orders.");
+    }
+
+    // A micro-batch of single orders is placed in one go, each with its own result in the given order
+    @Test
+    void placeOrders_ReturnsResultPerOrder() {
+        Long productId = product(4);
+
+        List<BulkOrderResult> results = bulkOrderService.placeOrders(List.of(
+                new BulkOrderService.Placement(order(productId, 3), "buyer"),
+                new BulkOrderService.Placement(order(productId, 2), "buyer"),
+                new BulkOrderService.Placement(order(productId, 1), null)));
+
+        assertEquals(List.of(BulkOrderResult.CREATED, BulkOrderResult.REJECTED, BulkOrderResult.CREATED),
+                results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals(List.of(1L, 2L, 3L), results.stream().map(BulkOrderResult::getLine).toList());
+        assertEquals(0, productRepository.findQuantityById(productId).orElseThrow());
+        assertEquals(2, orderRepository.count());
+        logger.info("Test passed: micro-batch placed with a result per order.");
+    }
+
+    // A line naming someone other than its caller is refused, and a line naming no one is placed under the caller
+    @Test
+    void placeOrders_UserMustBeTheCaller() {
+        Long productId = product(5);
+        Order unnamed = order(productId, 1);
+        unnamed.setUser(null);
+
+        List<BulkOrderResult> results = bulkOrderService.placeOrders(List.of(
+                new BulkOrderService.Placement(order(productId, 2), "intruder"),
+                new BulkOrderService.Placement(unnamed, "buyer")));
+
+        assertEquals(List.of(BulkOrderResult.INVALID, BulkOrderResult.CREATED),
+                results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals("User does not match the authenticated user", results.get(0).getMessage());
+        assertEquals("buyer", orderRepository.findAll().get(0).getCreatedBy());
+        logger.info("Test passed: orders placed only under their caller.");
+    }
+
+    // A line placed as canceled is invalid and takes no stock, as its units could never come back
+    @Test
+    void importOrders_CanceledLine_Invalid() throws Exception {
+        Long productId = product(5);
+        String upload = String.join("\n",
+                "{\"productId\":" + productId + ",\"quantity\":2,\"user\":\"buyer\",\"status\":\"CANCELED\"}",
+                line(productId, 1, "buyer"));
+
+        List<BulkOrderResult> results = new ArrayList<>();
+        long created = bulkOrderService.importOrders(new StringReader(upload), results::add);
+
+        assertEquals(1, created);
+        assertEquals(List.of(BulkOrderResult.INVALID, BulkOrderResult.CREATED),
+                results.stream().map(BulkOrderResult::getStatus).toList());
+        assertEquals("Status of a new order must be PROCESSING or SHIPPED", results.get(0).getMessage());
+        assertEquals(4, productRepository.findQuantityById(productId).orElseThrow());
+        logger.info("Test passed: canceled line refused without taking stock.");
+    }
+
+    private Long product(int quantity) {
+        return productRepository.save(Product.builder()
+                .name("Bulk Product " + quantity)
+                .description("Bulk order product")
+                .price(2.5)
+                .quantity(quantity)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build()).getId();
+    }
+
+    private static Order order(Long productId, int quantity) {
+        Order order = new Order();
+        order.setProductId(productId);
+        order.setQuantity(quantity);
+        order.setUser("buyer");
+        return order;
+    }
+
+    private static String line(Long productId, int quantity, String user) {
+        return "{\"productId\":" + productId + ",\"quantity\":" + quantity + ",\"user\":\"" + user + "\"}";
+    }
+}
@@ -4,16 +4,24 @@ import com.inventory.inventory_management.config.JwtUtil;
 import com.inventory.inventory_management.model.User;
 import com.inventory.inventory_management.repository.UserRepository;
 import com.inventory.inventory_management.service.CustomUserDetailsService;
+import com.inventory.inventory_management.service.PasswordHasher;
+import com.inventory.inventory_management.service.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.Timestamp;
+import java.util.Date;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,11 +36,14 @@ class CustomUserDetailsServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
 
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     // Service to be tested
     @InjectMocks
     private CustomUserDetailsService customUserDetailsService;
@@ -123,23 +134,28 @@ class CustomUserDetailsServiceTest {
         User storedUser = new User();
         storedUser.setUsername("testuser");
         storedUser.setPassword("$2a$10$encodedpassword");
+        storedUser.setRole("USER");
 
         // Mocking the repository to return the stored user and password check
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(storedUser));
-        when(passwordEncoder.matches("password", "$2a$10$encodedpassword")).thenReturn(true);
-        when(jwtUtil.generateToken("testuser")).thenReturn("mockedToken");
+        when(passwordHasher.isHashed("$2a$10$encodedpassword")).thenReturn(true);
+        when(passwordHasher.matches("password", "$2a$10$encodedpassword")).thenReturn(CompletableFuture.completedFuture(true));
+        when(jwtUtil.generateToken("testuser", "USER")).thenReturn("mockedToken");
+        when(jwtUtil.generateRefreshToken("testuser")).thenReturn("mockedRefreshToken");
 
         // Calling the login method to test
-        Map<String, String> response = customUserDetailsService.login(user);
+        Map<String, String> response = customUserDetailsService.login(user).join();
 
         // Asserting the response contains the expected values
         assertNotNull(response);
         assertEquals("Login successful", response.get("message"));
         assertEquals("mockedToken", response.get("token"));
+        assertEquals("mockedRefreshToken", response.get("refreshToken"));
 
         // Verifying the repository and JWT generation calls
         verify(userRepository, times(1)).findByUsername("testuser");
-        verify(jwtUtil, times(1)).generateToken("testuser");
+        verify(jwtUtil, times(1)).generateToken("testuser", "USER");
+        verify(passwordHasher, never()).encode(any());
 
         logger.info("login test passed for valid credentials.");
     }
@@ -160,11 +176,12 @@ class CustomUserDetailsServiceTest {
 
         // Mocking the repository and password check
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(storedUser));
-        when(passwordEncoder.matches("wrongpassword", "$2a$10$encodedpassword")).thenReturn(false);
+        when(passwordHasher.isHashed("$2a$10$encodedpassword")).thenReturn(true);
+        when(passwordHasher.matches("wrongpassword", "$2a$10$encodedpassword")).thenReturn(CompletableFuture.completedFuture(false));
 
-        // Asserting that an exception is thrown when passwords do not match
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> customUserDetailsService.login(user));
-        assertEquals("Invalid username or password", exception.getMessage());
+        // Asserting that the login fails when passwords do not match
+        CompletionException exception = assertThrows(CompletionException.class, () -> customUserDetailsService.login(user).join());
+        assertEquals("Invalid username or password", exception.getCause().getMessage());
 
         // Verifying the repository call
         verify(userRepository, times(1)).findByUsername("testuser");
@@ -172,6 +189,126 @@ class CustomUserDetailsServiceTest {
         logger.info("login test passed for invalid password.");
     }
 
+    @Test
+    void login_OutdatedHash_RehashedAfterLogin() {
+        // Test case for a password stored with another cost, re-encoded after a successful login
+        logger.info("Testing login with a password hashed at an outdated cost...");
+
+        User user = new User();
+        user.setUsername("testuser");
+        user.setPassword("password");
+
+        User storedUser = new User();
+        storedUser.setUsername("testuser");
+        storedUser.setPassword("$2a$08$oldhash");
+        storedUser.setRole("USER");
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(storedUser));
+        when(passwordHasher.isHashed("$2a$08$oldhash")).thenReturn(true);
+        when(passwordHasher.matches("password", "$2a$08$oldhash")).thenReturn(CompletableFuture.completedFuture(true));
+        when(passwordHasher.needsRehash("$2a$08$oldhash")).thenReturn(true);
+        when(passwordHasher.encode("password")).thenReturn(CompletableFuture.completedFuture("$2a$12$newhash"));
+        when(jwtUtil.generateToken("testuser", "USER")).thenReturn("mockedToken");
+        when(jwtUtil.generateRefreshToken("testuser")).thenReturn("mockedRefreshToken");
+
+        Map<String, String> response = customUserDetailsService.login(user).join();
+
+        // Asserting the login succeeded and the new hash was saved
+        assertEquals("mockedToken", response.get("token"));
+        assertEquals("$2a$12$newhash", storedUser.getPassword());
+        verify(userRepository, times(1)).save(storedUser);
+
+        logger.info("login test passed for a rehashed password.");
+    }
+
+    @Test
+    void login_PlainTextPassword_WrongPasswordRejected() {
+        // Test case for a stored password that was never hashed, which must still be checked
+        logger.info("Testing login against a plain text stored password...");
+
+        User user = new User();
+        user.setUsername("testuser");
+        user.setPassword("guess");
+
+        User storedUser = new User();
+        storedUser.setUsername("testuser");
+        storedUser.setPassword("secret");
+
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(storedUser));
+        when(passwordHasher.isHashed("secret")).thenReturn(false);
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> customUserDetailsService.login(user).join());
+        assertEquals("Invalid username or password", exception.getCause().getMessage());
+
+        // Verifying the stored password was neither re-encoded nor saved
+        verify(passwordHasher, never()).encode(any());
+        verify(userRepository, never()).save(any());
+
+        logger.info("login test passed for a wrong password against a plain text one.");
+    }
+
+    @Test
+    void refresh_ValidRefreshToken_RotatesTokens() {
+        // Test case for refreshing with a valid refresh token, which is revoked as it is used
+        logger.info("Testing refresh with a valid refresh token...");
+
+        Claims claims = refreshClaims("refresh-jti");
+        when(jwtUtil.parseClaims("refreshToken")).thenReturn(claims);
+        when(userRepository.findRoleByUsername("testuser")).thenReturn(Optional.of("ADMIN"));
+        when(jwtUtil.generateToken("testuser", "ADMIN")).thenReturn("newToken");
+        when(jwtUtil.generateRefreshToken("testuser")).thenReturn("newRefreshToken");
+        when(tokenRevocationList.revoke(eq("refresh-jti"), eq("testuser"), any())).thenReturn(true);
+
+        Map<String, String> response = customUserDetailsService.refresh("refreshToken");
+
+        // Asserting the new tokens were issued and the old refresh token revoked
+        assertEquals("newToken", response.get("token"));
+        assertEquals("newRefreshToken", response.get("refreshToken"));
+        verify(tokenRevocationList).revoke("refresh-jti", "testuser", new Timestamp(claims.getExpiration().getTime()));
+
+        logger.info("refresh test passed for a valid refresh token.");
+    }
+
+    @Test
+    void refresh_InvalidTokens_ThrowsException() {
+        // Test case for refreshing with an access token, a revoked refresh token and a forged token
+        logger.info("Testing refresh with tokens that cannot be refreshed...");
+
+        Claims access = refreshClaims("access-jti");
+        access.put(JwtUtil.TYPE_CLAIM, JwtUtil.ACCESS_TOKEN);
+        when(jwtUtil.parseClaims("accessToken")).thenReturn(access);
+        when(jwtUtil.parseClaims("revokedToken")).thenReturn(refreshClaims("revoked-jti"));
+        when(tokenRevocationList.isRevoked("revoked-jti")).thenReturn(true);
+        when(jwtUtil.parseClaims("forgedToken")).thenThrow(new JwtException("JWT signature does not match"));
+
+        for (String token : new String[]{"accessToken", "revokedToken", "forgedToken"}) {
+            RuntimeException exception = assertThrows(CustomUserDetailsService.InvalidRefreshTokenException.class,
+                    () -> customUserDetailsService.refresh(token));
+            assertEquals("Invalid or expired refresh token", exception.getMessage());
+        }
+        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(tokenRevocationList, never()).revoke(any(), any(), any());
+
+        logger.info("refresh test passed for tokens that cannot be refreshed.");
+    }
+
+    @Test
+    void refresh_TokenRevokedConcurrently_ThrowsException() {
+        // Test case for a refresh token replayed at the same time, where the other request revoked it first
+        logger.info("Testing refresh with a refresh token revoked concurrently...");
+
+        when(jwtUtil.parseClaims("refreshToken")).thenReturn(refreshClaims("refresh-jti"));
+        when(userRepository.findRoleByUsername("testuser")).thenReturn(Optional.of("ADMIN"));
+        when(tokenRevocationList.revoke(eq("refresh-jti"), eq("testuser"), any())).thenReturn(false);
+
+        assertThrows(CustomUserDetailsService.InvalidRefreshTokenException.class,
+                () -> customUserDetailsService.refresh("refreshToken"));
+        verify(jwtUtil, never()).generateToken(any(), any());
+        verify(jwtUtil, never()).generateRefreshToken(any());
+
+        logger.info("refresh test passed for a refresh token revoked concurrently.");
+    }
+
     @Test
     void login_UserNotFound_ThrowsException() {
         // Test case for login when user is not found
@@ -193,4 +330,12 @@ class CustomUserDetailsServiceTest {
 
         logger.info("login test passed for non-existent user (exception thrown).");
     }
+
+    private static Claims refreshClaims(String jti) {
+        Claims claims = Jwts.claims().setSubject("testuser");
+        claims.setId(jti);
+        claims.setExpiration(new Date(System.currentTimeMillis() + 60000));
+        claims.put(JwtUtil.TYPE_CLAIM, JwtUtil.REFRESH_TOKEN);
+        return claims;
+    }
 }
@@ -0,0 +1,72 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.util.HashedTimingWheel;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the hashed timing wheel driving reservation expiry.
+ */
+class HashedTimingWheelTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedTimingWheelTest.class);
+
+    // Keys fire on the first tick at or after their deadline, never before
+    @Test
+    void advance_ReturnsOnlyDueKeys() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 8, 0);
+        wheel.schedule(1L, 250);
+        wheel.schedule(2L, 450);
+
+        assertEquals(List.of(), wheel.advance(200));
+        assertEquals(List.of(1L), wheel.advance(300));
+        assertEquals(List.of(), wheel.advance(450));  // Due within tick 4, seen at tick 5
+        assertEquals(List.of(2L), wheel.advance(500));
+        assertEquals(0, wheel.size());
+        logger.info("Test passed: keys fired at their deadlines.");
+    }
+
+    // A key sharing a bucket but due a revolution later stays in the wheel
+    @Test
+    void advance_KeepsKeysOfLaterRevolutions() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 4, 0);
+        wheel.schedule(1L, 200);
+        wheel.schedule(2L, 600);
+
+        assertEquals(List.of(1L), wheel.advance(300));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(2L), wheel.advance(700));
+        logger.info("Test passed: later revolutions kept.");
+    }
+
+    // Cancelled keys never fire, and a long pause still fires everything that is due
+    @Test
+    void cancelAndLongPause() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 4, 0);
+        wheel.schedule(1L, 150);
+        wheel.schedule(2L, 350);
+        wheel.schedule(3L, 5000);
+        assertTrue(wheel.cancel(1L));
+        assertFalse(wheel.cancel(1L));
+
+        List<Long> expired = wheel.advance(10_000);
+
+        assertEquals(List.of(2L, 3L), expired.stream().sorted().toList());
+        logger.info("Test passed: cancel honoured and long pause caught up.");
+    }
+
+    // A deadline already in the past fires on the next tick
+    @Test
+    void schedule_PastDeadline_FiresOnNextTick() {
+        HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(100, 4, 1000);
+        wheel.schedule(1L, 10);
+
+        assertEquals(List.of(1L), wheel.advance(1100));
+        logger.info("Test passed: overdue key fired on the next tick.");
+    }
+}
@@ -0,0 +1,160 @@
+package com.inventory.inventory_management;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.inventory_management.entities.IdempotencyRecord;
+import com.inventory.inventory_management.model.Response;
+import com.inventory.inventory_management.repository.IdempotencyRecordRepository;
+import com.inventory.inventory_management.service.IdempotencyService;
+import com.inventory.inventory_management.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for Idempotency-Key handling of mutating requests.
+ */
+class IdempotencyServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceTest.class);
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger applied = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService.init();
+        logger.info("Test setup complete.");
+    }
+
+    // A retry with the same key gets the stored response without applying the request again
+    @Test
+    void execute_RetryReplaysStoredResponse() {
+        ResponseEntity<Response> first = idempotencyService.execute("key-1", List.of("addStock", 1L, 5), this::apply);
+        ResponseEntity<Response> retry = idempotencyService.execute("key-1", List.of("addStock", 1L, 5), this::apply);
+
+        assertEquals(1, applied.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertSame(first.getBody(), retry.getBody());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(2, idempotencyService.execute(null, List.of("addStock", 1L, 5), this::apply).getBody().getData());
+        logger.info("Test passed: retry replayed the stored response.");
+    }
+
+    // Reusing a key for a different request is rejected
+    @Test
+    void execute_DifferentRequestSameKey_Returns422() {
+        idempotencyService.execute("key-1", List.of("addStock", 1L, 5), this::apply);
+
+        ResponseEntity<Response> response = idempotencyService.execute("key-1", List.of("addStock", 1L, 6), this::apply);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+        assertEquals(1, applied.get());
+        logger.info("Test passed: key reuse for a different request rejected.");
+    }
+
+    // A retry arriving while the first request still runs is told to wait
+    @Test
+    void execute_RetryWhileInProgress_Returns409() {
+        ResponseEntity<?>[] concurrent = new ResponseEntity<?>[1];
+        idempotencyService.execute("key-1", List.of("removeStock", 1L, 1), () -> {
+            concurrent[0] = idempotencyService.execute("key-1", List.of("removeStock", 1L, 1), this::apply);
+            return apply();
+        });
+
+        assertEquals(HttpStatus.CONFLICT, concurrent[0].getStatusCode());
+        assertEquals(1, applied.get());
+        logger.info("Test passed: in-progress retry rejected.");
+    }
+
+    // Server errors are not stored, so the client can retry them
+    @Test
+    void execute_ServerErrorIsNotStored() {
+        idempotencyService.execute("key-1", List.of("addStock", 1L, 5), () -> {
+            applied.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new Response(Constants.ERROR, "Internal Server Error", null));
+        });
+
+        ResponseEntity<Response> retry = idempotencyService.execute("key-1", List.of("addStock", 1L, 5), this::apply);
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(2, applied.get());
+        logger.info("Test passed: server error not stored.");
+    }
+
+    // A 429 is not stored either, so a retry once the order queue has room is accepted
+    @Test
+    void execute_TooManyRequestsIsNotStored() {
+        idempotencyService.execute("key-1", List.of("createOrder", 1L), () -> {
+            applied.incrementAndGet();
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new Response(Constants.ERROR, "Too many orders", null));
+        });
+
+        ResponseEntity<Response> retry = idempotencyService.execute("key-1", List.of("createOrder", 1L), this::apply);
+
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals(2, applied.get());
+        logger.info("Test passed: 429 not stored.");
+    }
+
+    // With the table enabled, responses are written to it and replayed from it after a restart
+    @Test
+    void execute_Persistent_StoresAndReplaysFromTable() {
+        ReflectionTestUtils.setField(idempotencyService, "persistent", true);
+        when(idempotencyRecordRepository.findById(any())).thenReturn(Optional.empty());
+
+        idempotencyService.execute("key-1", List.of("addStock", 1L, 5), this::apply);
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(saved.capture());
+        assertEquals(":key-1", saved.getValue().getKey());
+
+        // A fresh in-memory store, as after a restart
+        idempotencyService.init();
+        when(idempotencyRecordRepository.findById(":key-1")).thenReturn(Optional.of(saved.getValue()));
+        ResponseEntity<Response> retry = idempotencyService.execute("key-1", List.of("addStock", 1L, 5), this::apply);
+
+        assertEquals(1, applied.get());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("Stock added successfully", retry.getBody().getMessage());
+        logger.info("Test passed: response stored in and replayed from the table.");
+    }
+
+    // Keys outside the allowed length are rejected
+    @Test
+    void execute_InvalidKey_Returns400() {
+        assertEquals(HttpStatus.BAD_REQUEST, idempotencyService.execute(" ", List.of(), this::apply).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, idempotencyService.execute("k".repeat(256), List.of(), this::apply).getStatusCode());
+        assertEquals(0, applied.get());
+        logger.info("Test passed: invalid keys rejected.");
+    }
+
+    private ResponseEntity<Response> apply() {
+        return ResponseEntity.ok(new Response(Constants.SUCCESS, "Stock added successfully", applied.incrementAndGet()));
+    }
+}
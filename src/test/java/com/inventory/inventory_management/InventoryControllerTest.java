@@ -1,6 +1,9 @@
 package com.inventory.inventory_management;
 
 import com.inventory.inventory_management.controller.InventoryController;
+import com.inventory.inventory_management.exception.UserMismatchException;
+import com.inventory.inventory_management.exception.VersionConflictException;
+import com.inventory.inventory_management.model.LowStockItem;
 import com.inventory.inventory_management.model.Product;
 import com.inventory.inventory_management.model.Response;
 import com.inventory.inventory_management.service.ProductService;
@@ -136,15 +139,15 @@ class InventoryControllerTest {
         product.setUser("testUser");
 
         Response response = new Response(Constants.SUCCESS, "Inventory item updated successfully", product);
-        when(productService.updateInventory(1L, 200.0, 20, "testUser")).thenReturn(response);
+        when(productService.updateInventory(1L, 200.0, 20, "testUser", null)).thenReturn(response);
 
         // Calling the controller method
-        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, 20, "testUser");
+        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, 20, "testUser", null);
 
         // Asserting the response status and data
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("success", result.getBody().getStatus());
-        verify(productService, times(1)).updateInventory(1L, 200.0, 20, "testUser");
+        verify(productService, times(1)).updateInventory(1L, 200.0, 20, "testUser", null);
 
         logger.info("updateInventory successfully test passed.");
     }
@@ -154,16 +157,16 @@ class InventoryControllerTest {
         // Test case for invalid product ID when updating inventory
         logger.info("Testing updateInventory with invalid product ID...");
 
-        when(productService.updateInventory(1L, 200.0, 20, "testUser")).thenReturn(null);
+        when(productService.updateInventory(1L, 200.0, 20, "testUser", null)).thenReturn(null);
 
         // Calling the controller method
-        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, 20, "testUser");
+        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, 20, "testUser", null);
 
         // Asserting the response status and data
         assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
         assertEquals("Error", result.getBody().getStatus());
         assertEquals("Invalid product ID", result.getBody().getData());
-        verify(productService, times(1)).updateInventory(1L, 200.0, 20, "testUser");
+        verify(productService, times(1)).updateInventory(1L, 200.0, 20, "testUser", null);
 
         logger.info("updateInventory with invalid product ID test passed.");
     }
@@ -173,16 +176,16 @@ class InventoryControllerTest {
         // Test case for internal server error when updating inventory
         logger.info("Testing updateInventory with internal server error...");
 
-        when(productService.updateInventory(1L, 200.0, 20, "testUser")).thenThrow(new RuntimeException("Database error"));
+        when(productService.updateInventory(1L, 200.0, 20, "testUser", null)).thenThrow(new RuntimeException("Database error"));
 
         // Calling the controller method
-        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, 20, "testUser");
+        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, 20, "testUser", null);
 
         // Asserting the response status and data
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
         assertEquals("Error", result.getBody().getStatus());
         assertEquals("Internal Server Error", result.getBody().getMessage());
-        verify(productService, times(1)).updateInventory(1L, 200.0, 20, "testUser");
+        verify(productService, times(1)).updateInventory(1L, 200.0, 20, "testUser", null);
 
         logger.info("updateInventory with internal server error test passed.");
     }
@@ -230,5 +233,131 @@ class InventoryControllerTest {
         logger.info("deleteInventory with error test passed.");
     }
 
+    @Test
+    void updateInventoryWithMatchingIfMatchReturnsNewETag() {
+        // Test case for a conditional update whose If-Match names the current version
+        logger.info("Testing updateInventory with a matching If-Match header...");
+
+        com.inventory.inventory_management.entities.Product updated = new com.inventory.inventory_management.entities.Product();
+        updated.setVersion(4L);
+        when(productService.updateInventory(1L, 200.0, null, "testUser", 3L))
+                .thenReturn(new Response(Constants.SUCCESS, "Inventory updated successfully", updated));
+
+        // Calling the controller method with a weak ETag
+        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, null, "testUser", "W/\"3\"");
+
+        // Asserting the response status and the new ETag
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"4\"", result.getHeaders().getETag());
+        verify(productService, times(1)).updateInventory(1L, 200.0, null, "testUser", 3L);
+
+        logger.info("updateInventory with matching If-Match test passed.");
+    }
+
+    @Test
+    void updateInventoryWithStaleIfMatchReturnsPreconditionFailed() {
+        // Test case for a conditional update whose If-Match names an outdated version
+        logger.info("Testing updateInventory with a stale If-Match header...");
+
+        when(productService.updateInventory(1L, 200.0, null, "testUser", 3L))
+                .thenThrow(new VersionConflictException("Product version 3 is not current", 5L));
+
+        // Calling the controller method
+        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, null, "testUser", "\"3\"");
+
+        // Asserting the response status and the current ETag
+        assertEquals(HttpStatus.PRECONDITION_FAILED, result.getStatusCode());
+        assertEquals("\"5\"", result.getHeaders().getETag());
+        assertEquals("Precondition Failed", result.getBody().getMessage());
+
+        logger.info("updateInventory with stale If-Match test passed.");
+    }
+
+    @Test
+    void updateInventoryWithMalformedIfMatchReturnsBadRequest() {
+        // Test case for an If-Match header that is not a product version
+        logger.info("Testing updateInventory with a malformed If-Match header...");
+
+        // Calling the controller method
+        ResponseEntity<Response> result = inventoryController.updateInventory(1L, 200.0, null, "testUser", "\"abc\"");
+
+        // Asserting the response status and that the service is not called
+        assertEquals(HttpStatus.BAD_REQUEST, result.getStatusCode());
+        verify(productService, never()).updateInventory(any(), any(), any(), any(), any());
+
+        logger.info("updateInventory with malformed If-Match test passed.");
+    }
+
     // Additional tests would follow the same structure, applying proper logging and assertions
+
+    @Test
+    void testGetLowStock() {
+        // Test case for listing the items below their reorder threshold
+        logger.info("Testing getLowStock method...");
+
+        List<LowStockItem> items = List.of(new LowStockItem(1L, 2, 10, 8));
+        when(productService.getLowStock(100)).thenReturn(items);
+
+        ResponseEntity<Response> response = inventoryController.getLowStock(100);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(items, response.getBody().getData());
+
+        logger.info("getLowStock test passed.");
+    }
+
+    @Test
+    void testGetLowStockInvalidLimit() {
+        // Test case for a limit outside the allowed range
+        logger.info("Testing getLowStock method with an invalid limit...");
+
+        when(productService.getLowStock(0)).thenThrow(new IllegalArgumentException("Limit must be between 1 and 1000"));
+
+        ResponseEntity<Response> response = inventoryController.getLowStock(0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(Constants.BAD, response.getBody().getStatus());
+
+        logger.info("getLowStock invalid limit test passed.");
+    }
+
+    @Test
+    void testSetReorderThreshold() {
+        // Test case for updating the reorder threshold of an item
+        logger.info("Testing setReorderThreshold method...");
+
+        com.inventory.inventory_management.entities.Product product = new com.inventory.inventory_management.entities.Product();
+        product.setReorderThreshold(5);
+        product.setVersion(3);
+        when(productService.setReorderThreshold(1L, 5, "admin")).thenReturn(product);
+
+        ResponseEntity<Response> response = inventoryController.setReorderThreshold(1L, 5, "admin");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+
+        logger.info("setReorderThreshold test passed.");
+    }
+
+    @Test
+    void inventoryChangesForAnotherUserAreForbidden() {
+        // Test case for inventory changes naming a user other than the authenticated one
+        logger.info("Testing inventory changes with a mismatched user...");
+
+        UserMismatchException mismatch = new UserMismatchException("User does not match the authenticated user");
+        when(productService.addInventory(any())).thenThrow(mismatch);
+        when(productService.updateInventory(1L, 200.0, 20, "other", null)).thenThrow(mismatch);
+        when(productService.setReorderThreshold(1L, 5, "other")).thenThrow(mismatch);
+
+        ResponseEntity<Response> added = inventoryController.addInventory(new Product());
+        ResponseEntity<Response> updated = inventoryController.updateInventory(1L, 200.0, 20, "other", null);
+        ResponseEntity<Response> threshold = inventoryController.setReorderThreshold(1L, 5, "other");
+
+        assertEquals(HttpStatus.FORBIDDEN, added.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, updated.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, threshold.getStatusCode());
+        assertEquals("Forbidden", threshold.getBody().getMessage());
+
+        logger.info("Inventory changes with a mismatched user test passed.");
+    }
 }
@@ -0,0 +1,97 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.config.JwtFilter;
+import com.inventory.inventory_management.config.JwtUtil;
+import com.inventory.inventory_management.service.TokenRevocationList;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.impl.TextCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cost per request of JWT authentication: the previous verify-then-extract path, which
+ * built a parser and verified the token twice, against the JwtFilter with one verification
+ * on a shared parser, with and without the verified-token cache.
+ * Excluded from the default build; run it with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class JwtFilterBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtFilterBenchmarkTest.class);
+
+    private static final String SECRET = "mySecretKey";
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticate_CostPerRequest() throws Exception {
+        JwtUtil uncached = JwtUtilTest.jwtUtil(3600000L, false);
+        JwtUtil cached = JwtUtilTest.jwtUtil(3600000L, true);
+        String token = cached.generateToken("bench-user", "USER");
+        JwtFilter uncachedFilter = filter(uncached);
+        JwtFilter cachedFilter = filter(cached);
+
+        long before = nanosPerOp(() -> {
+            Jwts.parser().setSigningKey(TextCodec.BASE64.decode(SECRET)).parseClaimsJws(token);
+            return Jwts.parser().setSigningKey(TextCodec.BASE64.decode(SECRET)).parseClaimsJws(token).getBody().getSubject();
+        });
+        long singleParse = nanosPerOp(() -> authenticate(uncachedFilter, token));
+        long cachedParse = nanosPerOp(() -> authenticate(cachedFilter, token));
+
+        logger.info("JWT auth ns/request: before (two fresh parses)={}, single parse={}, cached={}",
+                before, singleParse, cachedParse);
+        assertEquals("bench-user", authenticate(cachedFilter, token));
+        assertTrue(cachedParse < before);
+    }
+
+    private static JwtFilter filter(JwtUtil jwtUtil) {
+        JwtFilter filter = new JwtFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", new TokenRevocationList());
+        return filter;
+    }
+
+    private static String authenticate(JwtFilter filter, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternal(request, response, new MockFilterChain());
+        assertEquals(200, response.getStatus());
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    private static long nanosPerOp(Operation operation) throws Exception {
+        String sink = null;
+        for (int i = 0; i < WARMUP; i++) {
+            sink = operation.run();
+        }
+        long begin = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = operation.run();
+        }
+        long elapsed = System.nanoTime() - begin;
+        assertNotNull(sink);
+        return elapsed / ITERATIONS;
+    }
+
+    private interface Operation {
+        String run() throws Exception;
+    }
+}
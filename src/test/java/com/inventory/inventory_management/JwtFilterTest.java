@@ -2,10 +2,16 @@ package com.inventory.inventory_management;
 
 import com.inventory.inventory_management.config.JwtFilter;
 import com.inventory.inventory_management.config.JwtUtil;
+import com.inventory.inventory_management.service.TokenRevocationList;
+import com.inventory.inventory_management.service.UserStatusCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -14,6 +20,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.mockito.Mockito.*;
 
@@ -31,6 +38,9 @@ class JwtFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
     @Mock
     private HttpServletRequest request;
 
@@ -55,6 +65,12 @@ class JwtFilterTest {
         logger.info("Mocks set up successfully and security context initialized.");
     }
 
+    @AfterEach
+    void tearDown() {
+        // Do not leave the mocked security context behind for the next test class on this thread
+        SecurityContextHolder.clearContext();
+    }
+
     // Test case for a valid token
     @Test
     void testDoFilterInternal_TokenPresentAndValid() throws IOException, ServletException {
@@ -66,17 +82,16 @@ class JwtFilterTest {
 
         // Mocking JwtUtil
         when(request.getHeader("Authorization")).thenReturn(authHeader);
-        when(jwtUtil.validateToken(token)).thenReturn(true);
-        when(jwtUtil.getUsernameFromToken(token)).thenReturn(username);
-
-        UserDetails userDetails = User.builder().username(username).password("password").roles("USER").build();
-        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+        when(jwtUtil.parseClaims(token)).thenReturn(claims(username, "USER"));
 
         // Call the filter method
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        // Verify authentication was set in the security context
-        verify(securityContext).setAuthentication(any());
+        // Verify authentication was set from the token's claims, without loading the user
+        verify(securityContext).setAuthentication(argThat(authentication ->
+                username.equals(authentication.getName())
+                        && authentication.getAuthorities().stream().anyMatch(a -> "ROLE_USER".equals(a.getAuthority()))));
+        verify(userDetailsService, never()).loadUserByUsername(any());
         verify(filterChain).doFilter(request, response);
 
         logger.info("Valid token test passed. Authentication set and filter chain proceeded.");
@@ -92,7 +107,7 @@ class JwtFilterTest {
 
         // Mocking JwtUtil
         when(request.getHeader("Authorization")).thenReturn(authHeader);
-        when(jwtUtil.validateToken(token)).thenReturn(false);
+        when(jwtUtil.parseClaims(token)).thenThrow(new JwtException("JWT signature does not match"));
 
         // Call the filter method
         jwtFilter.doFilterInternal(request, response, filterChain);
@@ -109,6 +124,102 @@ class JwtFilterTest {
         logger.info("Invalid token test passed. Unauthorized error sent and filter chain stopped.");
     }
 
+    // Test case for a token issued without a role claim, which falls back to loading the user
+    @Test
+    void testDoFilterInternal_TokenWithoutRole() throws IOException, ServletException {
+        logger.info("Testing token without role claim scenario...");
+
+        String token = "legacyToken";
+        String username = "testUser";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.parseClaims(token)).thenReturn(claims(username, null));
+        UserDetails userDetails = User.builder().username(username).password("password").roles("USER").build();
+        when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
+
+        // Call the filter method
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Verify the user was loaded and authenticated
+        verify(userDetailsService).loadUserByUsername(username);
+        verify(securityContext).setAuthentication(any());
+        verify(filterChain).doFilter(request, response);
+
+        logger.info("Token without role test passed. User loaded and authenticated.");
+    }
+
+    // Test case for a valid token whose user no longer has the role it was issued with
+    @Test
+    void testDoFilterInternal_UserStatusNotCurrent() throws IOException, ServletException {
+        logger.info("Testing revoked user scenario...");
+
+        String token = "revokedToken";
+        String username = "testUser";
+        UserStatusCache userStatusCache = mock(UserStatusCache.class);
+        ReflectionTestUtils.setField(jwtFilter, "userStatusCache", userStatusCache);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.parseClaims(token)).thenReturn(claims(username, "ADMIN"));
+        when(userStatusCache.isCurrent(username, "ADMIN")).thenReturn(false);
+
+        // Call the filter method
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Verify that an unauthorized error was sent and the request stopped
+        verify(securityContext, never()).setAuthentication(any());
+        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED, "INVALID OR EXPIRED TOKEN");
+        verify(filterChain, never()).doFilter(request, response);
+
+        logger.info("Revoked user test passed. Unauthorized error sent and filter chain stopped.");
+    }
+
+    // Test case for a refresh token, which cannot authenticate a request
+    @Test
+    void testDoFilterInternal_RefreshTokenRefused() throws IOException, ServletException {
+        logger.info("Testing refresh token scenario...");
+
+        String token = "refreshToken";
+        Claims claims = claims("testUser", null);
+        claims.put(JwtUtil.TYPE_CLAIM, JwtUtil.REFRESH_TOKEN);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.parseClaims(token)).thenReturn(claims);
+
+        // Call the filter method
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Verify that an unauthorized error was sent and the request stopped
+        verify(securityContext, never()).setAuthentication(any());
+        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED, "INVALID OR EXPIRED TOKEN");
+        verify(filterChain, never()).doFilter(request, response);
+
+        logger.info("Refresh token test passed. Unauthorized error sent and filter chain stopped.");
+    }
+
+    // Test case for a revoked access token
+    @Test
+    void testDoFilterInternal_RevokedTokenRefused() throws IOException, ServletException {
+        logger.info("Testing revoked token scenario...");
+
+        String token = "loggedOutToken";
+        Claims claims = claims("testUser", "USER");
+        claims.setId("revoked-jti");
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtUtil.parseClaims(token)).thenReturn(claims);
+        when(tokenRevocationList.isRevoked("revoked-jti")).thenReturn(true);
+
+        // Call the filter method
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Verify that an unauthorized error was sent and the request stopped
+        verify(securityContext, never()).setAuthentication(any());
+        verify(response).sendError(HttpServletResponse.SC_UNAUTHORIZED, "INVALID OR EXPIRED TOKEN");
+        verify(filterChain, never()).doFilter(request, response);
+
+        logger.info("Revoked token test passed. Unauthorized error sent and filter chain stopped.");
+    }
+
     // Test case for missing Authorization header
     @Test
     void testDoFilterInternal_TokenNotPresent() throws IOException, ServletException {
@@ -129,4 +240,11 @@ class JwtFilterTest {
         logger.info("Missing Authorization header test passed. No authentication set and filter chain continued.");
     }
 
+    private Claims claims(String username, String role) {
+        Claims claims = Jwts.claims().setSubject(username);
+        if (role != null) {
+            claims.put(JwtUtil.ROLE_CLAIM, role);
+        }
+        return claims;
+    }
 }
@@ -0,0 +1,101 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.config.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtUtilTest.class);
+
+    // A generated token is verified back to its subject and role, and a repeat is served from the cache
+    @Test
+    void parseClaims_RoundTripAndCached() {
+        JwtUtil jwtUtil = jwtUtil(3600000L, true);
+        String token = jwtUtil.generateToken("alice", "ADMIN");
+
+        Claims claims = jwtUtil.parseClaims(token);
+        assertEquals("alice", claims.getSubject());
+        assertEquals("ADMIN", claims.get(JwtUtil.ROLE_CLAIM, String.class));
+        assertSame(claims, jwtUtil.parseClaims(token));
+        assertTrue(jwtUtil.validateToken(token));
+        assertEquals("alice", jwtUtil.getUsernameFromToken(token));
+        logger.info("Test passed: token verified once and served from the cache.");
+    }
+
+    // Each token has its own ID, and refresh tokens are told apart from access tokens
+    @Test
+    void generateRefreshToken_TypedAndIdentified() {
+        JwtUtil jwtUtil = jwtUtil(3600000L, true);
+
+        Claims access = jwtUtil.parseClaims(jwtUtil.generateToken("alice", "USER"));
+        Claims refresh = jwtUtil.parseClaims(jwtUtil.generateRefreshToken("alice"));
+
+        assertEquals(JwtUtil.ACCESS_TOKEN, access.get(JwtUtil.TYPE_CLAIM, String.class));
+        assertEquals(JwtUtil.REFRESH_TOKEN, refresh.get(JwtUtil.TYPE_CLAIM, String.class));
+        assertEquals("alice", refresh.getSubject());
+        assertNull(refresh.get(JwtUtil.ROLE_CLAIM));
+        assertNotNull(access.getId());
+        assertNotEquals(access.getId(), refresh.getId());
+        assertTrue(refresh.getExpiration().after(access.getExpiration()));
+        logger.info("Test passed: access and refresh tokens typed and identified.");
+    }
+
+    // A token with a tampered payload or signature is rejected, even after the original was cached
+    @Test
+    void parseClaims_RejectsTamperedToken() {
+        JwtUtil jwtUtil = jwtUtil(3600000L, true);
+        String token = jwtUtil.generateToken("alice", "USER");
+        jwtUtil.parseClaims(token);
+
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + jwtUtil.generateToken("mallory", "ADMIN").split("\\.")[1] + "." + parts[2];
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(forged));
+        assertThrows(JwtException.class, () -> jwtUtil.parseClaims(token + "x"));
+        assertThrows(IllegalArgumentException.class, () -> jwtUtil.parseClaims(""));
+        assertFalse(jwtUtil.validateToken(forged));
+        logger.info("Test passed: tampered tokens rejected.");
+    }
+
+    // A cached token stops being accepted once it expires
+    @Test
+    void parseClaims_CachedTokenExpires() throws InterruptedException {
+        JwtUtil jwtUtil = jwtUtil(1000L, true);
+        String token = jwtUtil.generateToken("alice", "USER");
+        assertEquals("alice", jwtUtil.parseClaims(token).getSubject());
+
+        Thread.sleep(1500);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.parseClaims(token));
+        logger.info("Test passed: cached token expired with the token.");
+    }
+
+    // With the cache disabled every call verifies the token again
+    @Test
+    void parseClaims_WithoutCache() {
+        JwtUtil jwtUtil = jwtUtil(3600000L, false);
+        String token = jwtUtil.generateToken("alice", "USER");
+
+        Claims first = jwtUtil.parseClaims(token);
+        Claims second = jwtUtil.parseClaims(token);
+        assertNotSame(first, second);
+        assertEquals(first.getSubject(), second.getSubject());
+        logger.info("Test passed: token verified on every call without the cache.");
+    }
+
+    static JwtUtil jwtUtil(long expiration, boolean cacheEnabled) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "mySecretKey");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheEnabled", cacheEnabled);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
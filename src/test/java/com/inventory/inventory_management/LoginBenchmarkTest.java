@@ -0,0 +1,96 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.model.User;
+import com.inventory.inventory_management.repository.UserRepository;
+import com.inventory.inventory_management.service.CustomUserDetailsService;
+import com.inventory.inventory_management.service.PasswordHasher;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Login throughput and CPU per login at BCrypt costs 10 and 12, with clients outnumbering
+ * the hashing pool's threads. Excluded from the default build; run it with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class LoginBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginBenchmarkTest.class);
+
+    private static final int CLIENTS = 16;
+    private static final int LOGINS_PER_CLIENT = 10;
+
+    @ParameterizedTest(name = "cost {0}")
+    @ValueSource(ints = {10, 12})
+    void login_Throughput(int strength) throws Exception {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        PasswordHasher passwordHasher = PasswordHasherTest.passwordHasher(encoder, strength, 0, CLIENTS * 2);
+        User storedUser = new User();
+        storedUser.setUsername("bench-user");
+        storedUser.setPassword(encoder.encode("password"));
+        storedUser.setRole("USER");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("bench-user")).thenReturn(Optional.of(storedUser));
+        CustomUserDetailsService service = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "passwordHasher", passwordHasher);
+        ReflectionTestUtils.setField(service, "jwtUtil", JwtUtilTest.jwtUtil(3600000L, true));
+
+        User credentials = new User();
+        credentials.setUsername("bench-user");
+        credentials.setPassword("password");
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                for (int j = 0; j < LOGINS_PER_CLIENT; j++) {
+                    if (service.login(credentials).join().containsKey("token")) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuBegin = os.getProcessCpuTime();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        long cpu = os.getProcessCpuTime() - cpuBegin;
+        clients.shutdown();
+        passwordHasher.stop();
+
+        int logins = CLIENTS * LOGINS_PER_CLIENT;
+        logger.info("Login: cost={}, clients={}, logins/sec={}, cpu ms/login={}", strength, CLIENTS,
+                (long) logins * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed),
+                String.format("%.1f", cpu / 1_000_000.0 / logins));
+        assertEquals(logins, succeeded.get());
+    }
+}
@@ -0,0 +1,139 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.model.LowStockEvent;
+import com.inventory.inventory_management.model.LowStockItem;
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.ReorderLevelView;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.ShardedStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the low-stock index and its threshold crossing events.
+ */
+class LowStockIndexTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockIndexTest.class);
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LowStockIndex lowStockIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllReorderLevels()).thenReturn(List.of(
+                reorderLevel(1L, 10, 5, 0),
+                reorderLevel(2L, 1, 4, 0),
+                reorderLevel(3L, 0, 0, 0),
+                reorderLevel(4L, 2, 10, 0)));
+        lowStockIndex.load();
+        logger.info("Test setup complete.");
+    }
+
+    // A product falling below and climbing back over its threshold raises one event per crossing
+    @Test
+    void onStockChanged_FiresOncePerCrossing() {
+        lowStockIndex.onStockChanged(change(1L, -3));
+        lowStockIndex.onStockChanged(change(1L, -3));
+        lowStockIndex.onStockChanged(change(1L, -1));
+        lowStockIndex.onStockChanged(change(1L, 5));
+
+        ArgumentCaptor<LowStockEvent> events = ArgumentCaptor.forClass(LowStockEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertTrue(events.getAllValues().get(0).isLow());
+        assertEquals(4, events.getAllValues().get(0).getQuantity());
+        assertFalse(events.getAllValues().get(1).isLow());
+        assertEquals(8, events.getAllValues().get(1).getQuantity());
+        logger.info("Test passed: one event per threshold crossing.");
+    }
+
+    // Low-stock listings are ordered by shortfall, honour the limit and skip products without a threshold
+    @Test
+    void getLowStock_OrdersByShortfall() {
+        List<LowStockItem> items = lowStockIndex.getLowStock(10);
+
+        assertEquals(List.of(new LowStockItem(4L, 2, 10, 8), new LowStockItem(2L, 1, 4, 3)), items);
+        assertEquals(List.of(new LowStockItem(4L, 2, 10, 8)), lowStockIndex.getLowStock(1));
+        logger.info("Test passed: low-stock products listed by shortfall.");
+    }
+
+    // Changing a threshold moves the product in or out of the listing
+    @Test
+    void setThreshold_ReranksProduct() {
+        lowStockIndex.setThreshold(1L, 20);
+        lowStockIndex.setThreshold(4L, 0);
+
+        assertEquals(List.of(new LowStockItem(1L, 10, 20, 10), new LowStockItem(2L, 1, 4, 3)), lowStockIndex.getLowStock(10));
+        verify(eventPublisher, times(2)).publishEvent(any(LowStockEvent.class));
+        logger.info("Test passed: threshold change re-ranked the products.");
+    }
+
+    // Sharded products are loaded with their shard totals, and deleted products drop out
+    @Test
+    void load_UsesShardTotalsAndRemoveDropsProduct() {
+        when(productRepository.findAllReorderLevels()).thenReturn(List.of(reorderLevel(5L, 0, 10, 4)));
+        when(shardedStockService.getQuantities(List.of(5L))).thenReturn(Map.of(5L, 12));
+        lowStockIndex.load();
+        assertTrue(lowStockIndex.getLowStock(10).isEmpty());
+
+        lowStockIndex.track(6L, 1, 3);
+        assertEquals(List.of(new LowStockItem(6L, 1, 3, 2)), lowStockIndex.getLowStock(10));
+        lowStockIndex.remove(6L);
+        assertTrue(lowStockIndex.getLowStock(10).isEmpty());
+        logger.info("Test passed: shard totals loaded and removal applied.");
+    }
+
+    private static StockChangedEvent change(Long productId, int delta) {
+        return new StockChangedEvent(productId, delta, "REMOVE", "tester", new Timestamp(System.currentTimeMillis()));
+    }
+
+    private static ReorderLevelView reorderLevel(Long id, int quantity, int threshold, int shards) {
+        return new ReorderLevelView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public int getReorderThreshold() {
+                return threshold;
+            }
+
+            @Override
+            public int getShardCount() {
+                return shards;
+            }
+        };
+    }
+}
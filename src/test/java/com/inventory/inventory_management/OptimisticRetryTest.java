@@ -0,0 +1,98 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.service.OptimisticRetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the bounded retry of optimistic lock failures.
+ */
+class OptimisticRetryTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryTest.class);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OptimisticRetry optimisticRetry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticRetry = new OptimisticRetry();
+        ReflectionTestUtils.setField(optimisticRetry, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(optimisticRetry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(optimisticRetry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(optimisticRetry, "baseBackoffMillis", 1L);
+        ReflectionTestUtils.setField(optimisticRetry, "maxBackoffMillis", 5L);
+        logger.info("Test setup complete.");
+    }
+
+    // Conflicting attempts are retried in fresh transactions until one succeeds
+    @Test
+    void execute_ConflictThenSuccess_RetriesAndCounts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = optimisticRetry.execute("update", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("conflict");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertEquals(2.0, meterRegistry.counter("inventory.optimistic.retries", "operation", "update").count());
+        assertEquals(0.0, meterRegistry.counter("inventory.optimistic.exhausted", "operation", "update").count());
+        logger.info("Test passed: conflicting attempts retried until success.");
+    }
+
+    // The retry cap bounds the attempts and the last failure is rethrown
+    @Test
+    void execute_AlwaysConflicting_GivesUpAtCap() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.execute("update", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.counter("inventory.optimistic.exhausted", "operation", "update").count());
+        logger.info("Test passed: retries capped.");
+    }
+
+    // Other failures are not retried
+    @Test
+    void execute_OtherFailure_NotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> optimisticRetry.execute("update", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("broken");
+        }));
+
+        assertEquals(1, attempts.get());
+        logger.info("Test passed: non-conflict failure not retried.");
+    }
+}
@@ -0,0 +1,166 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.OrderView;
+import com.inventory.inventory_management.repository.ArchivedOrderRepository;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
+import com.inventory.inventory_management.service.OrderArchiver;
+import com.inventory.inventory_management.service.OrderService;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ReportService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockLevelCache;
+import com.inventory.inventory_management.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order archival against an in-memory H2 database: which orders move, in chunks, and how
+ * reads find them afterwards.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "inventory.orders.archive.after-days=30",
+        "inventory.orders.archive.chunk-size=2"
+})
+@Import({OrderArchiver.class, OrderService.class, ReportService.class, StockReservationService.class, ProductService.class,
+        ShardedStockService.class, StockJdbcRepository.class, OptimisticRetry.class, StockLevelCache.class,
+        LowStockIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderArchiverTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiverTest.class);
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationRepository.deleteAll();
+        archivedOrderRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        product = productRepository.save(Product.builder()
+                .name("Archived Product")
+                .description("Archive product")
+                .price(3.0)
+                .quantity(100)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build());
+        logger.info("Test setup complete.");
+    }
+
+    // Only shipped and canceled orders not changed for a while move, in chunks; the rest stay in the orders table
+    @Test
+    void archive_MovesOldFinalOrdersInChunks() {
+        Long shipped = order("SHIPPED", 60);
+        Long canceled = order("CANCELED", 45);
+        Long oldShipped = order("SHIPPED", 90);
+        Long shippedLongAgo = order("SHIPPED", 90, 40);
+        Long canceledLongAgo = order("CANCELED", 120, 60);
+        Long processing = order("PROCESSING", 60);
+        Long recent = order("SHIPPED", 1);
+        Long recentlyShipped = order("SHIPPED", 60, 1);
+
+        int archived = orderArchiver.archive();
+
+        assertEquals(5, archived);
+        assertEquals(List.of(processing, recent, recentlyShipped), orderRepository.findAll().stream().map(Order::getId).sorted().toList());
+        assertEquals(List.of(shipped, canceled, oldShipped, shippedLongAgo, canceledLongAgo), archivedOrderRepository.findAll().stream()
+                .map(archivedOrder -> archivedOrder.getId()).sorted().toList());
+        assertEquals(0, orderArchiver.archive());
+        logger.info("Test passed: old final orders archived in chunks.");
+    }
+
+    // An archived order is still found by ID, and reports reach the archive only for ranges that need it
+    @Test
+    void reads_FallBackToArchive() {
+        Long archivedId = order("CANCELED", 60);
+        order("PROCESSING", 60);
+        order("SHIPPED", 1);
+        orderArchiver.archive();
+
+        Order found = orderService.getOrderById(archivedId);
+        assertEquals("CANCELED", found.getStatus());
+        assertEquals(product.getId(), found.getProductId().getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<OrderView> recent = reportService.getOrderReport(new Timestamp(System.currentTimeMillis() - 7 * DAY), null);
+        assertEquals(1, recent.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        List<OrderView> all = reportService.getOrderReport(null, null);
+        assertEquals(3, all.size());
+        assertEquals(archivedId, all.get(0).getId());
+        assertEquals("Archived Product", all.get(0).getProductName());
+        logger.info("Test passed: reads found archived orders only when needed.");
+    }
+
+    private Long order(String status, int ageDays) {
+        return order(status, ageDays, null);
+    }
+
+    private Long order(String status, int ageDays, Integer changedDaysAgo) {
+        return orderRepository.save(Order.builder()
+                .productId(product)
+                .quantity(1)
+                .totalPrice(3.0)
+                .status(status)
+                .createdAt(new Timestamp(System.currentTimeMillis() - ageDays * DAY))
+                .updatedAt(changedDaysAgo == null ? null : new Timestamp(System.currentTimeMillis() - changedDaysAgo * DAY))
+                .createdBy("buyer")
+                .build()).getId();
+    }
+}
@@ -1,8 +1,20 @@
 package com.inventory.inventory_management;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventory.inventory_management.controller.OrderController;
 import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.exception.UserMismatchException;
+import com.inventory.inventory_management.model.BulkOrderResult;
+import com.inventory.inventory_management.model.OrderCancelResult;
+import com.inventory.inventory_management.model.OrderIntakeStatus;
+import com.inventory.inventory_management.model.OrderPage;
+import com.inventory.inventory_management.model.OrderView;
+import com.inventory.inventory_management.model.OrderStatusBatchRequest;
+import com.inventory.inventory_management.model.OrderStatusResult;
 import com.inventory.inventory_management.model.Response;
+import com.inventory.inventory_management.service.BulkOrderService;
+import com.inventory.inventory_management.service.IdempotencyService;
+import com.inventory.inventory_management.service.OrderIntakeService;
 import com.inventory.inventory_management.service.OrderService;
 import com.inventory.inventory_management.util.Constants;
 
@@ -12,12 +24,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +56,16 @@ public class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    // Real store: requests without a key pass straight through
+    @Spy
+    private IdempotencyService idempotencyService = new IdempotencyService();
+
+    @Mock
+    private BulkOrderService bulkOrderService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     private Order order;
 
     // Setup method to initialize test data before each test
@@ -55,7 +87,7 @@ public class OrderControllerTest {
         // Mocking OrderService
         when(orderService.createOrder(any())).thenReturn(order);
 
-        ResponseEntity<Response> response = orderController.createOrder(new com.inventory.inventory_management.model.Order());
+        ResponseEntity<Response> response = orderController.createOrder(new com.inventory.inventory_management.model.Order(), null);
 
         // Assert success response
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -73,7 +105,7 @@ public class OrderControllerTest {
         // Mocking OrderService to return null for failure
         when(orderService.createOrder(any())).thenReturn(null);
 
-        ResponseEntity<Response> response = orderController.createOrder(new com.inventory.inventory_management.model.Order());
+        ResponseEntity<Response> response = orderController.createOrder(new com.inventory.inventory_management.model.Order(), null);
 
         // Assert failure response
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -91,7 +123,7 @@ public class OrderControllerTest {
         // Mocking OrderService to throw exception
         when(orderService.createOrder(any())).thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<Response> response = orderController.createOrder(new com.inventory.inventory_management.model.Order());
+        ResponseEntity<Response> response = orderController.createOrder(new com.inventory.inventory_management.model.Order(), null);
 
         // Assert exception response
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -101,6 +133,27 @@ public class OrderControllerTest {
         logger.error("Test passed: Order creation failed with exception.");
     }
 
+    // With asynchronous intake the order is queued: 202 with a token, or 429 once the queue is full
+    @Test
+    public void testCreateOrder_AsyncIntake() {
+        logger.info("Running test: Create Order - Async Intake");
+
+        OrderIntakeService orderIntakeService = mock(OrderIntakeService.class);
+        ReflectionTestUtils.setField(orderController, "orderIntakeService", orderIntakeService);
+        when(orderIntakeService.submit(any())).thenReturn(Optional.of("token-1"), Optional.empty());
+
+        ResponseEntity<Response> accepted = orderController.createOrder(new com.inventory.inventory_management.model.Order(), null);
+        ResponseEntity<Response> refused = orderController.createOrder(new com.inventory.inventory_management.model.Order(), null);
+
+        assertEquals(HttpStatus.ACCEPTED, accepted.getStatusCode());
+        assertEquals("token-1", ((OrderIntakeStatus) accepted.getBody().getData()).getToken());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, refused.getStatusCode());
+        assertEquals("1", refused.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(orderService, never()).createOrder(any());
+
+        logger.info("Test passed: order queued, then refused when the queue was full.");
+    }
+
     // Test case for fetching an order by ID successfully
     @Test
     public void testGetOrderById_Success() {
@@ -159,9 +212,9 @@ public class OrderControllerTest {
         logger.info("Running test: Get All Orders - Success");
 
         // Mocking OrderService
-        when(orderService.getAllOrders()).thenReturn(List.of(order));
+        when(orderService.getOrders(null, null, null, null, null, 50)).thenReturn(new OrderPage(List.of(new OrderView()), null));
 
-        ResponseEntity<Response> response = orderController.getAllOrders();
+        ResponseEntity<Response> response = orderController.getAllOrders(null, null, null, null, null, 50);
 
         // Assert success response
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -177,9 +230,9 @@ public class OrderControllerTest {
         logger.info("Running test: Get All Orders - Empty List");
 
         // Mocking OrderService to return an empty list
-        when(orderService.getAllOrders()).thenReturn(List.of());
+        when(orderService.getOrders(null, null, null, null, null, 50)).thenReturn(new OrderPage(List.of(), null));
 
-        ResponseEntity<Response> response = orderController.getAllOrders();
+        ResponseEntity<Response> response = orderController.getAllOrders(null, null, null, null, null, 50);
 
         // Assert empty list response
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
@@ -189,15 +242,92 @@ public class OrderControllerTest {
         logger.info("Test passed: No orders found.");
     }
 
+    // Test case for a bulk status change
+    @Test
+    public void testUpdateOrderStatuses_Success() {
+        logger.info("Running test: Update Order Statuses - Success");
+
+        OrderStatusBatchRequest request = new OrderStatusBatchRequest(List.of(1L, 2L), "SHIPPED", "admin");
+        List<OrderStatusResult> results = List.of(
+                new OrderStatusResult(1L, "PROCESSING", OrderStatusResult.UPDATED, null),
+                new OrderStatusResult(2L, null, OrderStatusResult.NOT_FOUND, "Order not found"));
+        when(orderService.updateOrderStatuses(request)).thenReturn(results);
+
+        ResponseEntity<Response> response = orderController.updateOrderStatuses(request);
+
+        // Assert per-order outcomes returned
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody().getData());
+
+        logger.info("Test passed: Order statuses updated.");
+    }
+
+    // Test case for order changes naming a user other than the authenticated one
+    @Test
+    public void testOrderChanges_UserMismatch_Forbidden() {
+        logger.info("Running test: Order changes - User mismatch");
+
+        OrderStatusBatchRequest request = new OrderStatusBatchRequest(List.of(1L), "SHIPPED", "admin");
+        UserMismatchException mismatch = new UserMismatchException("User does not match the authenticated user");
+        when(orderService.createOrder(any())).thenThrow(mismatch);
+        when(orderService.updateOrderStatus(1L, "SHIPPED", "admin")).thenThrow(mismatch);
+        when(orderService.updateOrderStatuses(request)).thenThrow(mismatch);
+
+        ResponseEntity<Response> created = orderController.createOrder(new com.inventory.inventory_management.model.Order(), null);
+        ResponseEntity<Response> updated = orderController.updateOrderStatus(1L, "SHIPPED", "admin");
+        ResponseEntity<Response> batch = orderController.updateOrderStatuses(request);
+
+        // Assert each is refused rather than reported as a bad request or a server error
+        assertEquals(HttpStatus.FORBIDDEN, created.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, updated.getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, batch.getStatusCode());
+        assertEquals("Forbidden", updated.getBody().getMessage());
+
+        logger.info("Test passed: Order changes for another user refused.");
+    }
+
+    // Test case for a bulk status change that raced another update
+    @Test
+    public void testUpdateOrderStatuses_Conflict() {
+        logger.info("Running test: Update Order Statuses - Conflict");
+
+        OrderStatusBatchRequest request = new OrderStatusBatchRequest(List.of(1L), "CANCELED", "admin");
+        when(orderService.updateOrderStatuses(request)).thenThrow(new IllegalStateException("Some orders changed"));
+
+        ResponseEntity<Response> response = orderController.updateOrderStatuses(request);
+
+        // Assert conflict response
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+
+        logger.info("Test passed: Conflicting status update reported.");
+    }
+
+    // Test case for an invalid cursor or limit
+    @Test
+    public void testGetAllOrders_InvalidRequest() {
+        logger.info("Running test: Get All Orders - Invalid Request");
+
+        // Mocking OrderService to reject the cursor
+        when(orderService.getOrders(null, null, null, null, "bogus", 50)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        ResponseEntity<Response> response = orderController.getAllOrders(null, null, null, null, "bogus", 50);
+
+        // Assert bad request response
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Invalid cursor", response.getBody().getData());
+
+        logger.info("Test passed: Invalid order query rejected.");
+    }
+
     // Test case for fetching all orders when an exception occurs
     @Test
     public void testGetAllOrders_Exception() {
         logger.info("Running test: Get All Orders - Exception");
 
         // Mocking OrderService to throw an exception
-        when(orderService.getAllOrders()).thenThrow(new RuntimeException("DB error"));
+        when(orderService.getOrders(null, null, null, null, null, 50)).thenThrow(new RuntimeException("DB error"));
 
-        ResponseEntity<Response> response = orderController.getAllOrders();
+        ResponseEntity<Response> response = orderController.getAllOrders(null, null, null, null, null, 50);
 
         // Assert error response
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -279,4 +409,55 @@ public class OrderControllerTest {
 
         logger.error("Test passed: Exception occurred while cancelling order.");
     }
+
+    // Test case for cancelling orders in bulk, by ID or by filter but not both
+    @Test
+    public void testCancelOrders_ByIdOrFilter() {
+        logger.info("Running test: Cancel Orders - By ID or Filter");
+
+        OrderCancelResult result = new OrderCancelResult(2, 2, 0, 2, 4);
+        when(orderService.cancelOrders(List.of(1L, 2L))).thenReturn(result);
+        when(orderService.cancelOrdersMatching(null, null)).thenThrow(new IllegalArgumentException("A status or a user is required"));
+
+        ResponseEntity<Response> byId = orderController.cancelOrders(List.of(1L, 2L), null, null);
+        ResponseEntity<Response> noFilter = orderController.cancelOrders(null, null, null);
+        ResponseEntity<Response> both = orderController.cancelOrders(List.of(1L), "PROCESSING", null);
+
+        assertEquals(HttpStatus.OK, byId.getStatusCode());
+        assertSame(result, byId.getBody().getData());
+        assertEquals(HttpStatus.BAD_REQUEST, noFilter.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, both.getStatusCode());
+        verify(orderService, never()).cancelOrders(List.of(1L));
+
+        logger.info("Test passed: bulk cancellation answered by ID and rejected without a single selector.");
+    }
+
+    // Test case for a bulk upload streaming one NDJSON result per order line
+    @Test
+    public void testBulkCreateOrders_StreamsResults() throws Exception {
+        logger.info("Running test: Bulk Create Orders - Streams Results");
+
+        // Mocking BulkOrderService to report two lines
+        when(bulkOrderService.importOrders(any(), any())).thenAnswer(invocation -> {
+            Consumer<BulkOrderResult> results = invocation.getArgument(1);
+            results.accept(new BulkOrderResult(1, 10L, 1L, 2, BulkOrderResult.CREATED, null));
+            results.accept(new BulkOrderResult(2, null, 1L, 9, BulkOrderResult.REJECTED, "Insufficient stock for the product"));
+            return 1L;
+        });
+
+        ResponseEntity<StreamingResponseBody> response = orderController.bulkCreateOrders(
+                new ByteArrayInputStream("{}\n{}\n".getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert one JSON result per line
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(BulkOrderResult.CREATED, objectMapper.readValue(lines[0], BulkOrderResult.class).getStatus());
+        assertEquals(BulkOrderResult.REJECTED, objectMapper.readValue(lines[1], BulkOrderResult.class).getStatus());
+
+        logger.info("Test passed: Bulk upload results streamed.");
+    }
 }
@@ -0,0 +1,146 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.model.BulkOrderResult;
+import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.OrderIntakeStatus;
+import com.inventory.inventory_management.service.BulkOrderService;
+import com.inventory.inventory_management.service.OrderIntakeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the asynchronous order intake: tokens, statuses, micro-batches and the bounded queue.
+ */
+class OrderIntakeServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIntakeServiceTest.class);
+
+    @Mock
+    private BulkOrderService bulkOrderService;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OrderIntakeService orderIntakeService;
+
+    // Sizes of the batches handed to the bulk service
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderIntakeService, "capacity", 2);
+        ReflectionTestUtils.setField(orderIntakeService, "batchSize", 10);
+        ReflectionTestUtils.setField(orderIntakeService, "consumerCount", 1);
+        logger.info("Test setup complete.");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderIntakeService.stop();
+    }
+
+    // An accepted order is queued, then placed by a consumer; its token reports the outcome
+    @Test
+    void submit_OrderIsPlacedAndStatusUpdated() throws Exception {
+        when(bulkOrderService.placeOrders(anyList())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+        orderIntakeService.start();
+
+        String created = orderIntakeService.submit(order(5)).orElseThrow();
+        String rejected = orderIntakeService.submit(order(0)).orElseThrow();
+
+        OrderIntakeStatus createdStatus = awaitPlaced(created);
+        OrderIntakeStatus rejectedStatus = awaitPlaced(rejected);
+        assertEquals(OrderIntakeStatus.CREATED, createdStatus.getStatus());
+        assertEquals(42L, createdStatus.getOrderId());
+        assertEquals(OrderIntakeStatus.REJECTED, rejectedStatus.getStatus());
+        assertEquals("Insufficient stock for the product", rejectedStatus.getMessage());
+        assertTrue(orderIntakeService.getStatus("unknown").isEmpty());
+        logger.info("Test passed: queued orders placed and their statuses updated.");
+    }
+
+    // A full queue refuses orders, and what piled up while the consumer was busy goes out as one batch
+    @Test
+    void submit_QueueFull_RefusesAndBatches() throws Exception {
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(bulkOrderService.placeOrders(anyList())).thenAnswer(invocation -> {
+            busy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return results(invocation.getArgument(0));
+        });
+        orderIntakeService.start();
+
+        List<String> tokens = new ArrayList<>();
+        tokens.add(orderIntakeService.submit(order(1)).orElseThrow());
+        assertTrue(busy.await(5, TimeUnit.SECONDS));
+        tokens.add(orderIntakeService.submit(order(1)).orElseThrow());
+        tokens.add(orderIntakeService.submit(order(1)).orElseThrow());
+        Optional<String> refused = orderIntakeService.submit(order(1));
+        assertEquals(2.0, meterRegistry.get("inventory.order_intake.queued").gauge().value());
+        release.countDown();
+
+        assertTrue(refused.isEmpty());
+        for (String token : tokens) {
+            assertEquals(OrderIntakeStatus.CREATED, awaitPlaced(token).getStatus());
+        }
+        assertEquals(List.of(1, 2), batches);
+        logger.info("Test passed: full queue refused an order and the backlog was placed as one batch.");
+    }
+
+    // Orders with a quantity of 0 stand in for orders the bulk service rejects
+    private List<BulkOrderResult> results(List<BulkOrderService.Placement> placements) {
+        batches.add(placements.size());
+        List<BulkOrderResult> results = new ArrayList<>();
+        for (BulkOrderService.Placement placement : placements) {
+            Order order = placement.order();
+            results.add(order.getQuantity() > 0
+                    ? new BulkOrderResult(results.size() + 1, 42L, order.getProductId(), order.getQuantity(), BulkOrderResult.CREATED, null)
+                    : new BulkOrderResult(results.size() + 1, null, order.getProductId(), 0, BulkOrderResult.REJECTED,
+                    "Insufficient stock for the product"));
+        }
+        return results;
+    }
+
+    private OrderIntakeStatus awaitPlaced(String token) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            OrderIntakeStatus status = orderIntakeService.getStatus(token).orElseThrow();
+            if (!OrderIntakeStatus.QUEUED.equals(status.getStatus())) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        fail("Order " + token + " was not placed in time");
+        return null;
+    }
+
+    private static Order order(int quantity) {
+        Order order = new Order();
+        order.setProductId(1L);
+        order.setQuantity(quantity);
+        order.setUser("buyer");
+        return order;
+    }
+}
@@ -0,0 +1,152 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.OrderPage;
+import com.inventory.inventory_management.model.OrderView;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
+import com.inventory.inventory_management.service.OrderArchiver;
+import com.inventory.inventory_management.service.OrderService;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ReportService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockLevelCache;
+import com.inventory.inventory_management.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order listings and reports against an in-memory H2 database: each is one query per table,
+ * however many orders and products it covers.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, ReportService.class, OrderArchiver.class, StockReservationService.class, ProductService.class,
+        ShardedStockService.class, StockJdbcRepository.class, OptimisticRetry.class, StockLevelCache.class,
+        LowStockIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderListingTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderListingTest.class);
+
+    private static final int PRODUCTS = 5;
+    private static final int ORDERS = 40;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(productRepository.save(Product.builder()
+                    .name("Listed Product " + i)
+                    .description("Listing product")
+                    .price(4.0)
+                    .quantity(100)
+                    .createdBy("tester")
+                    .createdAt(new Timestamp(System.currentTimeMillis()))
+                    .build()));
+        }
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(Order.builder()
+                    .productId(products.get(i % PRODUCTS))
+                    .quantity(1)
+                    .totalPrice(4.0)
+                    .status(i % 2 == 0 ? "PROCESSING" : "SHIPPED")
+                    .createdAt(new Timestamp(1_000_000L + i))
+                    .createdBy("buyer")
+                    .build());
+        }
+        orderRepository.saveAll(orders);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        logger.info("Test setup complete.");
+    }
+
+    // A page of orders is one query, and no product is loaded as an entity
+    @Test
+    void getOrders_OnePageIsOneQuery() {
+        OrderPage page = orderService.getOrders(null, null, null, null, null, 25);
+
+        logger.info("Listing of 25 orders: {} statements prepared, {} entities loaded",
+                statistics.getPrepareStatementCount(), statistics.getEntityLoadCount());
+        assertEquals(25, page.getOrders().size());
+        assertNotNull(page.getNextCursor());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        OrderView newest = page.getOrders().get(0);
+        assertEquals("Listed Product " + ((ORDERS - 1) % PRODUCTS), newest.getProductName());
+        logger.info("Test passed: order listing read with one query.");
+    }
+
+    // The order report is one query per table, the orders and their archive, however many products its orders cover
+    @Test
+    void getOrderReport_IsOneQueryPerTable() {
+        List<OrderView> orders = reportService.getOrderReport(null, null);
+
+        logger.info("Report of {} orders: {} statements prepared", orders.size(), statistics.getPrepareStatementCount());
+        assertEquals(ORDERS, orders.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertTrue(orders.stream().allMatch(order -> order.getProductName().startsWith("Listed Product ")));
+        logger.info("Test passed: order report read with one query per table.");
+    }
+
+    // Loading orders as entities no longer loads their products with them
+    @Test
+    void findAll_DoesNotLoadProducts() {
+        List<Order> orders = orderRepository.findAll();
+
+        assertEquals(ORDERS, orders.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(ORDERS, statistics.getEntityLoadCount());
+        logger.info("Test passed: products of the orders were not loaded.");
+    }
+}
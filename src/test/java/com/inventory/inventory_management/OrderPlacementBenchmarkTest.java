@@ -0,0 +1,213 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.User;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.repository.UserRepository;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
+import com.inventory.inventory_management.service.OrderService;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockLevelCache;
+import com.inventory.inventory_management.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order placement benchmark against an in-memory H2 database: orders/sec and p99 latency
+ * at 200 concurrent clients, for orders placed by an anonymous caller (user looked up)
+ * and by the authenticated user themselves (fast path, no user lookup).
+ * Excluded from the default build; run it with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, StockReservationService.class, ProductService.class, ShardedStockService.class,
+        StockJdbcRepository.class, OptimisticRetry.class, StockLevelCache.class, LowStockIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderPlacementBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPlacementBenchmarkTest.class);
+
+    private static final int CLIENTS = 200;
+    private static final int ORDERS_PER_CLIENT = 2;
+    private static final int INITIAL_STOCK = 100000;
+    private static final String USERNAME = "buyer";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword("secret");
+        user.setRole("USER");
+        userRepository.save(user);
+        productId = productRepository.save(Product.builder()
+                .name("Benchmark Product")
+                .description("Order placement benchmark product")
+                .price(10.0)
+                .quantity(INITIAL_STOCK)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // The authenticated caller's order skips the user lookup, one statement less per order
+    @Test
+    void createOrder_AuthenticatedCaller_IssuesOneStatementLess() {
+        long lookedUp = statementsFor(false);
+        long fastPath = statementsFor(true);
+
+        logger.info("Statements per order: user looked up={}, fast path={}", lookedUp, fastPath);
+        assertEquals(lookedUp - 1, fastPath);
+    }
+
+    // Before/after throughput and p99 latency with 200 concurrent clients
+    @Test
+    void createOrder_ConcurrentClients_Benchmark() throws Exception {
+        // Warm up the connection pool, Hibernate and the JIT before measuring
+        runClients(false);
+
+        long[] before = runClients(false);
+        long[] after = runClients(true);
+
+        logger.info("Order placement, {} clients, user looked up: orders/sec={}, p99={} ms",
+                CLIENTS, before[0], before[1] / 1_000_000.0);
+        logger.info("Order placement, {} clients, fast path: orders/sec={}, p99={} ms",
+                CLIENTS, after[0], after[1] / 1_000_000.0);
+
+        int placed = 3 * CLIENTS * ORDERS_PER_CLIENT;
+        assertEquals(placed, orderRepository.count());  // Every order placed
+        assertEquals(INITIAL_STOCK - placed, productRepository.findQuantityById(productId).orElseThrow());  // Every unit taken once
+    }
+
+    private long statementsFor(boolean authenticated) {
+        authenticate(authenticated);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // IDs come from the id_generators table in blocks, so one order in a block also fetches
+        // the next block; the fewest statements over a few orders is the steady-state cost
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            statistics.clear();
+            orderService.createOrder(order());
+            fewest = Math.min(fewest, statistics.getPrepareStatementCount());
+        }
+        SecurityContextHolder.clearContext();
+        return fewest;
+    }
+
+    /**
+     * Places orders from concurrent clients.
+     *
+     * @return the orders per second and the p99 latency in nanoseconds
+     */
+    private long[] runClients(boolean authenticated) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(executor.submit(() -> {
+                authenticate(authenticated);
+                start.await();
+                for (int j = 0; j < ORDERS_PER_CLIENT; j++) {
+                    long begin = System.nanoTime();
+                    orderService.createOrder(order());
+                    latencies.add(System.nanoTime() - begin);
+                }
+                SecurityContextHolder.clearContext();
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long p99 = sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+        return new long[]{(long) CLIENTS * ORDERS_PER_CLIENT * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed), p99};
+    }
+
+    private Order order() {
+        Order order = new Order();
+        order.setProductId(productId);
+        order.setQuantity(1);
+        order.setUser(USERNAME);
+        return order;
+    }
+
+    private static void authenticate(boolean authenticated) {
+        if (authenticated) {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(USERNAME, null, List.of()));
+        }
+    }
+}
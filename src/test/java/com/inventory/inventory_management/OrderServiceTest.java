@@ -1,12 +1,21 @@
 package com.inventory.inventory_management;
 
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.entities.StockReservation;
+import com.inventory.inventory_management.exception.UserMismatchException;
 import com.inventory.inventory_management.model.Order;
+import com.inventory.inventory_management.model.OrderCancelResult;
+import com.inventory.inventory_management.model.OrderPage;
+import com.inventory.inventory_management.model.OrderView;
 import com.inventory.inventory_management.model.User;
+import com.inventory.inventory_management.repository.ArchivedOrderRepository;
 import com.inventory.inventory_management.repository.OrderRepository;
 import com.inventory.inventory_management.repository.ProductRepository;
 import com.inventory.inventory_management.repository.UserRepository;
 import com.inventory.inventory_management.service.OrderService;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.StockReservationService;
 import com.inventory.inventory_management.model.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,12 +24,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class OrderServiceTest {
@@ -33,12 +51,24 @@ class OrderServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @Mock
     private User user;
 
@@ -66,8 +96,9 @@ class OrderServiceTest {
 
         // Mock product existence and stock
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(product.getQuantity()).thenReturn(5);
+        when(product.getId()).thenReturn(1L);
         when(product.getPrice()).thenReturn(100.0);
+        when(productService.tryDecrementStock(1L, 2, StockMovementRecord.ORDER_PLACED, "testUser")).thenReturn(true);
 
         // Mock orderRepository save (this is the actual save of the order)
         when(orderRepository.save(any())).thenReturn(new com.inventory.inventory_management.entities.Order());
@@ -84,9 +115,75 @@ class OrderServiceTest {
         // Optionally, you can check that findById was called to retrieve the product
         verify(productRepository, times(1)).findById(1L);
 
+        // Stock must be taken through the atomic stock path
+        verify(productService, times(1)).tryDecrementStock(1L, 2, StockMovementRecord.ORDER_PLACED, "testUser");
+
         logger.info("testCreateOrder_Success passed");
     }
 
+    // An order placed under the authenticated caller's own name skips the user lookup
+    @Test
+    void testCreateOrder_AuthenticatedCaller_SkipsUserLookup() {
+        logger.info("Running testCreateOrder_AuthenticatedCaller_SkipsUserLookup");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("testUser", null, List.of()));
+        try {
+            when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+            when(product.getId()).thenReturn(1L);
+            when(productService.tryDecrementStock(1L, 2, StockMovementRecord.ORDER_PLACED, "testUser")).thenReturn(true);
+            when(orderRepository.save(any())).thenReturn(new com.inventory.inventory_management.entities.Order());
+
+            assertNotNull(orderService.createOrder(order));
+
+            verifyNoInteractions(userRepository);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        logger.info("testCreateOrder_AuthenticatedCaller_SkipsUserLookup passed");
+    }
+
+    // An order naming a user other than the authenticated one is refused without a lookup
+    @Test
+    void testCreateOrder_OtherUser_Refused() {
+        logger.info("Running testCreateOrder_OtherUser_Refused");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+        try {
+            RuntimeException exception = assertThrows(UserMismatchException.class, () -> orderService.createOrder(order));
+
+            assertEquals("User does not match the authenticated user", exception.getMessage());
+            verifyNoInteractions(userRepository);
+            verify(productService, never()).tryDecrementStock(any(), anyInt(), anyString(), anyString());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        logger.info("testCreateOrder_OtherUser_Refused passed");
+    }
+
+    // A status update by the authenticated user is recorded under that user without a lookup
+    @Test
+    void testUpdateOrderStatus_AuthenticatedCaller_SkipsUserLookup() {
+        logger.info("Running testUpdateOrderStatus_AuthenticatedCaller_SkipsUserLookup");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("testUser", null, List.of()));
+        try {
+            com.inventory.inventory_management.entities.Order existing = new com.inventory.inventory_management.entities.Order();
+            existing.setId(1L);
+            existing.setStatus("PROCESSING");
+            when(orderRepository.findById(1L)).thenReturn(Optional.of(existing));
+            when(orderRepository.save(existing)).thenReturn(existing);
+
+            com.inventory.inventory_management.entities.Order updated = orderService.updateOrderStatus(1L, "SHIPPED", null);
+
+            assertEquals("SHIPPED", updated.getStatus());
+            assertEquals("testUser", updated.getUpdatedBy());
+            verifyNoInteractions(userRepository);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        logger.info("testUpdateOrderStatus_AuthenticatedCaller_SkipsUserLookup passed");
+    }
+
     // Test case 2: Create Order - User Not Found
     @Test
     void testCreateOrder_UserNotFound() {
@@ -111,8 +208,8 @@ class OrderServiceTest {
 
         when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(product.getQuantity()).thenReturn(1); // Insufficient stock
-        when(product.getPrice()).thenReturn(100.0);
+        when(product.getId()).thenReturn(1L);
+        when(productService.tryDecrementStock(1L, 2, StockMovementRecord.ORDER_PLACED, "testUser")).thenReturn(false); // Insufficient stock
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             orderService.createOrder(order);
@@ -124,22 +221,34 @@ class OrderServiceTest {
         logger.info("testCreateOrder_InsufficientStock passed");
     }
 
-    // Test case 4: Get All Orders - Success
+    // Test case 4: Get Orders - a full page carries a cursor that resumes after its last order
     @Test
-    void testGetAllOrders_Success() {
-        logger.info("Running testGetAllOrders_Success");
-
-        List<com.inventory.inventory_management.entities.Order> orders = new ArrayList<>();
-        orders.add(new com.inventory.inventory_management.entities.Order());
-
-        when(orderRepository.findAll()).thenReturn(orders);
-
-        List<com.inventory.inventory_management.entities.Order> result = orderService.getAllOrders();
-
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-
-        logger.info("testGetAllOrders_Success passed");
+    void testGetOrders_PagesWithCursor() {
+        logger.info("Running testGetOrders_PagesWithCursor");
+
+        List<OrderView> orders = new ArrayList<>();
+        for (long id = 3; id >= 1; id--) {
+            OrderView order = new OrderView();
+            order.setId(id);
+            order.setCreatedAt(new Timestamp(1000 + id));
+            orders.add(order);
+        }
+        when(orderRepository.findPageBefore(eq("PROCESSING"), isNull(), any(), any(), eq(Long.MIN_VALUE), any()))
+                .thenReturn(orders);
+        when(orderRepository.findPageBefore(isNull(), isNull(), any(), eq(new Timestamp(1002)), eq(2L), any()))
+                .thenReturn(List.of(orders.get(2)));
+
+        OrderPage first = orderService.getOrders("PROCESSING", " ", null, null, null, 2);
+        OrderPage next = orderService.getOrders(null, null, null, null, first.getNextCursor(), 2);
+
+        assertEquals(2, first.getOrders().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(List.of(orders.get(2)), next.getOrders());
+        assertNull(next.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrders(null, null, null, null, "not-a-cursor", 2));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrders(null, null, null, null, null, 0));
+
+        logger.info("testGetOrders_PagesWithCursor passed");
     }
 
     // Test case 5: Get Order by ID - Order Found
@@ -178,23 +287,49 @@ class OrderServiceTest {
     void testCancelOrder_Success() {
         logger.info("Running testCancelOrder_Success");
 
-        when(orderRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(orderRepository).deleteById(1L);
+        // The order still holds 3 units of product 7; they go back when it is deleted
+        when(product.getId()).thenReturn(7L);
+        when(stockReservationService.settleAll(List.of(1L), StockReservation.RELEASED))
+                .thenReturn(Map.of(1L, StockReservation.ACTIVE));
+        when(orderRepository.findAllByIdInForUpdate(List.of(1L))).thenReturn(List.of(placedOrder(1L, "PROCESSING", 3)));
+        when(orderRepository.deleteAllByIdIn(List.of(1L))).thenReturn(1);
 
         ResponseEntity<Response> response = orderService.cancelOrder(1L);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Order successfully deleted", response.getBody().getMessage());
+        verify(productService).incrementStock(7L, 3, StockMovementRecord.ORDER_CANCELED, "order-cancel");
+        verify(orderRepository, never()).existsById(any());
 
         logger.info("testCancelOrder_Success passed");
     }
 
+    // Orders placed before reservations existed still hold their units while processing; shipped ones do not
+    @Test
+    void testCancelOrders_WithoutReservation_RestocksProcessingOrders() {
+        logger.info("Running testCancelOrders_WithoutReservation_RestocksProcessingOrders");
+
+        when(product.getId()).thenReturn(7L);
+        when(stockReservationService.settleAll(List.of(1L, 2L, 3L), StockReservation.RELEASED))
+                .thenReturn(Map.of(3L, StockReservation.RELEASED));
+        when(orderRepository.findAllByIdInForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(
+                placedOrder(1L, "PROCESSING", 4), placedOrder(2L, "SHIPPED", 5), placedOrder(3L, "PROCESSING", 6)));
+        when(orderRepository.deleteAllByIdIn(List.of(1L, 2L, 3L))).thenReturn(3);
+
+        OrderCancelResult result = orderService.cancelOrders(List.of(1L, 2L, 3L));
+
+        assertEquals(new OrderCancelResult(3, 3, 0, 0, 4L), result);
+        verify(productService).incrementStock(7L, 4, StockMovementRecord.ORDER_CANCELED, "order-cancel");
+
+        logger.info("testCancelOrders_WithoutReservation_RestocksProcessingOrders passed");
+    }
+
     // Test case 10: Cancel Order - Order Not Found
     @Test
     void testCancelOrder_OrderNotFound() {
         logger.info("Running testCancelOrder_OrderNotFound");
 
-        when(orderRepository.existsById(1L)).thenReturn(false);
+        when(orderRepository.deleteAllByIdIn(List.of(1L))).thenReturn(0);
 
         ResponseEntity<Response> response = orderService.cancelOrder(1L);
 
@@ -204,6 +339,17 @@ class OrderServiceTest {
         logger.info("testCancelOrder_OrderNotFound passed");
     }
 
+    // Cancelling by filter needs a status or a user, so a bare request cannot delete every order
+    @Test
+    void testCancelOrdersMatching_RequiresFilter() {
+        logger.info("Running testCancelOrdersMatching_RequiresFilter");
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.cancelOrdersMatching(" ", null));
+        verifyNoInteractions(orderRepository);
+
+        logger.info("testCancelOrdersMatching_RequiresFilter passed");
+    }
+
     // Test case: Update Order Status - Valid Status
     @Test
     void testUpdateOrderStatus_ValidStatus_Success() {
@@ -244,6 +390,33 @@ class OrderServiceTest {
         }
     }
 
+    // Test case: Update Order Status - Cancel puts the units back
+    @Test
+    void testUpdateOrderStatus_Canceled_RestoresStock() {
+        logger.info("Running testUpdateOrderStatus_Canceled_RestoresStock");
+
+        Product product = new Product();
+        product.setId(1L);
+
+        com.inventory.inventory_management.entities.Order order = new com.inventory.inventory_management.entities.Order();
+        order.setId(1L);
+        order.setStatus("PROCESSING");
+        order.setQuantity(2);
+        order.setProductId(product);
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+        when(orderRepository.save(any())).thenReturn(order);
+
+        com.inventory.inventory_management.entities.Order updatedOrder =
+                orderService.updateOrderStatus(1L, "CANCELED", "testUser");
+
+        assertEquals("CANCELED", updatedOrder.getStatus());
+        verify(productService, times(1)).incrementStock(eq(1L), eq(2), eq(StockMovementRecord.ORDER_CANCELED), anyString());
+
+        logger.info("testUpdateOrderStatus_Canceled_RestoresStock passed");
+    }
+
     // Test case: Update Order Status - Invalid Status
     @Test
     void testUpdateOrderStatus_InvalidStatus_ThrowsException() {
@@ -301,4 +474,104 @@ class OrderServiceTest {
 
         logger.info("testUpdateOrderStatus_UserNotFound_ThrowsException passed");
     }
+
+    // Test case: Create Order - a processing order holds its units in a reservation
+    @Test
+    void testCreateOrder_Processing_HoldsReservation() {
+        logger.info("Running testCreateOrder_Processing_HoldsReservation");
+
+        com.inventory.inventory_management.entities.Order saved = new com.inventory.inventory_management.entities.Order();
+        saved.setId(5L);
+        saved.setStatus("PROCESSING");
+
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(product.getId()).thenReturn(1L);
+        when(productService.tryDecrementStock(1L, 2, StockMovementRecord.ORDER_PLACED, "testUser")).thenReturn(true);
+        when(orderRepository.save(any())).thenReturn(saved);
+
+        orderService.createOrder(order);
+
+        verify(stockReservationService, times(1)).hold(saved);
+
+        logger.info("testCreateOrder_Processing_HoldsReservation passed");
+    }
+
+    // Test case: Update Order Status - shipping consumes the reservation
+    @Test
+    void testUpdateOrderStatus_Shipped_ConsumesReservation() {
+        logger.info("Running testUpdateOrderStatus_Shipped_ConsumesReservation");
+
+        com.inventory.inventory_management.entities.Order order = new com.inventory.inventory_management.entities.Order();
+        order.setId(1L);
+        order.setStatus("PROCESSING");
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+        when(orderRepository.save(any())).thenReturn(order);
+
+        orderService.updateOrderStatus(1L, "SHIPPED", "testUser");
+
+        verify(stockReservationService, times(1)).consume(eq(1L), anyString());
+        verify(productService, never()).incrementStock(any(), anyInt(), anyString(), anyString());
+
+        logger.info("testUpdateOrderStatus_Shipped_ConsumesReservation passed");
+    }
+
+    // Test case: Update Order Status - a canceled order is final, and setting the same status changes nothing
+    @Test
+    void testUpdateOrderStatus_TransitionTable() {
+        logger.info("Running testUpdateOrderStatus_TransitionTable");
+
+        com.inventory.inventory_management.entities.Order order = new com.inventory.inventory_management.entities.Order();
+        order.setId(1L);
+        order.setStatus("CANCELED");
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> orderService.updateOrderStatus(1L, "SHIPPED", "testUser"));
+        assertEquals("An order cannot move from CANCELED to SHIPPED", exception.getMessage());
+        assertSame(order, orderService.updateOrderStatus(1L, "CANCELED", "testUser"));
+        verify(orderRepository, never()).save(any());
+        verifyNoInteractions(stockReservationService, productService);
+
+        logger.info("testUpdateOrderStatus_TransitionTable passed");
+    }
+
+    // Test case: Update Order Status - a released reservation already returned the units
+    @Test
+    void testUpdateOrderStatus_CanceledWithReservation_RestocksOnce() {
+        logger.info("Running testUpdateOrderStatus_CanceledWithReservation_RestocksOnce");
+
+        Product product = new Product();
+        product.setId(1L);
+
+        com.inventory.inventory_management.entities.Order order = new com.inventory.inventory_management.entities.Order();
+        order.setId(1L);
+        order.setStatus("PROCESSING");
+        order.setQuantity(2);
+        order.setProductId(product);
+
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(new User()));
+        when(orderRepository.save(any())).thenReturn(order);
+        when(stockReservationService.release(1L, StockMovementRecord.ORDER_CANCELED, "testUser")).thenReturn(true);
+
+        orderService.updateOrderStatus(1L, "CANCELED", "testUser");
+
+        verify(productService, never()).incrementStock(any(), anyInt(), anyString(), anyString());
+
+        logger.info("testUpdateOrderStatus_CanceledWithReservation_RestocksOnce passed");
+    }
+
+    private com.inventory.inventory_management.entities.Order placedOrder(Long id, String status, int quantity) {
+        com.inventory.inventory_management.entities.Order placed = new com.inventory.inventory_management.entities.Order();
+        placed.setId(id);
+        placed.setStatus(status);
+        placed.setQuantity(quantity);
+        placed.setProductId(product);
+        return placed;
+    }
 }
@@ -0,0 +1,214 @@
+package com.inventory.inventory_management;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockReservation;
+import com.inventory.inventory_management.model.OrderCancelResult;
+import com.inventory.inventory_management.model.OrderStatusBatchRequest;
+import com.inventory.inventory_management.model.OrderStatusResult;
+import com.inventory.inventory_management.model.User;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.repository.UserRepository;
+import com.inventory.inventory_management.service.BulkOrderService;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
+import com.inventory.inventory_management.service.OrderService;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockLevelCache;
+import com.inventory.inventory_management.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk order status changes and cancellations against an in-memory H2 database: reservations
+ * settled and stock put back with a few set-based statements instead of several per order.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OrderService.class, BulkOrderService.class, StockReservationService.class, ProductService.class,
+        ShardedStockService.class, StockJdbcRepository.class, OptimisticRetry.class, StockLevelCache.class,
+        LowStockIndex.class, SimpleMeterRegistry.class, ObjectMapper.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderStatusBatchTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusBatchTest.class);
+
+    private static final int ORDERS = 1500;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long firstProduct;
+    private Long secondProduct;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stockReservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("packer");
+        user.setPassword("secret");
+        user.setRole("USER");
+        userRepository.save(user);
+        firstProduct = product(10000);
+        secondProduct = product(10000);
+        StringBuilder upload = new StringBuilder();
+        for (int i = 0; i < ORDERS; i++) {
+            upload.append("{\"productId\":").append(i % 2 == 0 ? firstProduct : secondProduct)
+                    .append(",\"quantity\":2,\"user\":\"packer\"}\n");
+        }
+        bulkOrderService.importOrders(new StringReader(upload.toString()), result -> { });
+    }
+
+    // Shipping a wave consumes every reservation with a handful of statements
+    @Test
+    void updateOrderStatuses_ShipWave_UsesHandfulOfStatements() {
+        List<Long> ids = orderIds();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderStatusResult> results = orderService.updateOrderStatuses(new OrderStatusBatchRequest(ids, "SHIPPED", "packer"));
+
+        logger.info("Shipping {} orders: {} statements prepared", ORDERS, statistics.getPrepareStatementCount());
+        assertTrue(results.stream().allMatch(result -> OrderStatusResult.UPDATED.equals(result.getOutcome())));
+        assertTrue(statistics.getPrepareStatementCount() <= 10);
+        assertEquals(ORDERS, stockReservationRepository.findByStatus(StockReservation.CONSUMED).size());
+        assertEquals(10000 - ORDERS, productRepository.findQuantityById(firstProduct).orElseThrow());
+        logger.info("Test passed: wave shipped with set-based statements.");
+    }
+
+    // Canceling puts the units back with one update per product and rejects moves the table forbids
+    @Test
+    void updateOrderStatuses_Cancel_RestocksPerProduct() {
+        List<Long> ids = orderIds();
+        orderService.updateOrderStatuses(new OrderStatusBatchRequest(ids.subList(0, 10), "SHIPPED", "packer"));
+
+        List<Long> request = new ArrayList<>(ids.subList(0, 20));
+        request.add(-1L);
+        List<OrderStatusResult> canceled = orderService.updateOrderStatuses(new OrderStatusBatchRequest(request, "CANCELED", "packer"));
+        List<OrderStatusResult> shipped = orderService.updateOrderStatuses(new OrderStatusBatchRequest(ids.subList(0, 1), "SHIPPED", "packer"));
+
+        Map<String, Long> outcomes = canceled.stream()
+                .collect(Collectors.groupingBy(OrderStatusResult::getOutcome, Collectors.counting()));
+        assertEquals(Map.of(OrderStatusResult.UPDATED, 20L, OrderStatusResult.NOT_FOUND, 1L), outcomes);
+        assertEquals(OrderStatusResult.REJECTED, shipped.get(0).getOutcome());
+        // Shipped or not, each of the 20 canceled orders of 2 units comes back
+        assertEquals(2 * (10000 - ORDERS) + 40, productRepository.findQuantityById(firstProduct).orElseThrow()
+                + productRepository.findQuantityById(secondProduct).orElseThrow());
+        assertEquals(10, stockReservationRepository.findByStatus(StockReservation.RELEASED).size());
+        logger.info("Test passed: canceled orders restocked per product.");
+    }
+
+    // Cancelling by ID deletes each chunk with one statement and puts the held units back per product
+    @Test
+    void cancelOrders_ById_UsesSetBasedStatements() {
+        List<Long> ids = new ArrayList<>(orderIds());
+        ids.add(-1L);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderCancelResult result = orderService.cancelOrders(ids);
+
+        logger.info("Canceling {} orders: {} statements prepared", ORDERS, statistics.getPrepareStatementCount());
+        assertEquals(new OrderCancelResult(ORDERS + 1, ORDERS, 1, ORDERS, 2L * ORDERS), result);
+        assertTrue(statistics.getPrepareStatementCount() <= 16);
+        assertEquals(0, orderRepository.count());
+        assertEquals(10000, productRepository.findQuantityById(firstProduct).orElseThrow());
+        assertEquals(10000, productRepository.findQuantityById(secondProduct).orElseThrow());
+        logger.info("Test passed: orders canceled by ID with set-based statements.");
+    }
+
+    // Cancelling by filter leaves the orders that do not match, and shipped units stay out
+    @Test
+    void cancelOrders_ByFilter_CancelsOnlyMatches() {
+        List<Long> ids = orderIds();
+        orderService.updateOrderStatuses(new OrderStatusBatchRequest(ids.subList(0, 10), "SHIPPED", "packer"));
+
+        OrderCancelResult result = orderService.cancelOrdersMatching("PROCESSING", "packer");
+
+        assertEquals(new OrderCancelResult(ORDERS - 10, ORDERS - 10, 0, ORDERS - 10, 2L * (ORDERS - 10)), result);
+        assertEquals(10, orderRepository.count());
+        assertEquals(2 * 10000 - 20, productRepository.findQuantityById(firstProduct).orElseThrow()
+                + productRepository.findQuantityById(secondProduct).orElseThrow());
+        logger.info("Test passed: only matching orders canceled.");
+    }
+
+    // An order cannot be placed as canceled, as its units could never come back
+    @Test
+    void createOrder_Canceled_LeavesStockUntouched() {
+        int before = productRepository.findQuantityById(firstProduct).orElseThrow();
+        com.inventory.inventory_management.model.Order order = new com.inventory.inventory_management.model.Order();
+        order.setProductId(firstProduct);
+        order.setQuantity(3);
+        order.setStatus("CANCELED");
+        order.setUser("packer");
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(order));
+
+        assertEquals(before, productRepository.findQuantityById(firstProduct).orElseThrow());
+        assertEquals(ORDERS, orderRepository.count());
+        logger.info("Test passed: canceled order refused without taking stock.");
+    }
+
+    private List<Long> orderIds() {
+        return orderRepository.findAll().stream().map(com.inventory.inventory_management.entities.Order::getId).sorted().toList();
+    }
+
+    private Long product(int quantity) {
+        return productRepository.save(Product.builder()
+                .name("Wave Product " + productRepository.count())
+                .description("Bulk status product")
+                .price(2.5)
+                .quantity(quantity)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,78 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.service.PasswordHasher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasherTest.class);
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.stop();
+    }
+
+    // Hashing and checking run on the pool, and a hash at another cost needs rehashing
+    @Test
+    void encodeAndMatches_OnThePool() {
+        passwordHasher = passwordHasher(new BCryptPasswordEncoder(4), 4, 2, 8);
+
+        String hash = passwordHasher.encode("secret").join();
+
+        assertTrue(passwordHasher.isHashed(hash));
+        assertFalse(passwordHasher.needsRehash(hash));
+        assertTrue(passwordHasher.matches("secret", hash).join());
+        assertFalse(passwordHasher.matches("guess", hash).join());
+        assertTrue(passwordHasher.needsRehash(new BCryptPasswordEncoder(5).encode("secret")));
+        assertFalse(passwordHasher.isHashed("secret"));
+        assertTrue(passwordHasher.needsRehash("secret"));
+        logger.info("Test passed: passwords hashed and checked on the pool.");
+    }
+
+    // Once the threads and the queue are full, more work is refused straight away
+    @Test
+    void matches_RefusedWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slowEncoder = mock(PasswordEncoder.class);
+        when(slowEncoder.matches(any(), any())).thenAnswer(invocation -> release.await(10, TimeUnit.SECONDS));
+        passwordHasher = passwordHasher(slowEncoder, 10, 1, 1);
+
+        CompletableFuture<Boolean> running = passwordHasher.matches("a", "hash");
+        CompletableFuture<Boolean> queued = passwordHasher.matches("b", "hash");
+
+        assertThrows(PasswordHasher.HasherBusyException.class, () -> passwordHasher.matches("c", "hash"));
+        release.countDown();
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+        logger.info("Test passed: saturated pool refused work.");
+    }
+
+    static PasswordHasher passwordHasher(PasswordEncoder passwordEncoder, int strength, int threads, int queueCapacity) {
+        PasswordHasher passwordHasher = new PasswordHasher();
+        ReflectionTestUtils.setField(passwordHasher, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(passwordHasher, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(passwordHasher, "strength", strength);
+        ReflectionTestUtils.setField(passwordHasher, "threads", threads);
+        ReflectionTestUtils.setField(passwordHasher, "queueCapacity", queueCapacity);
+        passwordHasher.start();
+        return passwordHasher;
+    }
+}
@@ -1,25 +1,56 @@
 package com.inventory.inventory_management;
 
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.exception.StockBatchRejectedException;
+import com.inventory.inventory_management.exception.UserMismatchException;
+import com.inventory.inventory_management.exception.VersionConflictException;
+import com.inventory.inventory_management.model.LowStockItem;
+import com.inventory.inventory_management.model.StockBatchLine;
+import com.inventory.inventory_management.model.StockBatchRequest;
+import com.inventory.inventory_management.model.StockBatchResult;
+import com.inventory.inventory_management.model.StockChangedEvent;
 import com.inventory.inventory_management.model.Response;
 import com.inventory.inventory_management.model.User;
 import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockLevelView;
 import com.inventory.inventory_management.repository.UserRepository;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
 import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockEngine;
+import com.inventory.inventory_management.service.StockLevelCache;
 import com.inventory.inventory_management.util.StockMovement;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 class ProductServiceTest {
@@ -32,12 +63,37 @@ class ProductServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private StockJdbcRepository stockJdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ShardedStockService shardedStockService;
+
+    @Mock
+    private OptimisticRetry optimisticRetry;
+
+    @Mock
+    private StockLevelCache stockLevelCache;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
     @InjectMocks
     private ProductService productService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);  // Initialize mocks
+        // Run each retried operation once, directly
+        when(optimisticRetry.execute(anyString(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(optimisticRetry.execute(anyString(), anyInt(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(2)).get());
+        // Load every stock level read, as on a cache miss
+        when(stockLevelCache.get(any(), any())).thenAnswer(inv -> ((Function<Long, Integer>) inv.getArgument(1)).apply(inv.getArgument(0)));
+        when(stockLevelCache.getAll(any(), any())).thenAnswer(inv ->
+                ((Function<Collection<Long>, Map<Long, Integer>>) inv.getArgument(1)).apply(inv.getArgument(0)));
         logger.info("Test setup complete.");
     }
 
@@ -130,6 +186,7 @@ class ProductServiceTest {
         assertNotNull(savedProduct);
         assertEquals("Test Product", savedProduct.getName());  // Validate name
         assertEquals("Admin", savedProduct.getCreatedBy());  // Validate creator
+        verify(lowStockIndex).track(1L, 10, 0);  // New product tracked by the low-stock index
         logger.info("Test passed: Product added successfully with ID: {}", savedProduct.getId());
     }
 
@@ -174,22 +231,17 @@ class ProductServiceTest {
     void addStock_ProductExists_AddsStock() {
         logger.info("Running test: addStock_ProductExists_AddsStock");
 
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(10);
-
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
-            Product updatedProduct = invocation.getArgument(0);
-            updatedProduct.setQuantity(15);  // Simulate stock addition
-            return updatedProduct;
-        });
+        when(productRepository.incrementStock(1L, 5)).thenReturn(1);  // Simulate stock addition
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(15));
 
         StockMovement stockResponse = productService.addStock(1L, 5);
 
         assertNotNull(stockResponse);
         assertEquals("15", stockResponse.getStockLevel());  // Verify new stock level
-        verify(productRepository).save(any(Product.class));  // Ensure save was called
+        verify(productRepository).incrementStock(1L, 5);  // Ensure the atomic update was used
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof StockChangedEvent changed
+                && changed.getDelta() == 5 && StockMovementRecord.ADD.equals(changed.getReason())));  // Movement journaled
         logger.info("Test passed: Stock added successfully, new stock level: {}", stockResponse.getStockLevel());
     }
 
@@ -198,7 +250,7 @@ class ProductServiceTest {
     void addStock_ProductDoesNotExist_ThrowsException() {
         logger.info("Running test: addStock_ProductDoesNotExist_ThrowsException");
 
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());  // Mock product not found
+        when(productRepository.incrementStock(1L, 5)).thenReturn(0);  // Mock product not found
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.addStock(1L, 5));
         assertEquals("Product not found", exception.getMessage());  // Validate exception message
@@ -210,52 +262,117 @@ class ProductServiceTest {
     void removeStock_ProductExists_RemovesStock() {
         logger.info("Running test: removeStock_ProductExists_RemovesStock");
 
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(10);
-
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
-            Product updatedProduct = invocation.getArgument(0);
-            updatedProduct.setQuantity(5);  // Simulate stock removal
-            return updatedProduct;
-        });
+        when(productRepository.decrementStock(1L, 5)).thenReturn(1);  // Simulate stock removal
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(5));
 
         StockMovement stockResponse = productService.removeStock(1L, 5);
 
         assertNotNull(stockResponse);
         assertEquals("5", stockResponse.getStockLevel());  // Verify new stock level
-        verify(productRepository).save(any(Product.class));  // Ensure save was called
+        verify(productRepository).decrementStock(1L, 5);  // Ensure the atomic update was used
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof StockChangedEvent changed
+                && changed.getDelta() == -5 && StockMovementRecord.REMOVE.equals(changed.getReason())));  // Movement journaled
         logger.info("Test passed: Stock removed successfully, new stock level: {}", stockResponse.getStockLevel());
     }
 
+    // Test for removing more stock than is available
+    @Test
+    void removeStock_InsufficientStock_ThrowsException() {
+        logger.info("Running test: removeStock_InsufficientStock_ThrowsException");
+
+        when(productRepository.decrementStock(1L, 50)).thenReturn(0);  // Conditional update did not apply
+        when(productRepository.findShardCountById(1L)).thenReturn(Optional.of(0));  // Exists and is not sharded
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.removeStock(1L, 50));
+        assertEquals("Insufficient stock", exception.getMessage());  // Validate exception message
+        verify(eventPublisher, never()).publishEvent(any(Object.class));  // Nothing moved, nothing journaled
+        logger.error("Test failed: Insufficient stock.");
+    }
+
     // Test for removing stock when product doesn't exist
     @Test
     void removeStock_ProductDoesNotExist_ThrowsException() {
         logger.info("Running test: removeStock_ProductDoesNotExist_ThrowsException");
 
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());  // Mock product not found
+        when(productRepository.decrementStock(1L, 5)).thenReturn(0);
+        when(productRepository.findShardCountById(1L)).thenReturn(Optional.empty());  // Mock product not found
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.removeStock(1L, 5));
         assertEquals("Product not found", exception.getMessage());  // Validate exception message
         logger.error("Test failed: Product not found.");
     }
 
+    // Test for removing stock from a sharded product, which must bypass the products row
+    @Test
+    void removeStock_ShardedProduct_UsesShards() {
+        logger.info("Running test: removeStock_ShardedProduct_UsesShards");
+
+        when(shardedStockService.isSharded(1L)).thenReturn(true);
+        when(shardedStockService.tryRemove(1L, 5)).thenReturn(true);
+        when(shardedStockService.getQuantity(1L)).thenReturn(95);
+
+        StockMovement stockResponse = productService.removeStock(1L, 5);
+
+        assertEquals("95", stockResponse.getStockLevel());  // Level is the sum of the shards
+        verify(productRepository, never()).decrementStock(anyLong(), anyInt());
+        logger.info("Test passed: sharded stock removed from the shards.");
+    }
+
+    // Test for a product sharded after the registry was read: the products row no longer matches
+    @Test
+    void removeStock_ShardedConcurrently_FallsBackToShards() {
+        logger.info("Running test: removeStock_ShardedConcurrently_FallsBackToShards");
+
+        when(productRepository.decrementStock(1L, 5)).thenReturn(0);  // Row is sharded now
+        when(productRepository.findShardCountById(1L)).thenReturn(Optional.of(8));
+        when(shardedStockService.tryRemove(1L, 5)).thenReturn(true);
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(95));
+
+        productService.removeStock(1L, 5);
+
+        verify(shardedStockService).tryRemove(1L, 5);
+        logger.info("Test passed: removal retried on the shards.");
+    }
+
+    // Test for an order whose transaction rolls back after the stock engine took its units
+    @Test
+    void tryDecrementStock_StockEngine_UndoneOnRollback() {
+        logger.info("Running test: tryDecrementStock_StockEngine_UndoneOnRollback");
+
+        StockEngine stockEngine = mock(StockEngine.class);
+        ReflectionTestUtils.setField(productService, "stockEngine", stockEngine);
+        when(stockEngine.tryRemove(1L, 5)).thenReturn(95);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(productService.tryDecrementStock(1L, 5, StockMovementRecord.ORDER_PLACED, "testUser"));
+            verify(stockEngine, never()).add(anyLong(), anyInt());
+
+            // The order insert fails, so the transaction rolls back
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(stockEngine).add(1L, 5);  // The units are back in the engine
+        logger.info("Test passed: engine decrement undone on rollback.");
+    }
+
     // Test for getting the stock level of a product
     @Test
     void getStockLevel_ProductExists_ReturnsStockLevel() {
         logger.info("Running test: getStockLevel_ProductExists_ReturnsStockLevel");
 
-        Product product = new Product();
-        product.setId(1L);
-        product.setQuantity(10);
-
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.of(10));  // Only the quantity is loaded
 
         StockMovement stockResponse = productService.getStockLevel(1L);
 
         assertNotNull(stockResponse);
         assertEquals("10", stockResponse.getStockLevel());  // Ensure correct stock level
+        verify(stockLevelCache).get(eq(1L), any());  // Served through the near cache
+        verify(productRepository, never()).findById(anyLong());
         logger.info("Test passed: Retrieved stock level for product ID 1: {}", stockResponse.getStockLevel());
     }
 
@@ -264,7 +381,7 @@ class ProductServiceTest {
     void getStockLevel_ProductDoesNotExist_ThrowsException() {
         logger.info("Running test: getStockLevel_ProductDoesNotExist_ThrowsException");
 
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());  // Mock product not found
+        when(productRepository.findQuantityById(1L)).thenReturn(Optional.empty());  // Mock product not found
 
         RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.getStockLevel(1L));
         assertEquals("Product not found", exception.getMessage());  // Validate exception message
@@ -273,4 +390,315 @@ class ProductServiceTest {
 
 
 
+    // Test for a batch that skips bad lines and reports each line's outcome
+    @Test
+    void applyStockBatch_SkipInvalid_ReturnsPerLineResults() {
+        logger.info("Running test: applyStockBatch_SkipInvalid_ReturnsPerLineResults");
+
+        StockBatchRequest request = new StockBatchRequest(Arrays.asList(
+                new StockBatchLine(2L, -5),
+                new StockBatchLine(1L, 3),
+                new StockBatchLine(null, 1),
+                new StockBatchLine(1L, -100)), true);
+
+        when(stockJdbcRepository.applyDeltas(anyList())).thenReturn(new int[]{1, 0, 1});
+        when(productRepository.findExistingIds(any())).thenReturn(List.of(1L));
+
+        List<StockBatchResult> results = productService.applyStockBatch(request);
+
+        // Lines are executed in product ID order to avoid deadlocks
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockBatchLine>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockJdbcRepository).applyDeltas(captor.capture());
+        assertEquals(List.of(1L, 1L, 2L), captor.getValue().stream().map(StockBatchLine::getProductId).toList());
+
+        assertEquals(StockBatchResult.APPLIED, results.get(0).getStatus());
+        assertEquals(StockBatchResult.APPLIED, results.get(1).getStatus());
+        assertEquals(StockBatchResult.INVALID, results.get(2).getStatus());
+        assertEquals(StockBatchResult.REJECTED, results.get(3).getStatus());
+        assertEquals("Insufficient stock", results.get(3).getMessage());
+        logger.info("Test passed: batch applied with per-line results.");
+    }
+
+    // Test for an all-or-nothing batch with a line that cannot be applied
+    @Test
+    void applyStockBatch_AllOrNothing_RejectsWholeBatch() {
+        logger.info("Running test: applyStockBatch_AllOrNothing_RejectsWholeBatch");
+
+        StockBatchRequest request = new StockBatchRequest(Arrays.asList(
+                new StockBatchLine(1L, 3),
+                new StockBatchLine(9L, -1)), false);
+
+        when(stockJdbcRepository.applyDeltas(anyList())).thenReturn(new int[]{1, 0});
+        when(productRepository.findExistingIds(any())).thenReturn(List.of());
+
+        StockBatchRejectedException exception = assertThrows(StockBatchRejectedException.class,
+                () -> productService.applyStockBatch(request));
+
+        assertEquals(StockBatchResult.NOT_APPLIED, exception.getResults().get(0).getStatus());
+        assertEquals(StockBatchResult.REJECTED, exception.getResults().get(1).getStatus());
+        assertEquals("Product not found", exception.getResults().get(1).getMessage());
+        logger.info("Test passed: batch rejected as a whole.");
+    }
+
+    // Test for a driver that keeps going after a failed line and reports it as EXECUTE_FAILED
+    @Test
+    void applyStockBatch_FailedLineCount_NotApplied() {
+        logger.info("Running test: applyStockBatch_FailedLineCount_NotApplied");
+
+        StockBatchRequest request = new StockBatchRequest(Arrays.asList(
+                new StockBatchLine(1L, 3),
+                new StockBatchLine(2L, -1)), true);
+
+        when(stockJdbcRepository.applyDeltas(anyList())).thenReturn(new int[]{1, Statement.EXECUTE_FAILED});
+        when(productRepository.findExistingIds(any())).thenReturn(List.of(2L));
+
+        List<StockBatchResult> results = productService.applyStockBatch(request);
+
+        assertEquals(StockBatchResult.APPLIED, results.get(0).getStatus());
+        assertEquals(StockBatchResult.REJECTED, results.get(1).getStatus());
+        verify(eventPublisher, times(1)).publishEvent(any(StockChangedEvent.class));  // Only the applied line is journaled
+        logger.info("Test passed: failed line reported as rejected.");
+    }
+
+    // Test for an all-or-nothing batch with an invalid line, which never reaches the database
+    @Test
+    void applyStockBatch_AllOrNothing_InvalidLineSkipsDatabase() {
+        logger.info("Running test: applyStockBatch_AllOrNothing_InvalidLineSkipsDatabase");
+
+        StockBatchRequest request = new StockBatchRequest(Arrays.asList(
+                new StockBatchLine(1L, 3),
+                new StockBatchLine(2L, 0)), false);
+
+        assertThrows(StockBatchRejectedException.class, () -> productService.applyStockBatch(request));
+        verify(stockJdbcRepository, never()).applyDeltas(anyList());
+        logger.info("Test passed: invalid batch rejected before any update.");
+    }
+
+
+    // An unconditional update runs under the retry policy and saves the new values
+    @Test
+    void updateInventory_Unconditional_SavesThroughRetry() {
+        logger.info("Running test: updateInventory_Unconditional_SavesThroughRetry");
+
+        Product product = Product.builder().id(1L).price(10.0).quantity(5).version(2L).build();
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(new User()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(product)).thenReturn(product);
+
+        Response response = productService.updateInventory(1L, 20.0, null, "admin");
+
+        assertEquals("success", response.getStatus());
+        assertEquals(20.0, product.getPrice());
+        verify(optimisticRetry).execute(eq("updateInventory"), any());
+        logger.info("Test passed: unconditional update saved through the retry policy.");
+    }
+
+    // A conditional update naming an old version is rejected without saving or retrying
+    @Test
+    void updateInventory_StaleExpectedVersion_ThrowsVersionConflict() {
+        logger.info("Running test: updateInventory_StaleExpectedVersion_ThrowsVersionConflict");
+
+        Product product = Product.builder().id(1L).price(10.0).quantity(5).version(4L).build();
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(new User()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        VersionConflictException exception = assertThrows(VersionConflictException.class,
+                () -> productService.updateInventory(1L, 20.0, null, "admin", 3L));
+
+        assertEquals(4L, exception.getCurrentVersion());
+        verify(optimisticRetry).execute(eq("updateInventory"), eq(1), any());
+        verify(productRepository, never()).saveAndFlush(any());
+        logger.info("Test passed: stale conditional update rejected.");
+    }
+
+    // An update naming a user other than the authenticated one is refused as such, not wrapped
+    @Test
+    void updateInventory_OtherUser_ThrowsUserMismatch() {
+        logger.info("Running test: updateInventory_OtherUser_ThrowsUserMismatch");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+        try {
+            assertThrows(UserMismatchException.class, () -> productService.updateInventory(1L, 20.0, null, "other", null));
+            verify(productRepository, never()).findById(any());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        logger.info("Test passed: update for another user refused.");
+    }
+
+    // A conflict at save time on a conditional update is reported as a version conflict
+    @Test
+    void updateInventory_ConflictOnConditionalSave_ThrowsVersionConflict() {
+        logger.info("Running test: updateInventory_ConflictOnConditionalSave_ThrowsVersionConflict");
+
+        Product product = Product.builder().id(1L).price(10.0).quantity(5).version(3L).build();
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(new User()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(product))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        assertThrows(VersionConflictException.class,
+                () -> productService.updateInventory(1L, 20.0, null, "admin", 3L));
+        logger.info("Test passed: conflicting conditional save reported as a version conflict.");
+    }
+
+    // With the stock engine, a save that fails its version check leaves the engine quantity alone
+    @Test
+    void updateInventory_StockEngine_ConflictLeavesEngineUnchanged() {
+        logger.info("Running test: updateInventory_StockEngine_ConflictLeavesEngineUnchanged");
+
+        StockEngine stockEngine = mock(StockEngine.class);
+        ReflectionTestUtils.setField(productService, "stockEngine", stockEngine);
+        Product product = Product.builder().id(1L).price(10.0).quantity(5).version(3L).build();
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(new User()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(product))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        assertThrows(VersionConflictException.class,
+                () -> productService.updateInventory(1L, null, 40, "admin", 3L));
+
+        verify(stockEngine, never()).set(anyLong(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+        logger.info("Test passed: engine untouched by the failed update.");
+    }
+
+    // With the stock engine, the quantity is set after the save and journaled as an adjustment
+    @Test
+    void updateInventory_StockEngine_SetsAfterSaveAndJournals() {
+        logger.info("Running test: updateInventory_StockEngine_SetsAfterSaveAndJournals");
+
+        StockEngine stockEngine = mock(StockEngine.class);
+        ReflectionTestUtils.setField(productService, "stockEngine", stockEngine);
+        Product product = Product.builder().id(1L).price(10.0).quantity(5).version(3L).build();
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(new User()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(product)).thenReturn(product);
+        when(stockEngine.set(1L, 40)).thenReturn(25);
+
+        Response response = productService.updateInventory(1L, null, 40, "admin");
+
+        assertEquals("success", response.getStatus());
+        assertEquals(40, ((Product) response.getData()).getQuantity());
+        ArgumentCaptor<StockChangedEvent> event = ArgumentCaptor.forClass(StockChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(15, event.getValue().getDelta());  // From the engine's quantity, not the row's
+        assertEquals(StockMovementRecord.ADJUST, event.getValue().getReason());
+        logger.info("Test passed: engine set after save and adjustment journaled.");
+    }
+
+    // A long ID list is read in IN-list chunks and returned in request order, without unknown IDs
+    @Test
+    void getStockLevels_ChunksLargeIdLists() {
+        logger.info("Running test: getStockLevels_ChunksLargeIdLists");
+
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(productRepository.findStockLevelsByIdIn(any())).thenAnswer(inv -> {
+            List<Long> chunk = inv.getArgument(0);
+            return chunk.stream().filter(id -> id % 2 == 0).map(id -> stockLevel(id, (int) (id * 10))).toList();
+        });
+
+        Map<Long, Integer> levels = productService.getStockLevels(ids);
+
+        assertEquals(1250, levels.size());  // Odd IDs do not exist
+        assertEquals(20, levels.get(2L));
+        assertEquals(2L, levels.keySet().iterator().next());  // Request order kept
+        verify(productRepository, times(3)).findStockLevelsByIdIn(argThat(chunk -> chunk.size() <= 1000));
+        logger.info("Test passed: stock levels read in chunks.");
+    }
+
+    // Sharded products report the sum of their shards, not the copy in the products row
+    @Test
+    void getStockLevels_ShardedProductsUseShardTotals() {
+        logger.info("Running test: getStockLevels_ShardedProductsUseShardTotals");
+
+        when(productRepository.findStockLevelsByIdIn(any())).thenReturn(List.of(stockLevel(1L, 5), stockLevel(2L, 40)));
+        when(shardedStockService.isSharded(2L)).thenReturn(true);
+        when(shardedStockService.getQuantities(List.of(2L))).thenReturn(Map.of(2L, 37));
+
+        assertEquals(Map.of(1L, 5, 2L, 37), productService.getStockLevels(List.of(1L, 2L)));
+        logger.info("Test passed: shard totals used for sharded products.");
+    }
+
+    // Oversized requests are rejected before any query runs
+    @Test
+    void getStockLevels_TooManyIds_ThrowsException() {
+        logger.info("Running test: getStockLevels_TooManyIds_ThrowsException");
+
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, ProductService.MAX_STOCK_LEVEL_IDS + 1).boxed().toList();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.getStockLevels(ids));
+        verify(productRepository, never()).findStockLevelsByIdIn(any());
+        logger.info("Test passed: oversized request rejected.");
+    }
+
+    // Setting a reorder threshold saves it and re-ranks the product in the low-stock index
+    @Test
+    void setReorderThreshold_SavesAndUpdatesIndex() {
+        logger.info("Running test: setReorderThreshold_SavesAndUpdatesIndex");
+        Product product = new Product();
+        product.setId(1L);
+        when(userRepository.findByUsername("Admin")).thenReturn(Optional.of(new User()));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(product)).thenReturn(product);
+
+        Product updated = productService.setReorderThreshold(1L, 15, "Admin");
+
+        assertEquals(15, updated.getReorderThreshold());
+        assertEquals("Admin", updated.getUpdatedBy());
+        verify(lowStockIndex).setThreshold(1L, 15);
+        logger.info("Test passed: reorder threshold saved and indexed.");
+    }
+
+    // A negative threshold is rejected before touching the database
+    @Test
+    void setReorderThreshold_Negative_Throws() {
+        logger.info("Running test: setReorderThreshold_Negative_Throws");
+
+        assertThrows(IllegalArgumentException.class, () -> productService.setReorderThreshold(1L, -1, "Admin"));
+
+        verify(productRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(lowStockIndex);
+        logger.info("Test passed: negative threshold rejected.");
+    }
+
+    // An unknown user is rejected instead of being recorded as the updater
+    @Test
+    void setReorderThreshold_UnknownUser_Throws() {
+        logger.info("Running test: setReorderThreshold_UnknownUser_Throws");
+        when(userRepository.findByUsername("ghost")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> productService.setReorderThreshold(1L, 5, "ghost"));
+
+        verify(productRepository, never()).saveAndFlush(any());
+        logger.info("Test passed: unknown user rejected.");
+    }
+
+    // Low-stock listings come from the index, within the allowed limit
+    @Test
+    void getLowStock_ReadsIndex() {
+        logger.info("Running test: getLowStock_ReadsIndex");
+        List<LowStockItem> items = List.of(new LowStockItem(1L, 2, 10, 8));
+        when(lowStockIndex.getLowStock(50)).thenReturn(items);
+
+        assertEquals(items, productService.getLowStock(50));
+        assertThrows(IllegalArgumentException.class, () -> productService.getLowStock(0));
+        assertThrows(IllegalArgumentException.class, () -> productService.getLowStock(ProductService.MAX_LOW_STOCK_RESULTS + 1));
+        logger.info("Test passed: low-stock listing read from the index.");
+    }
+
+    private static StockLevelView stockLevel(Long id, int quantity) {
+        return new StockLevelView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getQuantity() {
+                return quantity;
+            }
+        };
+    }
 }
@@ -4,8 +4,8 @@ import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.inventory.inventory_management.controller.ReportController;
-import com.inventory.inventory_management.entities.Order;
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.OrderView;
 import com.inventory.inventory_management.model.Response;
 import com.inventory.inventory_management.service.ReportService;
 import jakarta.servlet.http.HttpServletResponse;
@@ -64,9 +64,9 @@ public class ReportControllerTest {
     @Test
     public void getOrderReport_InternalServerError() {
         // Simulate exception thrown by reportService
-        when(reportService.getOrderReport()).thenThrow(new RuntimeException("Database error"));
+        when(reportService.getOrderReport(null, null)).thenThrow(new RuntimeException("Database error"));
 
-        ResponseEntity<Response> responseEntity = reportController.getOrderReport();
+        ResponseEntity<Response> responseEntity = reportController.getOrderReport(null, null);
 
         // Assert expected HTTP response code and message
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
@@ -128,10 +128,10 @@ public class ReportControllerTest {
     // Test for successfully fetching order report
     @Test
     public void getOrderReport_Success() {
-        List<Order> orders = List.of(new Order(), new Order());  // Create mock order list
-        when(reportService.getOrderReport()).thenReturn(orders);  // Simulate successful report fetch
+        List<OrderView> orders = List.of(new OrderView(), new OrderView());  // Create mock order list
+        when(reportService.getOrderReport(null, null)).thenReturn(orders);  // Simulate successful report fetch
 
-        ResponseEntity<Response> responseEntity = reportController.getOrderReport();
+        ResponseEntity<Response> responseEntity = reportController.getOrderReport(null, null);
 
         // Assert expected HTTP response code and message
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -1,9 +1,11 @@
 package com.inventory.inventory_management;
 
-import com.inventory.inventory_management.entities.Order;
 import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.model.OrderView;
+import com.inventory.inventory_management.repository.ArchivedOrderRepository;
 import com.inventory.inventory_management.repository.OrderRepository;
 import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.service.OrderArchiver;
 import com.inventory.inventory_management.service.ReportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
@@ -31,6 +33,12 @@ class ReportServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Mock
+    private OrderArchiver orderArchiver;
+
     @InjectMocks
     private ReportService reportService;
 
@@ -81,14 +89,14 @@ class ReportServiceTest {
     // Test exporting order report with one order
     @Test
     void exportOrderReportToExcel_CreatesExcelFile() throws IOException {
-        Order order = new Order();
+        OrderView order = new OrderView();
         order.setId(1L);
         order.setQuantity(5);
         order.setTotalPrice(500.0);
         order.setStatus("NEW");
         order.setCreatedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
-        when(orderRepository.findAll()).thenReturn(List.of(order));
+        when(orderRepository.findAllViews(any(), any())).thenReturn(List.of(order));
 
         logger.info("Testing order export with a single order...");
         String filePath = reportService.exportOrderReportToExcel();
@@ -132,21 +140,21 @@ class ReportServiceTest {
     // Test for multiple orders in order report export
     @Test
     void exportOrderReportToExcel_MultipleOrders_CreatesExcelFileWithMultipleEntries() throws IOException {
-        Order order1 = new Order();
+        OrderView order1 = new OrderView();
         order1.setId(1L);
         order1.setQuantity(5);
         order1.setTotalPrice(500.0);
         order1.setStatus("NEW");
         order1.setCreatedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
-        Order order2 = new Order();
+        OrderView order2 = new OrderView();
         order2.setId(2L);
         order2.setQuantity(10);
         order2.setTotalPrice(1000.0);
         order2.setStatus("SHIPPED");
         order2.setCreatedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
-        when(orderRepository.findAll()).thenReturn(List.of(order1, order2));
+        when(orderRepository.findAllViews(any(), any())).thenReturn(List.of(order1, order2));
 
         logger.info("Testing order export with multiple orders...");
         String filePath = reportService.exportOrderReportToExcel();
@@ -161,7 +169,7 @@ class ReportServiceTest {
     // Test exporting order report when no orders are present
     @Test
     void exportOrderReportToExcel_NoOrders_ReturnsEmptyFile() throws IOException {
-        when(orderRepository.findAll()).thenReturn(List.of());
+        when(orderRepository.findAllViews(any(), any())).thenReturn(List.of());
 
         logger.info("Testing order export with no data...");
         String filePath = reportService.exportOrderReportToExcel();
@@ -211,17 +219,17 @@ class ReportServiceTest {
     // Test getOrderReport returns list of orders
     @Test
     void getOrderReport_OrdersPresent_ReturnsOrderList() {
-        Order order = new Order();
+        OrderView order = new OrderView();
         order.setId(1L);
         order.setQuantity(5);
         order.setTotalPrice(500.0);
         order.setStatus("NEW");
         order.setCreatedAt(new java.sql.Timestamp(System.currentTimeMillis()));
 
-        when(orderRepository.findAll()).thenReturn(List.of(order));
+        when(orderRepository.findAllViews(any(), any())).thenReturn(List.of(order));
 
         logger.info("Testing fetching order report with one order...");
-        List<Order> orders = reportService.getOrderReport();
+        List<OrderView> orders = reportService.getOrderReport(null, null);
 
         assertNotNull(orders);
         assertEquals(1, orders.size());
@@ -245,11 +253,11 @@ class ReportServiceTest {
     // Test exception is thrown if orderRepository throws error
     @Test
     void getOrderReport_RepositoryThrowsException_ThrowsException() {
-        when(orderRepository.findAll()).thenThrow(new RuntimeException("Database error"));
+        when(orderRepository.findAllViews(any(), any())).thenThrow(new RuntimeException("Database error"));
 
         logger.info("Testing order report exception handling...");
         Exception exception = assertThrows(RuntimeException.class, () -> {
-            reportService.getOrderReport();
+            reportService.getOrderReport(null, null);
         });
 
         assertEquals("Database error", exception.getMessage());
@@ -0,0 +1,114 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockShardRepository;
+import com.inventory.inventory_management.service.ShardedStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Throughput benchmark of concurrent stock removals on one hot product at 1, 8 and 64 shards.
+ * Excluded from the default build; run it with {@code mvn test -Pbenchmark}. Point
+ * spring.datasource.url at a MySQL schema to measure real InnoDB row-lock contention.
+ */
+@Tag("benchmark")
+@DataJpaTest(showSql = false, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shardbench;LOCK_TIMEOUT=30000",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ShardedStockService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedStockBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedStockBenchmarkTest.class);
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 200;
+    private static final int INITIAL_STOCK = THREADS * ATTEMPTS_PER_THREAD;
+
+    @Autowired
+    private ShardedStockService shardedStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @BeforeEach
+    void setUp() {
+        stockShardRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @ParameterizedTest(name = "{0} shards")
+    @ValueSource(ints = {1, 8, 64})
+    void tryRemove_Throughput(int shards) throws Exception {
+        Long productId = productRepository.save(Product.builder()
+                .name("Benchmark Product " + shards)
+                .description("Sharded stock benchmark")
+                .price(10.0)
+                .quantity(INITIAL_STOCK)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build()).getId();
+        shardedStockService.reshard(productId, shards);
+
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                    if (shardedStockService.tryRemove(productId, 1)) {
+                        sold.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        logger.info("Sharded stock: shards={}, threads={}, sold={}, ops/sec={}", shards, THREADS, sold.get(),
+                (long) INITIAL_STOCK * TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsed));
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(0, shardedStockService.getQuantity(productId));
+    }
+}
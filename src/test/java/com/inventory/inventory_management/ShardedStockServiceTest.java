@@ -0,0 +1,227 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockShard;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockShardRepository;
+import com.inventory.inventory_management.service.ShardedStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for sharded stock, run against an in-memory H2 database so that
+ * the conditional shard updates and shard locks are exercised for real.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(ShardedStockService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedStockServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedStockServiceTest.class);
+
+    @Autowired
+    private ShardedStockService shardedStockService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        stockShardRepository.deleteAll();
+        productRepository.deleteAll();
+        productId = productRepository.save(Product.builder()
+                .name("Hot Product")
+                .description("Promotion product")
+                .price(10.0)
+                .quantity(100)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build()).getId();
+    }
+
+    // Sharding spreads the existing stock evenly and takes the products row out of the unsharded path
+    @Test
+    void reshard_SplitsStockEvenly() {
+        shardedStockService.reshard(productId, 8);
+
+        List<Integer> shards = stockShardRepository.findByProductIdOrderByShardIndex(productId).stream().map(StockShard::getQuantity).toList();
+        assertEquals(List.of(13, 13, 13, 13, 12, 12, 12, 12), shards);
+        assertTrue(shardedStockService.isSharded(productId));
+        assertEquals(0, (int) transactionTemplate.execute(status -> productRepository.decrementStock(productId, 1)));  // Products row no longer sells
+        logger.info("Test passed: stock split across shards.");
+    }
+
+    // Shard totals of several products come back from one grouped query
+    @Test
+    void getQuantities_SumsShardsPerProduct() {
+        shardedStockService.reshard(productId, 4);
+        transactionTemplate.executeWithoutResult(status -> shardedStockService.tryRemove(productId, 7));
+
+        assertEquals(java.util.Map.of(productId, 93), shardedStockService.getQuantities(List.of(productId, -1L)));
+        logger.info("Test passed: shard totals summed per product.");
+    }
+
+    // Concurrent removals must sell exactly the available units across all shards
+    @Test
+    void tryRemove_ConcurrentCallers_NeverOversell() throws Exception {
+        shardedStockService.reshard(productId, 8);
+
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 20; j++) {
+                    if (shardedStockService.tryRemove(productId, 1)) {
+                        sold.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(100, sold.get());
+        assertEquals(0, shardedStockService.getQuantity(productId));
+        logger.info("Test passed: sold exactly the available stock across shards.");
+    }
+
+    // When no single shard holds enough, the units are gathered from several shards
+    @Test
+    void tryRemove_SpreadOverShards_GathersUnits() {
+        shardedStockService.reshard(productId, 4);  // 25 per shard
+
+        assertTrue(shardedStockService.tryRemove(productId, 60));
+        assertEquals(40, shardedStockService.getQuantity(productId));
+        assertFalse(shardedStockService.tryRemove(productId, 41));
+        assertEquals(40, shardedStockService.getQuantity(productId));
+    }
+
+    // The search for a shard with enough units starts at the given index and wraps around below it
+    @Test
+    void lockAvailableShard_SearchesFromStartThenWraps() {
+        shardedStockService.reshard(productId, 4);  // 25 per shard
+        List<StockShard> shards = stockShardRepository.findByProductIdOrderByShardIndex(productId);
+        shards.forEach(shard -> shard.setQuantity(shard.getShardIndex() == 1 ? 70 : 10));
+        stockShardRepository.saveAll(shards);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(stockShardRepository.lockAvailableShardFrom(productId, 30, 2).isEmpty());
+            assertEquals(1, stockShardRepository.lockAvailableShardBefore(productId, 30, 2).orElseThrow().getShardIndex());
+            assertEquals(1, stockShardRepository.lockAvailableShardFrom(productId, 30, 0).orElseThrow().getShardIndex());
+        });
+        assertTrue(shardedStockService.tryRemove(productId, 30));
+        assertEquals(List.of(10, 40, 10, 10), stockShardRepository.findByProductIdOrderByShardIndex(productId).stream()
+                .map(StockShard::getQuantity).toList());
+        logger.info("Test passed: shard search wrapped around to the only shard with enough units.");
+    }
+
+    // A shard lookup locks only the shard it returns, so a concurrent lookup moves on to the next one
+    @Test
+    void lockAvailableShard_ConcurrentLookups_TakeDifferentShards() throws Exception {
+        shardedStockService.reshard(productId, 4);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            assertEquals(0, stockShardRepository.lockAvailableShardFrom(productId, 1, 0).orElseThrow().getShardIndex());
+            locked.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            assertTrue(locked.await(30, TimeUnit.SECONDS));
+            transactionTemplate.executeWithoutResult(status -> assertEquals(1,
+                    stockShardRepository.lockAvailableShardFrom(productId, 1, 0).orElseThrow().getShardIndex()));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        holder.get(30, TimeUnit.SECONDS);
+        logger.info("Test passed: a concurrent lookup skipped only the shard held by the other transaction.");
+    }
+
+    // Rebalancing evens out skewed shards and copies the total into the products row
+    @Test
+    void rebalance_EvensShardsAndSyncsProduct() {
+        shardedStockService.reshard(productId, 4);
+        assertTrue(shardedStockService.tryRemove(productId, 20));
+
+        shardedStockService.rebalance();
+
+        List<Integer> shards = stockShardRepository.findByProductIdOrderByShardIndex(productId).stream().map(StockShard::getQuantity).toList();
+        assertEquals(List.of(20, 20, 20, 20), shards);
+        assertEquals(80, productRepository.findQuantityById(productId).orElseThrow());
+    }
+
+    // A rebalance with nothing to move leaves the product's version alone, so optimistic writers are not failed
+    @Test
+    void rebalance_NothingMoved_KeepsVersion() {
+        shardedStockService.reshard(productId, 4);
+        shardedStockService.rebalance();
+        long version = productRepository.findById(productId).orElseThrow().getVersion();
+
+        shardedStockService.rebalance();
+
+        assertEquals(version, productRepository.findById(productId).orElseThrow().getVersion());
+    }
+
+    // Collapsing the shards puts the stock back into the products row
+    @Test
+    void reshard_ToZero_CollapsesShards() {
+        shardedStockService.reshard(productId, 8);
+        shardedStockService.add(productId, 7);
+
+        shardedStockService.reshard(productId, 0);
+
+        assertFalse(shardedStockService.isSharded(productId));
+        assertEquals(0, stockShardRepository.count());
+        assertEquals(107, productRepository.findQuantityById(productId).orElseThrow());
+        assertEquals(1, (int) transactionTemplate.execute(status -> productRepository.decrementStock(productId, 1)));
+    }
+}
@@ -1,16 +1,33 @@
 package com.inventory.inventory_management;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.inventory.inventory_management.controller.StockController;
+import com.inventory.inventory_management.exception.StockBatchRejectedException;
 import com.inventory.inventory_management.model.Response;
+import com.inventory.inventory_management.model.StockBatchLine;
+import com.inventory.inventory_management.model.StockBatchRequest;
+import com.inventory.inventory_management.model.StockBatchResult;
+import com.inventory.inventory_management.model.StockAvailability;
+import com.inventory.inventory_management.model.StockMovementPage;
+import com.inventory.inventory_management.service.IdempotencyService;
 import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.StockJournal;
+import com.inventory.inventory_management.service.StockReservationService;
+import com.inventory.inventory_management.service.StockStreamService;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +45,19 @@ class StockControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private StockJournal stockJournal;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private StockStreamService stockStreamService;
+
+    // Real store: requests without a key pass straight through
+    @Spy
+    private IdempotencyService idempotencyService = new IdempotencyService();
+
     @InjectMocks
     private StockController stockController;
 
@@ -43,7 +73,7 @@ class StockControllerTest {
         when(productService.addStock(productId, quantity)).thenThrow(new RuntimeException("Database error"));
         logger.info("Testing addStock() with simulated service failure");
 
-        ResponseEntity<Response> responseEntity = stockController.addStock(productId, quantity);
+        ResponseEntity<Response> responseEntity = stockController.addStock(productId, quantity, null);
 
         // Assert the error response
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
@@ -65,7 +95,7 @@ class StockControllerTest {
         when(productService.removeStock(productId, quantity)).thenThrow(new RuntimeException("Database error"));
         logger.info("Testing removeStock() with simulated service failure");
 
-        ResponseEntity<Response> responseEntity = stockController.removeStock(productId, quantity);
+        ResponseEntity<Response> responseEntity = stockController.removeStock(productId, quantity, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
         assertEquals("Error", responseEntity.getBody().getStatus());
@@ -106,7 +136,7 @@ class StockControllerTest {
         when(productService.addStock(productId, quantity)).thenThrow(new RuntimeException("Product not found"));
         logger.info("Testing addStock() with non-existent product");
 
-        ResponseEntity<Response> responseEntity = stockController.addStock(productId, quantity);
+        ResponseEntity<Response> responseEntity = stockController.addStock(productId, quantity, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
         assertEquals("Error", responseEntity.getBody().getStatus());
@@ -127,7 +157,7 @@ class StockControllerTest {
         when(productService.removeStock(productId, quantity)).thenThrow(new RuntimeException("Product not found"));
         logger.info("Testing removeStock() with non-existent product");
 
-        ResponseEntity<Response> responseEntity = stockController.removeStock(productId, quantity);
+        ResponseEntity<Response> responseEntity = stockController.removeStock(productId, quantity, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, responseEntity.getStatusCode());
         assertEquals("Error", responseEntity.getBody().getStatus());
@@ -156,4 +186,160 @@ class StockControllerTest {
 
         logger.info("getStockLevel() with missing product handled correctly");
     }
+
+    /**
+     * Test case for an all-or-nothing stock batch that is rejected.
+     */
+    @Test
+    void applyStockBatch_Rejected_ReturnsConflict() {
+        StockBatchRequest request = new StockBatchRequest(List.of(new StockBatchLine(1L, -5)), false);
+        List<StockBatchResult> results = List.of(new StockBatchResult(0, 1L, -5, StockBatchResult.REJECTED, "Insufficient stock"));
+
+        when(productService.applyStockBatch(request)).thenThrow(new StockBatchRejectedException("Stock batch rejected", results));
+        logger.info("Testing applyStockBatch() with a rejected batch");
+
+        ResponseEntity<Response> responseEntity = stockController.applyStockBatch(request, null);
+
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        assertEquals("Error", responseEntity.getBody().getStatus());
+        assertEquals(results, responseEntity.getBody().getData());
+
+        logger.info("applyStockBatch() rejection handled correctly");
+    }
+
+    /**
+     * Test case for a stock batch retried with the same Idempotency-Key.
+     */
+    @Test
+    void applyStockBatch_RetrySameKey_AppliedOnce() {
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", new ObjectMapper());
+        idempotencyService.init();
+        StockBatchRequest request = new StockBatchRequest(List.of(new StockBatchLine(1L, 5)), false);
+        List<StockBatchResult> results = List.of(new StockBatchResult(0, 1L, 5, StockBatchResult.APPLIED, null));
+
+        when(productService.applyStockBatch(request)).thenReturn(results);
+        logger.info("Testing applyStockBatch() retried with the same Idempotency-Key");
+
+        ResponseEntity<Response> first = stockController.applyStockBatch(request, "batch-1");
+        ResponseEntity<Response> retry = stockController.applyStockBatch(request, "batch-1");
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(HttpStatus.OK, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(productService, times(1)).applyStockBatch(request);
+
+        logger.info("applyStockBatch() retry replayed the first response");
+    }
+
+    /**
+     * Test case for retrieving a page of stock movements.
+     */
+    @Test
+    void getStockMovements_ReturnsPage() {
+        StockMovementPage page = new StockMovementPage(List.of(), "1700000000000-42");
+
+        when(stockJournal.getMovements(1L, null, null, null, 50)).thenReturn(page);
+        logger.info("Testing getStockMovements() with a valid request");
+
+        ResponseEntity<Response> responseEntity = stockController.getStockMovements(1L, null, null, null, 50);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(page, responseEntity.getBody().getData());
+
+        logger.info("getStockMovements() returned the page correctly");
+    }
+
+    /**
+     * Test case for a malformed movement cursor.
+     */
+    @Test
+    void getStockMovements_InvalidCursor_ReturnsBadRequest() {
+        when(stockJournal.getMovements(1L, null, null, "garbage", 50)).thenThrow(new IllegalArgumentException("Invalid cursor"));
+        logger.info("Testing getStockMovements() with an invalid cursor");
+
+        ResponseEntity<Response> responseEntity = stockController.getStockMovements(1L, null, null, "garbage", 50);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertEquals("Invalid cursor", responseEntity.getBody().getData());
+
+        logger.info("getStockMovements() rejected the invalid cursor");
+    }
+
+    /**
+     * Test case for an out-of-range shard count.
+     */
+    @Test
+    void setStockShards_InvalidCount_ReturnsBadRequest() {
+        when(productService.setStockShards(1L, 1000)).thenThrow(new IllegalArgumentException("Shard count must be between 0 and 256"));
+        logger.info("Testing setStockShards() with an invalid shard count");
+
+        ResponseEntity<Response> responseEntity = stockController.setStockShards(1L, 1000);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertEquals("Shard count must be between 0 and 256", responseEntity.getBody().getData());
+
+        logger.info("setStockShards() rejected the invalid shard count");
+    }
+
+    /**
+     * Test case for reading the available and reserved units of a product.
+     */
+    @Test
+    void getStockAvailability_ReturnsCounters() {
+        StockAvailability availability = new StockAvailability(1L, 8, 2);
+        when(stockReservationService.getAvailability(1L)).thenReturn(availability);
+        logger.info("Testing getStockAvailability()");
+
+        ResponseEntity<Response> responseEntity = stockController.getStockAvailability(1L);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(availability, responseEntity.getBody().getData());
+
+        logger.info("getStockAvailability() returned the counters");
+    }
+
+    /**
+     * Test case for reading several stock levels at once.
+     */
+    @Test
+    void getStockLevels_ReturnsIdToQuantityMap() {
+        when(productService.getStockLevels(List.of(1L, 2L))).thenReturn(Map.of(1L, 5, 2L, 7));
+        logger.info("Testing getStockLevels()");
+
+        ResponseEntity<Response> responseEntity = stockController.getStockLevels(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(Map.of(1L, 5, 2L, 7), responseEntity.getBody().getData());
+
+        logger.info("getStockLevels() returned the levels");
+    }
+
+    /**
+     * Test case for an ID list above the limit.
+     */
+    @Test
+    void postStockLevels_TooManyIds_ReturnsBadRequest() {
+        when(productService.getStockLevels(anyList())).thenThrow(new IllegalArgumentException("At most 10000 product IDs can be requested at once"));
+        logger.info("Testing postStockLevels() with too many IDs");
+
+        ResponseEntity<Response> responseEntity = stockController.postStockLevels(List.of(1L));
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+
+        logger.info("postStockLevels() rejected the oversized request");
+    }
+
+    /**
+     * Test case for opening a filtered stock change stream.
+     */
+    @Test
+    void streamStockChanges_SubscribesWithFilter() {
+        SseEmitter emitter = new SseEmitter();
+        when(stockStreamService.subscribe(List.of(1L, 2L))).thenReturn(emitter);
+        logger.info("Testing streamStockChanges()");
+
+        assertSame(emitter, stockController.streamStockChanges(List.of(1L, 2L)));
+
+        logger.info("streamStockChanges() returned the subscriber's emitter");
+    }
 }
@@ -0,0 +1,181 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.StockEngineCheckpoint;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockEngineCheckpointRepository;
+import com.inventory.inventory_management.repository.StockLevelView;
+import com.inventory.inventory_management.service.StockEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the in-memory stock engine and its write-ahead log recovery.
+ */
+class StockEngineTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockEngineTest.class);
+
+    @TempDir
+    Path walDirectory;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockEngineCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<StockEngine> engines = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepository.findAllStockLevels()).thenReturn(List.of(stockLevel(1L, 10)));
+        when(checkpointRepository.findById(1)).thenReturn(Optional.empty());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        logger.info("Test setup complete.");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (StockEngine engine : engines) {
+            ReflectionTestUtils.invokeMethod(ReflectionTestUtils.getField(engine, "writeAheadLog"), "close");
+        }
+    }
+
+    // Concurrent removals must never take more than the available stock
+    @Test
+    void tryRemove_ConcurrentCallers_NeverOversell() throws Exception {
+        StockEngine engine = startEngine();
+
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 10; j++) {
+                    if (engine.tryRemove(1L, 1) >= 0) {
+                        sold.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10, sold.get());
+        assertEquals(0, engine.getQuantity(1L));
+        logger.info("Test passed: sold exactly the available stock.");
+    }
+
+    // Flushing writes one aggregated delta per product and advances the checkpoint
+    @Test
+    void flush_AppliesAggregatedDeltasAndCheckpoint() throws Exception {
+        StockEngine engine = startEngine();
+
+        engine.add(1L, 5);
+        engine.tryRemove(1L, 3);
+        engine.tryRemove(1L, 1);
+        engine.flush();
+
+        verify(productRepository, times(1)).incrementStock(1L, 1);
+        verify(checkpointRepository).save(argThat(checkpoint -> checkpoint.getLastSequence() == 3));
+        assertEquals(11, engine.getQuantity(1L));
+        logger.info("Test passed: deltas flushed as a single update.");
+    }
+
+    // A restart replays the log records that were never flushed
+    @Test
+    void recover_ReplaysUnflushedRecords() throws Exception {
+        StockEngine first = startEngine();
+        first.add(1L, 5);
+        first.tryRemove(1L, 2);
+
+        // Simulate a crash: the table still holds 10 and no checkpoint was written
+        StockEngine second = startEngine();
+
+        assertEquals(13, second.getQuantity(1L));
+        second.flush();
+        verify(productRepository, times(1)).incrementStock(1L, 3);
+        logger.info("Test passed: unflushed records replayed on restart.");
+    }
+
+    // Records covered by the checkpoint are already in the table and must not be applied twice
+    @Test
+    void recover_SkipsRecordsCoveredByCheckpoint() throws Exception {
+        StockEngine first = startEngine();
+        first.add(1L, 5);
+        first.add(1L, 4);
+
+        when(productRepository.findAllStockLevels()).thenReturn(List.of(stockLevel(1L, 15)));
+        when(checkpointRepository.findById(1)).thenReturn(Optional.of(new StockEngineCheckpoint(1, 1L)));
+        StockEngine second = startEngine();
+
+        assertEquals(19, second.getQuantity(1L));
+        logger.info("Test passed: checkpointed records skipped on restart.");
+    }
+
+    // Products created after startup are loaded on first use
+    @Test
+    void getQuantity_UnknownProduct_LoadsFromDatabase() throws Exception {
+        StockEngine engine = startEngine();
+        when(productRepository.findQuantityById(2L)).thenReturn(Optional.of(7));
+        when(productRepository.findQuantityById(3L)).thenReturn(Optional.empty());
+
+        assertEquals(7, engine.getQuantity(2L));
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> engine.getQuantity(3L));
+        assertEquals("Product not found", exception.getMessage());
+    }
+
+    private StockEngine startEngine() throws Exception {
+        StockEngine engine = new StockEngine();
+        ReflectionTestUtils.setField(engine, "productRepository", productRepository);
+        ReflectionTestUtils.setField(engine, "checkpointRepository", checkpointRepository);
+        ReflectionTestUtils.setField(engine, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(engine, "walDirectory", walDirectory.toString());
+        engine.recover();
+        engines.add(engine);
+        return engine;
+    }
+
+    private static StockLevelView stockLevel(Long id, int quantity) {
+        return new StockLevelView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.model.StockMovementPage;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockMovementRecordRepository;
+import com.inventory.inventory_management.service.StockJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the stock movement journal: buffered batch inserts and keyset paging,
+ * run against an in-memory H2 database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({StockJournal.class, StockJdbcRepository.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockJournalTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournalTest.class);
+
+    private static final long BASE_TIME = 1_700_000_000_000L;
+
+    @Autowired
+    private StockJournal stockJournal;
+
+    @Autowired
+    private StockMovementRecordRepository stockMovementRecordRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        stockJournal.flush();
+        stockMovementRecordRepository.deleteAll();
+    }
+
+    // Buffered movements reach the table only when flushed
+    @Test
+    void onStockChanged_BuffersUntilFlush() {
+        stockJournal.onStockChanged(event(1L, 5, 0));
+        stockJournal.onStockChanged(event(1L, -2, 1));
+
+        assertEquals(0, stockMovementRecordRepository.count());
+        stockJournal.flush();
+
+        assertEquals(2, stockMovementRecordRepository.count());
+        logger.info("Test passed: buffered movements written on flush.");
+    }
+
+    // Once the buffer is full, further movements are dropped and counted rather than written inline
+    @Test
+    void onStockChanged_FullBuffer_DropsAndCounts() {
+        ReflectionTestUtils.setField(stockJournal, "capacity", 2);
+        try {
+            stockJournal.onStockChanged(event(1L, 1, 0));
+            stockJournal.onStockChanged(event(1L, 2, 1));
+            stockJournal.onStockChanged(event(1L, 3, 2));
+
+            assertEquals(0, stockMovementRecordRepository.count());  // Nothing is written on the caller's thread
+            assertEquals(1.0, meterRegistry.counter("inventory.stock_journal.dropped").count());
+
+            stockJournal.flush();
+            assertEquals(2, stockMovementRecordRepository.count());
+        } finally {
+            ReflectionTestUtils.setField(stockJournal, "capacity", 10000);
+        }
+        logger.info("Test passed: overflow dropped and counted.");
+    }
+
+    // Reads do not flush, so buffered movements appear after the next flush
+    @Test
+    void getMovements_DoesNotFlush() {
+        stockJournal.onStockChanged(event(1L, 5, 0));
+
+        assertTrue(stockJournal.getMovements(1L, null, null, null, 10).getMovements().isEmpty());
+        stockJournal.flush();
+        assertEquals(1, stockJournal.getMovements(1L, null, null, null, 10).getMovements().size());
+    }
+
+    // Walking the cursor returns every movement in the range exactly once, in the order written
+    @Test
+    void getMovements_KeysetPagesCoverRange() {
+        for (int i = 0; i < 7; i++) {
+            stockJournal.onStockChanged(event(1L, i + 1, i / 2));  // Pairs share a timestamp
+        }
+        stockJournal.onStockChanged(event(2L, 100, 0));  // Another product, never returned
+        stockJournal.flush();
+
+        List<Integer> deltas = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            StockMovementPage page = stockJournal.getMovements(1L, new Timestamp(BASE_TIME), null, cursor, 3);
+            page.getMovements().forEach(movement -> deltas.add(movement.getDelta()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7), deltas);
+        assertEquals(3, pages);
+        logger.info("Test passed: keyset pages covered the range in order.");
+    }
+
+    // A movement written late with an older time, as after a failed flush, still shows up behind the cursor
+    @Test
+    void getMovements_LateOlderMovement_NotSkipped() {
+        for (int i = 1; i <= 4; i++) {
+            stockJournal.onStockChanged(event(1L, i, i * 10));
+        }
+        stockJournal.flush();
+        StockMovementPage first = stockJournal.getMovements(1L, null, null, null, 2);
+
+        stockJournal.onStockChanged(event(1L, 5, 5));
+        stockJournal.flush();
+        StockMovementPage rest = stockJournal.getMovements(1L, null, null, first.getNextCursor(), 10);
+
+        assertEquals(List.of(1, 2), first.getMovements().stream().map(StockMovementRecord::getDelta).toList());
+        assertEquals(List.of(3, 4, 5), rest.getMovements().stream().map(StockMovementRecord::getDelta).toList());
+        assertNull(rest.getNextCursor());
+        logger.info("Test passed: late movement returned after the cursor.");
+    }
+
+    // The time range bounds the movements returned
+    @Test
+    void getMovements_RespectsTimeRange() {
+        stockJournal.onStockChanged(event(1L, 1, 0));
+        stockJournal.onStockChanged(event(1L, 2, 10));
+        stockJournal.onStockChanged(event(1L, 3, 20));
+        stockJournal.flush();
+
+        StockMovementPage page = stockJournal.getMovements(1L,
+                new Timestamp(BASE_TIME + 10), new Timestamp(BASE_TIME + 20), null, 10);
+
+        assertEquals(1, page.getMovements().size());
+        assertEquals(2, page.getMovements().get(0).getDelta());
+        assertNull(page.getNextCursor());
+    }
+
+    // A malformed cursor is rejected
+    @Test
+    void getMovements_InvalidCursor_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> stockJournal.getMovements(1L, null, null, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> stockJournal.getMovements(1L, null, null, null, 0));
+    }
+
+    private static StockChangedEvent event(Long productId, int delta, long offsetMillis) {
+        return new StockChangedEvent(productId, delta, StockMovementRecord.ADD, "tester",
+                new Timestamp(BASE_TIME + offsetMillis));
+    }
+}
@@ -0,0 +1,157 @@
+package com.inventory.inventory_management;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.service.StockLevelCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the stock level near cache and its write handling.
+ */
+class StockLevelCacheTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockLevelCacheTest.class);
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private StockLevelCache stockLevelCache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private int databaseQuantity = 10;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stockLevelCache = new StockLevelCache();
+        ReflectionTestUtils.setField(stockLevelCache, "meterRegistry", meterRegistry);
+        stockLevelCache.init();
+        logger.info("Test setup complete.");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Repeated reads are served from the cache and counted as hits
+    @Test
+    void get_SecondReadIsHit() {
+        assertEquals(10, stockLevelCache.get(1L, this::load));
+        assertEquals(10, stockLevelCache.get(1L, this::load));
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "stockLevels").tag("result", "hit").functionCounter().count());
+        logger.info("Test passed: second read served from the cache.");
+    }
+
+    // A committed change is applied to the entry, so the next read is correct without a load
+    @Test
+    void onStockChanged_Committed_UpdatesEntry() {
+        stockLevelCache.get(1L, this::load);
+
+        List<TransactionSynchronization> synchronizations = write(1L, -3);
+        databaseQuantity = 7;
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(7, stockLevelCache.get(1L, this::load));
+        assertEquals(1, loads.get());
+        logger.info("Test passed: committed change applied to the entry.");
+    }
+
+    // A rolled back change leaves the entry alone
+    @Test
+    void onStockChanged_RolledBack_KeepsEntry() {
+        stockLevelCache.get(1L, this::load);
+
+        complete(write(1L, -3), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(10, stockLevelCache.get(1L, this::load));
+        logger.info("Test passed: rolled back change ignored.");
+    }
+
+    // A value loaded while a write was in flight is returned but not cached
+    @Test
+    void get_DuringInFlightWrite_NotCached() {
+        List<TransactionSynchronization> synchronizations = write(1L, 5);
+
+        assertEquals(10, stockLevelCache.get(1L, this::load));
+        databaseQuantity = 15;
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(15, stockLevelCache.get(1L, this::load));
+        assertEquals(2, loads.get());
+        logger.info("Test passed: overlapping load not cached.");
+    }
+
+    // The write state of a product no longer written is dropped once idle for the TTL
+    @Test
+    void onStockChanged_SettledWriteStateExpires() throws Exception {
+        ReflectionTestUtils.setField(stockLevelCache, "ttlMillis", 50L);
+        stockLevelCache.init();
+
+        complete(write(1L, 5), TransactionSynchronization.STATUS_COMMITTED);
+        Cache<?, ?> writeStates = (Cache<?, ?>) ReflectionTestUtils.getField(stockLevelCache, "writeStates");
+        assertEquals(1, writeStates.asMap().size());
+
+        Thread.sleep(100);
+        writeStates.cleanUp();
+
+        assertEquals(0, writeStates.asMap().size());
+        logger.info("Test passed: idle write state dropped.");
+    }
+
+    private Integer load(Long productId) {
+        loads.incrementAndGet();
+        return databaseQuantity;
+    }
+
+    private List<TransactionSynchronization> write(Long productId, int delta) {
+        TransactionSynchronizationManager.initSynchronization();
+        stockLevelCache.onStockChanged(new StockChangedEvent(productId, delta, "TEST", "tester",
+                new Timestamp(System.currentTimeMillis())));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        return synchronizations;
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    // A multi-get loads only the products missing from the cache, in one call
+    @Test
+    void getAll_LoadsOnlyMisses() {
+        stockLevelCache.get(1L, this::load);
+        List<Collection<Long>> requested = new ArrayList<>();
+
+        Map<Long, Integer> levels = stockLevelCache.getAll(List.of(1L, 2L, 3L), ids -> {
+            requested.add(ids);
+            return Map.of(2L, 20);  // Product 3 does not exist
+        });
+
+        assertEquals(Map.of(1L, 10, 2L, 20), levels);
+        assertEquals(List.of(List.of(2L, 3L)), requested);
+        assertEquals(20, stockLevelCache.get(2L, this::load));  // Now cached
+        logger.info("Test passed: only misses loaded.");
+    }
+}
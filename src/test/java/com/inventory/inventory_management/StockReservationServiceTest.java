@@ -0,0 +1,193 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.Order;
+import com.inventory.inventory_management.entities.Product;
+import com.inventory.inventory_management.entities.StockMovementRecord;
+import com.inventory.inventory_management.entities.StockReservation;
+import com.inventory.inventory_management.model.StockAvailability;
+import com.inventory.inventory_management.repository.OrderRepository;
+import com.inventory.inventory_management.repository.ProductRepository;
+import com.inventory.inventory_management.repository.StockJdbcRepository;
+import com.inventory.inventory_management.repository.StockReservationRepository;
+import com.inventory.inventory_management.service.LowStockIndex;
+import com.inventory.inventory_management.service.OptimisticRetry;
+import com.inventory.inventory_management.service.ProductService;
+import com.inventory.inventory_management.service.ShardedStockService;
+import com.inventory.inventory_management.service.StockLevelCache;
+import com.inventory.inventory_management.service.StockReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for stock reservations and their expiry, run against an in-memory H2 database.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "inventory.reservations.expiry-enabled=true",
+        "inventory.reservations.cancel-on-expiry=true",
+        "inventory.reservations.ttl-ms=100",
+        "inventory.reservations.tick-ms=20"
+})
+@Import({StockReservationService.class, ProductService.class, ShardedStockService.class,
+        StockJdbcRepository.class, OptimisticRetry.class, StockLevelCache.class, LowStockIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationServiceTest.class);
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        stockReservationRepository.deleteAll();
+        orderRepository.deleteAll();
+        productRepository.deleteAll();
+        product = productRepository.save(Product.builder()
+                .name("Reserved Product")
+                .description("Reservation test product")
+                .price(10.0)
+                .quantity(10)
+                .createdBy("tester")
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .build());
+    }
+
+    // Placing an order moves units from available to reserved; expiry moves them back and cancels the order
+    @Test
+    void expireDue_ReleasesExpiredReservation() throws Exception {
+        Order order = placeOrder(2);
+        assertEquals(new StockAvailability(product.getId(), 8, 2), stockReservationService.getAvailability(product.getId()));
+
+        Thread.sleep(150);
+        stockReservationService.expireDue();
+
+        assertEquals(new StockAvailability(product.getId(), 10, 0), stockReservationService.getAvailability(product.getId()));
+        assertEquals("CANCELED", orderRepository.findById(order.getId()).orElseThrow().getStatus());
+        assertEquals(StockReservation.RELEASED, stockReservationRepository.findByOrderId(order.getId()).orElseThrow().getStatus());
+        logger.info("Test passed: expired reservation released.");
+    }
+
+    // Without cancel-on-expiry the order stays processing, and shipping it takes the units again
+    @Test
+    void expireDue_WithoutCancelOnExpiry_ShipReclaimsUnits() throws Exception {
+        ReflectionTestUtils.setField(stockReservationService, "cancelOnExpiry", false);
+        try {
+            Order order = placeOrder(2);
+
+            Thread.sleep(150);
+            stockReservationService.expireDue();
+
+            assertEquals(10, productService.currentQuantity(product.getId()));
+            assertEquals("PROCESSING", orderRepository.findById(order.getId()).orElseThrow().getStatus());
+
+            transactionTemplate.executeWithoutResult(status -> stockReservationService.consume(order.getId(), "tester"));
+
+            assertEquals(8, productService.currentQuantity(product.getId()));
+            assertEquals(StockReservation.CONSUMED, stockReservationRepository.findByOrderId(order.getId()).orElseThrow().getStatus());
+        } finally {
+            ReflectionTestUtils.setField(stockReservationService, "cancelOnExpiry", true);
+        }
+        logger.info("Test passed: expired order kept and its units reclaimed on shipping.");
+    }
+
+    // A consumed reservation no longer expires and its units stay sold
+    @Test
+    void consume_StopsExpiry() throws Exception {
+        Order order = placeOrder(3);
+        transactionTemplate.executeWithoutResult(status -> stockReservationService.consume(order.getId(), "tester"));
+
+        Thread.sleep(150);
+        stockReservationService.expireDue();
+
+        assertEquals(new StockAvailability(product.getId(), 7, 0), stockReservationService.getAvailability(product.getId()));
+        assertEquals("PROCESSING", orderRepository.findById(order.getId()).orElseThrow().getStatus());
+        logger.info("Test passed: consumed reservation kept its units.");
+    }
+
+    // Releasing twice, as a cancellation racing the expiry would, restocks only once
+    @Test
+    void release_Twice_RestocksOnce() {
+        Order order = placeOrder(4);
+
+        for (int i = 0; i < 2; i++) {
+            Boolean released = transactionTemplate.execute(status ->
+                    stockReservationService.release(order.getId(), StockMovementRecord.ORDER_CANCELED, "tester"));
+            assertEquals(Boolean.TRUE, released);
+        }
+
+        assertEquals(10, productService.currentQuantity(product.getId()));
+        assertThrows(RuntimeException.class, () ->
+                transactionTemplate.executeWithoutResult(status -> stockReservationService.consume(order.getId(), "tester")));
+        logger.info("Test passed: double release restocked once.");
+    }
+
+    // Active reservations are reloaded on startup and the ones that ran out while down expire on the first tick
+    @Test
+    void loadReservations_ReloadsActiveReservations() throws Exception {
+        Order order = placeOrder(2);
+        stockReservationRepository.save(stockReservationRepository.findByOrderId(order.getId()).map(reservation -> {
+            reservation.setExpiresAt(new Timestamp(System.currentTimeMillis() - 1000));
+            return reservation;
+        }).orElseThrow());
+
+        stockReservationService.loadReservations();
+        assertEquals(2, stockReservationService.getReservedQuantity(product.getId()));
+
+        Thread.sleep(50);  // The next tick
+        stockReservationService.expireDue();
+        assertEquals(10, productService.currentQuantity(product.getId()));
+        logger.info("Test passed: reloaded reservation expired.");
+    }
+
+    private Order placeOrder(int quantity) {
+        return transactionTemplate.execute(status -> {
+            assertTrue(productService.tryDecrementStock(product.getId(), quantity, StockMovementRecord.ORDER_PLACED, "tester"));
+            Order order = orderRepository.save(Order.builder()
+                    .productId(productRepository.findById(product.getId()).orElseThrow())
+                    .quantity(quantity)
+                    .status("PROCESSING")
+                    .createdBy("tester")
+                    .createdAt(new Timestamp(System.currentTimeMillis()))
+                    .build());
+            stockReservationService.hold(order);
+            return order;
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.model.StockChangedEvent;
+import com.inventory.inventory_management.model.StockLevelUpdate;
+import com.inventory.inventory_management.service.StockStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the stock change stream, its coalescing and its slow subscriber handling.
+ */
+class StockStreamServiceTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockStreamServiceTest.class);
+
+    private StockStreamService stockStreamService;
+
+    @BeforeEach
+    void setUp() {
+        stockStreamService = new StockStreamService();
+        ReflectionTestUtils.setField(stockStreamService, "bufferSize", 2);
+        stockStreamService.init();
+        logger.info("Test setup complete.");
+    }
+
+    @AfterEach
+    void tearDown() {
+        stockStreamService.shutdown();
+    }
+
+    // A burst of changes to one product reaches a subscriber as a single folded event
+    @Test
+    void publish_CoalescesBurstIntoOneEvent() throws Exception {
+        SseEmitter emitter = subscribe(List.of());
+
+        stockStreamService.onStockChanged(change(1L, -2, 1000));
+        stockStreamService.onStockChanged(change(1L, -3, 3000));
+        stockStreamService.onStockChanged(change(1L, 10, 2000));
+        stockStreamService.publish();
+
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000).times(1)).send(events.capture());
+        StockLevelUpdate update = update(events.getValue());
+        assertEquals(1L, update.getProductId());
+        assertEquals(5, update.getDelta());
+        assertEquals(3, update.getChanges());
+        assertEquals(new Timestamp(3000), update.getChangedAt());
+        logger.info("Test passed: burst folded into one event.");
+    }
+
+    // Subscribers only receive the products they follow
+    @Test
+    void publish_AppliesProductFilter() throws Exception {
+        SseEmitter filtered = subscribe(List.of(2L));
+        SseEmitter everything = subscribe(List.of());
+
+        stockStreamService.onStockChanged(change(1L, -1, 1000));
+        stockStreamService.publish();
+
+        verify(everything, timeout(1000).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(filtered, never()).send(any(SseEmitter.SseEventBuilder.class));
+        logger.info("Test passed: product filter applied.");
+    }
+
+    // A subscriber whose buffer fills up is disconnected instead of holding up the publisher
+    @Test
+    void publish_DisconnectsSlowSubscriber() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SseEmitter slow = mock(SseEmitter.class);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(slow).send(any(SseEmitter.SseEventBuilder.class));
+        ReflectionTestUtils.invokeMethod(stockStreamService, "register", slow, List.of());
+
+        // The first update occupies the sender thread, the next two fill the buffer and the last one overflows it
+        stockStreamService.onStockChanged(change(1L, -1, 1000));
+        stockStreamService.publish();
+        assertTrue(sending.await(1, TimeUnit.SECONDS));
+        for (long productId = 2; productId <= 4; productId++) {
+            stockStreamService.onStockChanged(change(productId, -1, 1000));
+            stockStreamService.publish();
+        }
+
+        assertEquals(0, stockStreamService.getSubscriberCount());
+        release.countDown();
+        verify(slow, timeout(1000)).complete();
+        verify(slow, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        logger.info("Test passed: slow subscriber disconnected.");
+    }
+
+    private SseEmitter subscribe(List<Long> productIds) {
+        SseEmitter emitter = mock(SseEmitter.class);
+        ReflectionTestUtils.invokeMethod(stockStreamService, "register", emitter, productIds);
+        return emitter;
+    }
+
+    private static StockChangedEvent change(Long productId, int delta, long occurredAt) {
+        return new StockChangedEvent(productId, delta, "ADJUSTMENT", "tester", new Timestamp(occurredAt));
+    }
+
+    private static StockLevelUpdate update(SseEmitter.SseEventBuilder event) {
+        for (ResponseBodyEmitter.DataWithMediaType data : event.build()) {
+            if (data.getData() instanceof StockLevelUpdate update) {
+                return update;
+            }
+        }
+        throw new AssertionError("Event carries no stock update");
+    }
+}
@@ -0,0 +1,93 @@
+package com.inventory.inventory_management;
+
+import com.inventory.inventory_management.entities.RevokedToken;
+import com.inventory.inventory_management.repository.RevokedTokenRepository;
+import com.inventory.inventory_management.service.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Token revocation against an in-memory H2 database: revocations here apply at once, those
+ * written by other instances apply on reload, and expired ones are dropped.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({TokenRevocationList.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationListTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationListTest.class);
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokenRepository.deleteAll();
+        tokenRevocationList.reload();
+    }
+
+    // A token revoked here is refused at once, and stays revoked across reloads
+    @Test
+    void revoke_AppliesAtOnce() {
+        tokenRevocationList.revoke("jti-1", "alice", in(60_000));
+
+        assertTrue(tokenRevocationList.isRevoked("jti-1"));
+        assertFalse(tokenRevocationList.isRevoked("jti-2"));
+        assertFalse(tokenRevocationList.isRevoked(null));
+        tokenRevocationList.reload();
+        assertTrue(tokenRevocationList.isRevoked("jti-1"));
+        assertTrue(revokedTokenRepository.existsById("jti-1"));
+        logger.info("Test passed: revocation applied at once and kept on reload.");
+    }
+
+    // Only the first of two revocations of the same token succeeds, even when the other instance got there first
+    @Test
+    void revoke_SameTokenTwice_OnlyFirstSucceeds() {
+        assertTrue(tokenRevocationList.revoke("jti-once", "alice", in(60_000)));
+        assertFalse(tokenRevocationList.revoke("jti-once", "alice", in(60_000)));
+
+        revokedTokenRepository.save(new RevokedToken("jti-elsewhere", "bob", in(60_000), in(0)));
+        assertFalse(tokenRevocationList.revoke("jti-elsewhere", "bob", in(60_000)));
+        assertTrue(tokenRevocationList.isRevoked("jti-elsewhere"));
+        assertFalse(tokenRevocationList.revoke(null, "alice", in(60_000)));
+        assertFalse(tokenRevocationList.revoke("jti-expired", "alice", in(-1_000)));
+        logger.info("Test passed: a token is revoked only once.");
+    }
+
+    // A revocation written by another instance applies on reload, and expired rows are dropped
+    @Test
+    void reload_PicksUpOtherInstancesAndDropsExpired() {
+        revokedTokenRepository.save(new RevokedToken("jti-other", "bob", in(60_000), in(0)));
+        revokedTokenRepository.save(new RevokedToken("jti-expired", "bob", in(-1_000), in(-60_000)));
+        assertFalse(tokenRevocationList.isRevoked("jti-other"));
+
+        tokenRevocationList.reload();
+
+        assertTrue(tokenRevocationList.isRevoked("jti-other"));
+        assertFalse(tokenRevocationList.isRevoked("jti-expired"));
+        assertFalse(revokedTokenRepository.existsById("jti-expired"));
+        logger.info("Test passed: other revocations loaded and expired ones dropped.");
+    }
+
+    private static Timestamp in(long millis) {
+        return new Timestamp(System.currentTimeMillis() + millis);
+    }
+}